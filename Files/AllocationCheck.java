@@ -0,0 +1,505 @@
+/**
+ * AllocationCheck.java - Headless check that steady-state frames allocate nothing
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import com.jogamp.opengl.GL2;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Every object allocated by a frame is garbage by the next, and at hundreds of frames per second
+ * even a few hundred bytes a frame keep the young generation churning, with the odd collection
+ * landing in the middle of a frame as a stutter. The render loop is meant to allocate nothing at
+ * all once warmed up, and this class, the allocation check mode of the program entered by passing
+ * <code>--allocations</code> to <code>Driver</code>, holds it to that.
+ * <br />
+ * <br />
+ * The check builds a scene through <code>SceneGenerator</code>, as <code>Benchmark</code> does,
+ * and renders it frame after frame through the very <code>FramePipeline</code> of
+ * <code>ScenePanel.SceneGLEventListener.display</code>: the frame timer, the frame cache at the
+ * render scale, the <code>SceneRenderer</code> itself, the recording of metrics, and the quality
+ * governor and render scale controller, after the animation has been advanced. Unless asked
+ * otherwise, the <code>MetricsServer</code> is started for the check on a free port, and scraped
+ * over and over by a thread of its own throughout the measured frames, such that both the
+ * recording of every frame and any contention with a scrape in progress are held to account.
+ * Rather than a real context, the frames are drawn
+ * into the <code>RecordingGL</code> stand-in, which only counts the calls made to it and allocates
+ * nothing itself, such that no driver's allocations are mistaken for the loop's. The camera
+ * turns a little every frame, so that the order of the draws changes as it would in use.
+ * <br />
+ * <br />
+ * The JIT compiler allocates on the thread whose code it compiles or deoptimizes, a few dozen bytes
+ * at a time, which has nothing to do with the loop. Once the warmup frames are done, frames are
+ * thus rendered until the total compilation time reported by the <code>CompilationMXBean</code>
+ * has stood still for <code>AllocationCheck.QUIET_FRAMES</code> frames in a row, up to
+ * <code>AllocationCheck.MAX_SETTLE_FRAMES</code> of them. The bytes allocated by the rendering
+ * thread are then read through <code>com.sun.management.ThreadMXBean</code> around every measured
+ * frame, and the compilation time after every frame, such that a frame allocating while the
+ * compiler was at work around it is reported as such and let pass. Classes only the loop uses are
+ * loaded up front, lest their loading be taken for its allocations. A compiled frame deoptimized
+ * without any compilation to show for it still rebuilds the objects escape analysis had done away
+ * with, all at once, so a single other frame allocating is reported but let pass too; allocations
+ * repeated in more than <code>AllocationCheck.FORGIVEN_FRAMES</code> frames fail the check, with
+ * exit status one, and the frames at fault are listed. Work spread over the common fork/join pool
+ * by a large <code>SceneAnimator</code> runs on other threads and is not counted, though handing
+ * it out is. The check is meant to be run without a flight recording, as each event of
+ * <code>FlightEvents</code> recorded is an object of its own.
+ * <br />
+ * <pre>
+ * Options (defaults in parentheses):
+ * - objects=N      number of generated objects (1000)
+ * - seed=S         seed of the generated scene (1)
+ * - shapes=NAME    builtin shape classes or parametric MeshGenerator shapes (builtin)
+ * - frames=F       number of measured frames (500)
+ * - warmup=W       number of unmeasured frames rendered first (3000)
+ * - width=X        surface width (640)
+ * - height=Y       surface height (480)
+ * - animate=B      whether every object carries a SceneAnimator track (true)
+ * - bake=B         whether to bake the lighting first, drawing vertex colors (if not animated)
+ * - metrics=B      whether the MetricsServer is started and scraped throughout (true)
+ * </pre>
+ *
+ * @see graphicsprojecttwo.RecordingGL
+ * @see graphicsprojecttwo.Benchmark
+ * @author Andrew Eissen
+ */
+final class AllocationCheck {
+
+  /** Most frames at fault listed in the report */
+  private final static int LISTED_FRAMES = 10;
+
+  /** Frames in a row without compilation after which the JIT compiler counts as settled */
+  private final static int QUIET_FRAMES = 500;
+
+  /** Most frames rendered past the warmup waiting for the JIT compiler to settle */
+  private final static int MAX_SETTLE_FRAMES = 20000;
+
+  /** Most frames allocating that are put down to the JIT compiler rather than the loop */
+  private final static int FORGIVEN_FRAMES = 1;
+
+  /** Pause between scrapes of the metrics, in milliseconds */
+  private final static long SCRAPE_INTERVAL_MS = 5;
+
+  // Class fields
+  private final int objects, frames, warmup, width, height;
+  private final long seed;
+  private final SceneGenerator.Shapes shapes;
+  private final boolean isAnimated, isBaked, isMetered;
+  private final long[] frameBytes, compileMs;
+  private final AtomicInteger scrapes;
+  private final CompilationMXBean compiler;
+  private int settleFrames;
+  private boolean isSettled;
+
+  /**
+   * Parameterized constructor
+   *
+   * @param options <code>Map</code> of option names to values, as parsed from the command line
+   */
+  private AllocationCheck(Map<String, String> options) {
+    this.objects = Integer.parseInt(options.getOrDefault("objects", "1000"));
+    this.seed = Long.parseLong(options.getOrDefault("seed", "1"));
+    this.shapes = SceneGenerator.parseShapes(options.getOrDefault("shapes", "builtin"));
+    this.frames = Integer.parseInt(options.getOrDefault("frames", "500"));
+    this.warmup = Integer.parseInt(options.getOrDefault("warmup", "3000"));
+    this.width = Integer.parseInt(options.getOrDefault("width", "640"));
+    this.height = Integer.parseInt(options.getOrDefault("height", "480"));
+    this.isAnimated = Boolean.parseBoolean(options.getOrDefault("animate", "true"));
+    this.isBaked = Boolean.parseBoolean(options.getOrDefault("bake",
+      String.valueOf(!this.isAnimated)));
+    this.isMetered = Boolean.parseBoolean(options.getOrDefault("metrics", "true"));
+    this.frameBytes = new long[Math.max(this.frames, 0)];
+    this.compileMs = new long[Math.max(this.frames, 0) + 1];
+    this.scrapes = new AtomicInteger();
+    this.compiler = AllocationCheck.getCompiler();
+    this.settleFrames = 0;
+    this.isSettled = false;
+
+    if (this.objects < 1 || this.frames < 1 || this.warmup < 0 || this.width < 1
+        || this.height < 1) {
+      throw new IllegalArgumentException("objects, frames, width, and height must be positive");
+    }
+
+    // Baked lighting would stay where the objects were
+    if (this.isAnimated && this.isBaked) {
+      throw new IllegalArgumentException("Animated objects cannot be baked; pass animate=false "
+        + "to check the drawing of baked colors");
+    }
+  }
+
+  // Utility methods
+
+  /**
+   * Entry point of the allocation check mode, called by <code>Driver.main</code> with the
+   * arguments following <code>--allocations</code>. Returns the process exit status: zero if no
+   * measured frame allocated, one if any did or the check could not be run, and two if the
+   * arguments were invalid.
+   *
+   * @param args <code>String[]</code> <code>key=value</code> options
+   * @return <code>int</code>
+   */
+  protected static int run(String[] args) {
+
+    // Declarations
+    Map<String, String> options;
+    AllocationCheck check;
+
+    options = new LinkedHashMap<>();
+
+    try {
+      for (String arg : args) {
+        if (arg.indexOf('=') < 1) {
+          throw new IllegalArgumentException("Expected key=value, got '" + arg + "'");
+        }
+
+        options.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+      }
+
+      check = new AllocationCheck(options);
+    } catch (IllegalArgumentException ex) {
+      System.err.println("Error: " + ex.getMessage());
+      System.err.println("Usage: --allocations [objects=N] [seed=S] "
+        + "[shapes=builtin|parametric] [frames=F] [warmup=W] [width=X] [height=Y] "
+        + "[animate=true|false] [bake=true|false] [metrics=true|false]");
+      return 2;
+    }
+
+    try {
+      check.execute();
+    } catch (IllegalStateException | UnsupportedOperationException ex) {
+      System.err.println("Error: " + ex);
+      return 1;
+    }
+
+    return check.report();
+  }
+
+  // Helper methods
+
+  /**
+   * Builds the scene, renders the warmup frames, then renders the measured frames, recording the
+   * bytes allocated by each.
+   *
+   * @return void
+   * @throws UnsupportedOperationException if allocations cannot be measured on this JVM
+   */
+  private void execute() {
+
+    // Declarations
+    com.sun.management.ThreadMXBean threads;
+    SceneGraph sceneGraph;
+    SceneAnimator sceneAnimator;
+    SceneCamera camera;
+    FramePipeline framePipeline;
+    InetSocketAddress address;
+    Thread scraper;
+    GL2 gl2;
+    long thread, before;
+
+    threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    if (!threads.isThreadAllocatedMemorySupported()) {
+      throw new UnsupportedOperationException("Thread allocation measurement not supported");
+    }
+
+    threads.setThreadAllocatedMemoryEnabled(true);
+    thread = Thread.currentThread().getId();
+
+    System.err.println("Generating " + this.objects + " objects (seed " + this.seed + ")");
+    sceneGraph = new SceneGraph();
+
+    for (SceneObject sceneObject : SceneGenerator.generate(this.objects, this.seed,
+        this.shapes)) {
+      sceneGraph.addObject(SceneGraph.NONE, sceneObject);
+    }
+
+    if (this.isBaked) {
+      System.err.println(LightBaker.bake(sceneGraph));
+    }
+
+    sceneAnimator = null;
+
+    if (this.isAnimated) {
+      sceneAnimator = new SceneAnimator(sceneGraph);
+      SceneGenerator.animate(sceneAnimator, sceneGraph.size(), this.seed);
+    }
+
+    address = (this.isMetered) ? MetricsServer.serve(0) : null;
+
+    if (this.isMetered && address == null) {
+      throw new IllegalStateException("Metrics server could not be started");
+    }
+
+    // Set up as in ScenePanel.SceneGLEventListener.init and reshape
+    gl2 = RecordingGL.getShared();
+    camera = new SceneCamera();
+    framePipeline = new FramePipeline();
+    framePipeline.init(gl2);
+    framePipeline.reshape(gl2, this.width, this.height);
+
+    for (int i = 0; i < this.warmup; i++) {
+      this.renderFrame(gl2, i, sceneGraph, sceneAnimator, camera, framePipeline);
+    }
+
+    // Loaded by the GUI long before, but here only should the JIT compiler recompile the loop
+    AllocationCheck.preload(SceneAnimator.class, FrameCapture.class);
+    this.settleCompilation(gl2, sceneGraph, sceneAnimator, camera, framePipeline);
+    RecordingGL.reset();
+    scraper = (address != null) ? this.startScraper(address) : null;
+
+    try {
+      this.compileMs[0] = this.getCompileMs();
+
+      for (int i = 0; i < this.frames; i++) {
+        before = threads.getThreadAllocatedBytes(thread);
+        this.renderFrame(gl2, this.warmup + this.settleFrames + i, sceneGraph, sceneAnimator,
+          camera, framePipeline);
+        this.frameBytes[i] = threads.getThreadAllocatedBytes(thread) - before;
+        this.compileMs[i + 1] = this.getCompileMs();
+      }
+    } finally {
+      if (scraper != null) {
+        scraper.interrupt();
+      }
+    }
+  }
+
+  /**
+   * Renders frames past the warmup until the JIT compiler has compiled nothing for
+   * <code>AllocationCheck.QUIET_FRAMES</code> frames in a row, or until
+   * <code>AllocationCheck.MAX_SETTLE_FRAMES</code> have been rendered. Does nothing if the JVM
+   * does not report its compilation time.
+   *
+   * @param gl2 <code>GL2</code>
+   * @param sceneGraph <code>SceneGraph</code>
+   * @param sceneAnimator <code>SceneAnimator</code>, or <code>null</code> if static
+   * @param camera <code>SceneCamera</code>
+   * @param framePipeline <code>FramePipeline</code>
+   * @return void
+   */
+  private void settleCompilation(GL2 gl2, SceneGraph sceneGraph, SceneAnimator sceneAnimator,
+      SceneCamera camera, FramePipeline framePipeline) {
+
+    // Declarations
+    long last, time;
+    int quiet;
+
+    if (this.compiler == null) {
+      return;
+    }
+
+    last = this.compiler.getTotalCompilationTime();
+    quiet = 0;
+
+    while (quiet < AllocationCheck.QUIET_FRAMES
+        && this.settleFrames < AllocationCheck.MAX_SETTLE_FRAMES) {
+      this.renderFrame(gl2, this.warmup + this.settleFrames, sceneGraph, sceneAnimator, camera,
+        framePipeline);
+      this.settleFrames++;
+      time = this.compiler.getTotalCompilationTime();
+      quiet = (time == last) ? quiet + 1 : 0;
+      last = time;
+    }
+
+    this.isSettled = quiet >= AllocationCheck.QUIET_FRAMES;
+  }
+
+  /**
+   * Loads and initializes the given classes, which the frame loop refers to without necessarily
+   * using them, such that no class is loaded in the middle of the measured frames.
+   *
+   * @param classes <code>Class[]</code>
+   * @return void
+   */
+  private static void preload(Class<?>... classes) {
+    for (Class<?> type : classes) {
+      try {
+        Class.forName(type.getName(), true, type.getClassLoader());
+      } catch (ClassNotFoundException ex) {
+        throw new IllegalStateException("Class " + type.getName() + " not found");
+      }
+    }
+  }
+
+  /**
+   * Returns the JVM's compiler if it reports the time spent compiling, <code>null</code> if not,
+   * as when interpreting only.
+   *
+   * @return <code>CompilationMXBean</code>
+   */
+  private static CompilationMXBean getCompiler() {
+
+    // Declaration
+    CompilationMXBean compiler;
+
+    compiler = ManagementFactory.getCompilationMXBean();
+    return (compiler != null && compiler.isCompilationTimeMonitoringSupported()) ? compiler : null;
+  }
+
+  /**
+   * Returns the total time spent compiling so far, in milliseconds, or zero if not reported.
+   *
+   * @return <code>long</code>
+   */
+  private long getCompileMs() {
+    return (this.compiler != null) ? this.compiler.getTotalCompilationTime() : 0L;
+  }
+
+  /**
+   * Returns whether the JIT compiler was at work around the given measured frame, from the frame
+   * before it to the frame after, a compilation being timed only once done.
+   *
+   * @param frame <code>int</code> index of the measured frame
+   * @return <code>boolean</code>
+   */
+  private boolean getIsCompiling(int frame) {
+    return this.compileMs[Math.max(frame - 1, 0)]
+      != this.compileMs[Math.min(frame + 2, this.frames)];
+  }
+
+  /**
+   * Starts a daemon thread scraping the metrics served at the given address until interrupted,
+   * counting the scrapes answered.
+   *
+   * @param address <code>InetSocketAddress</code> of the <code>MetricsServer</code>
+   * @return <code>Thread</code>
+   */
+  private Thread startScraper(InetSocketAddress address) {
+
+    // Declarations
+    final URL url;
+    Thread scraper;
+
+    try {
+      url = URI.create("http://" + address.getHostString() + ":" + address.getPort()
+        + "/metrics").toURL();
+    } catch (IOException ex) {
+      throw new IllegalStateException("Metrics cannot be scraped: " + ex);
+    }
+
+    scraper = new Thread(() -> {
+      while (!Thread.currentThread().isInterrupted()) {
+        try (InputStream input = url.openStream()) {
+          input.readAllBytes();
+          this.scrapes.incrementAndGet();
+          Thread.sleep(AllocationCheck.SCRAPE_INTERVAL_MS);
+        } catch (IOException ex) {
+          System.err.println("Scrape failed: " + ex);
+          return;
+        } catch (InterruptedException ex) {
+          return;
+        }
+      }
+    }, "metrics-scraper");
+    scraper.setDaemon(true);
+    scraper.start();
+    return scraper;
+  }
+
+  /**
+   * Renders a single frame through the <code>FramePipeline</code> of
+   * <code>ScenePanel.SceneGLEventListener.display</code>, after advancing the animation. Nothing
+   * is logged, which only ever happens on transitions anyway, and nothing is captured.
+   *
+   * @param gl2 <code>GL2</code>
+   * @param frame <code>int</code> number of the frame, counting the warmup
+   * @param sceneGraph <code>SceneGraph</code>
+   * @param sceneAnimator <code>SceneAnimator</code>, or <code>null</code> if static
+   * @param camera <code>SceneCamera</code>
+   * @param framePipeline <code>FramePipeline</code>
+   * @return void
+   */
+  private void renderFrame(GL2 gl2, int frame, SceneGraph sceneGraph,
+      SceneAnimator sceneAnimator, SceneCamera camera, FramePipeline framePipeline) {
+
+    // Animated at a fixed 60 frames per second of scene time, as in the benchmark
+    if (sceneAnimator != null) {
+      sceneAnimator.evaluate(frame / 60.0);
+    }
+
+    camera.setRotateY(camera.getRotateY() + 0.5);
+    framePipeline.render(gl2, camera, sceneGraph, null, 0, this.width, this.height);
+  }
+
+  /**
+   * Prints the results of the check to standard output and returns the exit status.
+   *
+   * @return <code>int</code>
+   */
+  private int report() {
+
+    // Declarations
+    long total, calls;
+    int faulty, compiling, listed;
+
+    total = 0;
+    faulty = 0;
+    compiling = 0;
+
+    for (int i = 0; i < this.frames; i++) {
+      total += this.frameBytes[i];
+
+      if (this.frameBytes[i] > 0 && this.getIsCompiling(i)) {
+        compiling++;
+      } else if (this.frameBytes[i] > 0) {
+        faulty++;
+      }
+    }
+
+    calls = RecordingGL.getCallCount();
+    System.out.println(String.format(Locale.ROOT, "%d frames after %d warmup, %.1f GL calls per "
+      + "frame", this.frames, this.warmup, (double) calls / this.frames));
+    System.out.println((this.compiler != null)
+      ? String.format(Locale.ROOT, "JIT compiler %s after %d further frames",
+        (this.isSettled) ? "settled" : "still busy", this.settleFrames)
+      : "JIT compilation time not reported, measured right after the warmup");
+    System.out.println(String.format(Locale.ROOT, "Allocated %d bytes in total, %.1f per frame, "
+      + "in %d of %d frames, %d of them while compiling", total, (double) total / this.frames,
+      faulty + compiling, this.frames, compiling));
+
+    if (this.isMetered) {
+      System.out.println("Metrics scraped " + this.scrapes.get() + " times meanwhile");
+    }
+
+    for (Map.Entry<String, Long> entry : RecordingGL.getCallCounts().entrySet()) {
+      System.out.println(String.format(Locale.ROOT, "  %-28s %10.1f per frame", entry.getKey(),
+        (double) entry.getValue() / this.frames));
+    }
+
+    listed = 0;
+
+    for (int i = 0; i < this.frames && listed < AllocationCheck.LISTED_FRAMES; i++) {
+      if (this.frameBytes[i] > 0) {
+        System.out.println("  frame " + (this.warmup + this.settleFrames + i) + ": "
+          + this.frameBytes[i] + " bytes" + ((this.getIsCompiling(i)) ? " (compiling)" : ""));
+        listed++;
+      }
+    }
+
+    if (faulty == 0) {
+      System.out.println("PASS");
+      return 0;
+    }
+
+    // A one-off rather than the loop, which would allocate again in the frames after
+    if (faulty <= AllocationCheck.FORGIVEN_FRAMES) {
+      System.out.println("PASS (allocation not repeated, put down to deoptimization)");
+      return 0;
+    }
+
+    System.out.println("FAIL");
+    return 1;
+  }
+}
@@ -191,11 +191,6 @@ final class Application extends JFrame {
     this.buttonPanel = new JPanel(new GridLayout(4, 1, 5, 5));
     this.logPanel = new JPanel(new GridLayout(1, 1, 5, 5));
 
-    // ScenePanel definition
-    this.scene = new ScenePanel(this);
-    this.scene.setPreferredSize(new Dimension(640, 480));
-    this.setScene(scene);
-
     // Apply borders and backgrounds
     this.mainPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
     this.scenePanel.setBorder(BorderFactory.createLineBorder(Color.GRAY));
@@ -216,6 +211,11 @@ final class Application extends JFrame {
     this.logTextArea.setLineWrap(true);
     this.logScrollPane = new JScrollPane(this.logTextArea);
 
+    // ScenePanel definition, left until last as it may wait on the native libraries to load
+    this.scene = new ScenePanel(this);
+    this.scene.setPreferredSize(new Dimension(640, 480));
+    this.setScene(scene);
+
     // Add scene to scenePanel JPanel
     this.scenePanel.add(this.scene);
     this.scenePanel.setPreferredSize(new Dimension(640, 480));
@@ -268,7 +268,7 @@ final class Application extends JFrame {
     this.mainFrame = new JFrame(this.getWindowTitle());
     this.mainFrame.setContentPane(this.mainPanel);
     this.mainFrame.setSize(this.getWindowWidth(), this.getWindowHeight());
-    this.mainFrame.setResizable(false);
+    this.mainFrame.setResizable(true); // Scene adapts its projection and render scale to fit
     this.mainFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
     this.mainFrame.setVisible(true);
 
@@ -350,6 +350,7 @@ final class Application extends JFrame {
    */
   protected void addLogEntry(String message) {
     this.logTextArea.append(message + "\n");
+    MetricsServer.countLogEntry();
 
     if (Application.DEBUG) {
       System.out.println(message);
@@ -385,6 +386,7 @@ final class Application extends JFrame {
             + "<li>Arrow keys control x-axis and y-axis rotation</li>"
             + "<li>PgUp and PgDn keys control z-axis rotation</li>"
             + "<li>E and R keys control scaling</li>"
+            + "<li>C key starts and stops frame capture</li>"
           + "</ul>"
         + "</div>"
       + "</html>";
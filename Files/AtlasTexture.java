@@ -0,0 +1,211 @@
+/**
+ * AtlasTexture.java - Per-context mirror of the texture atlas, filled in under a per-frame budget
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import com.jogamp.opengl.GL2;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The <code>TextureAtlas</code> is mirrored on the GPU by a single mipmapped texture object per
+ * context, allocated at the full size of the atlas when first needed. As with
+ * <code>GeometryBuffers</code>, keeping the mirror current only ever calls for uploading what has
+ * been completed since, each tile's levels being written into its region of the texture via
+ * <code>GL2.glTexSubImage2D</code> straight out of the tile's direct buffers.
+ * <br />
+ * <br />
+ * Unlike geometry, which is needed before anything can be drawn at all, a texture arriving a few
+ * frames late merely leaves its faces in their flat shades for that long. Uploads are therefore
+ * spread out over as many frames as it takes, a level at a time, with at most as many bytes per
+ * frame as given by the <code>graphicsprojecttwo.texture.budget</code> system property, in KiB
+ * (256 by default), such that a burst of newly decoded images never turns into a hitch. At least
+ * one level is uploaded every frame, lest a level larger than the budget never be. A tile is only
+ * drawn from once all of its levels are in.
+ * <br />
+ * <br />
+ * Texture names belong to a single GL context, so one instance of this class is kept per context
+ * by its <code>SceneRenderer</code>, and is discarded whenever that context is recreated.
+ *
+ * @see graphicsprojecttwo.TextureAtlas
+ * @see graphicsprojecttwo.SceneRenderer
+ * @author Andrew Eissen
+ */
+final class AtlasTexture {
+
+  /** Most bytes uploaded per frame, from <code>graphicsprojecttwo.texture.budget</code> in KiB */
+  private final static long BUDGET_BYTES =
+    Long.getLong("graphicsprojecttwo.texture.budget", 256L) * 1024L;
+
+  // Class fields
+  private int name, uploaded, nextLevel;
+  private long bytesUploaded;
+  private boolean[] isResident;
+
+  /**
+   * Default constructor
+   */
+  protected AtlasTexture() {
+    this.name = 0;
+    this.uploaded = 0;
+    this.nextLevel = 0;
+    this.bytesUploaded = 0;
+    this.isResident = new boolean[0];
+  }
+
+  // Getters
+
+  /**
+   * Returns whether the tile of the given number has been uploaded in full, and may be drawn from.
+   *
+   * @param tileNumber <code>int</code>
+   * @return <code>boolean</code>
+   */
+  protected boolean getIsResident(int tileNumber) {
+    return tileNumber >= 0 && tileNumber < this.isResident.length && this.isResident[tileNumber];
+  }
+
+  /**
+   * Returns whether any tile remains to be decoded or uploaded, that is whether frames still to
+   * come may look different from the last.
+   *
+   * @return <code>boolean</code>
+   */
+  protected boolean getIsPending() {
+
+    // Declaration
+    TextureAtlas atlas;
+
+    atlas = TextureAtlas.getShared();
+    return atlas.getIsEnabled()
+      && (atlas.getIsDecoding() || this.uploaded < atlas.getCompletedCount());
+  }
+
+  /**
+   * Getter for <code>AtlasTexture.bytesUploaded</code>, the total uploaded by this instance
+   *
+   * @return bytesUploaded <code>long</code>
+   */
+  protected long getBytesUploaded() {
+    return this.bytesUploaded;
+  }
+
+  // Utility methods
+
+  /**
+   * Called once at the start of every frame, before the <code>GLStateFilter</code> takes over, this
+   * method creates the texture if need be and uploads the levels of newly completed tiles, in order
+   * of completion, until the budget of the frame is spent.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  protected void begin(GL2 gl2) {
+
+    // Declarations
+    TextureAtlas atlas;
+    TextureAtlas.Tile tile;
+    ByteBuffer pixels;
+    long budget;
+    int completed, tileNumber;
+
+    atlas = TextureAtlas.getShared();
+    completed = atlas.getCompletedCount();
+
+    if (this.uploaded == completed) {
+      return;
+    }
+
+    if (this.name == 0) {
+      this.create(gl2);
+    } else {
+      gl2.glBindTexture(GL2.GL_TEXTURE_2D, this.name);
+    }
+
+    budget = AtlasTexture.BUDGET_BYTES;
+
+    while (this.uploaded < completed && budget > 0) {
+      tileNumber = atlas.getCompleted(this.uploaded);
+      tile = atlas.getTile(tileNumber);
+      pixels = tile.getLevel(this.nextLevel);
+      gl2.glTexSubImage2D(GL2.GL_TEXTURE_2D, this.nextLevel, tile.getX(this.nextLevel),
+        tile.getY(this.nextLevel), tile.getWidth(this.nextLevel), tile.getHeight(this.nextLevel),
+        GL2.GL_RGBA, GL2.GL_UNSIGNED_BYTE, pixels);
+      budget -= pixels.remaining();
+      this.bytesUploaded += pixels.remaining();
+
+      if (++this.nextLevel == TextureAtlas.LEVELS) {
+        if (tileNumber >= this.isResident.length) {
+          this.isResident = Arrays.copyOf(this.isResident, tileNumber + 1);
+        }
+
+        this.isResident[tileNumber] = true;
+        this.nextLevel = 0;
+        this.uploaded++;
+      }
+    }
+
+    gl2.glBindTexture(GL2.GL_TEXTURE_2D, 0);
+  }
+
+  /**
+   * Binds the texture for drawing, the filter dropping the call if it is already bound.
+   *
+   * @param gl <code>GLStateFilter</code>
+   * @return void
+   */
+  protected void bind(GLStateFilter gl) {
+    gl.glBindTexture(GL2.GL_TEXTURE_2D, this.name);
+  }
+
+  /**
+   * Releases the texture. Must be called with the owning context current.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  protected void dispose(GL2 gl2) {
+    if (this.name != 0) {
+      gl2.glDeleteTextures(1, new int[] {this.name}, 0);
+    }
+
+    this.name = 0;
+    this.uploaded = 0;
+    this.nextLevel = 0;
+    this.isResident = new boolean[0];
+  }
+
+  // Helper methods
+
+  /**
+   * Generates and binds the texture, allocating every level at the size of the atlas, and sets it
+   * up for trilinear filtering within the levels the atlas provides.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  private void create(GL2 gl2) {
+
+    // Declaration
+    int[] names;
+
+    names = new int[1];
+    gl2.glGenTextures(1, names, 0);
+    this.name = names[0];
+
+    gl2.glBindTexture(GL2.GL_TEXTURE_2D, this.name);
+    gl2.glTexParameteri(GL2.GL_TEXTURE_2D, GL2.GL_TEXTURE_MIN_FILTER, GL2.GL_LINEAR_MIPMAP_LINEAR);
+    gl2.glTexParameteri(GL2.GL_TEXTURE_2D, GL2.GL_TEXTURE_MAG_FILTER, GL2.GL_LINEAR);
+    gl2.glTexParameteri(GL2.GL_TEXTURE_2D, GL2.GL_TEXTURE_WRAP_S, GL2.GL_CLAMP_TO_EDGE);
+    gl2.glTexParameteri(GL2.GL_TEXTURE_2D, GL2.GL_TEXTURE_WRAP_T, GL2.GL_CLAMP_TO_EDGE);
+    gl2.glTexParameteri(GL2.GL_TEXTURE_2D, GL2.GL_TEXTURE_BASE_LEVEL, 0);
+    gl2.glTexParameteri(GL2.GL_TEXTURE_2D, GL2.GL_TEXTURE_MAX_LEVEL, TextureAtlas.LEVELS - 1);
+
+    for (int level = 0; level < TextureAtlas.LEVELS; level++) {
+      gl2.glTexImage2D(GL2.GL_TEXTURE_2D, level, GL2.GL_RGBA8, TextureAtlas.SIZE >> level,
+        TextureAtlas.SIZE >> level, 0, GL2.GL_RGBA, GL2.GL_UNSIGNED_BYTE, null);
+    }
+  }
+}
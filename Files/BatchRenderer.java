@@ -0,0 +1,701 @@
+/**
+ * BatchRenderer.java - Offscreen rendering of lists of jobs across a pool of GL contexts
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+
+/**
+ * Thumbnails and turntables of many variants of a scene are wanted in the thousands, far more than
+ * anyone would care to pose by hand in the GUI. This class implements the batch rendering mode of
+ * the program, entered by passing <code>--batch</code> to <code>Driver</code> followed by the
+ * <code>key=value</code> options below, which renders every job of a job list offscreen and writes
+ * each to an image file of its own. A job list holds one job per line, blank lines and lines
+ * starting with <code>#</code> being skipped:
+ * <pre>
+ * output scene width height [Transformation=amount ...]
+ *
+ * thumbs/default.png      default         320  240
+ * thumbs/crowd-0.png      generated:500:7 256  192  RotateY=0 Scale=-0.2
+ * thumbs/crowd-30.png     generated:500:7 256  192  RotateY=30 Scale=-0.2
+ * thumbs/shapes.png       generated:500:7:parametric  256  192
+ * </pre>
+ * The output is relative to the output directory, its format following its extension. The scene
+ * is either <code>default</code>, the scene of <code>ScenePanel</code>, or
+ * <code>generated:N:SEED</code>, a scene of N objects by <code>SceneGenerator</code>, optionally
+ * followed by <code>:builtin</code> or <code>:parametric</code> to pick the family of its shapes,
+ * the parametric shapes of every scene being shared through the <code>MeshCache</code>. The camera
+ * starts each job in its default pose and is then transformed by the given amounts, named as in
+ * <code>InputRecorder.TRANSFORMATIONS</code>, just as the keys of the GUI would.
+ * <br />
+ * <br />
+ * The jobs are shared out among a pool of worker threads, each owning an offscreen drawable, and
+ * thus a GL context, of its own, along with its own <code>SceneRenderer</code>, and taking the
+ * next job in the list whenever done with the last, resizing its surface should the job call for
+ * it. Running with <code>LIBGL_ALWAYS_SOFTWARE=1</code> makes every context one of Mesa's
+ * llvmpipe, such that the pool is one of software rasterizers instead. Every scene named in the
+ * job list is built and its lighting baked once, before any worker starts, and then drawn by every
+ * worker from the same <code>SceneGraph</code>, brought up to date once built such that the update
+ * of every frame finds nothing left to do. Building the scenes up front also means that no
+ * geometry is being written to the <code>GeometryArena</code> while the workers upload it, and its
+ * meshes are in any case shared through the <code>MeshCache</code> and the arena by every scene
+ * and every context.
+ * The frames read back are handed to a separate pool of writers to be encoded and written to
+ * disk, while the worker goes on to its next job. Should the writers fall behind, the workers
+ * encode their frames themselves until they catch up, so that finished frames never pile up in
+ * memory.
+ * <br />
+ * <br />
+ * A job that fails, as one whose scene could not be built, is counted and skipped, the worker
+ * going on to the next; only a worker whose GL context is lost gives up, leaving the rest of the
+ * jobs to the others, or failing them should it be the last. Once every job is done, the number of
+ * jobs rendered per second is reported, overall and by worker. The exit status is zero if every
+ * job was rendered and written, one if any failed or the batch could not be run, and two if the
+ * arguments or the job list were invalid.
+ * <br />
+ * <pre>
+ * Options (defaults in parentheses):
+ * - jobs=PATH        job list (required)
+ * - out=PATH         directory the images are written to (batch-out)
+ * - workers=N        number of offscreen contexts rendering at once (available processors, up to 4)
+ * - writers=N        number of threads encoding and writing images (2)
+ * </pre>
+ *
+ * @see graphicsprojecttwo.GoldenImageSuite
+ * @see graphicsprojecttwo.SceneRenderer
+ * @author Andrew Eissen
+ */
+final class BatchRenderer {
+
+  /** Most frames rendered per job while occlusion queries and textures settle */
+  private final static int MAX_SETTLE_FRAMES = 16;
+
+  /** Frames that may wait for a writer, per writer, before workers write their own */
+  private final static int QUEUE_PER_WRITER = 4;
+
+  // Class fields
+  private final Path out;
+  private final int workerCount, writerCount;
+  private final List<Job> jobs;
+  private final HashMap<String, SceneGraph> scenes;
+  private final AtomicInteger nextJob, failures, liveWorkers;
+  private final int[] jobsByWorker;
+
+  /**
+   * Parameterized constructor
+   *
+   * @param options <code>Map</code> of option names to values, as parsed from the command line
+   * @throws IOException if the job list cannot be read
+   */
+  private BatchRenderer(Map<String, String> options) throws IOException {
+    if (!options.containsKey("jobs")) {
+      throw new IllegalArgumentException("A job list must be given");
+    }
+
+    this.out = Paths.get(options.getOrDefault("out", "batch-out"));
+    this.workerCount = Integer.parseInt(options.getOrDefault("workers",
+      String.valueOf(Math.min(4, Runtime.getRuntime().availableProcessors()))));
+    this.writerCount = Integer.parseInt(options.getOrDefault("writers", "2"));
+
+    if (this.workerCount < 1 || this.writerCount < 1) {
+      throw new IllegalArgumentException("workers and writers must be positive");
+    }
+
+    this.jobs = BatchRenderer.readJobs(Paths.get(options.get("jobs")));
+    this.scenes = new HashMap<>();
+    this.nextJob = new AtomicInteger();
+    this.failures = new AtomicInteger();
+    this.liveWorkers = new AtomicInteger(this.workerCount);
+    this.jobsByWorker = new int[this.workerCount];
+  }
+
+  // Utility methods
+
+  /**
+   * Entry point of the batch rendering mode, called by <code>Driver.main</code> with the arguments
+   * following <code>--batch</code>. Returns the process exit status: zero if every job was done,
+   * one if any failed or the batch could not be run, and two if the arguments were invalid.
+   *
+   * @param args <code>String[]</code> <code>key=value</code> options
+   * @return <code>int</code>
+   */
+  protected static int run(String[] args) {
+
+    // Declarations
+    Map<String, String> options;
+    BatchRenderer batch;
+
+    options = new LinkedHashMap<>();
+
+    try {
+      for (String arg : args) {
+        if (arg.indexOf('=') < 1) {
+          throw new IllegalArgumentException("Expected key=value, got '" + arg + "'");
+        }
+
+        options.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+      }
+
+      batch = new BatchRenderer(options);
+    } catch (IllegalArgumentException | IOException ex) {
+      System.err.println("Error: " + ex.getMessage());
+      System.err.println("Usage: --batch jobs=PATH [out=PATH] [workers=N] [writers=N]");
+      return 2;
+    }
+
+    try {
+      return batch.execute();
+    } catch (IOException | InterruptedException ex) {
+      System.err.println("Error: " + ex);
+      return 1;
+    }
+  }
+
+  // Helper methods
+
+  /**
+   * Reads and validates every job of the given job list.
+   *
+   * @param path <code>Path</code> of the job list
+   * @return <code>List</code> of <code>BatchRenderer.Job</code>
+   * @throws IOException if the job list cannot be read
+   * @throws IllegalArgumentException if any line is malformed
+   */
+  private static List<Job> readJobs(Path path) throws IOException {
+
+    // Declarations
+    List<String> lines;
+    List<Job> jobs;
+    String line;
+
+    lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+    jobs = new ArrayList<>();
+
+    for (int i = 0; i < lines.size(); i++) {
+      line = lines.get(i).trim();
+
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+
+      try {
+        jobs.add(new Job(line.split("\\s+")));
+      } catch (IllegalArgumentException ex) {
+        throw new IllegalArgumentException(path + ":" + (i + 1) + ": " + ex.getMessage());
+      }
+    }
+
+    if (jobs.isEmpty()) {
+      throw new IllegalArgumentException(path + " lists no jobs");
+    }
+
+    return jobs;
+  }
+
+  /**
+   * Builds every distinct scene of the job list, in order of first mention. A scene that cannot be
+   * built is reported and left out, failing the jobs naming it when they come up.
+   *
+   * @return void
+   */
+  private void buildScenes() {
+
+    // Declaration
+    long start;
+
+    start = System.nanoTime();
+
+    for (Job job : this.jobs) {
+      if (this.scenes.containsKey(job.scene)) {
+        continue;
+      }
+
+      try {
+        this.scenes.put(job.scene, BatchRenderer.buildScene(job.scene));
+      } catch (RuntimeException ex) {
+        System.err.println(job.scene + " not built: " + ex);
+        this.scenes.put(job.scene, null);
+      }
+    }
+
+    System.err.println(String.format(Locale.ROOT, "Built %d scene(s) in %.2f s",
+      this.scenes.size(), (System.nanoTime() - start) / 1e9));
+  }
+
+  /**
+   * Builds the scene of the given name, bringing its world matrices up to date and baking its
+   * lighting, such that nothing is left to change once it is shared.
+   *
+   * @param scene <code>String</code> as in the job list
+   * @return <code>SceneGraph</code>
+   */
+  private static SceneGraph buildScene(String scene) {
+
+    // Declarations
+    ArrayList<SceneObject> sceneObjects;
+    SceneGraph sceneGraph;
+    String[] parts;
+
+    sceneGraph = new SceneGraph();
+
+    if (scene.equals("default")) {
+      ScenePanel.buildScene(sceneGraph);
+    } else {
+      parts = scene.split(":");
+      sceneObjects = SceneGenerator.generate(Integer.parseInt(parts[1]), Long.parseLong(parts[2]),
+        SceneGenerator.parseShapes((parts.length > 3) ? parts[3] : "builtin"));
+      System.err.println(scene + ": " + sceneObjects.size() + " objects share "
+        + SceneGenerator.countMeshes(sceneObjects) + " meshes");
+
+      for (SceneObject sceneObject : sceneObjects) {
+        sceneGraph.addObject(SceneGraph.NONE, sceneObject);
+      }
+    }
+
+    System.err.println(scene + ": " + LightBaker.bake(sceneGraph));
+    sceneGraph.update();
+    return sceneGraph;
+  }
+
+  /**
+   * Builds the scenes, then renders every job across the pool of workers, waits for the writers
+   * to finish, and reports the throughput of the rendering.
+   *
+   * @return <code>int</code> exit status
+   * @throws IOException if the output directory cannot be created
+   * @throws InterruptedException if interrupted while waiting for the workers or writers
+   */
+  private int execute() throws IOException, InterruptedException {
+
+    // Declarations
+    ThreadPoolExecutor writers;
+    Thread[] threads;
+    long start;
+    double seconds;
+    int done;
+
+    Files.createDirectories(this.out);
+
+    // The scenes are complete before any worker is started, and thus before any upload
+    this.buildScenes();
+
+    // Frames beyond the queue are written by the worker itself, holding it back until caught up
+    writers = new ThreadPoolExecutor(this.writerCount, this.writerCount, 0L,
+      TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(this.writerCount
+        * BatchRenderer.QUEUE_PER_WRITER), (Runnable r) -> {
+        Thread thread = new Thread(r, "batch-image-writer");
+        thread.setDaemon(true);
+        return thread;
+      }, new ThreadPoolExecutor.CallerRunsPolicy());
+    threads = new Thread[this.workerCount];
+    start = System.nanoTime();
+
+    for (int i = 0; i < this.workerCount; i++) {
+      threads[i] = new Thread(new Worker(i, writers), "batch-render-worker-" + i);
+      threads[i].start();
+    }
+
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    writers.shutdown();
+    writers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    seconds = (System.nanoTime() - start) / 1e9;
+    done = this.jobs.size() - this.failures.get();
+
+    System.out.println(String.format(Locale.ROOT, "Rendered %d of %d jobs in %.2f s with %d "
+      + "worker(s): %.1f jobs/s", done, this.jobs.size(), seconds, this.workerCount,
+      done / seconds));
+
+    for (int i = 0; i < this.workerCount; i++) {
+      System.out.println(String.format(Locale.ROOT, "  worker %d: %d jobs, %.1f jobs/s", i,
+        this.jobsByWorker[i], this.jobsByWorker[i] / seconds));
+    }
+
+    return (this.failures.get() == 0) ? 0 : 1;
+  }
+
+  /**
+   * Encodes the given frame and writes it to the output of its job, counting any failure.
+   *
+   * @param job <code>BatchRenderer.Job</code>
+   * @param pixels <code>byte[]</code> bottom-up RGBA8 frame of the job's size
+   * @return void
+   */
+  private void write(Job job, byte[] pixels) {
+
+    // Declarations
+    Path path;
+    String name, format;
+
+    path = this.out.resolve(job.output);
+    name = path.getFileName().toString();
+    format = (name.lastIndexOf('.') > 0)
+      ? name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT)
+      : "png";
+
+    try {
+      if (path.getParent() != null) {
+        Files.createDirectories(path.getParent());
+      }
+
+      if (!ImageIO.write(FrameCapture.toImage(job.width, job.height, pixels), format,
+          path.toFile())) {
+        throw new IOException("no writer for " + format);
+      }
+    } catch (IOException ex) {
+      this.failures.incrementAndGet();
+      System.err.println(job.output + " not written: " + ex.getMessage());
+    }
+  }
+
+  // Inner helper classes
+
+  /**
+   * Immutable job of the job list.
+   *
+   * @author Andrew Eissen
+   */
+  private static final class Job {
+
+    // Class fields
+    private final String output, scene;
+    private final int width, height;
+    private final SceneCamera pose;
+
+    /**
+     * Parameterized constructor
+     *
+     * @param fields <code>String[]</code> fields of the line of the job
+     * @throws IllegalArgumentException if the fields are malformed
+     */
+    private Job(String[] fields) {
+
+      // Declarations
+      String[] parts;
+      int index;
+      long objects;
+
+      if (fields.length < 4) {
+        throw new IllegalArgumentException("Expected output, scene, width, and height");
+      }
+
+      this.output = fields[0];
+      this.scene = fields[1];
+      this.width = Integer.parseInt(fields[2]);
+      this.height = Integer.parseInt(fields[3]);
+      this.pose = new SceneCamera();
+
+      if (this.width < 1 || this.height < 1) {
+        throw new IllegalArgumentException("width and height must be positive");
+      }
+
+      if (!this.scene.equals("default")
+          && !this.scene.matches("generated:\\d{1,18}:-?\\d{1,18}(:(builtin|parametric))?")) {
+        throw new IllegalArgumentException("Unknown scene '" + this.scene + "'");
+      }
+
+      if (!this.scene.equals("default")) {
+        objects = Long.parseLong(this.scene.split(":")[1]);
+
+        if (objects < 1 || objects > Integer.MAX_VALUE) {
+          throw new IllegalArgumentException("Generated scenes must have 1 to "
+            + Integer.MAX_VALUE + " objects");
+        }
+      }
+
+      for (int i = 4; i < fields.length; i++) {
+        parts = fields[i].split("=", 2);
+        index = InputRecorder.indexOf(parts[0]);
+
+        if (parts.length != 2 || index < 0) {
+          throw new IllegalArgumentException("Expected Transformation=amount, got '" + fields[i]
+            + "'");
+        }
+
+        InputReplayer.transform(this.pose, index, Double.parseDouble(parts[1]));
+      }
+    }
+  }
+
+  /**
+   * Worker of the pool, rendering jobs into an offscreen drawable of its own until none are left,
+   * and listener of that drawable, reading each finished frame back for the writers.
+   *
+   * @see com.jogamp.opengl.GLEventListener
+   * @author Andrew Eissen
+   */
+  private final class Worker implements Runnable, GLEventListener {
+
+    // Declarations
+    private final int number;
+    private final ThreadPoolExecutor writers;
+    private final SceneRenderer sceneRenderer;
+    private final SceneCamera camera;
+    private SceneGraph sceneGraph;
+    private ByteBuffer readBuffer;
+    private byte[] pixels;
+    private int width, height;
+    private boolean isSceneChanged;
+
+    /**
+     * Parameterized constructor
+     *
+     * @param number <code>int</code> of the worker, from zero
+     * @param writers <code>ThreadPoolExecutor</code> writing the finished frames
+     */
+    private Worker(int number, ThreadPoolExecutor writers) {
+      this.number = number;
+      this.writers = writers;
+      this.sceneRenderer = new SceneRenderer();
+      this.camera = new SceneCamera();
+    }
+
+    /**
+     * Creates the drawable of the worker at the size of its first job, then renders jobs until
+     * none are left. A job that fails is counted and skipped. Should the drawable not be created,
+     * or its context be lost, the worker stops, the job at hand counted as failed; the last worker
+     * to stop fails every job left, such that the batch does not wait on them.
+     *
+     * @return void
+     */
+    @Override
+    public void run() {
+
+      // Declarations
+      GLProfile profile;
+      GLCapabilities capabilities;
+      GLOffscreenAutoDrawable drawable;
+      Job job;
+      int index;
+
+      index = BatchRenderer.this.nextJob.getAndIncrement();
+
+      if (index >= BatchRenderer.this.jobs.size()) {
+        this.stop();
+        return;
+      }
+
+      job = BatchRenderer.this.jobs.get(index);
+      drawable = null;
+
+      try {
+        profile = GLProfile.get(GLProfile.GL2);
+        capabilities = new GLCapabilities(profile);
+        capabilities.setOnscreen(false);
+        capabilities.setFBO(true);
+        capabilities.setDoubleBuffered(false);
+        capabilities.setDepthBits(24);
+
+        drawable = GLDrawableFactory.getFactory(profile).createOffscreenAutoDrawable(null,
+          capabilities, null, job.width, job.height);
+        drawable.addGLEventListener(this);
+
+        while (job != null) {
+          try {
+            this.render(drawable, job);
+          } catch (RuntimeException ex) {
+            BatchRenderer.this.failures.incrementAndGet();
+            System.err.println(job.output + " not rendered: " + ex);
+
+            // Only a lost context is fatal to the worker, the job at hand being counted already
+            if (!drawable.isRealized() || drawable.getContext() == null) {
+              break;
+            }
+          }
+
+          index = BatchRenderer.this.nextJob.getAndIncrement();
+          job = (index < BatchRenderer.this.jobs.size())
+            ? BatchRenderer.this.jobs.get(index)
+            : null;
+        }
+      } catch (RuntimeException ex) {
+
+        // The drawable could not be created, GLException above all
+        System.err.println("Worker " + this.number + " stopped: " + ex);
+        BatchRenderer.this.failures.incrementAndGet();
+      } finally {
+        if (drawable != null) {
+          drawable.destroy();
+        }
+
+        this.stop();
+      }
+    }
+
+    /**
+     * Retires the worker, failing every job left if it was the last, as no one else will take
+     * them. Workers done for want of jobs find none left to fail.
+     *
+     * @return void
+     */
+    private void stop() {
+      if (BatchRenderer.this.liveWorkers.decrementAndGet() == 0) {
+        while (BatchRenderer.this.nextJob.getAndIncrement() < BatchRenderer.this.jobs.size()) {
+          BatchRenderer.this.failures.incrementAndGet();
+        }
+      }
+    }
+
+    /**
+     * Renders a single job, settling as in <code>GoldenImageSuite</code>, and hands the frame to
+     * the writers.
+     *
+     * @param drawable <code>GLOffscreenAutoDrawable</code> of the worker
+     * @param job <code>BatchRenderer.Job</code>
+     * @return void
+     */
+    private void render(GLOffscreenAutoDrawable drawable, Job job) {
+
+      // Declarations
+      final byte[] frame;
+      SceneGraph jobSceneGraph;
+      int settle;
+
+      jobSceneGraph = BatchRenderer.this.scenes.get(job.scene);
+
+      if (jobSceneGraph == null) {
+        throw new IllegalStateException("scene " + job.scene + " was not built");
+      }
+
+      // The culler keeps its visibility by node, which means nothing in another scene
+      this.isSceneChanged = jobSceneGraph != this.sceneGraph;
+      this.sceneGraph = jobSceneGraph;
+
+      this.camera.setScale(job.pose.getScale());
+      this.camera.setRotateX(job.pose.getRotateX());
+      this.camera.setRotateY(job.pose.getRotateY());
+      this.camera.setRotateZ(job.pose.getRotateZ());
+      this.camera.setTranslateX(job.pose.getTranslateX());
+      this.camera.setTranslateY(job.pose.getTranslateY());
+      this.camera.setTranslateZ(job.pose.getTranslateZ());
+
+      if (drawable.getSurfaceWidth() != job.width || drawable.getSurfaceHeight() != job.height) {
+        drawable.setSurfaceSize(job.width, job.height);
+      }
+
+      this.width = job.width;
+      this.height = job.height;
+      this.pixels = new byte[job.width * job.height * 4];
+      settle = 0;
+
+      // Objects hidden in the last job, and textures still on their way, take a few frames
+      do {
+        drawable.display();
+      } while ((!this.sceneRenderer.getOcclusionCuller().getIsSettled()
+        || this.sceneRenderer.getAtlasTexture().getIsPending())
+        && ++settle < BatchRenderer.MAX_SETTLE_FRAMES);
+
+      frame = this.pixels;
+      BatchRenderer.this.jobsByWorker[this.number]++;
+      this.writers.execute(() -> BatchRenderer.this.write(job, frame));
+    }
+
+    /**
+     * Sets up the GL state of the new offscreen context, noting which renderer is in use.
+     *
+     * @param glad <code>GLAutoDrawable</code>
+     * @return void
+     */
+    @Override
+    public void init(GLAutoDrawable glad) {
+
+      // Declaration
+      GL2 gl2;
+
+      gl2 = glad.getGL().getGL2();
+      this.sceneRenderer.init(gl2);
+      System.err.println("Worker " + this.number + " rendering with "
+        + gl2.glGetString(GL2.GL_RENDERER));
+    }
+
+    /**
+     * Renders a single frame of the current job and reads it back, bottom row first. The first
+     * frame of a job in a scene other than the last job's starts the occlusion culler over, such
+     * that no node inherits the visibility of the node of the same handle in the last scene.
+     *
+     * @param glad <code>GLAutoDrawable</code>
+     * @return void
+     */
+    @Override
+    public void display(GLAutoDrawable glad) {
+
+      // Declarations
+      GL2 gl2;
+      OcclusionCuller tempCuller;
+
+      gl2 = glad.getGL().getGL2();
+
+      if (this.isSceneChanged) {
+        tempCuller = this.sceneRenderer.getOcclusionCuller();
+        tempCuller.dispose(gl2);
+        tempCuller.init(gl2);
+        this.isSceneChanged = false;
+      }
+
+      this.sceneRenderer.render(gl2, this.camera, this.sceneGraph);
+
+      if (this.readBuffer == null || this.readBuffer.capacity() < this.pixels.length) {
+        this.readBuffer = ByteBuffer.allocateDirect(this.pixels.length);
+      }
+
+      this.readBuffer.clear();
+      gl2.glPixelStorei(GL2.GL_PACK_ALIGNMENT, 1);
+      gl2.glReadPixels(0, 0, this.width, this.height, GL2.GL_RGBA, GL2.GL_UNSIGNED_BYTE,
+        this.readBuffer);
+      this.readBuffer.get(this.pixels);
+    }
+
+    /**
+     * Releases the buffer objects of the offscreen context.
+     *
+     * @param glad <code>GLAutoDrawable</code>
+     * @return void
+     */
+    @Override
+    public void dispose(GLAutoDrawable glad) {
+      this.sceneRenderer.dispose(glad.getGL().getGL2());
+    }
+
+    /**
+     * Adapts the projection to the aspect ratio of the offscreen surface, as in the GUI.
+     *
+     * @param glad <code>GLAutoDrawable</code>
+     * @param x <code>int</code>
+     * @param y <code>int</code>
+     * @param width <code>int</code>
+     * @param height <code>int</code>
+     * @return void
+     */
+    @Override
+    public void reshape(GLAutoDrawable glad, int x, int y, int width, int height) {
+      this.sceneRenderer.reshape(glad.getGL().getGL2(), width, height);
+    }
+  }
+}
@@ -0,0 +1,540 @@
+/**
+ * Benchmark.java - Headless macro benchmark flying a scripted camera through a generated scene
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This class implements the benchmark mode of the program, entered by passing
+ * <code>--benchmark</code> to <code>Driver</code> followed by any of the <code>key=value</code>
+ * options below. Rather than opening the GUI, it builds a scene of the requested size through
+ * <code>SceneGenerator</code>, renders it into an offscreen drawable via the very same
+ * <code>SceneRenderer</code> used by <code>ScenePanel</code>, and flies a <code>SceneCamera</code>
+ * along a fixed scripted path: one full turn about the y-axis while pulling back from the default
+ * zoom to a view of the whole scene and closing in again, all the while panning through it. Every
+ * frame ends with <code>GL2.glFinish</code>, so that the time measured around each frame includes
+ * the GPU's share of the work.
+ * <br />
+ * <br />
+ * Once done, the frames per second, frame-time percentiles, and average draw calls and triangles
+ * per frame are printed as either JSON or a single CSV row with header. As no window is ever
+ * opened, the benchmark also runs on build machines with only a software implementation of
+ * OpenGL, such as Mesa's llvmpipe (setting <code>LIBGL_ALWAYS_SOFTWARE=1</code> forces it).
+ * <br />
+ * <pre>
+ * Options (defaults in parentheses):
+ * - objects=N      number of generated objects (1000)
+ * - seed=S         seed of the generated scene (1)
+ * - shapes=NAME    builtin shape classes or parametric MeshGenerator shapes (builtin)
+ * - frames=F       number of measured frames along the path (300)
+ * - warmup=W       number of unmeasured frames rendered first (30)
+ * - width=X        offscreen surface width (640)
+ * - height=Y       offscreen surface height (480)
+ * - animate=B      whether every object carries a SceneAnimator track, unbaked (false)
+ * - replay=PATH    InputRecorder log posing the camera instead of the scripted path
+ * - format=json    json or csv (json)
+ * - out=PATH       file to write the results to, standard output if absent
+ * </pre>
+ *
+ * @see graphicsprojecttwo.SceneGenerator
+ * @see graphicsprojecttwo.SceneRenderer
+ * @author Andrew Eissen
+ */
+final class Benchmark {
+
+  /** Percentiles of the frame time reported in the results */
+  private final static double[] PERCENTILES = {50.0, 90.0, 95.0, 99.0};
+
+  // Class fields
+  private final int objects, frames, warmup, width, height;
+  private final long seed;
+  private final SceneGenerator.Shapes shapes;
+  private final boolean isAnimated;
+  private final String format, out;
+  private final InputReplayer inputReplayer;
+  private final SceneCamera camera;
+  private final SceneRenderer sceneRenderer;
+  private final long[] frameNanos, glCalls, filteredGLCalls;
+  private long drawCalls, triangles, occluded, textureBinds, animationNanos;
+  private String glRenderer;
+  private int frameIndex, meshes;
+
+  /**
+   * Parameterized constructor
+   *
+   * @param options <code>Map</code> of option names to values, as parsed from the command line
+   * @throws IOException if the log to replay cannot be read
+   */
+  private Benchmark(Map<String, String> options) throws IOException {
+    this.objects = Integer.parseInt(options.getOrDefault("objects", "1000"));
+    this.seed = Long.parseLong(options.getOrDefault("seed", "1"));
+    this.shapes = SceneGenerator.parseShapes(options.getOrDefault("shapes", "builtin"));
+    this.frames = Integer.parseInt(options.getOrDefault("frames", "300"));
+    this.warmup = Integer.parseInt(options.getOrDefault("warmup", "30"));
+    this.width = Integer.parseInt(options.getOrDefault("width", "640"));
+    this.height = Integer.parseInt(options.getOrDefault("height", "480"));
+    this.isAnimated = Boolean.parseBoolean(options.getOrDefault("animate", "false"));
+    this.format = options.getOrDefault("format", "json").toLowerCase(Locale.ROOT);
+    this.out = options.get("out");
+
+    // Checked before anything is loaded, so that bad arguments earn the usage message
+    if (this.objects < 1 || this.frames < 1 || this.warmup < 0 || this.width < 1
+        || this.height < 1) {
+      throw new IllegalArgumentException("objects, frames, width, and height must be positive, "
+        + "and warmup non-negative");
+    }
+
+    if (!this.format.equals("json") && !this.format.equals("csv")) {
+      throw new IllegalArgumentException("Unknown format '" + this.format + "'");
+    }
+
+    this.inputReplayer = (options.containsKey("replay"))
+      ? InputReplayer.load(Paths.get(options.get("replay")))
+      : null;
+    this.camera = new SceneCamera();
+    this.sceneRenderer = new SceneRenderer();
+    this.frameNanos = new long[this.frames];
+    this.glCalls = new long[GLStateFilter.CATEGORIES];
+    this.filteredGLCalls = new long[GLStateFilter.CATEGORIES];
+  }
+
+  // Utility methods
+
+  /**
+   * Entry point of the benchmark mode, called by <code>Driver.main</code> with the arguments
+   * following <code>--benchmark</code>. Returns the process exit status: zero on success, one if
+   * the benchmark could not be run, and two if the arguments were invalid.
+   *
+   * @param args <code>String[]</code> <code>key=value</code> options
+   * @return <code>int</code>
+   */
+  protected static int run(String[] args) {
+
+    // Declarations
+    Map<String, String> options;
+    Benchmark benchmark;
+    String results;
+
+    options = new LinkedHashMap<>();
+
+    try {
+      for (String arg : args) {
+        if (arg.indexOf('=') < 1) {
+          throw new IllegalArgumentException("Expected key=value, got '" + arg + "'");
+        }
+
+        options.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+      }
+
+      benchmark = new Benchmark(options);
+    } catch (IllegalArgumentException ex) {
+      System.err.println("Error: " + ex.getMessage());
+      System.err.println("Usage: --benchmark [objects=N] [seed=S] [shapes=builtin|parametric] "
+        + "[frames=F] [warmup=W] [width=X] [height=Y] [animate=true|false] [replay=PATH] "
+        + "[format=json|csv] [out=PATH]");
+      return 2;
+    } catch (IOException ex) {
+      System.err.println("Error: " + ex);
+      return 1;
+    }
+
+    try {
+      benchmark.execute();
+      results = (benchmark.format.equals("csv")) ? benchmark.toCsv() : benchmark.toJson();
+
+      if (benchmark.out != null) {
+        Files.write(Paths.get(benchmark.out), results.getBytes(StandardCharsets.UTF_8));
+      } else {
+        System.out.print(results);
+      }
+
+      return 0;
+    } catch (GLException | IOException ex) {
+      System.err.println("Error: " + ex);
+      return 1;
+    }
+  }
+
+  /**
+   * Runs the benchmark with the given options and returns its results rather than printing them,
+   * for the frame-time budgets of <code>GoldenImageSuite</code>.
+   *
+   * @param options <code>Map</code> of option names to values, as accepted on the command line
+   * @return <code>LinkedHashMap</code> of result names to values
+   * @throws IOException if the log to replay cannot be read
+   */
+  protected static LinkedHashMap<String, Object> measure(Map<String, String> options)
+      throws IOException {
+
+    // Declaration
+    Benchmark benchmark;
+
+    benchmark = new Benchmark(options);
+    benchmark.execute();
+    return benchmark.collectResults();
+  }
+
+  /**
+   * Builds the scene, renders the warmup and measured frames into an offscreen drawable, and
+   * records the time taken by each measured frame.
+   *
+   * @return void
+   */
+  private void execute() {
+
+    // Declarations
+    ArrayList<SceneObject> sceneObjects;
+    SceneGraph sceneGraph;
+    SceneAnimator sceneAnimator;
+    GLProfile profile;
+    GLCapabilities capabilities;
+    GLOffscreenAutoDrawable drawable;
+    long start;
+
+    System.err.println("Generating " + this.objects + " objects (seed " + this.seed + ")");
+    sceneObjects = SceneGenerator.generate(this.objects, this.seed, this.shapes);
+    sceneGraph = new SceneGraph();
+    this.meshes = SceneGenerator.countMeshes(sceneObjects);
+    System.err.println(this.objects + " objects share " + this.meshes + " meshes");
+
+    for (SceneObject sceneObject : sceneObjects) {
+      sceneGraph.addObject(SceneGraph.NONE, sceneObject);
+    }
+
+    sceneAnimator = null;
+
+    // Baked lighting would stay where the objects were, so moving objects are drawn unbaked
+    if (!this.isAnimated) {
+      System.err.println(LightBaker.bake(sceneGraph));
+    } else {
+      sceneAnimator = new SceneAnimator(sceneGraph);
+      SceneGenerator.animate(sceneAnimator, sceneGraph.size(), this.seed);
+    }
+
+    profile = GLProfile.get(GLProfile.GL2);
+    capabilities = new GLCapabilities(profile);
+    capabilities.setOnscreen(false);
+    capabilities.setFBO(true);
+    capabilities.setDoubleBuffered(false);
+    capabilities.setDepthBits(24);
+
+    drawable = GLDrawableFactory.getFactory(profile).createOffscreenAutoDrawable(null,
+      capabilities, null, this.width, this.height);
+    drawable.addGLEventListener(new Benchmark.BenchmarkListener(sceneGraph, sceneAnimator));
+
+    try {
+      for (int i = 0; i < this.warmup; i++) {
+        this.frameIndex = -1;
+        drawable.display();
+      }
+
+      for (int i = 0; i < this.frames; i++) {
+        this.frameIndex = i;
+        start = System.nanoTime();
+        drawable.display();
+        this.frameNanos[i] = System.nanoTime() - start;
+      }
+    } finally {
+      drawable.destroy();
+    }
+  }
+
+  /**
+   * Positions the camera for the given frame of the scripted path, or of the replayed log if any,
+   * spreading the frames evenly over its recorded duration. Warmup frames, passed as a negative
+   * index, use the starting pose.
+   *
+   * @param index <code>int</code>
+   * @return void
+   */
+  private void flyCamera(int index) {
+
+    // Declarations
+    double t, extent, zoomOut, far;
+
+    t = (index < 0) ? 0.0 : (double) index / this.frames;
+
+    // The last measured frame of a replay shows the final pose of the log
+    if (this.inputReplayer != null) {
+      this.inputReplayer.advanceTo(this.camera, (index < 0) ? 0L : (long) ((double) index
+        / Math.max(this.frames - 1, 1) * this.inputReplayer.getDurationNanos()));
+      return;
+    }
+
+    extent = SceneGenerator.getHalfExtent(this.objects);
+    zoomOut = 0.5 - 0.5 * Math.cos(2.0 * Math.PI * t);
+    far = 0.9 / (extent * Math.sqrt(3.0));
+
+    this.camera.setToDefaults();
+    this.camera.setRotateY(this.camera.getRotateY() + 360.0 * t);
+    this.camera.setRotateX(this.camera.getRotateX() + 15.0 * Math.sin(2.0 * Math.PI * t));
+    this.camera.setScale(this.camera.getScale() + (far - this.camera.getScale()) * zoomOut);
+    this.camera.setTranslateX(0.8 * extent * Math.sin(2.0 * Math.PI * t));
+    this.camera.setTranslateZ(0.8 * extent * Math.sin(4.0 * Math.PI * t));
+  }
+
+  /**
+   * Returns the given percentile of the measured frame times, in milliseconds, by nearest rank.
+   *
+   * @param sorted <code>long[]</code> frame times in ascending order
+   * @param percentile <code>double</code>
+   * @return <code>double</code>
+   */
+  private static double percentile(long[] sorted, double percentile) {
+    return sorted[Math.max(0, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1)] / 1e6;
+  }
+
+  /**
+   * Gathers the results as an ordered map of names to values, shared by both output formats.
+   *
+   * @return <code>LinkedHashMap</code>
+   */
+  private LinkedHashMap<String, Object> collectResults() {
+
+    // Declarations
+    LinkedHashMap<String, Object> results;
+    long[] sorted;
+    long total;
+
+    sorted = this.frameNanos.clone();
+    Arrays.sort(sorted);
+    total = 0;
+
+    for (long nanos : sorted) {
+      total += nanos;
+    }
+
+    results = new LinkedHashMap<>();
+    results.put("objects", this.objects);
+    results.put("seed", this.seed);
+    results.put("shapes", this.shapes.name().toLowerCase(Locale.ROOT));
+    results.put("meshes", this.meshes);
+    results.put("frames", this.frames);
+    results.put("width", this.width);
+    results.put("height", this.height);
+    results.put("animated", this.isAnimated);
+    results.put("replayed", this.inputReplayer != null);
+    results.put("vertexFormat", VertexFormat.getActive().name().toLowerCase(Locale.ROOT));
+    results.put("renderer", this.glRenderer);
+    results.put("fps", this.frames / (total / 1e9));
+    results.put("frameMsMean", total / 1e6 / this.frames);
+
+    for (double percentile : Benchmark.PERCENTILES) {
+      results.put("frameMsP" + (int) percentile, Benchmark.percentile(sorted, percentile));
+    }
+
+    results.put("frameMsMax", sorted[sorted.length - 1] / 1e6);
+    results.put("drawCallsPerFrame", (double) this.drawCalls / this.frames);
+    results.put("trianglesPerFrame", (double) this.triangles / this.frames);
+    results.put("occludedPerFrame", (double) this.occluded / this.frames);
+    results.put("textureBindsPerFrame", (double) this.textureBinds / this.frames);
+    results.put("glStateCallsPerFrame",
+      (double) this.glCalls[GLStateFilter.STATE] / this.frames);
+    results.put("glDrawCallsPerFrame", (double) this.glCalls[GLStateFilter.DRAW] / this.frames);
+    results.put("glMatrixCallsPerFrame",
+      (double) this.glCalls[GLStateFilter.MATRIX] / this.frames);
+    results.put("glVertexCallsPerFrame",
+      (double) this.glCalls[GLStateFilter.VERTEX] / this.frames);
+    results.put("glFilteredCallsPerFrame",
+      (double) Arrays.stream(this.filteredGLCalls).sum() / this.frames);
+    results.put("animationMsMean", this.animationNanos / 1e6 / this.frames);
+    return results;
+  }
+
+  /**
+   * Formats the results as a single JSON object.
+   *
+   * @return <code>String</code>
+   */
+  private String toJson() {
+
+    // Declaration
+    StringBuilder builder;
+
+    builder = new StringBuilder("{\n");
+
+    for (Map.Entry<String, Object> entry : this.collectResults().entrySet()) {
+      builder.append("  \"").append(entry.getKey()).append("\": ")
+        .append(Benchmark.formatValue(entry.getValue(), true)).append(",\n");
+    }
+
+    builder.setLength(builder.length() - 2);
+    return builder.append("\n}\n").toString();
+  }
+
+  /**
+   * Formats the results as a CSV header line followed by a single row.
+   *
+   * @return <code>String</code>
+   */
+  private String toCsv() {
+
+    // Declarations
+    StringBuilder header, row;
+
+    header = new StringBuilder();
+    row = new StringBuilder();
+
+    for (Map.Entry<String, Object> entry : this.collectResults().entrySet()) {
+      header.append(entry.getKey()).append(',');
+      row.append(Benchmark.formatValue(entry.getValue(), false)).append(',');
+    }
+
+    header.setCharAt(header.length() - 1, '\n');
+    row.setCharAt(row.length() - 1, '\n');
+    return header.append(row).toString();
+  }
+
+  /**
+   * Formats a single result value, quoting strings as required by the output format.
+   *
+   * @param value <code>Object</code>
+   * @param isJson <code>boolean</code>
+   * @return <code>String</code>
+   */
+  private static String formatValue(Object value, boolean isJson) {
+    if (value instanceof Double) {
+      return String.format(Locale.ROOT, "%.3f", (Double) value);
+    } else if (value instanceof String) {
+      return "\"" + ((String) value).replace("\"", (isJson) ? "\\\"" : "\"\"") + "\"";
+    }
+
+    return String.valueOf(value);
+  }
+
+  // Inner helper classes
+
+  /**
+   * Listener of the offscreen drawable, positioning the camera and any animated objects for the
+   * current frame before handing over to <code>SceneRenderer</code> and tallying its
+   * <code>RenderStats</code>.
+   *
+   * @see com.jogamp.opengl.GLEventListener
+   * @author Andrew Eissen
+   */
+  private final class BenchmarkListener implements GLEventListener {
+
+    // Declarations
+    private final SceneGraph sceneGraph;
+    private final SceneAnimator sceneAnimator;
+
+    /**
+     * Parameterized constructor
+     *
+     * @param sceneGraph <code>SceneGraph</code> of the objects to draw
+     * @param sceneAnimator <code>SceneAnimator</code> of the graph, or <code>null</code> if static
+     */
+    private BenchmarkListener(SceneGraph sceneGraph, SceneAnimator sceneAnimator) {
+      this.sceneGraph = sceneGraph;
+      this.sceneAnimator = sceneAnimator;
+    }
+
+    /**
+     * Sets up the GL state of the new offscreen context, noting which renderer is in use.
+     *
+     * @param glad <code>GLAutoDrawable</code>
+     * @return void
+     */
+    @Override
+    public void init(GLAutoDrawable glad) {
+
+      // Declaration
+      GL2 gl2;
+
+      gl2 = glad.getGL().getGL2();
+      Benchmark.this.sceneRenderer.init(gl2);
+      Benchmark.this.glRenderer = gl2.glGetString(GL2.GL_RENDERER);
+      System.err.println("Rendering offscreen with " + Benchmark.this.glRenderer);
+    }
+
+    /**
+     * Renders a single frame of the path and waits for it to complete.
+     *
+     * @param glad <code>GLAutoDrawable</code>
+     * @return void
+     */
+    @Override
+    public void display(GLAutoDrawable glad) {
+
+      // Declarations
+      GL2 gl2;
+      RenderStats stats;
+      long start;
+
+      gl2 = glad.getGL().getGL2();
+      Benchmark.this.flyCamera(Benchmark.this.frameIndex);
+
+      // Animated at a fixed 60 frames per second of scene time, independent of the frame rate
+      if (this.sceneAnimator != null) {
+        start = System.nanoTime();
+        this.sceneAnimator.evaluate(Math.max(Benchmark.this.frameIndex, 0) / 60.0);
+        this.sceneGraph.update();
+
+        if (Benchmark.this.frameIndex >= 0) {
+          Benchmark.this.animationNanos += System.nanoTime() - start;
+        }
+      }
+
+      Benchmark.this.sceneRenderer.render(gl2, Benchmark.this.camera, this.sceneGraph);
+      gl2.glFinish();
+
+      if (Benchmark.this.frameIndex >= 0) {
+        stats = Benchmark.this.sceneRenderer.getRenderStats();
+        Benchmark.this.drawCalls += stats.getDrawCalls();
+        Benchmark.this.triangles += stats.getTriangles();
+        Benchmark.this.occluded += stats.getOccluded();
+        Benchmark.this.textureBinds += stats.getTextureBinds();
+
+        for (int i = 0; i < GLStateFilter.CATEGORIES; i++) {
+          Benchmark.this.glCalls[i] += stats.getGLCalls(i);
+          Benchmark.this.filteredGLCalls[i] += stats.getFilteredGLCalls(i);
+        }
+      }
+    }
+
+    /**
+     * Releases the buffer objects of the offscreen context.
+     *
+     * @param glad <code>GLAutoDrawable</code>
+     * @return void
+     */
+    @Override
+    public void dispose(GLAutoDrawable glad) {
+      Benchmark.this.sceneRenderer.dispose(glad.getGL().getGL2());
+    }
+
+    /**
+     * Adapts the projection to the aspect ratio of the offscreen surface, as in the GUI.
+     *
+     * @param glad <code>GLAutoDrawable</code>
+     * @param x <code>int</code>
+     * @param y <code>int</code>
+     * @param width <code>int</code>
+     * @param height <code>int</code>
+     * @return void
+     */
+    @Override
+    public void reshape(GLAutoDrawable glad, int x, int y, int width, int height) {
+      Benchmark.this.sceneRenderer.reshape(glad.getGL().getGL2(), width, height);
+    }
+  }
+}
@@ -5,24 +5,51 @@
  */
 package graphicsprojecttwo;
 
+import java.util.Arrays;
+import javax.swing.SwingUtilities;
+
 /**
  * This class simply contains the <code>main</code> method, used to initialize a new
  * <code>Application</code> object. Originally, this method was simply appended to the end of the
  * <code>Application</code> class, but was moved into a separate class in accordance with the
  * <a href="https://en.wikipedia.org/wiki/Single_responsibility_principle">single responsibility
- * principle</a>.
+ * principle</a>. If the first argument is <code>--benchmark</code>, <code>--replay</code>,
+ * <code>--golden</code>, <code>--allocations</code>, or <code>--batch</code>, the GUI is skipped
+ * entirely and the remaining arguments are handed to <code>Benchmark.run</code>,
+ * <code>InputReplayer.run</code>, <code>GoldenImageSuite.run</code>,
+ * <code>AllocationCheck.run</code>, or <code>BatchRenderer.run</code> instead. Otherwise, the
+ * <code>MetricsServer</code> is started first, should a port have been given for it.
  *
  * @author Andrew Eissen
  */
 final class Driver {
 
   /**
-   * Method simply creates a new <code>Application</code> instance.
+   * Method simply creates a new <code>Application</code> instance on the event dispatch thread,
+   * unless a headless mode was requested on the command line. The rest of startup is set off by
+   * <code>Startup.begin</code> beforehand, such that it runs alongside the building of the GUI.
    *
    * @param args <code>String[]</code>
    * @return void
    */
   public static void main(String[] args) {
-    final Application newApp = new Application();
+    if (args.length > 0 && args[0].equals("--benchmark")) {
+      System.exit(Benchmark.run(Arrays.copyOfRange(args, 1, args.length)));
+    } else if (args.length > 0 && args[0].equals("--replay")) {
+      System.exit(InputReplayer.run(Arrays.copyOfRange(args, 1, args.length)));
+    } else if (args.length > 0 && args[0].equals("--golden")) {
+      System.exit(GoldenImageSuite.run(Arrays.copyOfRange(args, 1, args.length)));
+    } else if (args.length > 0 && args[0].equals("--allocations")) {
+      System.exit(AllocationCheck.run(Arrays.copyOfRange(args, 1, args.length)));
+    } else if (args.length > 0 && args[0].equals("--batch")) {
+      System.exit(BatchRenderer.run(Arrays.copyOfRange(args, 1, args.length)));
+    }
+
+    // Native libraries and the scene load in the background while Swing builds the frame
+    MetricsServer.start();
+    Startup.begin();
+    SwingUtilities.invokeLater(() -> {
+      final Application newApp = Startup.time("swing", Application::new);
+    });
   }
 }
\ No newline at end of file
@@ -0,0 +1,372 @@
+/**
+ * FlightEvents.java - Java Flight Recorder events of rendering, transformations, and loading
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recordings of the program made with Java Flight Recorder, as by passing
+ * <code>-XX:StartFlightRecording</code> to the virtual machine, used to show nothing but the
+ * virtual machine's own activity: collections, safepoints, compilation, and threads, without any
+ * sign of what the program was doing at the time. This class defines events of the program's own,
+ * which Mission Control shows on the same timeline, such that a long frame can be laid next to the
+ * collection or safepoint that held it up:
+ * <pre>
+ * - Frame            SceneRenderer.render, with the counts of its RenderStats
+ * - Render Pass      each stage of a frame: update, record, then each pass of the sorted
+ *                    RenderQueue as it is replayed, and the occlusion tests
+ * - Transformation   ScenePanel.performTransformation, whether from a key or the animation
+ * - Animation Step   each tick of ScenePanel.runAnimation
+ * - Asset Load       meshes built, textures decoded, and lighting baked or read back
+ * </pre>
+ * All events span the work they describe, and are found under the "Graphics Project Two"
+ * category. None records a stack trace, which would cost more than the event itself.
+ * <br />
+ * <br />
+ * The events are meant to stay in the program at all times, so are made as cheap as can be when
+ * not recorded. Each is only created once its type has been found enabled, through a static
+ * <code>EventType</code> whose check is a single field read, such that a frame rendered with no
+ * recording running allocates nothing, as <code>AllocationCheck</code> demands. The helpers of
+ * this class return <code>null</code> in that case, which the matching helper ending the event
+ * takes in stride, and callers need not check for themselves.
+ *
+ * @see jdk.jfr.Event
+ * @author Andrew Eissen
+ */
+final class FlightEvents {
+
+  /** Names of the passes of <code>RenderQueue</code>, by pass */
+  private final static String[] PASS_NAMES = {"faces", "queried faces", "outlines"};
+
+  /** Type of <code>FlightEvents.Frame</code> */
+  private final static EventType FRAME = EventType.getEventType(Frame.class);
+
+  /** Type of <code>FlightEvents.RenderPass</code> */
+  private final static EventType RENDER_PASS = EventType.getEventType(RenderPass.class);
+
+  /** Type of <code>FlightEvents.Transformation</code> */
+  private final static EventType TRANSFORMATION = EventType.getEventType(Transformation.class);
+
+  /** Type of <code>FlightEvents.AnimationStep</code> */
+  private final static EventType ANIMATION_STEP = EventType.getEventType(AnimationStep.class);
+
+  /** Type of <code>FlightEvents.AssetLoad</code> */
+  private final static EventType ASSET_LOAD = EventType.getEventType(AssetLoad.class);
+
+  /**
+   * Private constructor, as this class only contains static utility methods
+   */
+  private FlightEvents() {}
+
+  // Utility methods
+
+  /**
+   * Begins the event of a frame, if recorded.
+   *
+   * @return <code>FlightEvents.Frame</code>, or <code>null</code> if not recorded
+   */
+  protected static Frame beginFrame() {
+
+    // Declaration
+    Frame event;
+
+    if (!FlightEvents.FRAME.isEnabled()) {
+      return null;
+    }
+
+    event = new Frame();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Ends and commits the event of a frame, with the counts of the given statistics.
+   *
+   * @param event <code>FlightEvents.Frame</code>, or <code>null</code>
+   * @param stats <code>RenderStats</code> of the frame
+   * @return void
+   */
+  protected static void endFrame(Frame event, RenderStats stats) {
+    if (event == null) {
+      return;
+    }
+
+    event.end();
+
+    if (event.shouldCommit()) {
+      event.objects = stats.getObjects();
+      event.drawCalls = stats.getDrawCalls();
+      event.triangles = stats.getTriangles();
+      event.skipped = stats.getSkipped();
+      event.occluded = stats.getOccluded();
+      event.textureBinds = stats.getTextureBinds();
+
+      for (int i = 0; i < GLStateFilter.CATEGORIES; i++) {
+        event.glCalls += stats.getGLCalls(i);
+      }
+
+      event.commit();
+    }
+  }
+
+  /**
+   * Begins the event of a stage of a frame, if recorded.
+   *
+   * @param name <code>String</code> of the stage
+   * @return <code>FlightEvents.RenderPass</code>, or <code>null</code> if not recorded
+   */
+  protected static RenderPass beginPass(String name) {
+
+    // Declaration
+    RenderPass event;
+
+    if (!FlightEvents.RENDER_PASS.isEnabled()) {
+      return null;
+    }
+
+    event = new RenderPass();
+    event.name = name;
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Begins the event of a pass of the <code>RenderQueue</code>, if recorded.
+   *
+   * @param pass <code>int</code> one of the <code>RenderQueue.PASS_*</code> constants
+   * @return <code>FlightEvents.RenderPass</code>, or <code>null</code> if not recorded
+   */
+  protected static RenderPass beginPass(int pass) {
+    return FlightEvents.beginPass(FlightEvents.PASS_NAMES[pass]);
+  }
+
+  /**
+   * Begins the event of a transformation of the scene, if recorded.
+   *
+   * @param operation <code>String</code> suffix of the transformed field, as in "RotateX"
+   * @param amount <code>double</code>
+   * @return <code>FlightEvents.Transformation</code>, or <code>null</code> if not recorded
+   */
+  protected static Transformation beginTransformation(String operation, double amount) {
+
+    // Declaration
+    Transformation event;
+
+    if (!FlightEvents.TRANSFORMATION.isEnabled()) {
+      return null;
+    }
+
+    event = new Transformation();
+    event.operation = operation;
+    event.amount = amount;
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Begins the event of a tick of the animation, if recorded.
+   *
+   * @param step <code>int</code> value of the counter, from 1
+   * @param operation <code>String</code> transformation of the step, or "Reset"
+   * @return <code>FlightEvents.AnimationStep</code>, or <code>null</code> if not recorded
+   */
+  protected static AnimationStep beginAnimationStep(int step, String operation) {
+
+    // Declaration
+    AnimationStep event;
+
+    if (!FlightEvents.ANIMATION_STEP.isEnabled()) {
+      return null;
+    }
+
+    event = new AnimationStep();
+    event.step = step;
+    event.operation = operation;
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Begins the event of the loading of an asset, if recorded.
+   *
+   * @param kind <code>String</code> of asset, as in "mesh"
+   * @param name <code>String</code> of the asset
+   * @return <code>FlightEvents.AssetLoad</code>, or <code>null</code> if not recorded
+   */
+  protected static AssetLoad beginAssetLoad(String kind, String name) {
+
+    // Declaration
+    AssetLoad event;
+
+    if (!FlightEvents.ASSET_LOAD.isEnabled()) {
+      return null;
+    }
+
+    event = new AssetLoad();
+    event.kind = kind;
+    event.name = name;
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Ends and commits the event of the loading of an asset of the given size.
+   *
+   * @param event <code>FlightEvents.AssetLoad</code>, or <code>null</code>
+   * @param bytes <code>long</code> size of the loaded asset
+   * @param source <code>String</code> the asset was loaded from, as in "cache"
+   * @return void
+   */
+  protected static void endAssetLoad(AssetLoad event, long bytes, String source) {
+    if (event != null) {
+      event.bytes = bytes;
+      event.source = source;
+      FlightEvents.end(event);
+    }
+  }
+
+  /**
+   * Ends and commits the given event, whose fields have all been set.
+   *
+   * @param event <code>Event</code>, or <code>null</code>
+   * @return void
+   */
+  protected static void end(Event event) {
+    if (event != null) {
+      event.end();
+
+      if (event.shouldCommit()) {
+        event.commit();
+      }
+    }
+  }
+
+  // Inner helper classes
+
+  /**
+   * Event of a frame rendered by <code>SceneRenderer.render</code>.
+   *
+   * @author Andrew Eissen
+   */
+  @Name("graphicsprojecttwo.Frame")
+  @Label("Frame")
+  @Category({"Graphics Project Two", "Rendering"})
+  @Description("A frame rendered by the scene renderer")
+  @StackTrace(false)
+  protected static final class Frame extends Event {
+
+    @Label("Objects")
+    private int objects;
+
+    @Label("Draw Calls")
+    private int drawCalls;
+
+    @Label("Triangles")
+    private int triangles;
+
+    @Label("Skipped")
+    @Description("Objects too small on screen to be drawn")
+    private int skipped;
+
+    @Label("Occluded")
+    @Description("Objects hidden behind others")
+    private int occluded;
+
+    @Label("Texture Binds")
+    private int textureBinds;
+
+    @Label("GL Calls")
+    @Description("Calls forwarded by the state filter")
+    private int glCalls;
+  }
+
+  /**
+   * Event of a stage of a frame.
+   *
+   * @author Andrew Eissen
+   */
+  @Name("graphicsprojecttwo.RenderPass")
+  @Label("Render Pass")
+  @Category({"Graphics Project Two", "Rendering"})
+  @Description("A stage of a frame, or a pass of its sorted draw commands")
+  @StackTrace(false)
+  protected static final class RenderPass extends Event {
+
+    @Label("Name")
+    private String name;
+  }
+
+  /**
+   * Event of a transformation of the scene.
+   *
+   * @author Andrew Eissen
+   */
+  @Name("graphicsprojecttwo.Transformation")
+  @Label("Transformation")
+  @Category({"Graphics Project Two", "Scene"})
+  @Description("A rotation, scaling, or translation of the scene")
+  @StackTrace(false)
+  protected static final class Transformation extends Event {
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Amount")
+    private double amount;
+  }
+
+  /**
+   * Event of a tick of the animation.
+   *
+   * @author Andrew Eissen
+   */
+  @Name("graphicsprojecttwo.AnimationStep")
+  @Label("Animation Step")
+  @Category({"Graphics Project Two", "Scene"})
+  @Description("A tick of the animation video")
+  @StackTrace(false)
+  protected static final class AnimationStep extends Event {
+
+    @Label("Step")
+    private int step;
+
+    @Label("Operation")
+    private String operation;
+  }
+
+  /**
+   * Event of the loading of an asset.
+   *
+   * @author Andrew Eissen
+   */
+  @Name("graphicsprojecttwo.AssetLoad")
+  @Label("Asset Load")
+  @Category({"Graphics Project Two", "Loading"})
+  @Description("A mesh built, a texture decoded, or lighting baked")
+  @StackTrace(false)
+  protected static final class AssetLoad extends Event {
+
+    @Label("Kind")
+    private String kind;
+
+    @Label("Name")
+    private String name;
+
+    @Label("Source")
+    private String source;
+
+    @Label("Size")
+    @DataAmount
+    private long bytes;
+  }
+}
@@ -0,0 +1,282 @@
+/**
+ * FrameCache.java - Offscreen framebuffer holding the last fully rendered frame of the scene
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import com.jogamp.opengl.GL2;
+
+/**
+ * This class wraps a single OpenGL framebuffer object (FBO) consisting of a color renderbuffer
+ * and a depth renderbuffer, into which <code>ScenePanel.SceneGLEventListener</code> renders the
+ * scene rather than into the panel's own drawable. Once a frame has been rendered into the cache,
+ * it is copied ("presented") to the drawable's default framebuffer via
+ * <code>GL2.glBlitFramebuffer</code>. As long as nothing in the scene has changed since, later
+ * repaints requested by Swing (dialogs closing, focus changes, window exposure, and so on) may
+ * simply present the cached frame again instead of re-running the entire object traversal.
+ * <br />
+ * <br />
+ * The cache need not match the size of the drawable. When the <code>RenderScaleController</code>
+ * lowers the render scale, the cache is allocated at that fraction of the window's size, and
+ * presenting it stretches it over the whole drawable with linear filtering.
+ * <br />
+ * <br />
+ * If the driver refuses to build a complete framebuffer, the cache marks itself unsupported and
+ * the listener falls back to rendering directly into the default framebuffer on every call, as was
+ * the case before this class was added.
+ *
+ * @see graphicsprojecttwo.ScenePanel
+ * @author Andrew Eissen
+ */
+final class FrameCache {
+
+  // Class fields
+  private final int[] names;
+  private int framebuffer, colorRenderbuffer, depthRenderbuffer, width, height;
+  private boolean isValid, isSupported;
+
+  /**
+   * Default constructor
+   */
+  protected FrameCache() {
+    this.names = new int[2];
+    this.setWidth(0);
+    this.setHeight(0);
+    this.setIsValid(false);
+    this.setIsSupported(true);
+  }
+
+  // Setters
+
+  /**
+   * Setter for <code>FrameCache.width</code>
+   *
+   * @param width <code>int</code>
+   * @return void
+   */
+  private void setWidth(int width) {
+    this.width = width;
+  }
+
+  /**
+   * Setter for <code>FrameCache.height</code>
+   *
+   * @param height <code>int</code>
+   * @return void
+   */
+  private void setHeight(int height) {
+    this.height = height;
+  }
+
+  /**
+   * Setter for <code>FrameCache.isValid</code>
+   *
+   * @param isValid <code>boolean</code>
+   * @return void
+   */
+  private void setIsValid(boolean isValid) {
+    this.isValid = isValid;
+  }
+
+  /**
+   * Setter for <code>FrameCache.isSupported</code>
+   *
+   * @param isSupported <code>boolean</code>
+   * @return void
+   */
+  private void setIsSupported(boolean isSupported) {
+    this.isSupported = isSupported;
+  }
+
+  // Getters
+
+  /**
+   * Getter for <code>FrameCache.width</code>
+   *
+   * @return width <code>int</code>
+   */
+  protected int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Getter for <code>FrameCache.height</code>
+   *
+   * @return height <code>int</code>
+   */
+  protected int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Getter for <code>FrameCache.framebuffer</code>
+   *
+   * @return framebuffer <code>int</code>
+   */
+  protected int getFramebuffer() {
+    return this.framebuffer;
+  }
+
+  /**
+   * Getter for <code>FrameCache.isValid</code>, denoting whether the cache currently holds a
+   * complete frame that may be presented as-is.
+   *
+   * @return isValid <code>boolean</code>
+   */
+  protected boolean getIsValid() {
+    return this.isValid && this.isSupported;
+  }
+
+  /**
+   * Getter for <code>FrameCache.isSupported</code>
+   *
+   * @return isSupported <code>boolean</code>
+   */
+  protected boolean getIsSupported() {
+    return this.isSupported;
+  }
+
+  // Utility methods
+
+  /**
+   * This method (re)allocates the framebuffer and its two renderbuffers whenever the requested
+   * dimensions differ from the current ones. Any frame previously held by the cache is discarded
+   * in the process. If the resulting framebuffer is not complete, the cache is permanently flagged
+   * as unsupported and <code>false</code> is returned so that the caller may render directly. As
+   * the render scale may change the dimensions in the middle of use, nothing is allocated.
+   *
+   * @param gl2 <code>GL2</code>
+   * @param width <code>int</code> surface width in pixels
+   * @param height <code>int</code> surface height in pixels
+   * @return <code>boolean</code> whether the cache may be rendered into
+   */
+  protected boolean ensureSize(GL2 gl2, int width, int height) {
+
+    // Declarations
+    int[] names;
+    int status;
+
+    if (!this.getIsSupported() || width <= 0 || height <= 0) {
+      return false;
+    }
+
+    if (this.framebuffer != 0 && width == this.getWidth() && height == this.getHeight()) {
+      return true;
+    }
+
+    // Discard any previous allocation before building the new one
+    this.dispose(gl2);
+    names = this.names;
+
+    gl2.glGenFramebuffers(1, names, 0);
+    this.framebuffer = names[0];
+    gl2.glGenRenderbuffers(2, names, 0);
+    this.colorRenderbuffer = names[0];
+    this.depthRenderbuffer = names[1];
+
+    // Color and depth storage matching the surface size
+    gl2.glBindRenderbuffer(GL2.GL_RENDERBUFFER, this.colorRenderbuffer);
+    gl2.glRenderbufferStorage(GL2.GL_RENDERBUFFER, GL2.GL_RGBA8, width, height);
+    gl2.glBindRenderbuffer(GL2.GL_RENDERBUFFER, this.depthRenderbuffer);
+    gl2.glRenderbufferStorage(GL2.GL_RENDERBUFFER, GL2.GL_DEPTH_COMPONENT24, width, height);
+    gl2.glBindRenderbuffer(GL2.GL_RENDERBUFFER, 0);
+
+    // Attach both to the framebuffer and check for completeness
+    gl2.glBindFramebuffer(GL2.GL_FRAMEBUFFER, this.framebuffer);
+    gl2.glFramebufferRenderbuffer(GL2.GL_FRAMEBUFFER, GL2.GL_COLOR_ATTACHMENT0,
+      GL2.GL_RENDERBUFFER, this.colorRenderbuffer);
+    gl2.glFramebufferRenderbuffer(GL2.GL_FRAMEBUFFER, GL2.GL_DEPTH_ATTACHMENT,
+      GL2.GL_RENDERBUFFER, this.depthRenderbuffer);
+    status = gl2.glCheckFramebufferStatus(GL2.GL_FRAMEBUFFER);
+
+    if (status != GL2.GL_FRAMEBUFFER_COMPLETE) {
+      this.dispose(gl2);
+      this.setIsSupported(false);
+      return false;
+    }
+
+    this.setWidth(width);
+    this.setHeight(height);
+    this.setIsValid(false);
+    return true;
+  }
+
+  /**
+   * Binds the cache as the current render target, with a viewport covering all of it. The contents
+   * become valid again only once <code>FrameCache.present</code> has been called after the frame
+   * is complete.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  protected void bind(GL2 gl2) {
+    gl2.glBindFramebuffer(GL2.GL_FRAMEBUFFER, this.framebuffer);
+    gl2.glViewport(0, 0, this.getWidth(), this.getHeight());
+    this.setIsValid(false);
+  }
+
+  /**
+   * Copies the cached frame onto the given default framebuffer of the drawable, stretching it to
+   * the given size if need be, and leaves that framebuffer bound with a matching viewport, as the
+   * drawable expects on return from <code>display</code>. Calling this method right after
+   * rendering into the cache also marks the cached frame as valid.
+   *
+   * @param gl2 <code>GL2</code>
+   * @param defaultFramebuffer <code>int</code> from
+   *     <code>GLContext.getDefaultDrawFramebuffer</code>
+   * @param width <code>int</code> surface width of the drawable in pixels
+   * @param height <code>int</code> surface height of the drawable in pixels
+   * @return void
+   */
+  protected void present(GL2 gl2, int defaultFramebuffer, int width, int height) {
+
+    // Declaration
+    int filter;
+
+    // Exact copies are cheapest without filtering
+    filter = (width == this.getWidth() && height == this.getHeight())
+      ? GL2.GL_NEAREST
+      : GL2.GL_LINEAR;
+
+    gl2.glBindFramebuffer(GL2.GL_READ_FRAMEBUFFER, this.framebuffer);
+    gl2.glBindFramebuffer(GL2.GL_DRAW_FRAMEBUFFER, defaultFramebuffer);
+    gl2.glBlitFramebuffer(0, 0, this.getWidth(), this.getHeight(), 0, 0, width, height,
+      GL2.GL_COLOR_BUFFER_BIT, filter);
+    gl2.glBindFramebuffer(GL2.GL_FRAMEBUFFER, defaultFramebuffer);
+    gl2.glViewport(0, 0, width, height);
+    this.setIsValid(true);
+  }
+
+  /**
+   * Marks the cached frame as stale without releasing any GL resources.
+   *
+   * @return void
+   */
+  protected void invalidate() {
+    this.setIsValid(false);
+  }
+
+  /**
+   * Releases the framebuffer and renderbuffers, if any. Must be called with a current context.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  protected void dispose(GL2 gl2) {
+    if (this.framebuffer != 0) {
+      this.names[0] = this.framebuffer;
+      gl2.glDeleteFramebuffers(1, this.names, 0);
+      this.names[0] = this.colorRenderbuffer;
+      this.names[1] = this.depthRenderbuffer;
+      gl2.glDeleteRenderbuffers(2, this.names, 0);
+    }
+
+    this.framebuffer = 0;
+    this.colorRenderbuffer = 0;
+    this.depthRenderbuffer = 0;
+    this.setWidth(0);
+    this.setHeight(0);
+    this.setIsValid(false);
+  }
+}
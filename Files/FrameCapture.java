@@ -0,0 +1,603 @@
+/**
+ * FrameCapture.java - Asynchronous frame readback and image sequence/video export pipeline
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import com.jogamp.opengl.GL2;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import javax.imageio.ImageIO;
+
+/**
+ * This class records the frames rendered by <code>ScenePanel.SceneGLEventListener</code>, be they
+ * produced by the "Video" animation or by the user's own keystrokes, to disk. The naive approach of
+ * calling <code>GL2.glReadPixels</code> into client memory stalls the render thread until the GPU
+ * has finished the frame, so instead each frame is read into one of a small ring of pixel buffer
+ * objects (PBOs). The transfer is thereby queued on the GPU and only mapped and copied out once the
+ * same ring slot comes around again, by which time it has long completed. Several frames are thus
+ * in flight at any given moment.
+ * <br />
+ * <br />
+ * Once copied out, a frame is handed to a bounded pool of worker threads for encoding, either as a
+ * PNG image, a raw RGBA dump, or as part of a video stream piped to <code>ffmpeg</code> (in which
+ * case a single worker is used so as to keep the frames in order). Copy buffers are drawn from a
+ * fixed pool, and if either that pool or the encoder queue is exhausted the frame is simply dropped
+ * and counted rather than having the render thread wait for the encoders to catch up.
+ * <br />
+ * <br />
+ * <pre>
+ * Capture formats:
+ * - png   -> capture/frame_000001.png, ...
+ * - raw   -> capture/frame_000001.rgba, ... (top-down RGBA8 rows)
+ * - video -> capture/capture.mp4 via ffmpeg, or capture/capture.rgba if ffmpeg is unavailable
+ * </pre>
+ * A video stream has the size of its first frame. Should the size change mid-capture, as when the
+ * window is resized, the stream is closed and a new segment begun at the new size, as
+ * capture/capture-2.mp4 and so on, rather than losing every frame from then on.
+ * <br />
+ * <br />
+ * As the panel renders on demand, frames arrive as the scene changes rather than at any steady
+ * rate: in bursts while a key is held, not at all while it sits still. A video stream, on the
+ * other hand, plays at a fixed <code>VIDEO_FRAME_RATE</code>. Each frame is therefore stamped with
+ * the time it was captured, and the stream paced against that clock. A frame is held until the
+ * next one arrives and then written once for every tick of the stream that passed in between,
+ * such that a still scene stays on screen as long as it did while recording, while frames
+ * rendered within the same tick as their successor are skipped.
+ *
+ * @see graphicsprojecttwo.FrameCache
+ * @author Andrew Eissen
+ */
+final class FrameCapture {
+
+  /** Output formats supported by the capture pipeline */
+  protected enum Format { PNG, RAW, VIDEO }
+
+  /** Number of pixel buffer objects in the readback ring, and thus frames in flight */
+  private final static int PBO_COUNT = 3;
+
+  /** Maximum number of frames waiting for an encoder before new ones are dropped */
+  private final static int QUEUE_CAPACITY = 8;
+
+  /** Frame rate of exported video streams, to which the captured frames are paced */
+  private final static int VIDEO_FRAME_RATE = 30;
+
+  // Class fields
+  private final Path outputDirectory;
+  private final Format format;
+  private final ThreadPoolExecutor encoderPool;
+  private final ArrayBlockingQueue<byte[]> bufferPool;
+  private final AtomicLong framesCaptured, framesWritten, framesDropped, framesFailed;
+  private final int[] pbos, pboWidths, pboHeights;
+  private final long[] pboFrames, pboNanos;
+  private long frameIndex, streamStartNanos, streamTicks;
+  private int streamWidth, streamHeight, streamSegment;
+  private byte[] heldPixels;
+  private OutputStream videoStream;
+  private Process videoProcess;
+
+  /**
+   * Parameterized constructor
+   *
+   * @param outputDirectory <code>Path</code> directory to which frames are written
+   * @param format <code>FrameCapture.Format</code>
+   */
+  protected FrameCapture(Path outputDirectory, Format format) {
+
+    // Declaration
+    int workers;
+
+    // Video frames must arrive in order, images may be encoded in any order
+    workers = (format == Format.VIDEO)
+      ? 1
+      : Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    this.outputDirectory = outputDirectory;
+    this.format = format;
+    this.encoderPool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(FrameCapture.QUEUE_CAPACITY), (Runnable r) -> {
+        Thread thread = new Thread(r, "frame-capture-encoder");
+        thread.setDaemon(true);
+        return thread;
+      }, new ThreadPoolExecutor.AbortPolicy());
+    this.bufferPool = new ArrayBlockingQueue<>(FrameCapture.QUEUE_CAPACITY + workers);
+    this.framesCaptured = new AtomicLong();
+    this.framesWritten = new AtomicLong();
+    this.framesDropped = new AtomicLong();
+    this.framesFailed = new AtomicLong();
+    this.pbos = new int[FrameCapture.PBO_COUNT];
+    this.pboWidths = new int[FrameCapture.PBO_COUNT];
+    this.pboHeights = new int[FrameCapture.PBO_COUNT];
+    this.pboFrames = new long[FrameCapture.PBO_COUNT];
+    this.pboNanos = new long[FrameCapture.PBO_COUNT];
+    this.frameIndex = 0;
+
+    for (int i = 0; i < FrameCapture.PBO_COUNT; i++) {
+      this.pboFrames[i] = -1;
+    }
+  }
+
+  // Getters
+
+  /**
+   * Getter for <code>FrameCapture.format</code>
+   *
+   * @return format <code>FrameCapture.Format</code>
+   */
+  protected Format getFormat() {
+    return this.format;
+  }
+
+  /**
+   * Getter for <code>FrameCapture.outputDirectory</code>
+   *
+   * @return outputDirectory <code>Path</code>
+   */
+  protected Path getOutputDirectory() {
+    return this.outputDirectory;
+  }
+
+  /**
+   * Getter for the number of frames read back from the GPU so far
+   *
+   * @return <code>long</code>
+   */
+  protected long getFramesCaptured() {
+    return this.framesCaptured.get();
+  }
+
+  /**
+   * Getter for the number of frames successfully encoded and written to disk so far
+   *
+   * @return <code>long</code>
+   */
+  protected long getFramesWritten() {
+    return this.framesWritten.get();
+  }
+
+  /**
+   * Getter for the number of frames dropped because the encoders had fallen behind
+   *
+   * @return <code>long</code>
+   */
+  protected long getFramesDropped() {
+    return this.framesDropped.get();
+  }
+
+  /**
+   * Getter for the number of frames lost to I/O errors during encoding
+   *
+   * @return <code>long</code>
+   */
+  protected long getFramesFailed() {
+    return this.framesFailed.get();
+  }
+
+  /**
+   * Getter for the number of frames waiting for an encoder
+   *
+   * @return <code>int</code>
+   */
+  protected int getQueueDepth() {
+    return this.encoderPool.getQueue().size();
+  }
+
+  // Utility methods
+
+  /**
+   * This method is called by the GL listener once per newly rendered frame, while the framebuffer
+   * holding that frame is bound for reading. The frame is queued for transfer into the current
+   * ring slot; should that slot still hold the frame from <code>PBO_COUNT</code> frames ago, that
+   * older frame is first mapped and handed off to the encoders.
+   *
+   * @param gl2 <code>GL2</code>
+   * @param width <code>int</code> frame width in pixels
+   * @param height <code>int</code> frame height in pixels
+   * @return void
+   */
+  protected void capture(GL2 gl2, int width, int height) {
+
+    // Declaration
+    int slot;
+
+    if (width <= 0 || height <= 0) {
+      return;
+    }
+
+    // Buffers are created lazily as only now is a context guaranteed to be current
+    if (this.pbos[0] == 0) {
+      gl2.glGenBuffers(FrameCapture.PBO_COUNT, this.pbos, 0);
+    }
+
+    slot = (int) (this.frameIndex % FrameCapture.PBO_COUNT);
+
+    // Oldest frame in the ring has surely finished transferring by now
+    this.drainSlot(gl2, slot);
+
+    gl2.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, this.pbos[slot]);
+
+    if (this.pboWidths[slot] != width || this.pboHeights[slot] != height) {
+      gl2.glBufferData(GL2.GL_PIXEL_PACK_BUFFER, (long) width * height * 4, null,
+        GL2.GL_STREAM_READ);
+      this.pboWidths[slot] = width;
+      this.pboHeights[slot] = height;
+    }
+
+    // Asynchronous transfer into the buffer object, returns immediately
+    gl2.glPixelStorei(GL2.GL_PACK_ALIGNMENT, 1);
+    gl2.glReadPixels(0, 0, width, height, GL2.GL_RGBA, GL2.GL_UNSIGNED_BYTE, 0L);
+    gl2.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, 0);
+
+    this.pboFrames[slot] = this.frameIndex++;
+    this.pboNanos[slot] = System.nanoTime();
+    this.framesCaptured.incrementAndGet();
+  }
+
+  /**
+   * This method ends the capture, draining every frame still in flight in order, releasing the
+   * buffer objects, and letting the encoders finish in the background. Once all pending frames
+   * have been written, the provided callback receives a short summary of the session.
+   *
+   * @param gl2 <code>GL2</code>
+   * @param onFinished <code>Consumer</code> receiving the summary message
+   * @return void
+   */
+  protected void stop(GL2 gl2, Consumer<String> onFinished) {
+
+    // Declaration
+    Thread finisher;
+
+    for (long i = 0; i < FrameCapture.PBO_COUNT; i++) {
+      this.drainSlot(gl2, (int) ((this.frameIndex + i) % FrameCapture.PBO_COUNT));
+    }
+
+    if (this.pbos[0] != 0) {
+      gl2.glDeleteBuffers(FrameCapture.PBO_COUNT, this.pbos, 0);
+    }
+
+    this.encoderPool.shutdown();
+
+    // Wait for the encoders off the render thread
+    finisher = new Thread(() -> {
+      try {
+        this.encoderPool.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+
+      this.closeVideoStream();
+      onFinished.accept("Capture finished: " + this.getFramesWritten() + " frames written, "
+        + this.getFramesDropped() + " dropped, " + this.getFramesFailed() + " failed ("
+        + this.getOutputDirectory() + ")");
+    }, "frame-capture-finisher");
+    finisher.setDaemon(true);
+    finisher.start();
+  }
+
+  /**
+   * Maps the given ring slot if it holds a pending frame, copies the pixels into a pooled buffer,
+   * and submits that buffer for encoding. If no buffer is free or the encoder queue is full, the
+   * frame is counted as dropped instead.
+   *
+   * @param gl2 <code>GL2</code>
+   * @param slot <code>int</code> ring index
+   * @return void
+   */
+  private void drainSlot(GL2 gl2, int slot) {
+
+    // Declarations
+    final long frame, nanos;
+    final int width, height;
+    final byte[] pixels;
+    ByteBuffer mapped;
+
+    if (this.pboFrames[slot] < 0) {
+      return;
+    }
+
+    frame = this.pboFrames[slot];
+    nanos = this.pboNanos[slot];
+    width = this.pboWidths[slot];
+    height = this.pboHeights[slot];
+    this.pboFrames[slot] = -1;
+
+    // Encoders have fallen behind, drop rather than stall
+    if (this.encoderPool.getQueue().remainingCapacity() == 0) {
+      this.framesDropped.incrementAndGet();
+      return;
+    }
+
+    pixels = this.acquireBuffer(width * height * 4);
+
+    gl2.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, this.pbos[slot]);
+    mapped = gl2.glMapBuffer(GL2.GL_PIXEL_PACK_BUFFER, GL2.GL_READ_ONLY);
+
+    if (mapped != null) {
+      mapped.get(pixels, 0, width * height * 4);
+    }
+
+    gl2.glUnmapBuffer(GL2.GL_PIXEL_PACK_BUFFER);
+    gl2.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, 0);
+
+    if (mapped == null) {
+      this.releaseBuffer(pixels);
+      this.framesFailed.incrementAndGet();
+      return;
+    }
+
+    try {
+      this.encoderPool.execute(() -> this.encode(frame, nanos, width, height, pixels));
+    } catch (java.util.concurrent.RejectedExecutionException ex) {
+      this.releaseBuffer(pixels);
+      this.framesDropped.incrementAndGet();
+    }
+  }
+
+  /**
+   * Returns a pooled copy buffer of at least the given size, allocating a new one only while the
+   * pool has not yet reached its steady-state size or the frame size has changed.
+   *
+   * @param size <code>int</code> number of bytes required
+   * @return <code>byte[]</code>
+   */
+  private byte[] acquireBuffer(int size) {
+
+    // Declaration
+    byte[] buffer;
+
+    buffer = this.bufferPool.poll();
+    return (buffer != null && buffer.length == size) ? buffer : new byte[size];
+  }
+
+  /**
+   * Returns a copy buffer to the pool once its frame has been written.
+   *
+   * @param buffer <code>byte[]</code>
+   * @return void
+   */
+  private void releaseBuffer(byte[] buffer) {
+    this.bufferPool.offer(buffer);
+  }
+
+  /**
+   * Encoder task body, run on one of the pool's worker threads. OpenGL rows are stored bottom-up,
+   * so every format writes the rows in reverse to produce an upright image.
+   *
+   * @param frame <code>long</code> sequence number of the frame
+   * @param nanos <code>long</code> time of capture, per <code>System.nanoTime</code>
+   * @param width <code>int</code>
+   * @param height <code>int</code>
+   * @param pixels <code>byte[]</code> RGBA8 pixels, bottom row first
+   * @return void
+   */
+  private void encode(long frame, long nanos, int width, int height, byte[] pixels) {
+
+    // Declaration
+    byte[] spent;
+
+    spent = pixels;
+
+    try {
+      Files.createDirectories(this.getOutputDirectory());
+
+      switch (this.getFormat()) {
+        case PNG:
+          ImageIO.write(FrameCapture.toImage(width, height, pixels), "png",
+            this.frameFile(frame, "png").toFile());
+          break;
+        case RAW:
+          try (OutputStream out = new BufferedOutputStream(
+              Files.newOutputStream(this.frameFile(frame, "rgba")))) {
+            FrameCapture.writeRowsTopDown(out, width, height, pixels);
+          }
+          break;
+        case VIDEO:
+          spent = this.writeVideoFrame(nanos, width, height, pixels);
+          break;
+        default:
+          break;
+      }
+
+      this.framesWritten.incrementAndGet();
+
+    } catch (IOException ex) {
+      this.framesFailed.incrementAndGet();
+    } finally {
+      if (spent != null) {
+        this.releaseBuffer(spent);
+      }
+    }
+  }
+
+  /**
+   * Builds the file name for a single frame of an image sequence.
+   *
+   * @param frame <code>long</code>
+   * @param extension <code>String</code>
+   * @return <code>Path</code>
+   */
+  private Path frameFile(long frame, String extension) {
+    return this.getOutputDirectory().resolve(
+      String.format(Locale.ROOT, "frame_%06d.%s", frame + 1, extension));
+  }
+
+  /**
+   * Paces a frame into the video stream by its time of capture. The frame held from before is
+   * written once for every tick of the stream elapsed until the new frame's, and the new frame is
+   * held in its place, to be written once its own successor or the end of the stream arrives.
+   * Returns the buffer no longer needed, if any, to be released by the caller.
+   *
+   * @param nanos <code>long</code> time of capture, per <code>System.nanoTime</code>
+   * @param width <code>int</code>
+   * @param height <code>int</code>
+   * @param pixels <code>byte[]</code> RGBA8 pixels, bottom row first
+   * @return <code>byte[]</code> or <code>null</code>
+   * @throws IOException if the stream cannot be opened or written
+   */
+  private byte[] writeVideoFrame(long nanos, int width, int height, byte[] pixels)
+      throws IOException {
+
+    // Declarations
+    byte[] spent;
+    long tick;
+
+    this.openVideoStream(width, height, nanos);
+    tick = (nanos - this.streamStartNanos) * FrameCapture.VIDEO_FRAME_RATE / 1_000_000_000L;
+    spent = this.heldPixels;
+
+    for (; spent != null && this.streamTicks < tick; this.streamTicks++) {
+      FrameCapture.writeRowsTopDown(this.videoStream, width, height, spent);
+    }
+
+    this.heldPixels = pixels;
+    return spent;
+  }
+
+  /**
+   * Opens the video stream on the first frame, fixing its dimensions. A frame of any other size
+   * (the window having been resized mid-capture, say) closes the stream and opens the next
+   * segment at its own size, whose clock starts at the given time. If <code>ffmpeg</code> cannot be
+   * launched, the raw RGBA stream is written to disk instead so that it may be encoded later.
+   *
+   * @param width <code>int</code>
+   * @param height <code>int</code>
+   * @param nanos <code>long</code> time of capture of the frame, per <code>System.nanoTime</code>
+   * @return void
+   * @throws IOException if neither <code>ffmpeg</code> nor the fallback file can be opened
+   */
+  private void openVideoStream(int width, int height, long nanos) throws IOException {
+
+    // Declarations
+    ProcessBuilder builder;
+    String name;
+
+    if (this.videoStream != null) {
+      if (width == this.streamWidth && height == this.streamHeight) {
+        return;
+      }
+
+      this.closeVideoStream();
+      this.videoStream = null;
+      this.videoProcess = null;
+    }
+
+    this.streamWidth = width;
+    this.streamHeight = height;
+    this.streamStartNanos = nanos;
+    this.streamTicks = 0;
+    this.streamSegment++;
+    name = (this.streamSegment == 1) ? "capture" : "capture-" + this.streamSegment;
+    builder = new ProcessBuilder("ffmpeg", "-loglevel", "error", "-y", "-f", "rawvideo",
+      "-pix_fmt", "rgba", "-s", width + "x" + height, "-r",
+      String.valueOf(FrameCapture.VIDEO_FRAME_RATE), "-i", "-", "-pix_fmt", "yuv420p",
+      this.getOutputDirectory().resolve(name + ".mp4").toString());
+    builder.redirectErrorStream(true);
+    builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+
+    try {
+      this.videoProcess = builder.start();
+      this.videoStream = new BufferedOutputStream(this.videoProcess.getOutputStream());
+    } catch (IOException ex) {
+      this.videoStream = new BufferedOutputStream(
+        Files.newOutputStream(this.getOutputDirectory().resolve(name + ".rgba")));
+    }
+  }
+
+  /**
+   * Writes the frame still held, if any, then flushes and closes the video stream, if any, waiting
+   * for <code>ffmpeg</code> to finish.
+   *
+   * @return void
+   */
+  private void closeVideoStream() {
+
+    // The last frame has no successor to wait for
+    if (this.heldPixels != null) {
+      try {
+        FrameCapture.writeRowsTopDown(this.videoStream, this.streamWidth, this.streamHeight,
+          this.heldPixels);
+      } catch (IOException ex) {
+        this.framesFailed.incrementAndGet();
+      }
+
+      this.releaseBuffer(this.heldPixels);
+      this.heldPixels = null;
+    }
+
+    try {
+      if (this.videoStream != null) {
+        this.videoStream.close();
+      }
+
+      if (this.videoProcess != null) {
+        this.videoProcess.waitFor(30, TimeUnit.SECONDS);
+      }
+    } catch (IOException ex) {
+      this.framesFailed.incrementAndGet();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Converts a bottom-up RGBA8 frame into an upright <code>BufferedImage</code>.
+   *
+   * @param width <code>int</code>
+   * @param height <code>int</code>
+   * @param pixels <code>byte[]</code>
+   * @return image <code>BufferedImage</code>
+   */
+  protected static BufferedImage toImage(int width, int height, byte[] pixels) {
+
+    // Declarations
+    BufferedImage image;
+    int[] row;
+    int offset;
+
+    image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    row = new int[width];
+
+    for (int y = 0; y < height; y++) {
+      offset = (height - 1 - y) * width * 4;
+
+      for (int x = 0; x < width; x++, offset += 4) {
+        row[x] = ((pixels[offset] & 0xFF) << 16) | ((pixels[offset + 1] & 0xFF) << 8)
+          | (pixels[offset + 2] & 0xFF);
+      }
+
+      image.setRGB(0, y, width, 1, row, 0, width);
+    }
+
+    return image;
+  }
+
+  /**
+   * Writes a bottom-up RGBA8 frame to the given stream with its rows in top-down order.
+   *
+   * @param out <code>OutputStream</code>
+   * @param width <code>int</code>
+   * @param height <code>int</code>
+   * @param pixels <code>byte[]</code>
+   * @return void
+   * @throws IOException on write failure
+   */
+  private static void writeRowsTopDown(OutputStream out, int width, int height, byte[] pixels)
+      throws IOException {
+
+    for (int y = height - 1; y >= 0; y--) {
+      out.write(pixels, y * width * 4, width * 4);
+    }
+  }
+}
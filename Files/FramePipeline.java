@@ -0,0 +1,251 @@
+/**
+ * FramePipeline.java - Steps taken by every frame rendered, shared by the GUI and its checks
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import com.jogamp.opengl.GL2;
+
+/**
+ * The frame rendered by <code>ScenePanel.SceneGLEventListener.display</code> has grown well past
+ * the single call to <code>SceneRenderer.render</code> it started out as: the frame is timed, drawn
+ * into the frame cache at the render scale, stretched over the drawable, handed to the frame
+ * capture, and recorded with the <code>MetricsServer</code>, after which the quality governor and
+ * render scale controller are fed its time. <code>AllocationCheck</code> once took these steps
+ * through a copy of its own, which fell behind the first time a step was added to the listener,
+ * such that the steps it was meant to hold to account were never run at all. This class takes
+ * them once, for both.
+ * <br />
+ * <br />
+ * Anything to do with the GUI itself, as the status log, the render-on-demand flag, and repaints,
+ * is left to the listener, which learns through <code>FramePipeline.getIsGoverned</code> and
+ * <code>FramePipeline.getIsRescaled</code> whether the last frame changed the level of detail or
+ * the render scale. As with the GL helpers it holds, an instance belongs to a single context and
+ * must only be used from the thread owning it.
+ *
+ * @see graphicsprojecttwo.ScenePanel
+ * @see graphicsprojecttwo.AllocationCheck
+ * @author Andrew Eissen
+ */
+final class FramePipeline {
+
+  // Class fields
+  private final FrameCache frameCache;
+  private final SceneRenderer sceneRenderer;
+  private final FrameTimer frameTimer;
+  private final RenderScaleController renderScaleController;
+  private final QualityGovernor qualityGovernor;
+  private boolean isGoverned, isRescaled;
+
+  /**
+   * Default constructor, the render scale controller being configured from the system properties
+   */
+  protected FramePipeline() {
+    this.frameCache = new FrameCache();
+    this.sceneRenderer = new SceneRenderer();
+    this.frameTimer = new FrameTimer();
+    this.renderScaleController = new RenderScaleController();
+    this.qualityGovernor = new QualityGovernor(this.renderScaleController.getTargetMs());
+    this.isGoverned = false;
+    this.isRescaled = false;
+  }
+
+  // Getters
+
+  /**
+   * Getter for <code>FramePipeline.frameCache</code>
+   *
+   * @return <code>FrameCache</code>
+   */
+  protected FrameCache getFrameCache() {
+    return this.frameCache;
+  }
+
+  /**
+   * Getter for <code>FramePipeline.sceneRenderer</code>
+   *
+   * @return <code>SceneRenderer</code>
+   */
+  protected SceneRenderer getSceneRenderer() {
+    return this.sceneRenderer;
+  }
+
+  /**
+   * Getter for <code>FramePipeline.frameTimer</code>
+   *
+   * @return <code>FrameTimer</code>
+   */
+  protected FrameTimer getFrameTimer() {
+    return this.frameTimer;
+  }
+
+  /**
+   * Getter for <code>FramePipeline.renderScaleController</code>
+   *
+   * @return <code>RenderScaleController</code>
+   */
+  protected RenderScaleController getRenderScaleController() {
+    return this.renderScaleController;
+  }
+
+  /**
+   * Getter for <code>FramePipeline.qualityGovernor</code>
+   *
+   * @return <code>QualityGovernor</code>
+   */
+  protected QualityGovernor getQualityGovernor() {
+    return this.qualityGovernor;
+  }
+
+  /**
+   * Returns whether the last frame rendered had the quality governor change the level of detail,
+   * as described by <code>QualityGovernor.getTransition</code>.
+   *
+   * @return <code>boolean</code>
+   */
+  protected boolean getIsGoverned() {
+    return this.isGoverned;
+  }
+
+  /**
+   * Returns whether the last frame rendered had the render scale controller change the scale.
+   *
+   * @return <code>boolean</code>
+   */
+  protected boolean getIsRescaled() {
+    return this.isRescaled;
+  }
+
+  // Utility methods
+
+  /**
+   * Sets up the GL state of a new context, anything cached belonging to a previous one.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  protected void init(GL2 gl2) {
+    this.sceneRenderer.init(gl2);
+    this.frameTimer.init(gl2);
+    this.frameCache.invalidate();
+  }
+
+  /**
+   * Adapts the projection to the new size of the surface, the cached frame now being at the wrong
+   * dimensions.
+   *
+   * @param gl2 <code>GL2</code>
+   * @param width <code>int</code>
+   * @param height <code>int</code>
+   * @return void
+   */
+  protected void reshape(GL2 gl2, int width, int height) {
+    this.sceneRenderer.reshape(gl2, width, height);
+    this.frameCache.invalidate();
+  }
+
+  /**
+   * Releases the GL resources of the context about to be destroyed.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  protected void dispose(GL2 gl2) {
+    this.frameCache.dispose(gl2);
+    this.sceneRenderer.dispose(gl2);
+    this.frameTimer.dispose(gl2);
+  }
+
+  /**
+   * Renders a frame of the scene as seen through the camera, at the current render scale if the
+   * frame cache can be had, and presents it on the given framebuffer. The presented frame is
+   * queued for capture if recording, and recorded with the <code>MetricsServer</code> if it is on.
+   * The frame's time is then fed to the quality governor and, if the frame was cached, to the
+   * render scale controller, either of which may change the next frame.
+   *
+   * @param gl2 <code>GL2</code>
+   * @param camera <code>SceneCamera</code>
+   * @param sceneGraph <code>SceneGraph</code>
+   * @param frameCapture <code>FrameCapture</code>, or <code>null</code> if not recording
+   * @param defaultFramebuffer <code>int</code> framebuffer of the drawable
+   * @param width <code>int</code> of the drawable
+   * @param height <code>int</code> of the drawable
+   * @return <code>double</code> time of the last completed frame, or <code>Double.NaN</code>
+   */
+  protected double render(GL2 gl2, SceneCamera camera, SceneGraph sceneGraph,
+      FrameCapture frameCapture, int defaultFramebuffer, int width, int height) {
+
+    // Declarations
+    boolean isCached;
+    double sample;
+    long start;
+
+    start = System.nanoTime();
+    this.frameTimer.begin(gl2);
+
+    // Render into the cache at the render scale if possible, directly into the drawable otherwise
+    isCached = this.frameCache.ensureSize(gl2, this.renderScaleController.getScaledSize(width),
+      this.renderScaleController.getScaledSize(height));
+
+    if (isCached) {
+      this.frameCache.bind(gl2);
+    }
+
+    this.sceneRenderer.render(gl2, camera, sceneGraph);
+
+    // Stretch the finished frame over the drawable, keeping it around for later repaints
+    if (isCached) {
+      this.frameCache.present(gl2, defaultFramebuffer, width, height);
+    }
+
+    // Queue the presented frame for asynchronous readback if recording, at the size of the
+    // surface rather than of the cache, which follows the render scale from frame to frame
+    if (frameCapture != null) {
+      frameCapture.capture(gl2, width, height);
+    }
+
+    this.frameTimer.end(gl2);
+    sample = this.frameTimer.takeSample();
+
+    if (MetricsServer.getIsEnabled()) {
+      this.recordMetrics(start, sample, isCached, frameCapture);
+    }
+
+    // The next frame is rendered at the new level of detail or scale; this one stays until then
+    this.isGoverned = this.qualityGovernor.update(sample);
+
+    if (this.isGoverned) {
+      this.qualityGovernor.apply(this.sceneRenderer, this.renderScaleController);
+    }
+
+    this.isRescaled = isCached && this.renderScaleController.update(sample);
+    return sample;
+  }
+
+  // Helper methods
+
+  /**
+   * Records the frame just rendered with the <code>MetricsServer</code>, along with the memory
+   * held by the context and the depth of the capture queue. Only called if the server is on.
+   *
+   * @param start <code>long</code> time at which the frame was begun, per
+   *     <code>System.nanoTime</code>
+   * @param sample <code>double</code> GPU time of the last completed frame, or
+   *     <code>Double.NaN</code>
+   * @param isCached <code>boolean</code> whether the frame was rendered into the cache
+   * @param frameCapture <code>FrameCapture</code>, or <code>null</code> if not recording
+   * @return void
+   */
+  private void recordMetrics(long start, double sample, boolean isCached,
+      FrameCapture frameCapture) {
+    MetricsServer.recordFrame(this.sceneRenderer.getRenderStats(),
+      (System.nanoTime() - start) / 1e6, sample);
+
+    // Color and depth of the cache at four bytes a pixel each
+    MetricsServer.recordGPUMemory(this.sceneRenderer.getGeometryBuffers().getBytesUploaded(),
+      this.sceneRenderer.getAtlasTexture().getBytesUploaded(),
+      (isCached) ? 8L * this.frameCache.getWidth() * this.frameCache.getHeight() : 0L);
+    MetricsServer.recordCaptureQueue((frameCapture != null) ? frameCapture.getQueueDepth() : 0);
+  }
+}
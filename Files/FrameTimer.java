@@ -0,0 +1,184 @@
+/**
+ * FrameTimer.java - Non-blocking measurement of the time taken to render each frame
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import com.jogamp.opengl.GL2;
+
+/**
+ * Timing the interactive renderer is less simple than it looks, as OpenGL calls merely queue up
+ * work for the GPU and return long before it is done. Waiting for it with <code>glFinish</code>,
+ * as the <code>Benchmark</code> does, would stall the very frames being measured. This class
+ * instead brackets each frame with a <code>GL_TIME_ELAPSED</code> timer query where the driver
+ * supports them, keeping a small ring of queries in flight and only collecting the result of a
+ * query once the driver reports it available, a frame or two later. The time spent by the CPU
+ * submitting the frame is measured alongside, and the reported frame time is the greater of the
+ * two, such that frames bound by either side are caught. Without timer queries, the CPU time alone
+ * is reported.
+ * <br />
+ * <br />
+ * As with the other GL helpers of the program, an instance belongs to a single context and must
+ * only be used from the thread owning it.
+ *
+ * @see graphicsprojecttwo.RenderScaleController
+ * @author Andrew Eissen
+ */
+final class FrameTimer {
+
+  /** Number of timer queries kept in flight, enough for the driver to run two frames behind */
+  private final static int QUERY_COUNT = 3;
+
+  // Class fields
+  private final int[] queries, result;
+  private final long[] cpuNanos;
+  private final boolean[] isPending;
+  private boolean isSupported, isTiming;
+  private int current;
+  private long startNanos;
+  private double sample;
+
+  /**
+   * Default constructor
+   */
+  protected FrameTimer() {
+    this.queries = new int[FrameTimer.QUERY_COUNT];
+    this.result = new int[1];
+    this.cpuNanos = new long[FrameTimer.QUERY_COUNT];
+    this.isPending = new boolean[FrameTimer.QUERY_COUNT];
+    this.isSupported = false;
+    this.isTiming = false;
+    this.current = 0;
+    this.sample = Double.NaN;
+  }
+
+  // Utility methods
+
+  /**
+   * Creates the timer queries of a new context, if supported.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  protected void init(GL2 gl2) {
+    this.isSupported = gl2.isExtensionAvailable("GL_ARB_timer_query")
+      || gl2.isExtensionAvailable("GL_EXT_timer_query");
+
+    if (this.isSupported) {
+      gl2.glGenQueries(FrameTimer.QUERY_COUNT, this.queries, 0);
+    }
+
+    for (int i = 0; i < FrameTimer.QUERY_COUNT; i++) {
+      this.isPending[i] = false;
+    }
+
+    this.isTiming = false;
+    this.sample = Double.NaN;
+  }
+
+  /**
+   * Marks the start of a frame, first collecting the results of any earlier frames that have
+   * completed in the meantime.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  protected void begin(GL2 gl2) {
+    this.collect(gl2);
+    this.startNanos = System.nanoTime();
+
+    // Skip timing this frame on the GPU if the driver is still busy with this query
+    this.isTiming = this.isSupported && !this.isPending[this.current];
+
+    if (this.isTiming) {
+      gl2.glBeginQuery(GL2.GL_TIME_ELAPSED, this.queries[this.current]);
+    }
+  }
+
+  /**
+   * Marks the end of a frame begun by <code>FrameTimer.begin</code>.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  protected void end(GL2 gl2) {
+
+    // Declaration
+    long elapsed;
+
+    elapsed = System.nanoTime() - this.startNanos;
+
+    if (this.isTiming) {
+      gl2.glEndQuery(GL2.GL_TIME_ELAPSED);
+      this.cpuNanos[this.current] = elapsed;
+      this.isPending[this.current] = true;
+      this.current = (this.current + 1) % FrameTimer.QUERY_COUNT;
+    } else if (!this.isSupported) {
+      this.sample = elapsed / 1e6;
+    }
+  }
+
+  /**
+   * Returns the time taken by the most recently completed frame in milliseconds, and forgets it,
+   * such that each frame is reported once. <code>Double.NaN</code> is returned if no frame has
+   * completed since the last call.
+   *
+   * @return <code>double</code>
+   */
+  protected double takeSample() {
+
+    // Declaration
+    double taken;
+
+    taken = this.sample;
+    this.sample = Double.NaN;
+    return taken;
+  }
+
+  /**
+   * Releases the timer queries. Must be called with a current context.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  protected void dispose(GL2 gl2) {
+    if (this.isSupported) {
+      gl2.glDeleteQueries(FrameTimer.QUERY_COUNT, this.queries, 0);
+    }
+
+    this.isSupported = false;
+  }
+
+  // Helper methods
+
+  /**
+   * Collects the results of every pending query the driver has finished with, oldest first.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  private void collect(GL2 gl2) {
+
+    // Declaration
+    int slot;
+
+    for (int i = 0; i < FrameTimer.QUERY_COUNT; i++) {
+      slot = (this.current + i) % FrameTimer.QUERY_COUNT;
+
+      if (!this.isPending[slot]) {
+        continue;
+      }
+
+      gl2.glGetQueryObjectuiv(this.queries[slot], GL2.GL_QUERY_RESULT_AVAILABLE, this.result, 0);
+
+      if (this.result[0] == 0) {
+        break; // Later queries cannot have completed before this one
+      }
+
+      gl2.glGetQueryObjectuiv(this.queries[slot], GL2.GL_QUERY_RESULT, this.result, 0);
+      this.sample = Math.max(Integer.toUnsignedLong(this.result[0]), this.cpuNanos[slot]) / 1e6;
+      this.isPending[slot] = false;
+    }
+  }
+}
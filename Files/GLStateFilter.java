@@ -0,0 +1,694 @@
+/**
+ * GLStateFilter.java - Thin GL2 front shadowing state to drop redundant calls, counting the rest
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import com.jogamp.opengl.GL2;
+
+/**
+ * The fixed-function pipeline makes it all too easy to set state that is already set. The original
+ * <code>SceneObject.drawShape</code> re-issued the color of every face whether or not it had
+ * changed, and <code>SceneObject.constructObject</code> pushed and popped a matrix around each face
+ * without ever modifying it. Each such call costs a trip through the driver for nothing, and none
+ * of them show up anywhere but in a profile. This class sits between the renderer and the
+ * <code>GL2</code> of the current context, exposing the calls made on the render path under their
+ * usual names, and keeps a shadow copy of the state they set, such that a call setting state to
+ * the value it already holds is dropped rather than forwarded.
+ * <br />
+ * <br />
+ * The state shadowed is as follows:
+ * <pre>
+ * - capabilities          glEnable, glDisable, glEnableClientState, glDisableClientState
+ * - current color         glColor4ub
+ * - write masks           glColorMask, glDepthMask
+ * - winding               glFrontFace
+ * - buffer bindings       glBindBuffer, for the vertex and index targets
+ * - texture binding       glBindTexture, for the 2D target
+ * - vertex pointer        glVertexPointer, along with the vertex buffer it was set from
+ * - color pointer         glColorPointer, likewise
+ * - empty matrix pushes   glPushMatrix followed by glPopMatrix with no change in between
+ * </pre>
+ * Pushes are deferred rather than shadowed, being only forwarded once the matrix is about to be
+ * modified, such that a push and a pop with nothing but draws in between cancel out. The shadow
+ * starts out unknown at the start of every frame, as other code may have changed the state behind
+ * the filter's back since, and so the first call of each kind in a frame is always forwarded.
+ * Calls made directly on the <code>GL2</code> during a frame are not seen by the filter, and must
+ * be followed by <code>GLStateFilter.invalidate</code>.
+ * <br />
+ * <br />
+ * Every call, forwarded or dropped, is counted by category:
+ * <pre>
+ * - state     capabilities, color, masks, winding, bindings, texture planes, and queries
+ * - draw      glClear, glDrawElements, glBegin, and glEnd
+ * - matrix    glLoadIdentity, glPushMatrix, glPopMatrix, and transformations
+ * - vertex    glVertexPointer, glColorPointer, and glVertex3f
+ * </pre>
+ * Texture binds forwarded are further counted on their own, the one state change whose count a
+ * texture atlas exists to keep down. The counts of a frame are handed to its
+ * <code>RenderStats</code> by <code>GLStateFilter.end</code>. Filtering may be turned off by
+ * setting the <code>graphicsprojecttwo.gl.filter</code> system property to <code>false</code>, in
+ * which case every call is forwarded but still counted, for comparison.
+ * <br />
+ * <br />
+ * As with the other GL helpers of the program, an instance must only be used from the thread
+ * owning the context.
+ *
+ * @see graphicsprojecttwo.SceneRenderer
+ * @see graphicsprojecttwo.RenderStats
+ * @author Andrew Eissen
+ */
+final class GLStateFilter {
+
+  /** Category of calls setting state */
+  protected final static int STATE = 0;
+
+  /** Category of calls drawing */
+  protected final static int DRAW = 1;
+
+  /** Category of calls on the matrix stack */
+  protected final static int MATRIX = 2;
+
+  /** Category of calls specifying vertices */
+  protected final static int VERTEX = 3;
+
+  /** Number of categories */
+  protected final static int CATEGORIES = 4;
+
+  /** Whether redundant calls are dropped, rather than merely counted */
+  private final static boolean IS_FILTERING =
+    Boolean.parseBoolean(System.getProperty("graphicsprojecttwo.gl.filter", "true"));
+
+  /** Number of distinct capabilities shadowed, further ones being forwarded unconditionally */
+  private final static int CAPABILITY_SLOTS = 16;
+
+  /** Shadowed value not known, as at the start of a frame */
+  private final static int UNKNOWN = -1;
+
+  // Class fields
+  private GL2 gl2;
+  private final boolean isFiltering;
+  private final int[] capabilities, capabilityStates, issued, filtered;
+  private int capabilityCount, colorMask, depthMask, frontFace, arrayBuffer, elementBuffer;
+  private int pointerSize, pointerType, pointerStride, pointerBuffer, pendingPushes;
+  private int colorPointerSize, colorPointerType, colorPointerStride, colorPointerBuffer;
+  private int texture, textureBinds;
+  private long color, pointerOffset, colorPointerOffset;
+
+  /**
+   * Default constructor, configured from the system properties
+   */
+  protected GLStateFilter() {
+    this(GLStateFilter.IS_FILTERING);
+  }
+
+  /**
+   * Parameterized constructor
+   *
+   * @param isFiltering <code>boolean</code> whether to drop redundant calls
+   */
+  protected GLStateFilter(boolean isFiltering) {
+    this.isFiltering = isFiltering;
+    this.capabilities = new int[GLStateFilter.CAPABILITY_SLOTS];
+    this.capabilityStates = new int[GLStateFilter.CAPABILITY_SLOTS];
+    this.issued = new int[GLStateFilter.CATEGORIES];
+    this.filtered = new int[GLStateFilter.CATEGORIES];
+    this.capabilityCount = 0;
+    this.invalidate();
+  }
+
+  // Utility methods
+
+  /**
+   * Starts a frame on the given context, forgetting the shadowed state and zeroing the counts.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  protected void begin(GL2 gl2) {
+    this.gl2 = gl2;
+    this.invalidate();
+
+    for (int i = 0; i < GLStateFilter.CATEGORIES; i++) {
+      this.issued[i] = 0;
+      this.filtered[i] = 0;
+    }
+
+    this.textureBinds = 0;
+  }
+
+  /**
+   * Ends the frame begun by <code>GLStateFilter.begin</code>, issuing any matrix pushes still
+   * deferred and adding the counts of the frame to the given stats.
+   *
+   * @param stats <code>RenderStats</code>
+   * @return void
+   */
+  protected void end(RenderStats stats) {
+    this.flushPushes();
+
+    for (int i = 0; i < GLStateFilter.CATEGORIES; i++) {
+      stats.addGLCalls(i, this.issued[i], this.filtered[i]);
+    }
+
+    stats.addTextureBinds(this.textureBinds);
+
+    this.gl2 = null;
+  }
+
+  /**
+   * Forgets the shadowed state, such that the next call of each kind is forwarded. Must be called
+   * after any call made directly on the <code>GL2</code> during a frame.
+   *
+   * @return void
+   */
+  protected void invalidate() {
+    for (int i = 0; i < this.capabilityCount; i++) {
+      this.capabilityStates[i] = GLStateFilter.UNKNOWN;
+    }
+
+    this.color = GLStateFilter.UNKNOWN;
+    this.colorMask = GLStateFilter.UNKNOWN;
+    this.depthMask = GLStateFilter.UNKNOWN;
+    this.frontFace = GLStateFilter.UNKNOWN;
+    this.arrayBuffer = GLStateFilter.UNKNOWN;
+    this.elementBuffer = GLStateFilter.UNKNOWN;
+    this.pointerBuffer = GLStateFilter.UNKNOWN;
+    this.colorPointerBuffer = GLStateFilter.UNKNOWN;
+    this.texture = GLStateFilter.UNKNOWN;
+
+    // Pushes deferred so far must reach the stack before anything else does
+    this.flushPushes();
+  }
+
+  // State calls
+
+  /**
+   * Forwards <code>GL2.glEnable</code> unless the capability is already enabled.
+   *
+   * @param capability <code>int</code>
+   * @return void
+   */
+  protected void glEnable(int capability) {
+    if (this.setCapability(capability, 1)) {
+      this.gl2.glEnable(capability);
+    }
+  }
+
+  /**
+   * Forwards <code>GL2.glDisable</code> unless the capability is already disabled.
+   *
+   * @param capability <code>int</code>
+   * @return void
+   */
+  protected void glDisable(int capability) {
+    if (this.setCapability(capability, 0)) {
+      this.gl2.glDisable(capability);
+    }
+  }
+
+  /**
+   * Forwards <code>GL2.glEnableClientState</code> unless the array is already enabled.
+   *
+   * @param array <code>int</code>
+   * @return void
+   */
+  protected void glEnableClientState(int array) {
+    if (this.setCapability(array, 1)) {
+      this.gl2.glEnableClientState(array);
+    }
+  }
+
+  /**
+   * Forwards <code>GL2.glDisableClientState</code> unless the array is already disabled. As the
+   * current color is left undefined by drawing with the color array, turning the array off also
+   * forgets the current color.
+   *
+   * @param array <code>int</code>
+   * @return void
+   */
+  protected void glDisableClientState(int array) {
+    if (this.setCapability(array, 0)) {
+      this.gl2.glDisableClientState(array);
+
+      if (array == GL2.GL_COLOR_ARRAY) {
+        this.color = GLStateFilter.UNKNOWN;
+      }
+    }
+  }
+
+  /**
+   * Forwards <code>GL2.glColor4ub</code> unless the current color is already the one given.
+   *
+   * @param red <code>byte</code>
+   * @param green <code>byte</code>
+   * @param blue <code>byte</code>
+   * @param alpha <code>byte</code>
+   * @return void
+   */
+  protected void glColor4ub(byte red, byte green, byte blue, byte alpha) {
+
+    // Declaration
+    long packed;
+
+    packed = ((red & 0xFF) << 24 | (green & 0xFF) << 16 | (blue & 0xFF) << 8 | (alpha & 0xFF))
+      & 0xFFFFFFFFL;
+
+    if (this.isRedundant(GLStateFilter.STATE, packed == this.color)) {
+      return;
+    }
+
+    this.color = packed;
+    this.gl2.glColor4ub(red, green, blue, alpha);
+  }
+
+  /**
+   * Forwards <code>GL2.glColorMask</code> unless the masks are already the ones given.
+   *
+   * @param red <code>boolean</code>
+   * @param green <code>boolean</code>
+   * @param blue <code>boolean</code>
+   * @param alpha <code>boolean</code>
+   * @return void
+   */
+  protected void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+
+    // Declaration
+    int packed;
+
+    packed = ((red) ? 8 : 0) | ((green) ? 4 : 0) | ((blue) ? 2 : 0) | ((alpha) ? 1 : 0);
+
+    if (this.isRedundant(GLStateFilter.STATE, packed == this.colorMask)) {
+      return;
+    }
+
+    this.colorMask = packed;
+    this.gl2.glColorMask(red, green, blue, alpha);
+  }
+
+  /**
+   * Forwards <code>GL2.glDepthMask</code> unless the mask is already the one given.
+   *
+   * @param flag <code>boolean</code>
+   * @return void
+   */
+  protected void glDepthMask(boolean flag) {
+    if (this.isRedundant(GLStateFilter.STATE, ((flag) ? 1 : 0) == this.depthMask)) {
+      return;
+    }
+
+    this.depthMask = (flag) ? 1 : 0;
+    this.gl2.glDepthMask(flag);
+  }
+
+  /**
+   * Forwards <code>GL2.glFrontFace</code> unless the winding is already the one given.
+   *
+   * @param mode <code>int</code>
+   * @return void
+   */
+  protected void glFrontFace(int mode) {
+    if (this.isRedundant(GLStateFilter.STATE, mode == this.frontFace)) {
+      return;
+    }
+
+    this.frontFace = mode;
+    this.gl2.glFrontFace(mode);
+  }
+
+  /**
+   * Forwards <code>GL2.glBindBuffer</code> unless the buffer is already bound to the vertex or
+   * index target given. Bindings to other targets are always forwarded.
+   *
+   * @param target <code>int</code>
+   * @param buffer <code>int</code>
+   * @return void
+   */
+  protected void glBindBuffer(int target, int buffer) {
+    if (target == GL2.GL_ARRAY_BUFFER) {
+      if (this.isRedundant(GLStateFilter.STATE, buffer == this.arrayBuffer)) {
+        return;
+      }
+
+      this.arrayBuffer = buffer;
+    } else if (target == GL2.GL_ELEMENT_ARRAY_BUFFER) {
+      if (this.isRedundant(GLStateFilter.STATE, buffer == this.elementBuffer)) {
+        return;
+      }
+
+      this.elementBuffer = buffer;
+    } else {
+      this.issued[GLStateFilter.STATE]++;
+    }
+
+    this.gl2.glBindBuffer(target, buffer);
+  }
+
+  /**
+   * Forwards <code>GL2.glBindTexture</code> unless the texture is already bound to the 2D target.
+   * Bindings to other targets are always forwarded.
+   *
+   * @param target <code>int</code>
+   * @param texture <code>int</code>
+   * @return void
+   */
+  protected void glBindTexture(int target, int texture) {
+    if (target == GL2.GL_TEXTURE_2D) {
+      if (this.isRedundant(GLStateFilter.STATE, texture == this.texture)) {
+        return;
+      }
+
+      this.texture = texture;
+    } else {
+      this.issued[GLStateFilter.STATE]++;
+    }
+
+    this.textureBinds++;
+    this.gl2.glBindTexture(target, texture);
+  }
+
+  /**
+   * Forwards <code>GL2.glTexGenfv</code>. Texture planes differ from one face to the next, so are
+   * not shadowed.
+   *
+   * @param coordinate <code>int</code>
+   * @param name <code>int</code>
+   * @param params <code>float[]</code>
+   * @param offset <code>int</code>
+   * @return void
+   */
+  protected void glTexGenfv(int coordinate, int name, float[] params, int offset) {
+    this.issued[GLStateFilter.STATE]++;
+    this.gl2.glTexGenfv(coordinate, name, params, offset);
+  }
+
+  /**
+   * Forwards <code>GL2.glBeginQuery</code>.
+   *
+   * @param target <code>int</code>
+   * @param query <code>int</code>
+   * @return void
+   */
+  protected void glBeginQuery(int target, int query) {
+    this.issued[GLStateFilter.STATE]++;
+    this.gl2.glBeginQuery(target, query);
+  }
+
+  /**
+   * Forwards <code>GL2.glEndQuery</code>.
+   *
+   * @param target <code>int</code>
+   * @return void
+   */
+  protected void glEndQuery(int target) {
+    this.issued[GLStateFilter.STATE]++;
+    this.gl2.glEndQuery(target);
+  }
+
+  // Draw calls
+
+  /**
+   * Forwards <code>GL2.glClear</code>.
+   *
+   * @param mask <code>int</code>
+   * @return void
+   */
+  protected void glClear(int mask) {
+    this.issued[GLStateFilter.DRAW]++;
+    this.gl2.glClear(mask);
+  }
+
+  /**
+   * Forwards <code>GL2.glDrawElements</code>, drawing from the bound index buffer.
+   *
+   * @param mode <code>int</code>
+   * @param count <code>int</code>
+   * @param type <code>int</code>
+   * @param byteOffset <code>long</code> into the bound index buffer
+   * @return void
+   */
+  protected void glDrawElements(int mode, int count, int type, long byteOffset) {
+    this.issued[GLStateFilter.DRAW]++;
+    this.gl2.glDrawElements(mode, count, type, byteOffset);
+  }
+
+  /**
+   * Forwards <code>GL2.glBegin</code>.
+   *
+   * @param mode <code>int</code>
+   * @return void
+   */
+  protected void glBegin(int mode) {
+    this.flushPushes();
+    this.issued[GLStateFilter.DRAW]++;
+    this.gl2.glBegin(mode);
+  }
+
+  /**
+   * Forwards <code>GL2.glEnd</code>.
+   *
+   * @return void
+   */
+  protected void glEnd() {
+    this.issued[GLStateFilter.DRAW]++;
+    this.gl2.glEnd();
+  }
+
+  // Matrix calls
+
+  /**
+   * Forwards <code>GL2.glLoadIdentity</code>.
+   *
+   * @return void
+   */
+  protected void glLoadIdentity() {
+    this.flushPushes();
+    this.issued[GLStateFilter.MATRIX]++;
+    this.gl2.glLoadIdentity();
+  }
+
+  /**
+   * Defers <code>GL2.glPushMatrix</code> until the matrix is next modified, if ever.
+   *
+   * @return void
+   */
+  protected void glPushMatrix() {
+    if (this.isFiltering) {
+      this.pendingPushes++;
+    } else {
+      this.issued[GLStateFilter.MATRIX]++;
+      this.gl2.glPushMatrix();
+    }
+  }
+
+  /**
+   * Forwards <code>GL2.glPopMatrix</code>, unless the most recent push is still deferred, in which
+   * case the two cancel out, the matrix having been left untouched.
+   *
+   * @return void
+   */
+  protected void glPopMatrix() {
+    if (this.pendingPushes > 0) {
+      this.pendingPushes--;
+      this.filtered[GLStateFilter.MATRIX] += 2;
+      return;
+    }
+
+    this.issued[GLStateFilter.MATRIX]++;
+    this.gl2.glPopMatrix();
+  }
+
+  /**
+   * Forwards <code>GL2.glMultMatrixf</code>.
+   *
+   * @param matrix <code>float[]</code> column-major
+   * @param offset <code>int</code>
+   * @return void
+   */
+  protected void glMultMatrixf(float[] matrix, int offset) {
+    this.flushPushes();
+    this.issued[GLStateFilter.MATRIX]++;
+    this.gl2.glMultMatrixf(matrix, offset);
+  }
+
+  /**
+   * Forwards <code>GL2.glRotatef</code>.
+   *
+   * @param angle <code>float</code> in degrees
+   * @param x <code>float</code>
+   * @param y <code>float</code>
+   * @param z <code>float</code>
+   * @return void
+   */
+  protected void glRotatef(float angle, float x, float y, float z) {
+    this.flushPushes();
+    this.issued[GLStateFilter.MATRIX]++;
+    this.gl2.glRotatef(angle, x, y, z);
+  }
+
+  /**
+   * Forwards <code>GL2.glScalef</code>.
+   *
+   * @param x <code>float</code>
+   * @param y <code>float</code>
+   * @param z <code>float</code>
+   * @return void
+   */
+  protected void glScalef(float x, float y, float z) {
+    this.flushPushes();
+    this.issued[GLStateFilter.MATRIX]++;
+    this.gl2.glScalef(x, y, z);
+  }
+
+  /**
+   * Forwards <code>GL2.glTranslatef</code>.
+   *
+   * @param x <code>float</code>
+   * @param y <code>float</code>
+   * @param z <code>float</code>
+   * @return void
+   */
+  protected void glTranslatef(float x, float y, float z) {
+    this.flushPushes();
+    this.issued[GLStateFilter.MATRIX]++;
+    this.gl2.glTranslatef(x, y, z);
+  }
+
+  // Vertex calls
+
+  /**
+   * Forwards <code>GL2.glVertexPointer</code> into the bound vertex buffer, unless the same pointer
+   * was last set from the same buffer.
+   *
+   * @param size <code>int</code>
+   * @param type <code>int</code>
+   * @param stride <code>int</code>
+   * @param byteOffset <code>long</code> into the bound vertex buffer
+   * @return void
+   */
+  protected void glVertexPointer(int size, int type, int stride, long byteOffset) {
+    if (this.isRedundant(GLStateFilter.VERTEX, this.pointerBuffer != GLStateFilter.UNKNOWN
+        && this.pointerBuffer == this.arrayBuffer && size == this.pointerSize
+        && type == this.pointerType && stride == this.pointerStride
+        && byteOffset == this.pointerOffset)) {
+      return;
+    }
+
+    this.pointerBuffer = this.arrayBuffer;
+    this.pointerSize = size;
+    this.pointerType = type;
+    this.pointerStride = stride;
+    this.pointerOffset = byteOffset;
+    this.gl2.glVertexPointer(size, type, stride, byteOffset);
+  }
+
+  /**
+   * Forwards <code>GL2.glColorPointer</code> into the bound vertex buffer, unless the same pointer
+   * was last set from the same buffer.
+   *
+   * @param size <code>int</code>
+   * @param type <code>int</code>
+   * @param stride <code>int</code>
+   * @param byteOffset <code>long</code> into the bound vertex buffer
+   * @return void
+   */
+  protected void glColorPointer(int size, int type, int stride, long byteOffset) {
+    if (this.isRedundant(GLStateFilter.VERTEX, this.colorPointerBuffer != GLStateFilter.UNKNOWN
+        && this.colorPointerBuffer == this.arrayBuffer && size == this.colorPointerSize
+        && type == this.colorPointerType && stride == this.colorPointerStride
+        && byteOffset == this.colorPointerOffset)) {
+      return;
+    }
+
+    this.colorPointerBuffer = this.arrayBuffer;
+    this.colorPointerSize = size;
+    this.colorPointerType = type;
+    this.colorPointerStride = stride;
+    this.colorPointerOffset = byteOffset;
+    this.gl2.glColorPointer(size, type, stride, byteOffset);
+  }
+
+  /**
+   * Forwards <code>GL2.glVertex3f</code>.
+   *
+   * @param x <code>float</code>
+   * @param y <code>float</code>
+   * @param z <code>float</code>
+   * @return void
+   */
+  protected void glVertex3f(float x, float y, float z) {
+    this.issued[GLStateFilter.VERTEX]++;
+    this.gl2.glVertex3f(x, y, z);
+  }
+
+  // Helper methods
+
+  /**
+   * Counts a call of the given category, returning whether it may be dropped.
+   *
+   * @param category <code>int</code>
+   * @param isUnchanged <code>boolean</code> whether the shadowed state already holds the value
+   * @return <code>boolean</code>
+   */
+  private boolean isRedundant(int category, boolean isUnchanged) {
+    if (this.isFiltering && isUnchanged) {
+      this.filtered[category]++;
+      return true;
+    }
+
+    this.issued[category]++;
+    return false;
+  }
+
+  /**
+   * Counts a call enabling or disabling the given capability, updating its shadow and returning
+   * whether the call must be forwarded.
+   *
+   * @param capability <code>int</code>
+   * @param state <code>int</code> one to enable, zero to disable
+   * @return <code>boolean</code>
+   */
+  private boolean setCapability(int capability, int state) {
+
+    // Declaration
+    int slot;
+
+    slot = 0;
+
+    while (slot < this.capabilityCount && this.capabilities[slot] != capability) {
+      slot++;
+    }
+
+    if (slot == this.capabilityCount) {
+      if (slot == GLStateFilter.CAPABILITY_SLOTS) {
+        this.issued[GLStateFilter.STATE]++;
+        return true;
+      }
+
+      this.capabilities[slot] = capability;
+      this.capabilityStates[slot] = GLStateFilter.UNKNOWN;
+      this.capabilityCount++;
+    }
+
+    if (this.isRedundant(GLStateFilter.STATE, this.capabilityStates[slot] == state)) {
+      return false;
+    }
+
+    this.capabilityStates[slot] = state;
+    return true;
+  }
+
+  /**
+   * Issues every deferred matrix push, as the matrix is about to be modified or read.
+   *
+   * @return void
+   */
+  private void flushPushes() {
+    while (this.pendingPushes > 0) {
+      this.issued[GLStateFilter.MATRIX]++;
+      this.gl2.glPushMatrix();
+      this.pendingPushes--;
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/**
+ * GeneratedShape.java - <code>SceneObject</code>-extending class wrapping a generated mesh
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import java.awt.Color;
+
+/**
+ * This class extends <code>SceneObject</code> and wraps a <code>Mesh</code> produced by one of the
+ * parametric generators of <code>MeshGenerator</code>, rather than defining its own hand-built
+ * vertex and face tables as the other subclasses do. As the mesh is obtained from
+ * <code>MeshCache</code>, any number of instances of the same generated shape share a single copy
+ * of its geometry, each differing only in color, scale, and translation. Scenes of them are built
+ * by <code>SceneGenerator</code> when asked for its parametric shapes.
+ *
+ * @see graphicsprojecttwo.SceneObject
+ * @see graphicsprojecttwo.MeshGenerator
+ * @see graphicsprojecttwo.SceneGenerator
+ * @author Andrew Eissen
+ */
+final class GeneratedShape extends SceneObject {
+
+  /**
+   * Parameterized constructor
+   *
+   * @param mesh <code>Mesh</code> from <code>MeshGenerator</code>
+   * @param color <code>Color</code>
+   * @param scale <code>double</code>
+   * @param translateX <code>double</code>
+   * @param translateY <code>double</code>
+   * @param translateZ <code>double</code>
+   */
+  protected GeneratedShape(Mesh mesh, Color color, double scale, double translateX,
+      double translateY, double translateZ) {
+
+    super(mesh, color, scale, translateX, translateY, translateZ);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return {@inheritDoc}
+   */
+  @Override
+  protected double[][] getVertices() {
+    return this.getMesh().getVertices();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return {@inheritDoc}
+   */
+  @Override
+  protected int[][] getFaces() {
+    return this.getMesh().getFaces();
+  }
+}
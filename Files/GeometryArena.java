@@ -0,0 +1,312 @@
+/**
+ * GeometryArena.java - Off-heap storage packing the geometry of all meshes into large segments
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.TreeSet;
+
+/**
+ * Originally, the geometry of every shape lived in jagged <code>double[][]</code> and
+ * <code>int[][]</code> arrays, with one tiny array per vertex and per face. In a scene of any
+ * real size, this meant millions of small heap objects, each carrying its own header, each reached
+ * by following a pointer, and each traced by the garbage collector on every cycle. This class
+ * instead packs positions, indices, and per-face colors into a handful of large, native-order
+ * direct <code>ByteBuffer</code> segments that live outside the Java heap altogether.
+ * <br />
+ * <br />
+ * Space is handed out by a simple bump allocator and addressed by a <code>long</code> handle
+ * encoding the segment number in its upper half and the byte offset within that segment in its
+ * lower half, so that meshes and scene objects need only store a few primitive fields to locate
+ * their data. Nothing is ever freed individually; as meshes are shared and cached for the life of
+ * the program, the arena only ever grows. Since each segment is already a direct buffer, it can be
+ * handed to <code>GL2.glBufferData</code> as-is by <code>GeometryBuffers</code>, with no copy made
+ * on the Java side.
+ * <br />
+ * <br />
+ * Space is handed out before it is written, and meshes are built on many threads while
+ * <code>GeometryBuffers</code> uploads the segments on the thread of a GL context. Every
+ * allocation is thus outstanding until its owner has written it and called
+ * <code>GeometryArena.commit</code>, and each segment keeps a committed watermark, the offset below
+ * which every allocation has been committed. Only bytes below the watermark may be uploaded, and as
+ * both the commit and the reading of the watermark take the arena's lock, the bytes written before
+ * the one are seen by whoever reads the other.
+ * <br />
+ * <br />
+ * The Foreign Memory API would serve equally well here, but is still incubating in the JDK
+ * targeted by this project, so plain direct buffers are used.
+ *
+ * @see graphicsprojecttwo.GeometryBuffers
+ * @author Andrew Eissen
+ */
+final class GeometryArena {
+
+  /** Default capacity of a segment, 8 MiB; larger requests receive a segment of their own */
+  private final static int SEGMENT_BYTES = 8 * 1024 * 1024;
+
+  /** Alignment of every allocation, enough for <code>double</code> values */
+  private final static int ALIGNMENT = 8;
+
+  /** Arena shared by all meshes and scene objects */
+  private final static GeometryArena SHARED = new GeometryArena();
+
+  // Class fields
+  private final ArrayList<ByteBuffer> segments;
+  private final ArrayList<Integer> segmentUsed;
+  private final ArrayList<TreeSet<Integer>> outstanding;
+  private long bytesUsed;
+
+  /**
+   * Default constructor
+   */
+  private GeometryArena() {
+    this.segments = new ArrayList<>();
+    this.segmentUsed = new ArrayList<>();
+    this.outstanding = new ArrayList<>();
+    this.bytesUsed = 0;
+  }
+
+  // Getters
+
+  /**
+   * Returns the arena shared by the whole program.
+   *
+   * @return <code>GeometryArena</code>
+   */
+  protected static GeometryArena getShared() {
+    return GeometryArena.SHARED;
+  }
+
+  /**
+   * Returns the number of segments allocated so far.
+   *
+   * @return <code>int</code>
+   */
+  protected synchronized int getSegmentCount() {
+    return this.segments.size();
+  }
+
+  /**
+   * Returns the segment with the given number. The buffer itself must not be repositioned by
+   * callers; use <code>ByteBuffer.duplicate</code> if a view with its own position is needed.
+   *
+   * @param segment <code>int</code>
+   * @return <code>ByteBuffer</code>
+   */
+  protected synchronized ByteBuffer getSegment(int segment) {
+    return this.segments.get(segment);
+  }
+
+  /**
+   * Returns the number of bytes handed out so far within the given segment.
+   *
+   * @param segment <code>int</code>
+   * @return <code>int</code>
+   */
+  protected synchronized int getSegmentUsed(int segment) {
+    return this.segmentUsed.get(segment);
+  }
+
+  /**
+   * Returns the committed watermark of the given segment: the number of bytes at its start that
+   * have all been written and committed by their owners, and may thus be read by other threads.
+   *
+   * @param segment <code>int</code>
+   * @return <code>int</code>
+   */
+  protected synchronized int getSegmentCommitted(int segment) {
+    return (this.outstanding.get(segment).isEmpty())
+      ? this.segmentUsed.get(segment)
+      : this.outstanding.get(segment).first();
+  }
+
+  /**
+   * Returns the total number of bytes handed out across all segments.
+   *
+   * @return <code>long</code>
+   */
+  protected synchronized long getBytesUsed() {
+    return this.bytesUsed;
+  }
+
+  /**
+   * Returns the total off-heap capacity reserved by all segments.
+   *
+   * @return <code>long</code>
+   */
+  protected synchronized long getBytesReserved() {
+
+    // Declaration
+    long reserved;
+
+    reserved = 0;
+
+    for (ByteBuffer segment : this.segments) {
+      reserved += segment.capacity();
+    }
+
+    return reserved;
+  }
+
+  // Allocation
+
+  /**
+   * Reserves the given number of bytes and returns the handle of the first one. The allocation
+   * never straddles two segments, so its contents may be addressed as a single contiguous range.
+   * It stays outstanding, holding back the committed watermark of its segment, until passed to
+   * <code>GeometryArena.commit</code> once written.
+   *
+   * @param bytes <code>int</code>
+   * @return <code>long</code> handle
+   */
+  protected synchronized long allocate(int bytes) {
+
+    // Declarations
+    int segment, offset;
+
+    segment = this.segments.size() - 1;
+    offset = (segment >= 0)
+      ? (this.segmentUsed.get(segment) + GeometryArena.ALIGNMENT - 1)
+        & -GeometryArena.ALIGNMENT
+      : 0;
+
+    // Open a new segment if the current one cannot fit the request
+    if (segment < 0 || offset + bytes > this.segments.get(segment).capacity()) {
+      this.segments.add(ByteBuffer.allocateDirect(Math.max(GeometryArena.SEGMENT_BYTES, bytes))
+        .order(ByteOrder.nativeOrder()));
+      this.segmentUsed.add(0);
+      this.outstanding.add(new TreeSet<>());
+      segment = this.segments.size() - 1;
+      offset = 0;
+    }
+
+    this.segmentUsed.set(segment, offset + bytes);
+    this.outstanding.get(segment).add(offset);
+    this.bytesUsed += bytes;
+    return GeometryArena.handle(segment, offset);
+  }
+
+  /**
+   * Marks the allocation of the given handle as written, publishing its contents to other
+   * threads and letting the committed watermark of its segment move past it.
+   *
+   * @param handle <code>long</code> as returned by <code>GeometryArena.allocate</code>
+   * @return void
+   */
+  protected synchronized void commit(long handle) {
+    this.outstanding.get(GeometryArena.segmentOf(handle)).remove(GeometryArena.offsetOf(handle));
+  }
+
+  /**
+   * Copies the given values into newly allocated space and returns its handle.
+   *
+   * @param values <code>double[]</code>
+   * @return <code>long</code> handle
+   */
+  protected long store(double[] values) {
+
+    // Declarations
+    long handle;
+    ByteBuffer segment;
+    int offset;
+
+    handle = this.allocate(values.length * Double.BYTES);
+    segment = this.getSegment(GeometryArena.segmentOf(handle));
+    offset = GeometryArena.offsetOf(handle);
+
+    for (int i = 0; i < values.length; i++) {
+      segment.putDouble(offset + i * Double.BYTES, values[i]);
+    }
+
+    this.commit(handle);
+    return handle;
+  }
+
+  /**
+   * Copies the given values into newly allocated space and returns its handle.
+   *
+   * @param values <code>int[]</code>
+   * @return <code>long</code> handle
+   */
+  protected long store(int[] values) {
+
+    // Declarations
+    long handle;
+    ByteBuffer segment;
+    int offset;
+
+    handle = this.allocate(values.length * Integer.BYTES);
+    segment = this.getSegment(GeometryArena.segmentOf(handle));
+    offset = GeometryArena.offsetOf(handle);
+
+    for (int i = 0; i < values.length; i++) {
+      segment.putInt(offset + i * Integer.BYTES, values[i]);
+    }
+
+    this.commit(handle);
+    return handle;
+  }
+
+  // Access
+
+  /**
+   * Reads the <code>index</code>-th <code>double</code> of the allocation at the given handle.
+   *
+   * @param handle <code>long</code>
+   * @param index <code>int</code>
+   * @return <code>double</code>
+   */
+  protected double getDouble(long handle, int index) {
+    return this.getSegment(GeometryArena.segmentOf(handle))
+      .getDouble(GeometryArena.offsetOf(handle) + index * Double.BYTES);
+  }
+
+  /**
+   * Reads the <code>index</code>-th <code>int</code> of the allocation at the given handle.
+   *
+   * @param handle <code>long</code>
+   * @param index <code>int</code>
+   * @return <code>int</code>
+   */
+  protected int getInt(long handle, int index) {
+    return this.getSegment(GeometryArena.segmentOf(handle))
+      .getInt(GeometryArena.offsetOf(handle) + index * Integer.BYTES);
+  }
+
+  // Handle helpers
+
+  /**
+   * Builds a handle from a segment number and byte offset.
+   *
+   * @param segment <code>int</code>
+   * @param offset <code>int</code>
+   * @return <code>long</code>
+   */
+  protected static long handle(int segment, int offset) {
+    return ((long) segment << 32) | (offset & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Extracts the segment number from a handle.
+   *
+   * @param handle <code>long</code>
+   * @return <code>int</code>
+   */
+  protected static int segmentOf(long handle) {
+    return (int) (handle >>> 32);
+  }
+
+  /**
+   * Extracts the byte offset within its segment from a handle.
+   *
+   * @param handle <code>long</code>
+   * @return <code>int</code>
+   */
+  protected static int offsetOf(long handle) {
+    return (int) handle;
+  }
+}
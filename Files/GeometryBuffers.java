@@ -0,0 +1,187 @@
+/**
+ * GeometryBuffers.java - Per-context mirror of the geometry arena's segments as buffer objects
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import com.jogamp.opengl.GL2;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Each segment of the <code>GeometryArena</code> is mirrored on the GPU by exactly one buffer
+ * object, sized to the segment's full capacity when first created. As the arena is append-only,
+ * keeping a mirror current never requires more than uploading the bytes handed out since the last
+ * upload via <code>GL2.glBufferSubData</code>, which reads straight out of the direct segment.
+ * Meshes then draw by binding their segment's buffer object to both the vertex and the index
+ * targets and passing byte offsets in place of client-side arrays, so geometry no longer crosses
+ * the bus on every frame.
+ * <br />
+ * <br />
+ * Buffer object names belong to a single GL context, so one instance of this class is kept per
+ * context by whichever listener owns it, and is discarded whenever that context is recreated.
+ *
+ * @see graphicsprojecttwo.GeometryArena
+ * @author Andrew Eissen
+ */
+final class GeometryBuffers {
+
+  // Class fields
+  private int[] names, uploaded;
+
+  /**
+   * Default constructor
+   */
+  protected GeometryBuffers() {
+    this.names = new int[0];
+    this.uploaded = new int[0];
+  }
+
+  // Utility methods
+
+  /**
+   * Called once at the start of every frame, this method creates buffer objects for any segments
+   * opened since the last frame and uploads whatever has been appended to existing ones, up to
+   * their committed watermarks, such that space handed out but still being written on another
+   * thread is left for a later frame rather than uploaded unfinished.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  protected void begin(GL2 gl2) {
+
+    // Declarations
+    GeometryArena arena;
+    int segmentCount, committed;
+    ByteBuffer pending;
+
+    arena = GeometryArena.getShared();
+    segmentCount = arena.getSegmentCount();
+
+    if (segmentCount > this.names.length) {
+      this.names = Arrays.copyOf(this.names, segmentCount);
+      this.uploaded = Arrays.copyOf(this.uploaded, segmentCount);
+    }
+
+    for (int segment = 0; segment < segmentCount; segment++) {
+      committed = arena.getSegmentCommitted(segment);
+
+      if (this.names[segment] != 0 && this.uploaded[segment] == committed) {
+        continue;
+      }
+
+      if (this.names[segment] == 0) {
+        this.names[segment] = this.generate(gl2);
+        gl2.glBindBuffer(GL2.GL_ARRAY_BUFFER, this.names[segment]);
+        gl2.glBufferData(GL2.GL_ARRAY_BUFFER, arena.getSegment(segment).capacity(), null,
+          GL2.GL_STATIC_DRAW);
+      } else {
+        gl2.glBindBuffer(GL2.GL_ARRAY_BUFFER, this.names[segment]);
+      }
+
+      // Only the newly appended range, read directly from the segment
+      pending = arena.getSegment(segment).duplicate();
+      pending.position(this.uploaded[segment]).limit(committed);
+      gl2.glBufferSubData(GL2.GL_ARRAY_BUFFER, this.uploaded[segment],
+        committed - this.uploaded[segment], pending);
+      this.uploaded[segment] = committed;
+    }
+
+    gl2.glBindBuffer(GL2.GL_ARRAY_BUFFER, 0);
+  }
+
+  /**
+   * Binds the buffer object mirroring the given segment as both the vertex and the index source,
+   * the filter dropping either call if that buffer is already bound.
+   *
+   * @param gl <code>GLStateFilter</code>
+   * @param segment <code>int</code> segment number, from <code>Mesh.getSegmentNumber</code>
+   * @return void
+   */
+  protected void bind(GLStateFilter gl, int segment) {
+    gl.glBindBuffer(GL2.GL_ARRAY_BUFFER, this.names[segment]);
+    gl.glBindBuffer(GL2.GL_ELEMENT_ARRAY_BUFFER, this.names[segment]);
+  }
+
+  /**
+   * Points the color array at the per-vertex colors starting at the given byte offset of the given
+   * segment, as four unsigned bytes per vertex, leaving that segment's buffer object bound as the
+   * vertex source.
+   *
+   * @param gl <code>GLStateFilter</code>
+   * @param segment <code>int</code> segment number of the colors
+   * @param byteOffset <code>long</code> offset of the first vertex's color within the segment
+   * @return void
+   */
+  protected void bindColors(GLStateFilter gl, int segment, long byteOffset) {
+    gl.glBindBuffer(GL2.GL_ARRAY_BUFFER, this.names[segment]);
+    gl.glColorPointer(4, GL2.GL_UNSIGNED_BYTE, 0, byteOffset);
+  }
+
+  /**
+   * Called once at the end of every frame to restore the default bindings expected by code that
+   * still uses client-side arrays.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  protected void end(GL2 gl2) {
+    gl2.glBindBuffer(GL2.GL_ARRAY_BUFFER, 0);
+    gl2.glBindBuffer(GL2.GL_ELEMENT_ARRAY_BUFFER, 0);
+  }
+
+  /**
+   * Releases every buffer object. Must be called with the owning context current.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  protected void dispose(GL2 gl2) {
+    for (int name : this.names) {
+      if (name != 0) {
+        gl2.glDeleteBuffers(1, new int[] {name}, 0);
+      }
+    }
+
+    this.names = new int[0];
+    this.uploaded = new int[0];
+  }
+
+  /**
+   * Returns the total number of bytes uploaded to the GPU by this instance.
+   *
+   * @return <code>long</code>
+   */
+  protected long getBytesUploaded() {
+
+    // Declaration
+    long total;
+
+    total = 0;
+
+    for (int bytes : this.uploaded) {
+      total += bytes;
+    }
+
+    return total;
+  }
+
+  // Helper methods
+
+  /**
+   * Generates a single buffer object name.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return <code>int</code>
+   */
+  private int generate(GL2 gl2) {
+
+    // Declaration
+    int[] name;
+
+    name = new int[1];
+    gl2.glGenBuffers(1, name, 0);
+    return name[0];
+  }
+}
@@ -0,0 +1,670 @@
+/**
+ * GoldenImageSuite.java - Offscreen renders of canonical poses checked against golden images
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.imageio.ImageIO;
+
+/**
+ * With the renderer reworked time and again for speed, nothing but the author's eyes stood in the
+ * way of an optimization that also changed the picture. This class implements the regression
+ * suite of the program, entered by passing <code>--golden</code> to <code>Driver</code> followed by
+ * any of the <code>key=value</code> options below. It renders the scene of <code>ScenePanel</code>
+ * offscreen, through the very same <code>SceneRenderer</code>, from a fixed set of camera poses:
+ * <pre>
+ * - default         the camera's default pose
+ * - step-1..step-6  the pose after each step of the animation video, cumulatively
+ * - zoom-in         the default pose, scaled up until the pedestal fills the frame
+ * - zoom-out        the default pose, scaled down until the scene is a speck
+ * </pre>
+ * Each render is compared against a golden image of the same name stored as a PNG file. As the
+ * golden images are meant to be rendered by Mesa's llvmpipe (setting
+ * <code>LIBGL_ALWAYS_SOFTWARE=1</code> forces it), while rasterizers are free to differ in the
+ * last bit and in which pixels an edge covers, the comparison is perceptual rather than exact. Two
+ * pixels are only told apart if their difference in the YIQ color space, weighted as by the human
+ * eye, exceeds the threshold, and a differing pixel is forgiven if any of its eight neighbors in
+ * the golden image would have matched it, as where an edge moved by a pixel. A pose fails if more
+ * than the allowed fraction of its pixels differ, in which case the render and an image of the
+ * differences (red for differing pixels, yellow for forgiven ones) are written next to it.
+ * <br />
+ * <br />
+ * The tolerance is only meant to absorb the drift of one rasterizer between driver releases, not
+ * the far larger differences between vendors, so the poses are only rendered if the context
+ * reports <code>GoldenImageSuite.REFERENCE_RENDERER</code> as its renderer. On any other, the
+ * suite refuses both to compare and to update the golden images, failing with a message naming
+ * the renderer found rather than failing every pose for reasons having nothing to do with the
+ * change under test.
+ * <br />
+ * <br />
+ * The suite then enforces frame-time budgets on scenes of increasing size, running the
+ * <code>Benchmark</code> on each and failing any whose 95th percentile frame time exceeds its
+ * budget, such that a change cannot make the picture right at the expense of speed either.
+ * <br />
+ * <pre>
+ * Options (defaults in parentheses):
+ * - dir=PATH         directory of the golden images (golden)
+ * - out=PATH         directory the failed renders and differences are written to (golden-out)
+ * - update=B         whether to overwrite the golden images with the renders instead (false)
+ * - width=X          offscreen surface width (640)
+ * - height=Y         offscreen surface height (480)
+ * - threshold=T      perceptual difference in [0, 1] above which pixels differ (0.1)
+ * - maxdiff=F        fraction of pixels allowed to differ per pose (0.001)
+ * - budgets=LIST     objects:milliseconds pairs of the frame-time budgets (100:8,1000:33,5000:100)
+ * - frames=F         number of measured frames per budget (120)
+ * - shapes=NAME      shapes of the budgeted scenes, builtin or parametric (builtin)
+ * </pre>
+ * A pose without a golden image is not a regression but a suite yet to be bootstrapped, and so is
+ * reported as skipped rather than failed, its render written to the output directory for review.
+ * An empty list of budgets skips them. The exit status is zero if every check passed, one if any
+ * failed or the suite could not be run, two if the arguments were invalid, and three if nothing
+ * failed but golden images were missing, to be bootstrapped on llvmpipe with
+ * <code>update=true</code>.
+ *
+ * @see graphicsprojecttwo.Benchmark
+ * @see graphicsprojecttwo.SceneRenderer
+ * @author Andrew Eissen
+ */
+final class GoldenImageSuite {
+
+  /** Renderer the golden images are rendered on, as named by <code>GL_RENDERER</code> */
+  private final static String REFERENCE_RENDERER = "llvmpipe";
+
+  /** Camera scale of the zoomed-in pose */
+  private final static double ZOOM_IN_SCALE = 12.0;
+
+  /** Camera scale of the zoomed-out pose */
+  private final static double ZOOM_OUT_SCALE = 0.02;
+
+  /** Most frames rendered per pose while waiting on the occlusion culler to settle */
+  private final static int MAX_SETTLE_FRAMES = 16;
+
+  /** Largest possible difference between two colors in the weighted YIQ space */
+  private final static double MAX_YIQ_DELTA = 35215.0;
+
+  // Class fields
+  private final Path dir, out;
+  private final boolean isUpdating;
+  private final int width, height, frames;
+  private final double threshold, maxDiff;
+  private final SceneGenerator.Shapes shapes;
+  private final int[] budgetObjects;
+  private final double[] budgetMs;
+  private final List<String> poseNames;
+  private final List<SceneCamera> poses;
+  private final SceneCamera camera;
+  private final SceneRenderer sceneRenderer;
+  private final ByteBuffer readBuffer;
+  private final byte[] pixels;
+  private String glRenderer;
+  private int failures, missing;
+
+  /**
+   * Parameterized constructor
+   *
+   * @param options <code>Map</code> of option names to values, as parsed from the command line
+   */
+  private GoldenImageSuite(Map<String, String> options) {
+
+    // Declarations
+    String[] budgets, pair;
+
+    this.dir = Paths.get(options.getOrDefault("dir", "golden"));
+    this.out = Paths.get(options.getOrDefault("out", "golden-out"));
+    this.isUpdating = Boolean.parseBoolean(options.getOrDefault("update", "false"));
+    this.width = Integer.parseInt(options.getOrDefault("width", "640"));
+    this.height = Integer.parseInt(options.getOrDefault("height", "480"));
+    this.frames = Integer.parseInt(options.getOrDefault("frames", "120"));
+    this.threshold = Double.parseDouble(options.getOrDefault("threshold", "0.1"));
+    this.maxDiff = Double.parseDouble(options.getOrDefault("maxdiff", "0.001"));
+    this.shapes = SceneGenerator.parseShapes(options.getOrDefault("shapes", "builtin"));
+
+    if (this.width < 1 || this.height < 1 || this.frames < 1 || !(this.threshold >= 0.0)
+        || this.threshold > 1.0 || !(this.maxDiff >= 0.0)) {
+      throw new IllegalArgumentException("width, height, and frames must be positive, threshold "
+        + "in [0, 1], and maxdiff non-negative");
+    }
+
+    budgets = options.getOrDefault("budgets", "100:8,1000:33,5000:100").split(",");
+
+    if (budgets.length == 1 && budgets[0].trim().isEmpty()) {
+      budgets = new String[0];
+    }
+
+    this.budgetObjects = new int[budgets.length];
+    this.budgetMs = new double[budgets.length];
+
+    for (int i = 0; i < budgets.length; i++) {
+      pair = budgets[i].trim().split(":");
+
+      if (pair.length != 2) {
+        throw new IllegalArgumentException("Expected objects:milliseconds, got '" + budgets[i]
+          + "'");
+      }
+
+      this.budgetObjects[i] = Integer.parseInt(pair[0]);
+      this.budgetMs[i] = Double.parseDouble(pair[1]);
+    }
+
+    this.poseNames = new ArrayList<>();
+    this.poses = new ArrayList<>();
+    this.camera = new SceneCamera();
+    this.sceneRenderer = new SceneRenderer();
+    this.readBuffer = ByteBuffer.allocateDirect(this.width * this.height * 4);
+    this.pixels = new byte[this.width * this.height * 4];
+    this.failures = 0;
+    this.missing = 0;
+    this.addPoses();
+  }
+
+  // Utility methods
+
+  /**
+   * Entry point of the regression suite, called by <code>Driver.main</code> with the arguments
+   * following <code>--golden</code>. Returns the process exit status: zero if every check passed,
+   * one if any failed or the suite could not be run, two if the arguments were invalid, and three
+   * if nothing failed but golden images were missing.
+   *
+   * @param args <code>String[]</code> <code>key=value</code> options
+   * @return <code>int</code>
+   */
+  protected static int run(String[] args) {
+
+    // Declarations
+    Map<String, String> options;
+    GoldenImageSuite suite;
+
+    options = new LinkedHashMap<>();
+
+    try {
+      for (String arg : args) {
+        if (arg.indexOf('=') < 1) {
+          throw new IllegalArgumentException("Expected key=value, got '" + arg + "'");
+        }
+
+        options.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+      }
+
+      suite = new GoldenImageSuite(options);
+    } catch (IllegalArgumentException ex) {
+      System.err.println("Error: " + ex.getMessage());
+      System.err.println("Usage: --golden [dir=PATH] [out=PATH] [update=true|false] [width=X] "
+        + "[height=Y] [threshold=T] [maxdiff=F] [budgets=N:MS,...] [frames=F] "
+        + "[shapes=builtin|parametric]");
+      return 2;
+    }
+
+    try {
+      suite.renderPoses();
+
+      if (!suite.isUpdating) {
+        suite.checkBudgets();
+      }
+    } catch (GLException | IOException ex) {
+      System.err.println("Error: " + ex);
+      return 1;
+    }
+
+    if (suite.failures > 0) {
+      System.out.println(suite.failures + " check(s) failed");
+      return 1;
+    } else if (suite.missing > 0) {
+      System.out.println(suite.missing + " golden image(s) missing; bootstrap them with "
+        + "LIBGL_ALWAYS_SOFTWARE=1 and update=true");
+      return 3;
+    }
+
+    System.out.println("All checks passed");
+    return 0;
+  }
+
+  // Helper methods
+
+  /**
+   * Lists the canonical camera poses, the animation video's being applied one step at a time as
+   * <code>ScenePanel.runAnimation</code> would.
+   *
+   * @return void
+   */
+  private void addPoses() {
+
+    // Declaration
+    SceneCamera pose;
+
+    pose = new SceneCamera();
+    this.addPose("default", pose);
+
+    for (int i = 0; i < ScenePanel.ANIMATION_STEPS.length; i++) {
+      InputReplayer.transform(pose, InputRecorder.indexOf(ScenePanel.ANIMATION_STEPS[i]),
+        ScenePanel.ANIMATION_AMOUNTS[i]);
+      this.addPose("step-" + (i + 1), pose);
+    }
+
+    pose = new SceneCamera();
+    pose.setScale(GoldenImageSuite.ZOOM_IN_SCALE);
+    this.addPose("zoom-in", pose);
+
+    pose = new SceneCamera();
+    pose.setScale(GoldenImageSuite.ZOOM_OUT_SCALE);
+    this.addPose("zoom-out", pose);
+  }
+
+  /**
+   * Adds a copy of the given pose under the given name.
+   *
+   * @param name <code>String</code>
+   * @param pose <code>SceneCamera</code>
+   * @return void
+   */
+  private void addPose(String name, SceneCamera pose) {
+
+    // Declaration
+    SceneCamera copy;
+
+    copy = new SceneCamera();
+    GoldenImageSuite.copyPose(pose, copy);
+    this.poseNames.add(name);
+    this.poses.add(copy);
+  }
+
+  /**
+   * Copies the pose of one camera onto another.
+   *
+   * @param from <code>SceneCamera</code>
+   * @param to <code>SceneCamera</code>
+   * @return void
+   */
+  private static void copyPose(SceneCamera from, SceneCamera to) {
+    to.setScale(from.getScale());
+    to.setRotateX(from.getRotateX());
+    to.setRotateY(from.getRotateY());
+    to.setRotateZ(from.getRotateZ());
+    to.setTranslateX(from.getTranslateX());
+    to.setTranslateY(from.getTranslateY());
+    to.setTranslateZ(from.getTranslateZ());
+  }
+
+  /**
+   * Renders the scene from every pose into an offscreen drawable, comparing each render against
+   * its golden image, or replacing the golden image if updating. Nothing is rendered, and the
+   * suite fails, if the drawable is not backed by the reference renderer.
+   *
+   * @return void
+   * @throws IOException if an image cannot be read or written
+   */
+  private void renderPoses() throws IOException {
+
+    // Declarations
+    SceneGraph sceneGraph;
+    GLProfile profile;
+    GLCapabilities capabilities;
+    GLOffscreenAutoDrawable drawable;
+    BufferedImage image;
+    int settle;
+
+    sceneGraph = new SceneGraph();
+    ScenePanel.buildScene(sceneGraph);
+    System.err.println(LightBaker.bake(sceneGraph));
+
+    profile = GLProfile.get(GLProfile.GL2);
+    capabilities = new GLCapabilities(profile);
+    capabilities.setOnscreen(false);
+    capabilities.setFBO(true);
+    capabilities.setDoubleBuffered(false);
+    capabilities.setDepthBits(24);
+
+    drawable = GLDrawableFactory.getFactory(profile).createOffscreenAutoDrawable(null,
+      capabilities, null, this.width, this.height);
+    drawable.addGLEventListener(new GoldenImageSuite.SuiteListener(sceneGraph));
+
+    try {
+
+      // Have the listener initialized and the renderer named before anything is compared
+      drawable.display();
+
+      if (this.glRenderer == null
+          || !this.glRenderer.contains(GoldenImageSuite.REFERENCE_RENDERER)) {
+        this.failures++;
+        System.out.printf(Locale.ROOT, "FAIL %-10s golden images are rendered on %s, not on %s; "
+          + "rerun with LIBGL_ALWAYS_SOFTWARE=1%n", "renderer",
+          GoldenImageSuite.REFERENCE_RENDERER, this.glRenderer);
+        return;
+      }
+
+      for (int i = 0; i < this.poses.size(); i++) {
+        GoldenImageSuite.copyPose(this.poses.get(i), this.camera);
+        settle = 0;
+
+        // Objects hidden from the last pose may take a frame or two to reappear
+        do {
+          drawable.display();
+        } while (!this.sceneRenderer.getOcclusionCuller().getIsSettled()
+          && ++settle < GoldenImageSuite.MAX_SETTLE_FRAMES);
+
+        image = FrameCapture.toImage(this.width, this.height, this.pixels);
+        this.check(this.poseNames.get(i), image);
+      }
+    } finally {
+      drawable.destroy();
+    }
+  }
+
+  /**
+   * Compares a single render against its golden image, reporting the outcome, or replaces the
+   * golden image if updating.
+   *
+   * @param name <code>String</code>
+   * @param image <code>BufferedImage</code>
+   * @return void
+   * @throws IOException if an image cannot be read or written
+   */
+  private void check(String name, BufferedImage image) throws IOException {
+
+    // Declarations
+    Path golden;
+    BufferedImage expected, differences;
+    int differing;
+    double fraction;
+
+    golden = this.dir.resolve(name + ".png");
+
+    if (this.isUpdating) {
+      Files.createDirectories(this.dir);
+      ImageIO.write(image, "png", golden.toFile());
+      System.out.println("WROTE " + golden);
+      return;
+    }
+
+    if (!Files.isRegularFile(golden)) {
+      this.skip(name, "no golden image at " + golden, image);
+      return;
+    }
+
+    expected = ImageIO.read(golden.toFile());
+
+    if (expected == null || expected.getWidth() != this.width
+        || expected.getHeight() != this.height) {
+      this.fail(name, "golden image is not a " + this.width + "x" + this.height + " PNG", image,
+        null);
+      return;
+    }
+
+    differences = new BufferedImage(this.width, this.height, BufferedImage.TYPE_INT_RGB);
+    differing = this.compare(expected, image, differences);
+    fraction = (double) differing / (this.width * this.height);
+
+    if (fraction > this.maxDiff) {
+      this.fail(name, String.format(Locale.ROOT, "%d pixels differ (%.3f%% > %.3f%%)", differing,
+        fraction * 100.0, this.maxDiff * 100.0), image, differences);
+    } else {
+      System.out.printf(Locale.ROOT, "PASS %-10s %d pixels differ (%.3f%%)%n", name, differing,
+        fraction * 100.0);
+    }
+  }
+
+  /**
+   * Counts the pixels of the render differing perceptibly from the golden image, painting the
+   * differences into the given image over a faded copy of the golden image.
+   *
+   * @param expected <code>BufferedImage</code> golden image
+   * @param actual <code>BufferedImage</code> render
+   * @param differences <code>BufferedImage</code> of the same size, painted into
+   * @return <code>int</code>
+   */
+  private int compare(BufferedImage expected, BufferedImage actual, BufferedImage differences) {
+
+    // Declarations
+    int[] a, b;
+    double limit;
+    int differing, index, gray;
+    boolean isForgiven;
+
+    a = expected.getRGB(0, 0, this.width, this.height, null, 0, this.width);
+    b = actual.getRGB(0, 0, this.width, this.height, null, 0, this.width);
+    limit = GoldenImageSuite.MAX_YIQ_DELTA * this.threshold * this.threshold;
+    differing = 0;
+
+    for (int y = 0; y < this.height; y++) {
+      for (int x = 0; x < this.width; x++) {
+        index = y * this.width + x;
+
+        if (GoldenImageSuite.delta(a[index], b[index]) <= limit) {
+          gray = 192 + ((a[index] >> 16 & 0xFF) + (a[index] >> 8 & 0xFF) + (a[index] & 0xFF))
+            / 12;
+          differences.setRGB(x, y, gray << 16 | gray << 8 | gray);
+          continue;
+        }
+
+        isForgiven = false;
+
+        // An edge one pixel over is not a regression
+        for (int dy = -1; dy <= 1 && !isForgiven; dy++) {
+          for (int dx = -1; dx <= 1 && !isForgiven; dx++) {
+            if (x + dx >= 0 && x + dx < this.width && y + dy >= 0 && y + dy < this.height) {
+              isForgiven = GoldenImageSuite.delta(a[index + dy * this.width + dx], b[index])
+                <= limit;
+            }
+          }
+        }
+
+        if (isForgiven) {
+          differences.setRGB(x, y, 0xFFFF00);
+        } else {
+          differences.setRGB(x, y, 0xFF0000);
+          differing++;
+        }
+      }
+    }
+
+    return differing;
+  }
+
+  /**
+   * Returns the squared difference of two colors in the YIQ color space, each axis weighted by
+   * the sensitivity of the eye to it, as proposed by Kotsarenko and Ramos.
+   *
+   * @param first <code>int</code> packed <code>0xRRGGBB</code>
+   * @param second <code>int</code> packed <code>0xRRGGBB</code>
+   * @return <code>double</code>
+   */
+  private static double delta(int first, int second) {
+
+    // Declarations
+    double r, g, b, y, i, q;
+
+    r = (first >> 16 & 0xFF) - (second >> 16 & 0xFF);
+    g = (first >> 8 & 0xFF) - (second >> 8 & 0xFF);
+    b = (first & 0xFF) - (second & 0xFF);
+    y = r * 0.29889531 + g * 0.58662247 + b * 0.11448223;
+    i = r * 0.59597799 - g * 0.27417610 - b * 0.32180189;
+    q = r * 0.21147017 - g * 0.52261711 + b * 0.31114694;
+    return 0.5053 * y * y + 0.299 * i * i + 0.1957 * q * q;
+  }
+
+  /**
+   * Reports a pose that could not be compared for want of a golden image, writing its render to
+   * the output directory, from which it may be reviewed before bootstrapping the suite.
+   *
+   * @param name <code>String</code>
+   * @param reason <code>String</code>
+   * @param image <code>BufferedImage</code> render
+   * @return void
+   * @throws IOException if the render cannot be written
+   */
+  private void skip(String name, String reason, BufferedImage image) throws IOException {
+    this.missing++;
+    Files.createDirectories(this.out);
+    ImageIO.write(image, "png", this.out.resolve(name + ".png").toFile());
+    System.out.printf(Locale.ROOT, "SKIP %-10s %s%n", name, reason);
+  }
+
+  /**
+   * Reports a failed pose, writing its render and differences, if any, to the output directory.
+   *
+   * @param name <code>String</code>
+   * @param reason <code>String</code>
+   * @param image <code>BufferedImage</code> render
+   * @param differences <code>BufferedImage</code>, or <code>null</code>
+   * @return void
+   * @throws IOException if an image cannot be written
+   */
+  private void fail(String name, String reason, BufferedImage image, BufferedImage differences)
+      throws IOException {
+    this.failures++;
+    Files.createDirectories(this.out);
+    ImageIO.write(image, "png", this.out.resolve(name + ".png").toFile());
+
+    if (differences != null) {
+      ImageIO.write(differences, "png", this.out.resolve(name + "-diff.png").toFile());
+    }
+
+    System.out.printf(Locale.ROOT, "FAIL %-10s %s%n", name, reason);
+  }
+
+  /**
+   * Runs the <code>Benchmark</code> on a generated scene of each budgeted size, failing any whose
+   * 95th percentile frame time exceeds its budget.
+   *
+   * @return void
+   * @throws IOException as declared by <code>Benchmark.measure</code>, though no log is read
+   */
+  private void checkBudgets() throws IOException {
+
+    // Declarations
+    Map<String, String> options;
+    double measured;
+    String name;
+
+    for (int i = 0; i < this.budgetObjects.length; i++) {
+      options = new LinkedHashMap<>();
+      options.put("objects", String.valueOf(this.budgetObjects[i]));
+      options.put("frames", String.valueOf(this.frames));
+      options.put("width", String.valueOf(this.width));
+      options.put("height", String.valueOf(this.height));
+      options.put("shapes", this.shapes.name().toLowerCase(Locale.ROOT));
+
+      measured = (Double) Benchmark.measure(options).get("frameMsP95");
+      name = "budget-" + this.budgetObjects[i];
+
+      if (measured > this.budgetMs[i]) {
+        this.failures++;
+        System.out.printf(Locale.ROOT, "FAIL %-10s p95 %.3f ms > %.3f ms%n", name, measured,
+          this.budgetMs[i]);
+      } else {
+        System.out.printf(Locale.ROOT, "PASS %-10s p95 %.3f ms <= %.3f ms%n", name, measured,
+          this.budgetMs[i]);
+      }
+    }
+  }
+
+  // Inner helper classes
+
+  /**
+   * Listener of the offscreen drawable, rendering the scene from the current pose and reading the
+   * finished frame back into <code>GoldenImageSuite.pixels</code>.
+   *
+   * @see com.jogamp.opengl.GLEventListener
+   * @author Andrew Eissen
+   */
+  private final class SuiteListener implements GLEventListener {
+
+    // Declarations
+    private final SceneGraph sceneGraph;
+
+    /**
+     * Parameterized constructor
+     *
+     * @param sceneGraph <code>SceneGraph</code> of the objects to draw
+     */
+    private SuiteListener(SceneGraph sceneGraph) {
+      this.sceneGraph = sceneGraph;
+    }
+
+    /**
+     * Sets up the GL state of the new offscreen context, noting which renderer is in use.
+     *
+     * @param glad <code>GLAutoDrawable</code>
+     * @return void
+     */
+    @Override
+    public void init(GLAutoDrawable glad) {
+
+      // Declaration
+      GL2 gl2;
+
+      gl2 = glad.getGL().getGL2();
+      GoldenImageSuite.this.sceneRenderer.init(gl2);
+      GoldenImageSuite.this.glRenderer = gl2.glGetString(GL2.GL_RENDERER);
+      System.err.println("Rendering offscreen with " + GoldenImageSuite.this.glRenderer);
+    }
+
+    /**
+     * Renders a single frame from the current pose and reads it back, bottom row first.
+     *
+     * @param glad <code>GLAutoDrawable</code>
+     * @return void
+     */
+    @Override
+    public void display(GLAutoDrawable glad) {
+
+      // Declaration
+      GL2 gl2;
+
+      gl2 = glad.getGL().getGL2();
+      GoldenImageSuite.this.sceneRenderer.render(gl2, GoldenImageSuite.this.camera,
+        this.sceneGraph);
+
+      GoldenImageSuite.this.readBuffer.clear();
+      gl2.glPixelStorei(GL2.GL_PACK_ALIGNMENT, 1);
+      gl2.glReadPixels(0, 0, GoldenImageSuite.this.width, GoldenImageSuite.this.height,
+        GL2.GL_RGBA, GL2.GL_UNSIGNED_BYTE, GoldenImageSuite.this.readBuffer);
+      GoldenImageSuite.this.readBuffer.get(GoldenImageSuite.this.pixels);
+    }
+
+    /**
+     * Releases the buffer objects of the offscreen context.
+     *
+     * @param glad <code>GLAutoDrawable</code>
+     * @return void
+     */
+    @Override
+    public void dispose(GLAutoDrawable glad) {
+      GoldenImageSuite.this.sceneRenderer.dispose(glad.getGL().getGL2());
+    }
+
+    /**
+     * Adapts the projection to the aspect ratio of the offscreen surface, as in the GUI.
+     *
+     * @param glad <code>GLAutoDrawable</code>
+     * @param x <code>int</code>
+     * @param y <code>int</code>
+     * @param width <code>int</code>
+     * @param height <code>int</code>
+     * @return void
+     */
+    @Override
+    public void reshape(GLAutoDrawable glad, int x, int y, int width, int height) {
+      GoldenImageSuite.this.sceneRenderer.reshape(glad.getGL().getGL2(), width, height);
+    }
+  }
+}
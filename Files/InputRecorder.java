@@ -0,0 +1,274 @@
+/**
+ * InputRecorder.java - Compact binary log of keystrokes, animation ticks, and transformations
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Slowdowns of the renderer tend to show up only under the patterns of real interaction, which are
+ * next to impossible to reproduce by hand. This class therefore records everything that happens to
+ * the scene's transformation state in an interactive session, so that <code>InputReplayer</code>
+ * may later play it back headlessly, as often as needed. It is enabled by pointing the
+ * <code>graphicsprojecttwo.record</code> property at the file to write, and is fed by
+ * <code>ScenePanel</code> with every keystroke received by its <code>SceneKeyListener</code>, every
+ * tick of the "Video" animation, and, as the outcome of either, every transformation and reset
+ * actually applied to the <code>SceneCamera</code>. Keystrokes and ticks are kept so that the log
+ * describes the session in full; replaying the outcomes rather than reinterpreting the keystrokes
+ * means the log does not depend on the key bindings of whatever version of the program replays it.
+ * <br />
+ * <br />
+ * The log starts with a magic number and version, followed by one record per event. Each record
+ * is a type byte and the time elapsed since the previous record in microseconds, as measured by
+ * the monotonic <code>System.nanoTime</code> and stored as a variable-length integer of seven bits
+ * per byte, so that most records take only a handful of bytes:
+ * <pre>
+ * KEY        varint key code
+ * TICK       varint animation counter
+ * TRANSFORM  one byte index into InputRecorder.TRANSFORMATIONS, eight-byte double amount
+ * RESET      no payload
+ * </pre>
+ * Records are buffered and only flushed to disk once the recorder is closed, which happens on
+ * shutdown of the virtual machine at the latest.
+ *
+ * @see graphicsprojecttwo.InputReplayer
+ * @see graphicsprojecttwo.ScenePanel
+ * @author Andrew Eissen
+ */
+final class InputRecorder {
+
+  /** Magic number opening every log, the ASCII bytes "GPTR" */
+  protected final static int MAGIC = 0x47505452;
+
+  /** Version of the log format written by this class */
+  protected final static byte VERSION = 1;
+
+  /** Record type of a keystroke */
+  protected final static byte KEY = 1;
+
+  /** Record type of a tick of the "Video" animation */
+  protected final static byte TICK = 2;
+
+  /** Record type of a transformation applied to the camera */
+  protected final static byte TRANSFORM = 3;
+
+  /** Record type of the camera being reset to its defaults */
+  protected final static byte RESET = 4;
+
+  /** Getter/setter suffixes of the transformations, indexed as stored in the log */
+  protected final static String[] TRANSFORMATIONS = {
+    "Scale", "RotateX", "RotateY", "RotateZ", "TranslateX", "TranslateY", "TranslateZ"
+  };
+
+  // Class fields
+  private final Path path;
+  private final DataOutputStream output;
+  private final long startNanos;
+  private long lastMicros;
+  private int records;
+  private boolean isClosed;
+
+  /**
+   * Parameterized constructor, creating or truncating the log file and registering a shutdown hook
+   * closing it
+   *
+   * @param path <code>Path</code>
+   * @throws IOException if the file cannot be opened
+   */
+  protected InputRecorder(Path path) throws IOException {
+    this.path = path;
+    this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+    this.output.writeInt(InputRecorder.MAGIC);
+    this.output.writeByte(InputRecorder.VERSION);
+    this.startNanos = System.nanoTime();
+    this.lastMicros = 0L;
+    this.records = 0;
+    this.isClosed = false;
+    Runtime.getRuntime().addShutdownHook(new Thread(this::close, "InputRecorder"));
+  }
+
+  // Getters
+
+  /**
+   * Getter for <code>InputRecorder.path</code>
+   *
+   * @return path <code>Path</code>
+   */
+  protected Path getPath() {
+    return this.path;
+  }
+
+  /**
+   * Getter for <code>InputRecorder.records</code>, the number of records written so far
+   *
+   * @return records <code>int</code>
+   */
+  protected synchronized int getRecords() {
+    return this.records;
+  }
+
+  // Utility methods
+
+  /**
+   * Records a keystroke received by <code>ScenePanel.SceneKeyListener</code>.
+   *
+   * @param keyCode <code>int</code>
+   * @return void
+   */
+  protected synchronized void recordKey(int keyCode) {
+    if (this.begin(InputRecorder.KEY)) {
+      this.writeVarint(keyCode);
+    }
+  }
+
+  /**
+   * Records a tick of the "Video" animation.
+   *
+   * @param counter <code>int</code> step of the animation about to be run
+   * @return void
+   */
+  protected synchronized void recordTick(int counter) {
+    if (this.begin(InputRecorder.TICK)) {
+      this.writeVarint(counter);
+    }
+  }
+
+  /**
+   * Records a transformation applied to the camera by the given amount. Unknown suffixes are
+   * ignored, as they cannot have changed the camera.
+   *
+   * @param methodSuffix <code>String</code> one of <code>InputRecorder.TRANSFORMATIONS</code>
+   * @param amount <code>double</code>
+   * @return void
+   */
+  protected synchronized void recordTransformation(String methodSuffix, double amount) {
+
+    // Declaration
+    int index;
+
+    index = InputRecorder.indexOf(methodSuffix);
+
+    if (index >= 0 && this.begin(InputRecorder.TRANSFORM)) {
+      try {
+        this.output.writeByte(index);
+        this.output.writeDouble(amount);
+      } catch (IOException ex) {
+        this.fail(ex);
+      }
+    }
+  }
+
+  /**
+   * Records the camera being reset to its defaults.
+   *
+   * @return void
+   */
+  protected synchronized void recordReset() {
+    this.begin(InputRecorder.RESET);
+  }
+
+  /**
+   * Flushes and closes the log. Later records are silently dropped.
+   *
+   * @return void
+   */
+  protected synchronized void close() {
+    if (this.isClosed) {
+      return;
+    }
+
+    this.isClosed = true;
+
+    try {
+      this.output.close();
+    } catch (IOException ex) {
+      System.err.println("Error: " + ex);
+    }
+  }
+
+  /**
+   * Returns the index of the given suffix in <code>InputRecorder.TRANSFORMATIONS</code>, or -1.
+   *
+   * @param methodSuffix <code>String</code>
+   * @return <code>int</code>
+   */
+  protected static int indexOf(String methodSuffix) {
+    for (int i = 0; i < InputRecorder.TRANSFORMATIONS.length; i++) {
+      if (InputRecorder.TRANSFORMATIONS[i].equals(methodSuffix)) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  // Helper methods
+
+  /**
+   * Writes the type and timestamp of a new record, returning whether the payload should follow.
+   * Timestamps are taken as whole microseconds since the start and stored as differences, so that
+   * rounding never accumulates into drift.
+   *
+   * @param type <code>byte</code>
+   * @return <code>boolean</code>
+   */
+  private boolean begin(byte type) {
+
+    // Declaration
+    long micros;
+
+    if (this.isClosed) {
+      return false;
+    }
+
+    micros = Math.max(this.lastMicros, (System.nanoTime() - this.startNanos) / 1000L);
+
+    try {
+      this.output.writeByte(type);
+      this.writeVarint(micros - this.lastMicros);
+      this.lastMicros = micros;
+      this.records++;
+      return true;
+    } catch (IOException ex) {
+      this.fail(ex);
+      return false;
+    }
+  }
+
+  /**
+   * Writes a non-negative value seven bits at a time, least significant group first, with the
+   * high bit of each byte set if more follow.
+   *
+   * @param value <code>long</code>
+   * @return void
+   */
+  private void writeVarint(long value) {
+    try {
+      while ((value & ~0x7FL) != 0L) {
+        this.output.writeByte((int) ((value & 0x7FL) | 0x80L));
+        value >>>= 7;
+      }
+
+      this.output.writeByte((int) value);
+    } catch (IOException ex) {
+      this.fail(ex);
+    }
+  }
+
+  /**
+   * Gives up on recording after a write failed, such that the session itself is unaffected.
+   *
+   * @param ex <code>IOException</code>
+   * @return void
+   */
+  private void fail(IOException ex) {
+    System.err.println("Error: recording to " + this.path + " stopped, " + ex);
+    this.close();
+  }
+}
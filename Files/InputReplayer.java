@@ -0,0 +1,374 @@
+/**
+ * InputReplayer.java - Headless playback of logs written by <code>InputRecorder</code>
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class reads back a log written by <code>InputRecorder</code> and drives a
+ * <code>SceneCamera</code> through the very same sequence of transformations and resets as the
+ * recorded session, without any GUI. The whole log is decoded up front into parallel primitive
+ * arrays, one entry per record, so that playback itself neither reads the disk nor allocates.
+ * <br />
+ * <br />
+ * Playback may either run as fast as possible or be paced in real time, each record being applied
+ * no earlier than its recorded offset from the start of playback. The former is what the
+ * <code>Benchmark</code> relies on when given a log through its <code>replay</code> option, posing
+ * its camera as of the point in the log corresponding to each frame; the latter reproduces the
+ * timing of the original session for profiling alongside the real program. Logs are replayed from
+ * the command line by passing <code>--replay</code> to <code>Driver</code>, followed by:
+ * <pre>
+ * - log=PATH       log to replay (required)
+ * - pace=fast      fast or realtime (fast)
+ * </pre>
+ * A summary of the log and of the final camera pose is printed once done, so that two replays of
+ * the same log may be compared directly.
+ *
+ * @see graphicsprojecttwo.InputRecorder
+ * @see graphicsprojecttwo.Benchmark
+ * @author Andrew Eissen
+ */
+final class InputReplayer {
+
+  // Class fields
+  private final int count;
+  private final byte[] type;
+  private final long[] nanos;
+  private final int[] code;
+  private final double[] amount;
+  private int cursor;
+
+  /**
+   * Parameterized constructor, taking ownership of the decoded records
+   *
+   * @param count <code>int</code>
+   * @param type <code>byte[]</code>
+   * @param nanos <code>long[]</code> offset of each record from the start of the session
+   * @param code <code>int[]</code> key code, counter, or transformation index
+   * @param amount <code>double[]</code> transformation amount
+   */
+  private InputReplayer(int count, byte[] type, long[] nanos, int[] code, double[] amount) {
+    this.count = count;
+    this.type = type;
+    this.nanos = nanos;
+    this.code = code;
+    this.amount = amount;
+    this.cursor = 0;
+  }
+
+  // Getters
+
+  /**
+   * Returns the number of records in the log.
+   *
+   * @return <code>int</code>
+   */
+  protected int size() {
+    return this.count;
+  }
+
+  /**
+   * Returns the offset of the last record from the start of the session, in nanoseconds.
+   *
+   * @return <code>long</code>
+   */
+  protected long getDurationNanos() {
+    return (this.count == 0) ? 0L : this.nanos[this.count - 1];
+  }
+
+  /**
+   * Returns the offset of the given record from the start of the session, in nanoseconds.
+   *
+   * @param record <code>int</code>
+   * @return <code>long</code>
+   */
+  protected long getNanos(int record) {
+    return this.nanos[record];
+  }
+
+  /**
+   * Returns the number of records of the given type.
+   *
+   * @param recordType <code>byte</code> one of the record types of <code>InputRecorder</code>
+   * @return <code>int</code>
+   */
+  protected int getCount(byte recordType) {
+
+    // Declaration
+    int total;
+
+    total = 0;
+
+    for (int i = 0; i < this.count; i++) {
+      if (this.type[i] == recordType) {
+        total++;
+      }
+    }
+
+    return total;
+  }
+
+  // Utility methods
+
+  /**
+   * Decodes the whole of the given log. A log cut short midway through a record is read up to its
+   * last complete record.
+   *
+   * @param path <code>Path</code>
+   * @return <code>InputReplayer</code>
+   * @throws IOException if the file cannot be read or is not a valid log
+   */
+  protected static InputReplayer load(Path path) throws IOException {
+
+    // Declarations
+    byte[] type;
+    long[] nanos;
+    int[] code;
+    double[] amount;
+    int count, next;
+    long micros;
+
+    type = new byte[64];
+    nanos = new long[64];
+    code = new int[64];
+    amount = new double[64];
+    count = 0;
+    micros = 0L;
+
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+        Files.newInputStream(path)))) {
+      if (input.readInt() != InputRecorder.MAGIC) {
+        throw new IOException(path + " is not an input log");
+      }
+
+      if (input.readByte() != InputRecorder.VERSION) {
+        throw new IOException(path + " was written by an unsupported version");
+      }
+
+      while ((next = input.read()) != -1) {
+        if (count == type.length) {
+          type = Arrays.copyOf(type, count * 2);
+          nanos = Arrays.copyOf(nanos, count * 2);
+          code = Arrays.copyOf(code, count * 2);
+          amount = Arrays.copyOf(amount, count * 2);
+        }
+
+        micros += InputReplayer.readVarint(input);
+        type[count] = (byte) next;
+        nanos[count] = micros * 1000L;
+
+        switch (type[count]) {
+          case InputRecorder.KEY:
+          case InputRecorder.TICK:
+            code[count] = (int) InputReplayer.readVarint(input);
+            break;
+          case InputRecorder.TRANSFORM:
+            code[count] = input.readUnsignedByte();
+            amount[count] = input.readDouble();
+
+            if (code[count] >= InputRecorder.TRANSFORMATIONS.length) {
+              throw new IOException("Unknown transformation " + code[count] + " in " + path);
+            }
+
+            break;
+          case InputRecorder.RESET:
+            break;
+          default:
+            throw new IOException("Unknown record type " + next + " in " + path);
+        }
+
+        count++;
+      }
+    } catch (EOFException ex) {
+      // Cut short, as by a crash before the recorder was closed; keep the complete records
+    }
+
+    return new InputReplayer(count, type, nanos, code, amount);
+  }
+
+  /**
+   * Applies a single record to the given camera. Keystrokes and ticks are only kept for the record,
+   * their effects on the camera having been logged as transformations and resets of their own.
+   *
+   * @param record <code>int</code>
+   * @param camera <code>SceneCamera</code>
+   * @return void
+   */
+  protected void apply(int record, SceneCamera camera) {
+
+    switch (this.type[record]) {
+      case InputRecorder.TRANSFORM:
+        InputReplayer.transform(camera, this.code[record], this.amount[record]);
+        break;
+      case InputRecorder.RESET:
+        camera.setToDefaults();
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Applies a single transformation to the given camera, as <code>ScenePanel</code> would through
+   * its accessors.
+   *
+   * @param camera <code>SceneCamera</code>
+   * @param index <code>int</code> index into <code>InputRecorder.TRANSFORMATIONS</code>
+   * @param value <code>double</code> amount added to the transformed field
+   * @return void
+   */
+  protected static void transform(SceneCamera camera, int index, double value) {
+    switch (index) {
+      case 0:
+        camera.setScale(camera.getScale() + value);
+        break;
+      case 1:
+        camera.setRotateX(camera.getRotateX() + value);
+        break;
+      case 2:
+        camera.setRotateY(camera.getRotateY() + value);
+        break;
+      case 3:
+        camera.setRotateZ(camera.getRotateZ() + value);
+        break;
+      case 4:
+        camera.setTranslateX(camera.getTranslateX() + value);
+        break;
+      case 5:
+        camera.setTranslateY(camera.getTranslateY() + value);
+        break;
+      default:
+        camera.setTranslateZ(camera.getTranslateZ() + value);
+        break;
+    }
+  }
+
+  /**
+   * Poses the given camera as of the given offset into the session, applying every record up to
+   * and including that offset. Successive calls with increasing offsets only apply the records in
+   * between; going back in time starts over from the default pose.
+   *
+   * @param camera <code>SceneCamera</code>
+   * @param offsetNanos <code>long</code>
+   * @return void
+   */
+  protected void advanceTo(SceneCamera camera, long offsetNanos) {
+    if (this.cursor == 0 || (this.cursor > 0 && this.nanos[this.cursor - 1] > offsetNanos)) {
+      camera.setToDefaults();
+      this.cursor = 0;
+    }
+
+    while (this.cursor < this.count && this.nanos[this.cursor] <= offsetNanos) {
+      this.apply(this.cursor++, camera);
+    }
+  }
+
+  /**
+   * Entry point of the replay mode, called by <code>Driver.main</code> with the arguments following
+   * <code>--replay</code>. Returns the process exit status: zero on success, one if the log could
+   * not be read, and two if the arguments were invalid.
+   *
+   * @param args <code>String[]</code> <code>key=value</code> options
+   * @return <code>int</code>
+   */
+  protected static int run(String[] args) {
+
+    // Declarations
+    String log, pace;
+    InputReplayer replayer;
+    SceneCamera camera;
+    long start, wait, elapsed;
+
+    log = null;
+    pace = "fast";
+
+    for (String arg : args) {
+      if (arg.startsWith("log=")) {
+        log = arg.substring(4);
+      } else if (arg.startsWith("pace=")) {
+        pace = arg.substring(5).toLowerCase(Locale.ROOT);
+      } else {
+        log = null;
+        break;
+      }
+    }
+
+    if (log == null || !(pace.equals("fast") || pace.equals("realtime"))) {
+      System.err.println("Usage: --replay log=PATH [pace=fast|realtime]");
+      return 2;
+    }
+
+    try {
+      replayer = InputReplayer.load(Paths.get(log));
+    } catch (IOException ex) {
+      System.err.println("Error: " + ex);
+      return 1;
+    }
+
+    camera = new SceneCamera();
+    start = System.nanoTime();
+
+    for (int i = 0; i < replayer.size(); i++) {
+      if (pace.equals("realtime")) {
+        while ((wait = start + replayer.getNanos(i) - System.nanoTime()) > 0L) {
+          LockSupport.parkNanos(wait);
+        }
+      }
+
+      replayer.apply(i, camera);
+    }
+
+    elapsed = System.nanoTime() - start;
+
+    System.out.printf(Locale.ROOT, "records=%d keys=%d ticks=%d transforms=%d resets=%d%n",
+      replayer.size(), replayer.getCount(InputRecorder.KEY), replayer.getCount(InputRecorder.TICK),
+      replayer.getCount(InputRecorder.TRANSFORM), replayer.getCount(InputRecorder.RESET));
+    System.out.printf(Locale.ROOT, "logMs=%.3f replayMs=%.3f%n", replayer.getDurationNanos() / 1e6,
+      elapsed / 1e6);
+    System.out.printf(Locale.ROOT, "scale=%s rotate=%s,%s,%s translate=%s,%s,%s%n",
+      camera.getScale(), camera.getRotateX(), camera.getRotateY(), camera.getRotateZ(),
+      camera.getTranslateX(), camera.getTranslateY(), camera.getTranslateZ());
+    return 0;
+  }
+
+  // Helper methods
+
+  /**
+   * Reads a value written by <code>InputRecorder</code> seven bits at a time.
+   *
+   * @param input <code>DataInputStream</code>
+   * @return <code>long</code>
+   * @throws IOException if the stream ends midway or the value is too long
+   */
+  private static long readVarint(DataInputStream input) throws IOException {
+
+    // Declarations
+    long value;
+    int next;
+
+    value = 0L;
+
+    for (int shift = 0; shift < 64; shift += 7) {
+      next = input.readUnsignedByte();
+      value |= (long) (next & 0x7F) << shift;
+
+      if ((next & 0x80) == 0) {
+        return value;
+      }
+    }
+
+    throw new IOException("Malformed variable-length integer");
+  }
+}
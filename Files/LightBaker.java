@@ -0,0 +1,694 @@
+/**
+ * LightBaker.java - Load-time bake of ambient occlusion and directional light into vertex colors
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * The scene has never had any lighting to speak of. <code>SceneObject.buildColorArray</code> fakes
+ * it by brightening the first face of each shape and darkening the last, which only looks right
+ * for shapes whose first face happens to face the viewer, and lighting computed every frame would
+ * cost exactly the per-frame work the renderer has been rid of. As the scene holds still, this
+ * class instead computes its lighting once, when the scene is loaded, and stores the result as a
+ * color per vertex, drawn by <code>SceneRenderer</code> as a color array at no cost per frame
+ * beyond that of the array itself.
+ * <br />
+ * <br />
+ * The light at each vertex is found by casting rays from it against the triangles of the whole
+ * scene, and combines two terms:
+ * <pre>
+ * - ambient       the share of rays over the hemisphere about the vertex normal escaping the
+ *                 scene within a radius of the object's size, cosine-weighted
+ * - directional   the cosine between the normal and a fixed light from above and in front,
+ *                 zero where a ray towards the light is blocked
+ * </pre>
+ * The color of the vertex is then the object's hue scaled by the sum of the two terms, such that
+ * objects darken where they meet the floor or each other, and their sides facing away from the
+ * light fall into shadow. The normal of a vertex is the area-weighted average of those of the
+ * faces sharing it, which <code>MeshProcessor</code> limits to faces meeting at a shallow angle:
+ * across a crease, as at the edges of a cube, each face has copies of the vertices of its own,
+ * and so is shaded by its own normal, while curved surfaces are shaded smoothly.
+ * Hemisphere directions follow a Hammersley sequence rotated by a hash of the vertex, which unlike
+ * random rays gives the same result on every run. Only the objects whose bounds could be reached
+ * by a ray are tested, keeping large generated scenes tractable, and vertices are baked in
+ * parallel across all cores.
+ * <br />
+ * <br />
+ * The result of a bake is written to a cache directory, named after a SHA-256 hash of everything
+ * it depends on, namely the world-space positions, triangles, and hues of every object along with
+ * the settings of the bake, such that loading the same scene again reads the colors back instead.
+ * As the bake is computed for the objects where they stand, a scene whose objects are moved by a
+ * <code>SceneAnimator</code> is not to be baked at all. Baking is controlled by system properties:
+ * <pre>
+ * - graphicsprojecttwo.bake          whether to bake at all (true)
+ * - graphicsprojecttwo.bake.rays     hemisphere rays per vertex (64)
+ * - graphicsprojecttwo.bake.cache    cache directory (graphicsprojecttwo-bake in the temp dir)
+ * </pre>
+ *
+ * @see graphicsprojecttwo.SceneObject
+ * @see graphicsprojecttwo.SceneRenderer
+ * @author Andrew Eissen
+ */
+final class LightBaker {
+
+  /** Whether scenes are baked, from the <code>graphicsprojecttwo.bake</code> property */
+  private final static boolean IS_BAKING =
+    Boolean.parseBoolean(System.getProperty("graphicsprojecttwo.bake", "true"));
+
+  /** Hemisphere rays per vertex, from the <code>graphicsprojecttwo.bake.rays</code> property */
+  private final static int RAYS = Math.max(1, Integer.getInteger("graphicsprojecttwo.bake.rays",
+    64));
+
+  /** Directory of baked scenes, from the <code>graphicsprojecttwo.bake.cache</code> property */
+  private final static File CACHE = new File(System.getProperty("graphicsprojecttwo.bake.cache",
+    new File(System.getProperty("java.io.tmpdir"), "graphicsprojecttwo-bake").getPath()));
+
+  /** Version of the bake, to be bumped whenever its results change for the same scene */
+  private final static int VERSION = 2;
+
+  /** Direction towards the light, above, to the right of, and in front of the scene */
+  private final static double[] LIGHT = LightBaker.normalize(new double[] {0.35, 0.8, 0.5});
+
+  /** Weight of the ambient term */
+  private final static double AMBIENT = 0.55;
+
+  /** Weight of the directional term */
+  private final static double DIFFUSE = 0.6;
+
+  /** Reach of the ambient rays, as a fraction of the diagonal of the vertex's own object */
+  private final static double REACH = 0.75;
+
+  /** Distance by which rays start off the surface, as a fraction of the object's diagonal */
+  private final static double OFFSET = 1e-4;
+
+  /**
+   * Not instantiated
+   */
+  private LightBaker() {
+  }
+
+  // Utility methods
+
+  /**
+   * Bakes the lighting of every object of the given graph, or reads it back from the cache, and
+   * stores it in the objects as vertex colors. The world matrices are brought up to date first.
+   * Does nothing if baking is turned off. Returns a line describing the bake, which is also
+   * recorded by Java Flight Recorder as an asset load named by the hash of the scene.
+   *
+   * @param sceneGraph <code>SceneGraph</code>
+   * @return <code>String</code>
+   */
+  protected static String bake(SceneGraph sceneGraph) {
+
+    // Declarations
+    Scene scene;
+    byte[] colors;
+    File file;
+    String hash, source;
+    long start;
+    FlightEvents.AssetLoad loadEvent;
+
+    if (!LightBaker.IS_BAKING) {
+      return "Light bake turned off";
+    }
+
+    start = System.nanoTime();
+    sceneGraph.update();
+    scene = new Scene(sceneGraph);
+    hash = scene.hash();
+    loadEvent = FlightEvents.beginAssetLoad("lighting", hash);
+    file = new File(LightBaker.CACHE, hash + ".bake");
+    colors = LightBaker.read(file, scene.vertexCount * 4);
+
+    if (colors != null) {
+      source = "read from cache";
+    } else {
+      colors = new byte[scene.vertexCount * 4];
+      LightBaker.compute(scene, colors);
+      source = LightBaker.write(file, colors) ? "cached" : "not cached";
+    }
+
+    for (int node = 0; node < scene.nodes.length; node++) {
+      sceneGraph.getSceneObject(scene.nodes[node]).storeVertexColors(colors,
+        scene.firstVertex[node] * 4);
+    }
+
+    FlightEvents.endAssetLoad(loadEvent, colors.length, source);
+    return String.format(Locale.ROOT, "Baked lighting of %d vertices in %.1f ms (%s)",
+      scene.vertexCount, (System.nanoTime() - start) / 1e6, source);
+  }
+
+  // Helper methods
+
+  /**
+   * Computes the colors of every vertex of the scene into the given array, in parallel.
+   *
+   * @param scene <code>LightBaker.Scene</code>
+   * @param colors <code>byte[]</code>
+   * @return void
+   */
+  private static void compute(Scene scene, byte[] colors) {
+    IntStream.range(0, scene.vertexCount).parallel().forEach((int vertex) -> {
+
+      // Declarations
+      int object, rgb;
+      double intensity;
+
+      object = Arrays.binarySearch(scene.firstVertex, vertex);
+      object = (object >= 0) ? object : -object - 2;
+
+      // Objects without any vertices share a first vertex with the next; take the last of them
+      while (object + 1 < scene.firstVertex.length && scene.firstVertex[object + 1] == vertex) {
+        object++;
+      }
+
+      intensity = LightBaker.light(scene, object, vertex);
+      rgb = scene.colors[object];
+      colors[vertex * 4] = LightBaker.shade(rgb >> 16, intensity);
+      colors[vertex * 4 + 1] = LightBaker.shade(rgb >> 8, intensity);
+      colors[vertex * 4 + 2] = LightBaker.shade(rgb, intensity);
+      colors[vertex * 4 + 3] = (byte) 255;
+    });
+  }
+
+  /**
+   * Computes the sum of the ambient and directional terms at the given vertex.
+   *
+   * @param scene <code>LightBaker.Scene</code>
+   * @param object <code>int</code> index of the vertex's object in the scene
+   * @param vertex <code>int</code> index of the vertex across the whole scene
+   * @return <code>double</code>
+   */
+  private static double light(Scene scene, int object, int vertex) {
+
+    // Declarations
+    double[] origin, normal, tangent, bitangent, direction;
+    int[] nearby;
+    int nearbyCount, escaped;
+    double size, reach, cosine, u, r, phi, rotation, local;
+
+    origin = new double[3];
+    normal = new double[3];
+    tangent = new double[3];
+    bitangent = new double[3];
+    direction = new double[3];
+    size = scene.getDiagonal(object);
+    reach = size * LightBaker.REACH;
+
+    for (int axis = 0; axis < 3; axis++) {
+      normal[axis] = scene.normals[vertex * 3 + axis];
+      origin[axis] = scene.positions[vertex * 3 + axis] + normal[axis] * size * LightBaker.OFFSET;
+    }
+
+    // Orthonormal basis about the normal, from whichever axis lies furthest from it
+    LightBaker.cross(normal, (Math.abs(normal[0]) < 0.5) ? new double[] {1, 0, 0}
+      : new double[] {0, 1, 0}, tangent);
+    LightBaker.normalize(tangent);
+    LightBaker.cross(normal, tangent, bitangent);
+
+    // Only objects whose bounds come within reach of the vertex can occlude it
+    nearby = new int[scene.nodes.length];
+    nearbyCount = 0;
+
+    for (int other = 0; other < scene.nodes.length; other++) {
+      if (scene.getDistanceSquared(other, origin) <= reach * reach) {
+        nearby[nearbyCount++] = other;
+      }
+    }
+
+    escaped = 0;
+    rotation = ((vertex * 0x9E3779B9) >>> 8) / (double) (1 << 24);
+
+    // Cosine-weighted directions from a Hammersley sequence, rotated per vertex
+    for (int ray = 0; ray < LightBaker.RAYS; ray++) {
+      u = (ray + 0.5) / LightBaker.RAYS;
+      r = Math.sqrt(u);
+      phi = 2.0 * Math.PI * (Integer.reverse(ray) / 4294967296.0 + 0.5 + rotation);
+      local = Math.sqrt(1.0 - u);
+
+      for (int axis = 0; axis < 3; axis++) {
+        direction[axis] = tangent[axis] * r * Math.cos(phi) + bitangent[axis] * r * Math.sin(phi)
+          + normal[axis] * local;
+      }
+
+      if (!LightBaker.isBlocked(scene, nearby, nearbyCount, origin, direction, reach)) {
+        escaped++;
+      }
+    }
+
+    cosine = normal[0] * LightBaker.LIGHT[0] + normal[1] * LightBaker.LIGHT[1]
+      + normal[2] * LightBaker.LIGHT[2];
+
+    if (cosine > 0.0) {
+      for (int other = 0; other < scene.nodes.length; other++) {
+        nearby[other] = other;
+      }
+
+      if (LightBaker.isBlocked(scene, nearby, scene.nodes.length, origin, LightBaker.LIGHT,
+          Double.POSITIVE_INFINITY)) {
+        cosine = 0.0;
+      }
+    }
+
+    return LightBaker.AMBIENT * escaped / LightBaker.RAYS
+      + LightBaker.DIFFUSE * Math.max(0.0, cosine);
+  }
+
+  /**
+   * Returns whether the given ray hits any triangle of the given objects within the given length.
+   *
+   * @param scene <code>LightBaker.Scene</code>
+   * @param objects <code>int[]</code>
+   * @param count <code>int</code> number of objects to test
+   * @param origin <code>double[]</code>
+   * @param direction <code>double[]</code> of unit length
+   * @param length <code>double</code>
+   * @return <code>boolean</code>
+   */
+  private static boolean isBlocked(Scene scene, int[] objects, int count, double[] origin,
+      double[] direction, double length) {
+
+    // Declarations
+    int object, a, b, c;
+    double e1x, e1y, e1z, e2x, e2y, e2z, px, py, pz, qx, qy, qz, tx, ty, tz;
+    double determinant, inverse, u, v, t, epsilon;
+    float[] p;
+
+    p = scene.positions;
+
+    for (int i = 0; i < count; i++) {
+      object = objects[i];
+
+      if (!scene.getIsCrossed(object, origin, direction, length)) {
+        continue;
+      }
+
+      epsilon = scene.getDiagonal(object) * LightBaker.OFFSET;
+
+      // Moller-Trumbore, counting hits from either side
+      for (int j = scene.firstIndex[object]; j < scene.firstIndex[object + 1]; j += 3) {
+        a = scene.triangles[j] * 3;
+        b = scene.triangles[j + 1] * 3;
+        c = scene.triangles[j + 2] * 3;
+        e1x = p[b] - p[a];
+        e1y = p[b + 1] - p[a + 1];
+        e1z = p[b + 2] - p[a + 2];
+        e2x = p[c] - p[a];
+        e2y = p[c + 1] - p[a + 1];
+        e2z = p[c + 2] - p[a + 2];
+        px = direction[1] * e2z - direction[2] * e2y;
+        py = direction[2] * e2x - direction[0] * e2z;
+        pz = direction[0] * e2y - direction[1] * e2x;
+        determinant = e1x * px + e1y * py + e1z * pz;
+
+        if (Math.abs(determinant) < 1e-12) {
+          continue;
+        }
+
+        inverse = 1.0 / determinant;
+        tx = origin[0] - p[a];
+        ty = origin[1] - p[a + 1];
+        tz = origin[2] - p[a + 2];
+        u = (tx * px + ty * py + tz * pz) * inverse;
+
+        if (u < 0.0 || u > 1.0) {
+          continue;
+        }
+
+        qx = ty * e1z - tz * e1y;
+        qy = tz * e1x - tx * e1z;
+        qz = tx * e1y - ty * e1x;
+        v = (direction[0] * qx + direction[1] * qy + direction[2] * qz) * inverse;
+
+        if (v < 0.0 || u + v > 1.0) {
+          continue;
+        }
+
+        t = (e2x * qx + e2y * qy + e2z * qz) * inverse;
+
+        if (t > epsilon && t < length) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Scales a color channel by the given intensity, clamped to a byte.
+   *
+   * @param channel <code>int</code> whose low eight bits hold the channel
+   * @param intensity <code>double</code>
+   * @return <code>byte</code>
+   */
+  private static byte shade(int channel, double intensity) {
+    return (byte) Math.min(255L, Math.round((channel & 0xFF) * intensity));
+  }
+
+  /**
+   * Computes the cross product of the first two vectors into the third.
+   *
+   * @param a <code>double[]</code>
+   * @param b <code>double[]</code>
+   * @param target <code>double[]</code>
+   * @return void
+   */
+  private static void cross(double[] a, double[] b, double[] target) {
+    target[0] = a[1] * b[2] - a[2] * b[1];
+    target[1] = a[2] * b[0] - a[0] * b[2];
+    target[2] = a[0] * b[1] - a[1] * b[0];
+  }
+
+  /**
+   * Scales the given vector to unit length in place, leaving a zero vector be, and returns it.
+   *
+   * @param vector <code>double[]</code>
+   * @return <code>double[]</code>
+   */
+  private static double[] normalize(double[] vector) {
+
+    // Declaration
+    double length;
+
+    length = Math.sqrt(vector[0] * vector[0] + vector[1] * vector[1] + vector[2] * vector[2]);
+
+    for (int axis = 0; axis < 3 && length > 0.0; axis++) {
+      vector[axis] /= length;
+    }
+
+    return vector;
+  }
+
+  /**
+   * Reads back the colors of a previous bake, or returns <code>null</code> if there are none of the
+   * expected size.
+   *
+   * @param file <code>File</code>
+   * @param bytes <code>int</code> expected size
+   * @return <code>byte[]</code>
+   */
+  private static byte[] read(File file, int bytes) {
+    try {
+      return (file.isFile() && file.length() == bytes) ? Files.readAllBytes(file.toPath()) : null;
+    } catch (IOException exception) {
+      return null;
+    }
+  }
+
+  /**
+   * Writes the colors of a bake to the cache, by way of a temporary file such that a bake cut short
+   * never leaves a partial file behind. Returns whether the colors were written.
+   *
+   * @param file <code>File</code>
+   * @param colors <code>byte[]</code>
+   * @return <code>boolean</code>
+   */
+  private static boolean write(File file, byte[] colors) {
+
+    // Declaration
+    File temporary;
+
+    try {
+      Files.createDirectories(file.getParentFile().toPath());
+      temporary = File.createTempFile("bake", ".tmp", file.getParentFile());
+      Files.write(temporary.toPath(), colors);
+      Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+      return true;
+    } catch (IOException exception) {
+      System.err.println("Light bake not cached: " + exception.getMessage());
+      return false;
+    }
+  }
+
+  // Inner helper classes
+
+  /**
+   * The geometry of the whole scene in world space, flattened into primitive arrays: the positions
+   * and normals of every vertex of every object back to back, and the triangles of every object as
+   * indices into those.
+   *
+   * @author Andrew Eissen
+   */
+  private static final class Scene {
+
+    // Declarations
+    private final int[] nodes, firstVertex, firstIndex, triangles, colors;
+    private final float[] positions, normals, bounds;
+    private final int vertexCount;
+
+    /**
+     * Parameterized constructor, transforming every object of the given graph into world space
+     *
+     * @param sceneGraph <code>SceneGraph</code> whose world matrices are up to date
+     */
+    private Scene(SceneGraph sceneGraph) {
+
+      // Declarations
+      float[] world;
+      double[][] vertices;
+      int[][] faces;
+      double[] normal, a, b;
+      Mesh mesh;
+      int objects, total, indices, m, base, object;
+
+      world = sceneGraph.getWorldMatrices();
+      objects = 0;
+      total = 0;
+      indices = 0;
+
+      for (int node = 0; node < sceneGraph.size(); node++) {
+        if (sceneGraph.getSceneObject(node) != null) {
+          objects++;
+          total += sceneGraph.getSceneObject(node).getMesh().getVertexCount();
+          indices += sceneGraph.getSceneObject(node).getMesh().getTriangleCount() * 3;
+        }
+      }
+
+      this.nodes = new int[objects];
+      this.firstVertex = new int[objects + 1];
+      this.firstIndex = new int[objects + 1];
+      this.triangles = new int[indices];
+      this.colors = new int[objects];
+      this.positions = new float[total * 3];
+      this.normals = new float[total * 3];
+      this.bounds = Arrays.copyOf(sceneGraph.getWorldBounds(), sceneGraph.size() * 6);
+      this.vertexCount = total;
+      object = 0;
+
+      for (int node = 0; node < sceneGraph.size(); node++) {
+        if (sceneGraph.getSceneObject(node) == null) {
+          continue;
+        }
+
+        mesh = sceneGraph.getSceneObject(node).getMesh();
+        m = node * 16;
+        base = this.firstVertex[object];
+        this.nodes[object] = node;
+        this.colors[object] = sceneGraph.getSceneObject(node).getColor().getRGB();
+        this.firstVertex[object + 1] = base + mesh.getVertexCount();
+        this.firstIndex[object + 1] = this.firstIndex[object] + mesh.getTriangleCount() * 3;
+
+        for (int v = 0; v < mesh.getVertexCount(); v++) {
+          for (int axis = 0; axis < 3; axis++) {
+            this.positions[(base + v) * 3 + axis] = (float) (world[m + axis]
+              * mesh.getPosition(v, 0) + world[m + 4 + axis] * mesh.getPosition(v, 1)
+              + world[m + 8 + axis] * mesh.getPosition(v, 2) + world[m + 12 + axis]);
+          }
+        }
+
+        for (int i = 0; i < mesh.getTriangleCount() * 3; i++) {
+          this.triangles[this.firstIndex[object] + i] = base + mesh.getTriangleIndex(i);
+        }
+
+        // Newell normals of each face, summed into its vertices and so weighted by area
+        vertices = mesh.getVertices();
+        faces = mesh.getFaces();
+        normal = new double[3];
+
+        for (int[] face : faces) {
+          Arrays.fill(normal, 0.0);
+
+          for (int i = 0; i < face.length; i++) {
+            a = vertices[face[i]];
+            b = vertices[face[(i + 1) % face.length]];
+            normal[0] += (a[1] - b[1]) * (a[2] + b[2]);
+            normal[1] += (a[2] - b[2]) * (a[0] + b[0]);
+            normal[2] += (a[0] - b[0]) * (a[1] + b[1]);
+          }
+
+          for (int vertex : face) {
+            for (int axis = 0; axis < 3; axis++) {
+              this.normals[(base + vertex) * 3 + axis] += (float) (world[m + axis] * normal[0]
+                + world[m + 4 + axis] * normal[1] + world[m + 8 + axis] * normal[2]);
+            }
+          }
+        }
+
+        for (int v = base; v < base + mesh.getVertexCount(); v++) {
+          normal = LightBaker.normalize(new double[] {this.normals[v * 3],
+            this.normals[v * 3 + 1], this.normals[v * 3 + 2]});
+
+          for (int axis = 0; axis < 3; axis++) {
+            this.normals[v * 3 + axis] = (float) normal[axis];
+          }
+        }
+
+        object++;
+      }
+    }
+
+    /**
+     * Returns the diagonal of the world bounds of the given object.
+     *
+     * @param object <code>int</code>
+     * @return <code>double</code>
+     */
+    private double getDiagonal(int object) {
+
+      // Declarations
+      int o;
+      double dx, dy, dz;
+
+      o = this.nodes[object] * 6;
+      dx = this.bounds[o + 3] - this.bounds[o];
+      dy = this.bounds[o + 4] - this.bounds[o + 1];
+      dz = this.bounds[o + 5] - this.bounds[o + 2];
+      return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Returns the squared distance from the given point to the world bounds of the given object.
+     *
+     * @param object <code>int</code>
+     * @param point <code>double[]</code>
+     * @return <code>double</code>
+     */
+    private double getDistanceSquared(int object, double[] point) {
+
+      // Declarations
+      int o;
+      double distance, d;
+
+      o = this.nodes[object] * 6;
+      distance = 0.0;
+
+      for (int axis = 0; axis < 3; axis++) {
+        d = Math.max(0.0, Math.max(this.bounds[o + axis] - point[axis],
+          point[axis] - this.bounds[o + 3 + axis]));
+        distance += d * d;
+      }
+
+      return distance;
+    }
+
+    /**
+     * Returns whether the given ray crosses the world bounds of the given object within the given
+     * length, by the slab test.
+     *
+     * @param object <code>int</code>
+     * @param origin <code>double[]</code>
+     * @param direction <code>double[]</code>
+     * @param length <code>double</code>
+     * @return <code>boolean</code>
+     */
+    private boolean getIsCrossed(int object, double[] origin, double[] direction, double length) {
+
+      // Declarations
+      int o;
+      double near, far, t1, t2;
+
+      o = this.nodes[object] * 6;
+      near = 0.0;
+      far = length;
+
+      for (int axis = 0; axis < 3; axis++) {
+        if (direction[axis] == 0.0) {
+          if (origin[axis] < this.bounds[o + axis] || origin[axis] > this.bounds[o + 3 + axis]) {
+            return false;
+          }
+
+          continue;
+        }
+
+        t1 = (this.bounds[o + axis] - origin[axis]) / direction[axis];
+        t2 = (this.bounds[o + 3 + axis] - origin[axis]) / direction[axis];
+        near = Math.max(near, Math.min(t1, t2));
+        far = Math.min(far, Math.max(t1, t2));
+
+        if (near > far) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    /**
+     * Returns the hex SHA-256 hash of everything the bake depends on.
+     *
+     * @return <code>String</code>
+     */
+    private String hash() {
+
+      // Declarations
+      MessageDigest digest;
+      ByteBuffer buffer;
+      StringBuilder hex;
+
+      try {
+        digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException exception) {
+        throw new IllegalStateException(exception);
+      }
+
+      buffer = ByteBuffer.allocate(Math.max(64, (this.positions.length + this.triangles.length
+        + this.colors.length + this.firstVertex.length) * 4 + 64));
+      buffer.putInt(LightBaker.VERSION).putInt(LightBaker.RAYS).putDouble(LightBaker.AMBIENT)
+        .putDouble(LightBaker.DIFFUSE).putDouble(LightBaker.REACH);
+
+      for (double component : LightBaker.LIGHT) {
+        buffer.putDouble(component);
+      }
+
+      for (float position : this.positions) {
+        buffer.putFloat(position);
+      }
+
+      for (int index : this.triangles) {
+        buffer.putInt(index);
+      }
+
+      for (int color : this.colors) {
+        buffer.putInt(color);
+      }
+
+      for (int first : this.firstVertex) {
+        buffer.putInt(first);
+      }
+
+      buffer.flip();
+      digest.update(buffer);
+      hex = new StringBuilder();
+
+      for (byte value : digest.digest()) {
+        hex.append(String.format(Locale.ROOT, "%02x", value));
+      }
+
+      return hex.toString();
+    }
+  }
+}
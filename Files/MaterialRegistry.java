@@ -0,0 +1,196 @@
+/**
+ * MaterialRegistry.java - Process-wide interning of the shades faces are drawn in
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Each <code>SceneObject</code> once held a shade for every one of its faces, and a scene of a
+ * thousand red cubes thus held six thousand copies of the same three shades of red, differing only
+ * in which object they belonged to. This utility class instead interns every distinct shade once,
+ * as a material with a number of its own, such that the faces of an object need only name their
+ * materials, as a <code>short</code> each, and the shades themselves are looked up by number from
+ * a single shared table when drawn. The lists of materials of the faces are interned in turn, such
+ * that all objects of the same shape and hue share a single array.
+ * <br />
+ * <br />
+ * As the number of a material is small and stable, it also takes the place of the color in the
+ * sort key of <code>RenderQueue</code>, keeping draws of the same material together in sixteen
+ * bits instead of twenty-four. The black of the outlines is itself a material, interned first, as
+ * <code>MaterialRegistry.BLACK</code>.
+ * <br />
+ * <br />
+ * Interning is synchronized, as objects are constructed in parallel on startup, while the table of
+ * shades is republished through a <code>volatile</code> field on every change and is read without
+ * locking by the renderer. Materials are never removed.
+ *
+ * @see graphicsprojecttwo.SceneObject
+ * @see graphicsprojecttwo.RenderQueue
+ * @author Andrew Eissen
+ */
+final class MaterialRegistry {
+
+  /** Most materials there may be, every number fitting into an unsigned <code>short</code> */
+  private final static int LIMIT = 1 << 16;
+
+  /** Numbers of the materials interned so far, by <code>0xAARRGGBB</code> shade */
+  private final static HashMap<Integer, Short> NUMBERS = new HashMap<>();
+
+  /** Interned lists of the materials of faces */
+  private final static ConcurrentHashMap<Key, short[]> FACES = new ConcurrentHashMap<>();
+
+  // Class fields
+  private static volatile int[] shades = new int[16];
+  private static int count = 0;
+
+  /** Material of the black outlines, always the first */
+  protected final static short BLACK = MaterialRegistry.intern(0xFF000000);
+
+  /**
+   * Private constructor, as this class only contains static utility methods
+   */
+  private MaterialRegistry() {}
+
+  // Getters
+
+  /**
+   * Returns the shade of the given material, as packed <code>0xAARRGGBB</code>.
+   *
+   * @param material <code>int</code> number of the material, as returned by
+   *     <code>MaterialRegistry.intern</code> and read as unsigned
+   * @return <code>int</code>
+   */
+  protected static int getShade(int material) {
+    return MaterialRegistry.shades[material & 0xFFFF];
+  }
+
+  /**
+   * Returns the number of distinct materials interned so far.
+   *
+   * @return <code>int</code>
+   */
+  protected static synchronized int size() {
+    return MaterialRegistry.count;
+  }
+
+  // Utility methods
+
+  /**
+   * Returns the number of the material of the given shade, interning the shade if it has not been
+   * seen before.
+   *
+   * @param shade <code>int</code> packed <code>0xAARRGGBB</code>, as from <code>Color.getRGB</code>
+   * @return <code>short</code> to be read as unsigned
+   * @throws IllegalStateException if every number is already taken
+   */
+  protected static synchronized short intern(int shade) {
+
+    // Declarations
+    Short number;
+    int[] table;
+
+    number = MaterialRegistry.NUMBERS.get(shade);
+
+    if (number != null) {
+      return number;
+    }
+
+    if (MaterialRegistry.count == MaterialRegistry.LIMIT) {
+      throw new IllegalStateException("More than " + MaterialRegistry.LIMIT + " materials");
+    }
+
+    table = MaterialRegistry.shades;
+
+    if (MaterialRegistry.count == table.length) {
+      table = Arrays.copyOf(table, Math.min(table.length * 2, MaterialRegistry.LIMIT));
+    }
+
+    table[MaterialRegistry.count] = shade;
+    number = (short) MaterialRegistry.count++;
+    MaterialRegistry.NUMBERS.put(shade, number);
+
+    // Republished even if unchanged, such that readers see the new entry
+    MaterialRegistry.shades = table;
+    return number;
+  }
+
+  /**
+   * Returns the shared list of the materials of the given shades, one per face, interning each
+   * shade and then the list itself. The returned array must not be modified.
+   *
+   * @param faceShades <code>int[]</code> packed <code>0xAARRGGBB</code> shade of each face
+   * @return <code>short[]</code>
+   */
+  protected static short[] internFaces(int[] faceShades) {
+
+    // Declaration
+    short[] materials;
+
+    materials = new short[faceShades.length];
+
+    for (int face = 0; face < faceShades.length; face++) {
+      materials[face] = MaterialRegistry.intern(faceShades[face]);
+    }
+
+    return MaterialRegistry.FACES.computeIfAbsent(new Key(materials), (Key key) -> key.materials);
+  }
+
+  /**
+   * Returns the number of distinct lists of face materials interned so far.
+   *
+   * @return <code>int</code>
+   */
+  protected static int getFaceListCount() {
+    return MaterialRegistry.FACES.size();
+  }
+
+  // Inner helper classes
+
+  /**
+   * Immutable key comparing lists of face materials by content.
+   *
+   * @author Andrew Eissen
+   */
+  private static final class Key {
+
+    // Class fields
+    private final short[] materials;
+    private final int hash;
+
+    /**
+     * Parameterized constructor
+     *
+     * @param materials <code>short[]</code>
+     */
+    private Key(short[] materials) {
+      this.materials = materials;
+      this.hash = Arrays.hashCode(materials);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param other <code>Object</code>
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Key && Arrays.equals(this.materials, ((Key) other).materials);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+  }
+}
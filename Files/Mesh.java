@@ -0,0 +1,661 @@
+/**
+ * Mesh.java - Immutable vertex and face tables shared between <code>SceneObject</code> instances
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class holds the vertex and face tables that define the shape of a scene object.
+ * Originally, every <code>SceneObject</code> subclass rebuilt these arrays from scratch whenever
+ * <code>getVertices</code> or <code>getFaces</code> were called, which happened several times per
+ * face per frame. A <code>Mesh</code> is instead built once, handed out by <code>MeshCache</code>,
+ * and shared by every object of the same shape.
+ * <br />
+ * <br />
+ * A raw mesh, as built by hand or by <code>MeshGenerator</code>, holds only the two tables as
+ * ordinary heap arrays, and lives just long enough to be fed to <code>MeshProcessor</code>. The
+ * processed meshes actually handed out by <code>MeshCache</code> keep none of their geometry on the
+ * heap. Instead, the welded positions (split again along creases), encoded in the compact
+ * <code>VertexFormat</code>, the indexed triangle list in which the triangles of each face are
+ * contiguous, the unique outline edges, the draw table, and a copy of the polygon table are
+ * written into a single contiguous block of the off-heap <code>GeometryArena</code>, and the mesh
+ * itself retains only the segment holding that block and a few byte offsets into it. The layout
+ * of the block is as follows, each part starting on an eight-byte boundary:
+ * <pre>
+ * positions     vertexCount * stride bytes, as per <code>VertexFormat.getActive</code>
+ * triangles     triangleIndexCount ints
+ * edges         edgeIndexCount ints, as index pairs
+ * draw table    faceCount * 3 ints, one (face, first index, index count) triple per draw slot
+ * planes        faceCount * 8 floats, the s and t texture planes of each face
+ * polygons      (faceCount + 1) ints of offsets, followed by the faces' vertex indices
+ * </pre>
+ * As the positions, triangles, and edges all lie within one segment, that segment's buffer object
+ * in <code>GeometryBuffers</code> serves as both vertex and index source when drawing.
+ * <br />
+ * <br />
+ * Texture coordinates cannot be stored per vertex, as the welded vertices are shared by faces
+ * meeting at different angles, each of which needs coordinates of its own. Each face instead gets
+ * a planar mapping of its own, as the pair of object-space planes handed to
+ * <code>GL2.glTexGenfv</code> for the fixed-function pipeline to derive the coordinates of every
+ * vertex drawn: s runs along the horizontal of the face and t down from its top, both from zero to
+ * one across the face's extent, such that a texture is stretched once over each face, upright.
+ *
+ * @see graphicsprojecttwo.MeshCache
+ * @see graphicsprojecttwo.MeshProcessor
+ * @see graphicsprojecttwo.GeometryArena
+ * @author Andrew Eissen
+ */
+final class Mesh {
+
+  /** Source of the sort keys of processed meshes, handed out in order of creation */
+  private final static AtomicInteger NEXT_SORT_KEY = new AtomicInteger();
+
+  // Class fields
+  private final String name;
+  private final double[][] vertices;
+  private final int[][] faces;
+  private final MeshProcessor.Report report;
+  private final VertexFormat format;
+  private final int vertexCount, faceCount, triangleIndexCount, edgeIndexCount;
+  private final int segmentNumber, baseOffset, vertexOffset, triangleOffset, edgeOffset;
+  private final int drawOffset, planeOffset, polygonOffset, sortKey, byteSize;
+  private final ByteBuffer segment;
+  private final float[] bounds;
+  private final boolean isBox;
+
+  /**
+   * Parameterized constructor for a raw, unprocessed mesh
+   *
+   * @param name <code>String</code> descriptive name used in status log entries
+   * @param vertices <code>double[][]</code>
+   * @param faces <code>int[][]</code>
+   */
+  protected Mesh(String name, double[][] vertices, int[][] faces) {
+    this.name = name;
+    this.vertices = vertices;
+    this.faces = faces;
+    this.report = null;
+    this.format = null;
+    this.vertexCount = vertices.length;
+    this.faceCount = faces.length;
+    this.triangleIndexCount = 0;
+    this.edgeIndexCount = 0;
+    this.segmentNumber = -1;
+    this.segment = null;
+    this.baseOffset = 0;
+    this.vertexOffset = 0;
+    this.triangleOffset = 0;
+    this.edgeOffset = 0;
+    this.drawOffset = 0;
+    this.planeOffset = 0;
+    this.polygonOffset = 0;
+    this.sortKey = 0;
+    this.byteSize = 0;
+    this.bounds = Mesh.computeBounds(vertices);
+    this.isBox = Mesh.computeIsBox(vertices, this.bounds);
+  }
+
+  /**
+   * Parameterized constructor for a processed mesh, used by <code>MeshProcessor</code>. The
+   * provided arrays are packed into the shared <code>GeometryArena</code> and not retained.
+   *
+   * @param name <code>String</code>
+   * @param vertices <code>double[][]</code>
+   * @param faces <code>int[][]</code>
+   * @param triangles <code>int[]</code> indexed triangle list
+   * @param faceStart <code>int[]</code> offset of each face's triangles in the list
+   * @param faceIndexCount <code>int[]</code> number of indices belonging to each face
+   * @param drawOrder <code>int[]</code> order in which to draw the faces
+   * @param edges <code>int[]</code> unique outline edges as index pairs
+   * @param report <code>MeshProcessor.Report</code>
+   */
+  protected Mesh(String name, double[][] vertices, int[][] faces, int[] triangles,
+      int[] faceStart, int[] faceIndexCount, int[] drawOrder, int[] edges,
+      MeshProcessor.Report report) {
+
+    // Declarations
+    int polygonIndices, bytes, base;
+    long handle;
+    ByteBuffer target;
+    float[] plane;
+
+    polygonIndices = 0;
+
+    for (int[] face : faces) {
+      polygonIndices += face.length;
+    }
+
+    this.name = name;
+    this.vertices = null;
+    this.faces = null;
+    this.report = report;
+    this.format = VertexFormat.getActive();
+    this.vertexCount = vertices.length;
+    this.faceCount = faces.length;
+    this.triangleIndexCount = triangles.length;
+    this.edgeIndexCount = edges.length;
+    this.bounds = Mesh.computeBounds(vertices);
+    this.isBox = Mesh.computeIsBox(vertices, this.bounds);
+
+    // Relative offsets of each part within the block
+    this.vertexOffset = 0;
+    this.triangleOffset = Mesh.align(this.vertexOffset
+      + this.vertexCount * this.format.getStride());
+    this.edgeOffset = Mesh.align(this.triangleOffset + this.triangleIndexCount * Integer.BYTES);
+    this.drawOffset = Mesh.align(this.edgeOffset + this.edgeIndexCount * Integer.BYTES);
+    this.planeOffset = Mesh.align(this.drawOffset + this.faceCount * 3 * Integer.BYTES);
+    this.polygonOffset = Mesh.align(this.planeOffset + this.faceCount * 8 * Float.BYTES);
+    this.sortKey = Mesh.NEXT_SORT_KEY.getAndIncrement() & 0xFFFF;
+    bytes = this.polygonOffset + (this.faceCount + 1 + polygonIndices) * Integer.BYTES;
+    this.byteSize = bytes;
+
+    handle = GeometryArena.getShared().allocate(bytes);
+    this.segmentNumber = GeometryArena.segmentOf(handle);
+    this.segment = GeometryArena.getShared().getSegment(this.segmentNumber);
+    this.baseOffset = GeometryArena.offsetOf(handle);
+    base = this.baseOffset;
+    target = this.segment;
+
+    for (int i = 0; i < vertices.length; i++) {
+      for (int axis = 0; axis < 3; axis++) {
+        this.format.put(target, base + this.vertexOffset + i * this.format.getStride(), axis,
+          vertices[i][axis]);
+      }
+    }
+
+    for (int i = 0; i < triangles.length; i++) {
+      target.putInt(base + this.triangleOffset + i * Integer.BYTES, triangles[i]);
+    }
+
+    for (int i = 0; i < edges.length; i++) {
+      target.putInt(base + this.edgeOffset + i * Integer.BYTES, edges[i]);
+    }
+
+    for (int i = 0; i < drawOrder.length; i++) {
+      target.putInt(base + this.drawOffset + (i * 3) * Integer.BYTES, drawOrder[i]);
+      target.putInt(base + this.drawOffset + (i * 3 + 1) * Integer.BYTES,
+        faceStart[drawOrder[i]]);
+      target.putInt(base + this.drawOffset + (i * 3 + 2) * Integer.BYTES,
+        faceIndexCount[drawOrder[i]]);
+    }
+
+    plane = new float[8];
+
+    for (int i = 0; i < faces.length; i++) {
+      Mesh.computeTexturePlanes(vertices, faces[i], plane);
+
+      for (int j = 0; j < 8; j++) {
+        target.putFloat(base + this.planeOffset + (i * 8 + j) * Float.BYTES, plane[j]);
+      }
+    }
+
+    for (int i = 0, index = 0; i <= faces.length; i++) {
+      target.putInt(base + this.polygonOffset + i * Integer.BYTES, index);
+
+      if (i < faces.length) {
+        for (int vertex : faces[i]) {
+          target.putInt(base + this.polygonOffset + (faces.length + 1 + index++) * Integer.BYTES,
+            vertex);
+        }
+      }
+    }
+
+    GeometryArena.getShared().commit(handle);
+  }
+
+  // Getters
+
+  /**
+   * Getter for <code>Mesh.name</code>
+   *
+   * @return name <code>String</code>
+   */
+  protected String getName() {
+    return this.name;
+  }
+
+  /**
+   * Returns the vertex table. For raw meshes, this is the shared array passed to the constructor
+   * and must not be modified; for processed meshes, it is a fresh copy read back out of the arena,
+   * meant for tooling rather than the render loop.
+   *
+   * @return <code>double[][]</code>
+   */
+  protected double[][] getVertices() {
+
+    // Declaration
+    double[][] copy;
+
+    if (this.vertices != null) {
+      return this.vertices;
+    }
+
+    copy = new double[this.vertexCount][3];
+
+    for (int i = 0; i < this.vertexCount; i++) {
+      for (int axis = 0; axis < 3; axis++) {
+        copy[i][axis] = this.getPosition(i, axis);
+      }
+    }
+
+    return copy;
+  }
+
+  /**
+   * Returns the face table, under the same terms as <code>Mesh.getVertices</code>.
+   *
+   * @return <code>int[][]</code>
+   */
+  protected int[][] getFaces() {
+
+    // Declarations
+    int[][] copy;
+    int base, start, end;
+
+    if (this.faces != null) {
+      return this.faces;
+    }
+
+    copy = new int[this.faceCount][];
+    base = this.getBaseOffset() + this.polygonOffset;
+
+    for (int i = 0; i < this.faceCount; i++) {
+      start = this.segment.getInt(base + i * Integer.BYTES);
+      end = this.segment.getInt(base + (i + 1) * Integer.BYTES);
+      copy[i] = new int[end - start];
+
+      for (int j = start; j < end; j++) {
+        copy[i][j - start] = this.segment.getInt(base + (this.faceCount + 1 + j) * Integer.BYTES);
+      }
+    }
+
+    return copy;
+  }
+
+  /**
+   * Getter for <code>Mesh.report</code>, <code>null</code> for raw meshes
+   *
+   * @return report <code>MeshProcessor.Report</code>
+   */
+  protected MeshProcessor.Report getReport() {
+    return this.report;
+  }
+
+  /**
+   * Whether the mesh is a closed, consistently wound manifold whose back faces may be culled
+   * without leaving holes, as determined by <code>MeshProcessor</code>.
+   *
+   * @return <code>boolean</code>
+   */
+  protected boolean getIsCullable() {
+    return this.report != null && this.report.getIsCullable();
+  }
+
+  /**
+   * Returns whether the mesh may stand in as an occluder for <code>OcclusionCuller</code>, that is
+   * whether it is a closed box filling its own bounds, such that anything hidden behind its
+   * bounding box is hidden behind the mesh itself.
+   *
+   * @return <code>boolean</code>
+   */
+  protected boolean getIsOccluder() {
+    return this.isBox && this.getIsCullable();
+  }
+
+  /**
+   * Getter for <code>Mesh.sortKey</code>, the sixteen bits identifying the mesh within the sort
+   * keys of <code>RenderQueue</code>. Meshes created one after the other, and so likely sharing a
+   * segment, have adjacent keys.
+   *
+   * @return sortKey <code>int</code>
+   */
+  protected int getSortKey() {
+    return this.sortKey;
+  }
+
+  /**
+   * Getter for <code>Mesh.byteSize</code>, the size of the mesh's block in the
+   * <code>GeometryArena</code>, or zero if unprocessed.
+   *
+   * @return byteSize <code>int</code>
+   */
+  protected int getByteSize() {
+    return this.byteSize;
+  }
+
+  /**
+   * Returns the number of vertices in the mesh.
+   *
+   * @return <code>int</code>
+   */
+  protected int getVertexCount() {
+    return this.vertexCount;
+  }
+
+  /**
+   * Returns the number of faces in the mesh.
+   *
+   * @return <code>int</code>
+   */
+  protected int getFaceCount() {
+    return this.faceCount;
+  }
+
+  /**
+   * Returns the number of triangles in the processed triangle list.
+   *
+   * @return <code>int</code>
+   */
+  protected int getTriangleCount() {
+    return this.triangleIndexCount / 3;
+  }
+
+  /**
+   * Getter for <code>Mesh.edgeIndexCount</code>, twice the number of unique edges
+   *
+   * @return edgeIndexCount <code>int</code>
+   */
+  protected int getEdgeIndexCount() {
+    return this.edgeIndexCount;
+  }
+
+  /**
+   * Getter for <code>Mesh.segmentNumber</code>, the arena segment holding the mesh's block
+   *
+   * @return segmentNumber <code>int</code>
+   */
+  protected int getSegmentNumber() {
+    return this.segmentNumber;
+  }
+
+  /**
+   * Getter for <code>Mesh.format</code>, <code>null</code> for raw meshes
+   *
+   * @return format <code>VertexFormat</code>
+   */
+  protected VertexFormat getFormat() {
+    return this.format;
+  }
+
+  /**
+   * Returns the byte offset of the positions within the segment, for <code>glVertexPointer</code>.
+   *
+   * @return <code>long</code>
+   */
+  protected long getVertexByteOffset() {
+    return this.getBaseOffset() + this.vertexOffset;
+  }
+
+  /**
+   * Returns the byte offset of the whole triangle list within the segment, the faces' triangles
+   * being contiguous in draw order.
+   *
+   * @return <code>long</code>
+   */
+  protected long getTriangleByteOffset() {
+    return this.getBaseOffset() + this.triangleOffset;
+  }
+
+  /**
+   * Returns the byte offset of the outline edge indices within the segment.
+   *
+   * @return <code>long</code>
+   */
+  protected long getEdgeByteOffset() {
+    return this.getBaseOffset() + this.edgeOffset;
+  }
+
+  /**
+   * Returns a single vertex index of the processed triangle list, three per triangle.
+   *
+   * @param index <code>int</code>
+   * @return <code>int</code>
+   */
+  protected int getTriangleIndex(int index) {
+    return this.segment.getInt(this.getBaseOffset() + this.triangleOffset + index * Integer.BYTES);
+  }
+
+  /**
+   * Returns the face drawn in the given slot of the cache-friendly draw order.
+   *
+   * @param slot <code>int</code>
+   * @return <code>int</code>
+   */
+  protected int getDrawFace(int slot) {
+    return this.segment.getInt(this.getBaseOffset() + this.drawOffset + slot * 3 * Integer.BYTES);
+  }
+
+  /**
+   * Returns the byte offset within the segment of the first triangle index drawn in the given slot.
+   *
+   * @param slot <code>int</code>
+   * @return <code>long</code>
+   */
+  protected long getDrawByteOffset(int slot) {
+    return this.getBaseOffset() + this.triangleOffset + this.segment.getInt(this.getBaseOffset()
+      + this.drawOffset + (slot * 3 + 1) * Integer.BYTES) * (long) Integer.BYTES;
+  }
+
+  /**
+   * Returns the number of triangle indices drawn in the given slot.
+   *
+   * @param slot <code>int</code>
+   * @return <code>int</code>
+   */
+  protected int getDrawIndexCount(int slot) {
+    return this.segment.getInt(this.getBaseOffset() + this.drawOffset
+      + (slot * 3 + 2) * Integer.BYTES);
+  }
+
+  /**
+   * Returns a single coefficient of the texture planes of the given face, the first four those of
+   * the s coordinate and the last four those of the t coordinate. Processed meshes only.
+   *
+   * @param face <code>int</code>
+   * @param coefficient <code>int</code> 0 to 7
+   * @return <code>float</code>
+   */
+  protected float getTexturePlane(int face, int coefficient) {
+    return this.segment.getFloat(this.getBaseOffset() + this.planeOffset
+      + (face * 8 + coefficient) * Float.BYTES);
+  }
+
+  /**
+   * Reads a single coordinate of a vertex position.
+   *
+   * @param vertex <code>int</code>
+   * @param axis <code>int</code> 0, 1, or 2 for x, y, or z
+   * @return <code>double</code>
+   */
+  protected double getPosition(int vertex, int axis) {
+    return (this.vertices != null)
+      ? this.vertices[vertex][axis]
+      : this.format.get(this.segment, this.getBaseOffset() + this.vertexOffset
+        + vertex * this.format.getStride(), axis);
+  }
+
+  /**
+   * Returns the smallest coordinate of any vertex along the given axis, in model space.
+   *
+   * @param axis <code>int</code> 0, 1, or 2 for x, y, or z
+   * @return <code>float</code>
+   */
+  protected float getBoundsMin(int axis) {
+    return this.bounds[axis];
+  }
+
+  /**
+   * Returns the largest coordinate of any vertex along the given axis, in model space.
+   *
+   * @param axis <code>int</code> 0, 1, or 2 for x, y, or z
+   * @return <code>float</code>
+   */
+  protected float getBoundsMax(int axis) {
+    return this.bounds[axis + 3];
+  }
+
+  // Helper methods
+
+  /**
+   * Getter for <code>Mesh.baseOffset</code>, the byte offset of the mesh's block in its segment
+   *
+   * @return baseOffset <code>int</code>
+   */
+  private int getBaseOffset() {
+    return this.baseOffset;
+  }
+
+  /**
+   * Rounds a byte count up to the next multiple of eight.
+   *
+   * @param bytes <code>int</code>
+   * @return <code>int</code>
+   */
+  private static int align(int bytes) {
+    return (bytes + 7) & -8;
+  }
+
+  /**
+   * Computes the axis-aligned bounding box of the given vertices, as the minimum x, y, and z
+   * followed by the maximum x, y, and z.
+   *
+   * @param vertices <code>double[][]</code>
+   * @return <code>float[]</code>
+   */
+  private static float[] computeBounds(double[][] vertices) {
+
+    // Declaration
+    float[] bounds;
+
+    bounds = new float[6];
+
+    for (int axis = 0; axis < 3; axis++) {
+      bounds[axis] = Float.POSITIVE_INFINITY;
+      bounds[axis + 3] = Float.NEGATIVE_INFINITY;
+    }
+
+    for (double[] vertex : vertices) {
+      for (int axis = 0; axis < 3; axis++) {
+        bounds[axis] = Math.min(bounds[axis], (float) vertex[axis]);
+        bounds[axis + 3] = Math.max(bounds[axis + 3], (float) vertex[axis]);
+      }
+    }
+
+    return bounds;
+  }
+
+  /**
+   * Computes the texture planes of the given face into the given array, mapping s from zero to one
+   * along the horizontal of the face, left to right as seen from its front, and t from zero to one
+   * down from its top. Faces lying flat take the x-axis as their horizontal, and degenerate faces
+   * map to a single point.
+   *
+   * @param vertices <code>double[][]</code>
+   * @param face <code>int[]</code>
+   * @param plane <code>float[]</code> of eight coefficients, the s plane then the t plane
+   * @return void
+   */
+  private static void computeTexturePlanes(double[][] vertices, int[] face, float[] plane) {
+
+    // Declarations
+    double[] normal, across, down, a, b;
+    double length, minimum, maximum, dot;
+
+    normal = new double[3];
+    across = new double[3];
+    down = new double[3];
+
+    // Newell's method, robust to slightly non-planar faces
+    for (int i = 0; i < face.length; i++) {
+      a = vertices[face[i]];
+      b = vertices[face[(i + 1) % face.length]];
+      normal[0] += (a[1] - b[1]) * (a[2] + b[2]);
+      normal[1] += (a[2] - b[2]) * (a[0] + b[0]);
+      normal[2] += (a[0] - b[0]) * (a[1] + b[1]);
+    }
+
+    // The horizontal is the y-axis crossed with the normal, or the x-axis for flat faces
+    length = Math.sqrt(normal[2] * normal[2] + normal[0] * normal[0]);
+
+    if (length > 1e-6 * Math.sqrt(normal[0] * normal[0] + normal[1] * normal[1]
+        + normal[2] * normal[2])) {
+      across[0] = normal[2] / length;
+      across[2] = -normal[0] / length;
+    } else {
+      across[0] = 1.0;
+    }
+
+    // Up along the face is the normal crossed with the horizontal, so down is its opposite
+    down[0] = -(normal[1] * across[2] - normal[2] * across[1]);
+    down[1] = -(normal[2] * across[0] - normal[0] * across[2]);
+    down[2] = -(normal[0] * across[1] - normal[1] * across[0]);
+    length = Math.sqrt(down[0] * down[0] + down[1] * down[1] + down[2] * down[2]);
+
+    for (int axis = 0; axis < 3; axis++) {
+      down[axis] = (length > 0.0) ? down[axis] / length : 0.0;
+    }
+
+    for (int p = 0; p < 2; p++) {
+      a = (p == 0) ? across : down;
+      minimum = Double.POSITIVE_INFINITY;
+      maximum = Double.NEGATIVE_INFINITY;
+
+      for (int vertex : face) {
+        dot = a[0] * vertices[vertex][0] + a[1] * vertices[vertex][1] + a[2] * vertices[vertex][2];
+        minimum = Math.min(minimum, dot);
+        maximum = Math.max(maximum, dot);
+      }
+
+      length = (maximum > minimum) ? maximum - minimum : Double.POSITIVE_INFINITY;
+
+      for (int axis = 0; axis < 3; axis++) {
+        plane[p * 4 + axis] = (float) (a[axis] / length);
+      }
+
+      plane[p * 4 + 3] = (length < Double.POSITIVE_INFINITY) ? (float) (-minimum / length) : 0.0f;
+    }
+  }
+
+  /**
+   * Determines whether the given vertices are exactly the eight corners of their bounds, as with
+   * <code>Cube</code> and <code>Floor</code>.
+   *
+   * @param vertices <code>double[][]</code>
+   * @param bounds <code>float[]</code> from <code>Mesh.computeBounds</code>
+   * @return <code>boolean</code>
+   */
+  private static boolean computeIsBox(double[][] vertices, float[] bounds) {
+
+    // Declarations
+    int corners, corner;
+
+    corners = 0;
+
+    for (int axis = 0; axis < 3; axis++) {
+      if (!(bounds[axis + 3] > bounds[axis])) {
+        return false;
+      }
+    }
+
+    // One bit per corner, each corner numbered by whether it lies at the maximum of each axis
+    for (double[] vertex : vertices) {
+      corner = 0;
+
+      for (int axis = 0; axis < 3; axis++) {
+        if ((float) vertex[axis] == bounds[axis + 3]) {
+          corner |= 1 << axis;
+        } else if ((float) vertex[axis] != bounds[axis]) {
+          return false;
+        }
+      }
+
+      corners |= 1 << corner;
+    }
+
+    return corners == 0xFF;
+  }
+}
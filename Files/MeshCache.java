@@ -0,0 +1,146 @@
+/**
+ * MeshCache.java - Process-wide memoization of built-in and generated meshes
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * This utility class memoizes every <code>Mesh</code> used by the scene, keyed by the name of the
+ * generator (or built-in shape class) that produced it along with the exact parameters passed to
+ * that generator. Spawning a hundred ten-sided prisms of the same radius thus builds the mesh only
+ * once, with each resulting <code>SceneObject</code> simply holding a reference to the shared
+ * instance. The map is concurrent so that meshes may be prepared from background threads.
+ * <br />
+ * <br />
+ * Every mesh is run through <code>MeshProcessor</code> on its way into the cache, so that no mesh
+ * ever reaches the renderer without having been validated, cleaned up, triangulated, and
+ * optimized, regardless of where it came from.
+ *
+ * @see graphicsprojecttwo.MeshGenerator
+ * @author Andrew Eissen
+ */
+final class MeshCache {
+
+  /** Shared store of all meshes built so far */
+  private final static ConcurrentHashMap<Key, Mesh> MESHES = new ConcurrentHashMap<>();
+
+  /**
+   * Private constructor, as this class only contains static utility methods
+   */
+  private MeshCache() {}
+
+  // Utility methods
+
+  /**
+   * Returns the cached, processed mesh for the given generator and parameters, invoking the
+   * provided builder and <code>MeshProcessor.process</code> exactly once per distinct key. Each
+   * mesh so built is recorded by Java Flight Recorder as an asset load.
+   *
+   * @param generator <code>String</code> name of the generator
+   * @param parameters <code>double[]</code> generator parameters, copied defensively
+   * @param builder <code>Supplier</code> used to build the mesh on a cache miss
+   * @return <code>Mesh</code>
+   */
+  protected static Mesh get(String generator, double[] parameters, Supplier<Mesh> builder) {
+    return MeshCache.MESHES.computeIfAbsent(new Key(generator, parameters.clone()),
+      (Key key) -> MeshCache.build(generator, builder));
+  }
+
+  /**
+   * Returns the cached mesh of one of the hand-built <code>SceneObject</code> subclasses, whose
+   * vertex and face tables are copied out of the instance only on the first request.
+   *
+   * @param sceneObject <code>SceneObject</code>
+   * @return <code>Mesh</code>
+   */
+  protected static Mesh get(SceneObject sceneObject) {
+    return MeshCache.get(sceneObject.getClass().getSimpleName(), new double[0], () -> {
+      return new Mesh(sceneObject.getClass().getSimpleName(), sceneObject.getVertices(),
+        sceneObject.getFaces());
+    });
+  }
+
+  /**
+   * Returns the number of distinct meshes currently held by the cache.
+   *
+   * @return <code>int</code>
+   */
+  protected static int size() {
+    return MeshCache.MESHES.size();
+  }
+
+  /**
+   * Builds and processes the mesh of the given generator on a cache miss.
+   *
+   * @param generator <code>String</code> name of the generator
+   * @param builder <code>Supplier</code>
+   * @return <code>Mesh</code>
+   */
+  private static Mesh build(String generator, Supplier<Mesh> builder) {
+
+    // Declarations
+    FlightEvents.AssetLoad loadEvent;
+    Mesh mesh;
+
+    loadEvent = FlightEvents.beginAssetLoad("mesh", generator);
+    mesh = MeshProcessor.process(builder.get());
+    FlightEvents.endAssetLoad(loadEvent, mesh.getByteSize(), "generated");
+    return mesh;
+  }
+
+  /**
+   * Immutable cache key consisting of the generator name and its parameters.
+   *
+   * @author Andrew Eissen
+   */
+  private static final class Key {
+
+    // Class fields
+    private final String generator;
+    private final double[] parameters;
+    private final int hash;
+
+    /**
+     * Parameterized constructor
+     *
+     * @param generator <code>String</code>
+     * @param parameters <code>double[]</code>
+     */
+    private Key(String generator, double[] parameters) {
+      this.generator = generator;
+      this.parameters = parameters;
+      this.hash = 31 * generator.hashCode() + Arrays.hashCode(parameters);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param other <code>Object</code>
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+
+      return this.generator.equals(((Key) other).generator)
+        && Arrays.equals(this.parameters, ((Key) other).parameters);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+  }
+}
@@ -0,0 +1,435 @@
+/**
+ * MeshGenerator.java - Parametric generators for prisms, pyramids, frusta, stars, spheres, tori
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import java.util.HashMap;
+
+/**
+ * As described at length in the <code>SceneObject</code> class comment, the original shapes of
+ * the scene were plotted by hand on graph paper, a process that proved both slow and error-prone.
+ * This utility class instead computes the vertex and face tables of whole families of shapes from
+ * a handful of parameters, so that, for example, a seven-sided prism or a five-pointed star no
+ * longer requires a new hand-typed subclass. Every generator routes its result through
+ * <code>MeshCache</code>, so requesting the same shape twice returns the very same
+ * <code>Mesh</code> instance rather than a duplicate copy.
+ * <br />
+ * <br />
+ * All shapes are centered on the origin and fit roughly within the same two-unit cube used by the
+ * hand-built shapes, so they may be scaled and translated in the scene the same way. Prisms,
+ * pyramids, and frusta stand upright along the y-axis; stars lie in the xy-plane facing the
+ * camera. Faces are wound counterclockwise when viewed from outside the shape.
+ * <br />
+ * <br />
+ * <pre>
+ * Generators:
+ * - prism(sides, radius, halfHeight)
+ * - pyramid(sides, radius, halfHeight)
+ * - frustum(sides, bottomRadius, topRadius, halfHeight)
+ * - star(points, innerRadius, outerRadius, halfDepth)
+ * - sphere(subdivisions, radius)                  (subdivided icosahedron)
+ * - torus(rings, sides, majorRadius, minorRadius)
+ * </pre>
+ *
+ * @see graphicsprojecttwo.MeshCache
+ * @see graphicsprojecttwo.GeneratedShape
+ * @author Andrew Eissen
+ */
+final class MeshGenerator {
+
+  /** Highest sphere subdivision level accepted, 20 * 4^7 = 327680 triangles */
+  private final static int MAX_SPHERE_SUBDIVISIONS = 7;
+
+  /**
+   * Private constructor, as this class only contains static utility methods
+   */
+  private MeshGenerator() {}
+
+  // Generators
+
+  /**
+   * Returns an upright prism whose cross-section is a regular polygon of the given side count.
+   *
+   * @param sides <code>int</code> at least 3
+   * @param radius <code>double</code> circumradius of the cross-section
+   * @param halfHeight <code>double</code>
+   * @return <code>Mesh</code>
+   */
+  protected static Mesh prism(int sides, double radius, double halfHeight) {
+    MeshGenerator.requireAtLeast("sides", sides, 3);
+
+    return MeshCache.get("prism", new double[] {sides, radius, halfHeight}, () -> {
+      return MeshGenerator.buildFrustum("Prism(" + sides + ")", sides, radius, radius,
+        halfHeight);
+    });
+  }
+
+  /**
+   * Returns an upright pyramid with a regular polygonal base and its apex on the positive y-axis.
+   *
+   * @param sides <code>int</code> at least 3
+   * @param radius <code>double</code> circumradius of the base
+   * @param halfHeight <code>double</code>
+   * @return <code>Mesh</code>
+   */
+  protected static Mesh pyramid(int sides, double radius, double halfHeight) {
+    MeshGenerator.requireAtLeast("sides", sides, 3);
+
+    return MeshCache.get("pyramid", new double[] {sides, radius, halfHeight}, () -> {
+      return MeshGenerator.buildFrustum("Pyramid(" + sides + ")", sides, radius, 0.0,
+        halfHeight);
+    });
+  }
+
+  /**
+   * Returns an upright frustum, that is a pyramid with its top sliced off parallel to the base. A
+   * top radius equal to the bottom radius yields a prism, and a top radius of zero a pyramid.
+   *
+   * @param sides <code>int</code> at least 3
+   * @param bottomRadius <code>double</code>
+   * @param topRadius <code>double</code>
+   * @param halfHeight <code>double</code>
+   * @return <code>Mesh</code>
+   */
+  protected static Mesh frustum(int sides, double bottomRadius, double topRadius,
+      double halfHeight) {
+
+    MeshGenerator.requireAtLeast("sides", sides, 3);
+
+    return MeshCache.get("frustum", new double[] {sides, bottomRadius, topRadius, halfHeight},
+      () -> {
+        return MeshGenerator.buildFrustum("Frustum(" + sides + ")", sides, bottomRadius,
+          topRadius, halfHeight);
+      });
+  }
+
+  /**
+   * Returns a star with the given number of points, lying in the xy-plane and bulging out to a
+   * central apex on both the front and back, much like a cut gemstone.
+   *
+   * @param points <code>int</code> at least 3
+   * @param innerRadius <code>double</code> radius of the notches between points
+   * @param outerRadius <code>double</code> radius of the points' tips
+   * @param halfDepth <code>double</code> distance of the front and back apices from the plane
+   * @return <code>Mesh</code>
+   */
+  protected static Mesh star(int points, double innerRadius, double outerRadius,
+      double halfDepth) {
+
+    MeshGenerator.requireAtLeast("points", points, 3);
+
+    return MeshCache.get("star", new double[] {points, innerRadius, outerRadius, halfDepth},
+      () -> {
+
+        // Declarations
+        int ring, front, back;
+        double angle, radius;
+        double[][] vertices;
+        int[][] faces;
+
+        // Definitions
+        ring = points * 2;
+        front = ring;
+        back = ring + 1;
+        vertices = new double[ring + 2][];
+        faces = new int[ring * 2][];
+
+        // Alternate between tips and notches, starting with a tip straight up
+        for (int i = 0; i < ring; i++) {
+          angle = Math.PI / 2.0 + Math.PI * i / points;
+          radius = (i % 2 == 0) ? outerRadius : innerRadius;
+          vertices[i] = new double[] {radius * Math.cos(angle), radius * Math.sin(angle), 0.0};
+        }
+
+        vertices[front] = new double[] {0.0, 0.0, halfDepth};
+        vertices[back] = new double[] {0.0, 0.0, -halfDepth};
+
+        for (int i = 0; i < ring; i++) {
+          faces[i] = new int[] {i, (i + 1) % ring, front};
+          faces[ring + i] = new int[] {(i + 1) % ring, i, back};
+        }
+
+        return new Mesh("Star(" + points + ")", vertices, faces);
+      });
+  }
+
+  /**
+   * Returns a sphere approximated by an icosahedron whose triangles have each been split into four
+   * the given number of times, with every new vertex pushed back out onto the sphere's surface.
+   * Level 0 is the plain icosahedron of 20 triangles; each further level quadruples that count.
+   *
+   * @param subdivisions <code>int</code> between 0 and <code>MAX_SPHERE_SUBDIVISIONS</code>
+   * @param radius <code>double</code>
+   * @return <code>Mesh</code>
+   */
+  protected static Mesh sphere(int subdivisions, double radius) {
+    MeshGenerator.requireAtLeast("subdivisions", subdivisions, 0);
+
+    if (subdivisions > MeshGenerator.MAX_SPHERE_SUBDIVISIONS) {
+      throw new IllegalArgumentException("subdivisions must be at most "
+        + MeshGenerator.MAX_SPHERE_SUBDIVISIONS + ", was " + subdivisions);
+    }
+
+    return MeshCache.get("sphere", new double[] {subdivisions, radius}, () -> {
+      return MeshGenerator.buildSphere(subdivisions, radius);
+    });
+  }
+
+  /**
+   * Returns a torus lying in the xz-plane, built from the given number of rings around the main
+   * axis, each consisting of the given number of quads around the tube.
+   *
+   * @param rings <code>int</code> at least 3
+   * @param sides <code>int</code> at least 3
+   * @param majorRadius <code>double</code> distance from the center to the middle of the tube
+   * @param minorRadius <code>double</code> radius of the tube
+   * @return <code>Mesh</code>
+   */
+  protected static Mesh torus(int rings, int sides, double majorRadius, double minorRadius) {
+    MeshGenerator.requireAtLeast("rings", rings, 3);
+    MeshGenerator.requireAtLeast("sides", sides, 3);
+
+    return MeshCache.get("torus", new double[] {rings, sides, majorRadius, minorRadius}, () -> {
+
+      // Declarations
+      double[][] vertices;
+      int[][] faces;
+      double theta, phi, distance;
+      int next, nextSide;
+
+      // Definitions
+      vertices = new double[rings * sides][];
+      faces = new int[rings * sides][];
+
+      for (int i = 0; i < rings; i++) {
+        theta = 2.0 * Math.PI * i / rings;
+
+        for (int j = 0; j < sides; j++) {
+          phi = 2.0 * Math.PI * j / sides;
+          distance = majorRadius + minorRadius * Math.cos(phi);
+          vertices[i * sides + j] = new double[] {distance * Math.cos(theta),
+            minorRadius * Math.sin(phi), -distance * Math.sin(theta)};
+        }
+      }
+
+      for (int i = 0; i < rings; i++) {
+        next = (i + 1) % rings;
+
+        for (int j = 0; j < sides; j++) {
+          nextSide = (j + 1) % sides;
+          faces[i * sides + j] = new int[] {i * sides + j, next * sides + j,
+            next * sides + nextSide, i * sides + nextSide};
+        }
+      }
+
+      return new Mesh("Torus(" + rings + "x" + sides + ")", vertices, faces);
+    });
+  }
+
+  // Helper methods
+
+  /**
+   * Shared body of the prism, pyramid, and frustum generators. The base ring lies at
+   * <code>-halfHeight</code> and the top ring at <code>+halfHeight</code>; if the top radius is
+   * zero, the top ring collapses into a single apex vertex and the sides become triangles.
+   *
+   * @param name <code>String</code>
+   * @param sides <code>int</code>
+   * @param bottomRadius <code>double</code>
+   * @param topRadius <code>double</code>
+   * @param halfHeight <code>double</code>
+   * @return <code>Mesh</code>
+   */
+  private static Mesh buildFrustum(String name, int sides, double bottomRadius, double topRadius,
+      double halfHeight) {
+
+    // Declarations
+    boolean hasApex;
+    double[][] vertices;
+    int[][] faces;
+    int[] base, top;
+    double angle;
+    int next;
+
+    // Definitions
+    hasApex = topRadius == 0.0;
+    vertices = new double[(hasApex) ? sides + 1 : sides * 2][];
+    faces = new int[(hasApex) ? sides + 1 : sides + 2][];
+    base = new int[sides];
+    top = new int[sides];
+
+    // Rings run counterclockwise when viewed from above
+    for (int i = 0; i < sides; i++) {
+      angle = 2.0 * Math.PI * i / sides;
+      vertices[i] = new double[] {bottomRadius * Math.cos(angle), -halfHeight,
+        -bottomRadius * Math.sin(angle)};
+
+      if (!hasApex) {
+        vertices[sides + i] = new double[] {topRadius * Math.cos(angle), halfHeight,
+          -topRadius * Math.sin(angle)};
+      }
+
+      // Base must face downward, so its vertices run the other way
+      base[i] = sides - 1 - i;
+      top[i] = sides + i;
+    }
+
+    if (hasApex) {
+      vertices[sides] = new double[] {0.0, halfHeight, 0.0};
+    }
+
+    faces[0] = base;
+
+    for (int i = 0; i < sides; i++) {
+      next = (i + 1) % sides;
+      faces[i + 1] = (hasApex)
+        ? new int[] {i, next, sides}
+        : new int[] {i, next, sides + next, sides + i};
+    }
+
+    if (!hasApex) {
+      faces[sides + 1] = top;
+    }
+
+    return new Mesh(name, vertices, faces);
+  }
+
+  /**
+   * Builds the subdivided icosahedron for <code>MeshGenerator.sphere</code>. Midpoints of shared
+   * edges are memoized per level so that adjacent triangles reuse the same new vertex.
+   *
+   * @param subdivisions <code>int</code>
+   * @param radius <code>double</code>
+   * @return <code>Mesh</code>
+   */
+  private static Mesh buildSphere(int subdivisions, double radius) {
+
+    // Declarations
+    double t;
+    double[][] vertices, seed;
+    int[][] faces, next;
+    int vertexCount, a, b, c, ab, bc, ca;
+    HashMap<Long, Integer> midpoints;
+
+    // Golden ratio icosahedron
+    t = (1.0 + Math.sqrt(5.0)) / 2.0;
+    seed = new double[][] {
+      {-1, t, 0}, {1, t, 0}, {-1, -t, 0}, {1, -t, 0},
+      {0, -1, t}, {0, 1, t}, {0, -1, -t}, {0, 1, -t},
+      {t, 0, -1}, {t, 0, 1}, {-t, 0, -1}, {-t, 0, 1}
+    };
+    faces = new int[][] {
+      {0, 11, 5}, {0, 5, 1}, {0, 1, 7}, {0, 7, 10}, {0, 10, 11},
+      {1, 5, 9}, {5, 11, 4}, {11, 10, 2}, {10, 7, 6}, {7, 1, 8},
+      {3, 9, 4}, {3, 4, 2}, {3, 2, 6}, {3, 6, 8}, {3, 8, 9},
+      {4, 9, 5}, {2, 4, 11}, {6, 2, 10}, {8, 6, 7}, {9, 8, 1}
+    };
+
+    // Final vertex count is known up front: V = 10 * 4^n + 2
+    vertices = new double[10 * (1 << (2 * subdivisions)) + 2][];
+    vertexCount = seed.length;
+
+    for (int i = 0; i < seed.length; i++) {
+      vertices[i] = MeshGenerator.normalize(seed[i][0], seed[i][1], seed[i][2]);
+    }
+
+    for (int level = 0; level < subdivisions; level++) {
+      next = new int[faces.length * 4][];
+      midpoints = new HashMap<>();
+
+      for (int i = 0; i < faces.length; i++) {
+        a = faces[i][0];
+        b = faces[i][1];
+        c = faces[i][2];
+        ab = MeshGenerator.midpoint(vertices, midpoints, a, b, vertexCount);
+        vertexCount += (ab == vertexCount) ? 1 : 0;
+        bc = MeshGenerator.midpoint(vertices, midpoints, b, c, vertexCount);
+        vertexCount += (bc == vertexCount) ? 1 : 0;
+        ca = MeshGenerator.midpoint(vertices, midpoints, c, a, vertexCount);
+        vertexCount += (ca == vertexCount) ? 1 : 0;
+
+        next[i * 4] = new int[] {a, ab, ca};
+        next[i * 4 + 1] = new int[] {b, bc, ab};
+        next[i * 4 + 2] = new int[] {c, ca, bc};
+        next[i * 4 + 3] = new int[] {ab, bc, ca};
+      }
+
+      faces = next;
+    }
+
+    // Scale the unit sphere up to the requested radius
+    for (int i = 0; i < vertexCount; i++) {
+      vertices[i][0] *= radius;
+      vertices[i][1] *= radius;
+      vertices[i][2] *= radius;
+    }
+
+    return new Mesh("Sphere(" + subdivisions + ")", vertices, faces);
+  }
+
+  /**
+   * Returns the index of the unit-length midpoint of edge <code>a-b</code>, creating it at
+   * index <code>nextIndex</code> if this is the first triangle to request it.
+   *
+   * @param vertices <code>double[][]</code>
+   * @param midpoints <code>HashMap</code> of edge key to vertex index
+   * @param a <code>int</code>
+   * @param b <code>int</code>
+   * @param nextIndex <code>int</code> index at which a new vertex would be stored
+   * @return <code>int</code>
+   */
+  private static int midpoint(double[][] vertices, HashMap<Long, Integer> midpoints, int a,
+      int b, int nextIndex) {
+
+    // Declarations
+    long key;
+    Integer existing;
+
+    key = ((long) Math.min(a, b) << 32) | Math.max(a, b);
+    existing = midpoints.get(key);
+
+    if (existing != null) {
+      return existing;
+    }
+
+    vertices[nextIndex] = MeshGenerator.normalize(vertices[a][0] + vertices[b][0],
+      vertices[a][1] + vertices[b][1], vertices[a][2] + vertices[b][2]);
+    midpoints.put(key, nextIndex);
+    return nextIndex;
+  }
+
+  /**
+   * Returns the given vector scaled to unit length, i.e. projected onto the unit sphere.
+   *
+   * @param x <code>double</code>
+   * @param y <code>double</code>
+   * @param z <code>double</code>
+   * @return <code>double[]</code>
+   */
+  private static double[] normalize(double x, double y, double z) {
+
+    // Declaration
+    double length;
+
+    length = Math.sqrt(x * x + y * y + z * z);
+    return new double[] {x / length, y / length, z / length};
+  }
+
+  /**
+   * Parameter check shared by the generators.
+   *
+   * @param name <code>String</code>
+   * @param value <code>int</code>
+   * @param minimum <code>int</code>
+   * @return void
+   * @throws IllegalArgumentException if <code>value</code> is less than <code>minimum</code>
+   */
+  private static void requireAtLeast(String name, int value, int minimum) {
+    if (value < minimum) {
+      throw new IllegalArgumentException(name + " must be at least " + minimum + ", was "
+        + value);
+    }
+  }
+}
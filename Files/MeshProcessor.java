@@ -0,0 +1,1207 @@
+/**
+ * MeshProcessor.java - Load-time validation, cleanup, and vertex cache optimization of meshes
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+
+/**
+ * This utility class implements the processing pass applied by <code>MeshCache</code> to every
+ * mesh before it is first handed out, whether built by hand, generated, or loaded from elsewhere.
+ * The hand-built tables in particular contain genuine mistakes, the most visible of which is the
+ * face <code>{6, 5, 9, 10}</code> appearing twice in <code>TenSidedPolygon.getFaces</code>, which
+ * meant the same quad was filled and outlined twice every frame. The pass consists of the
+ * following steps, in order:
+ * <br />
+ * <pre>
+ * 1. Weld vertices sharing the same position (within WELD_EPSILON), drop unused ones
+ * 2. Drop degenerate faces (fewer than three distinct vertices, or zero area)
+ * 3. Drop duplicate faces (same set of vertices as an earlier face, in any order)
+ * 4. Count directed edges used twice, indicating inconsistently wound neighboring faces, then
+ *    orient every face outward and classify the mesh as safe to back-face cull or not
+ * 5. Split vertices again where faces meet at a crease, giving each side copies of its own
+ * 6. Triangulate each polygon as a fan into a single indexed triangle list
+ * 7. Reorder faces and their triangles for post-transform vertex cache efficiency
+ * 8. Collect the unique edges of all faces for the outline pass
+ * </pre>
+ * <br />
+ * Step 5 undoes step 1 where it must. A vertex welded at the corner of a cube is shared by three
+ * faces facing three different ways, so anything stored per vertex, as the colors baked by
+ * <code>LightBaker</code>, is smeared across all three. Around each vertex, faces whose normals
+ * lie within forty degrees of each other keep sharing it, while every further group
+ * gets a copy, such that hard edges stay hard and curved surfaces stay smooth. Winding and
+ * culling have been settled on the welded mesh by then, and outline edges are still collected
+ * once per welded edge.
+ * <br />
+ * <br />
+ * Step 7 is an adaptation of Tom Forsyth's "Linear-Speed Vertex Cache Optimisation" to polygons:
+ * whole faces rather than single triangles are emitted, so that each face's triangles remain
+ * contiguous and may still be drawn with the face's own color. The average cache miss ratio
+ * (ACMR, the number of vertices transformed per triangle) of the list is measured before and after
+ * with a simulated FIFO cache and recorded in the <code>MeshProcessor.Report</code>.
+ * <br />
+ * <br />
+ * The winding normalization of step 4 is what allows <code>GL2.GL_CULL_FACE</code> to be enabled,
+ * since the hand-built tables were never wound consistently. Faces are first made consistent
+ * with their neighbors by flood fill across edges shared by exactly two faces, after which each
+ * connected patch is flipped as a whole if it turns out to face inward: closed patches by the sign
+ * of their enclosed volume, open ones by an area-weighted vote of their faces' normals against the
+ * direction away from the mesh's centroid. Only a mesh that is a single closed, orientable
+ * manifold (every edge shared by exactly two faces) is marked as cullable; anything else, such as
+ * <code>TenSidedPolygon</code> with its interior middle face, is drawn with culling disabled.
+ *
+ * @see graphicsprojecttwo.MeshCache
+ * @see <a href="https://tomforsyth1000.github.io/papers/fast_vert_cache_opt.html">Forsyth</a>
+ * @author Andrew Eissen
+ */
+final class MeshProcessor {
+
+  /** Positions closer than this along every axis are considered the same vertex */
+  private final static double WELD_EPSILON = 1.0e-6;
+
+  /** Cosine of the angle past which neighboring faces no longer share vertices, forty degrees */
+  private final static double CREASE_COSINE = Math.cos(Math.toRadians(40.0));
+
+  /** Faces with a smaller area are considered degenerate */
+  private final static double AREA_EPSILON = 1.0e-12;
+
+  /** Size of the simulated FIFO post-transform cache used to measure ACMR */
+  private final static int MEASURE_CACHE_SIZE = 16;
+
+  /** Size of the modeled LRU cache used to score vertices during optimization */
+  private final static int OPTIMIZE_CACHE_SIZE = 32;
+
+  /** Forsyth's cache decay power */
+  private final static double CACHE_DECAY_POWER = 1.5;
+
+  /** Score given to vertices used by the most recently emitted face */
+  private final static double LAST_FACE_SCORE = 0.75;
+
+  /** Forsyth's valence boost scale */
+  private final static double VALENCE_BOOST_SCALE = 2.0;
+
+  /** Forsyth's valence boost power */
+  private final static double VALENCE_BOOST_POWER = 0.5;
+
+  /**
+   * Private constructor, as this class only contains static utility methods
+   */
+  private MeshProcessor() {}
+
+  // Utility methods
+
+  /**
+   * Runs the full processing pass over the given raw mesh, returning a new mesh containing the
+   * cleaned vertex and face tables together with the optimized triangle list, outline edges, and
+   * a report of everything found and changed along the way.
+   *
+   * @param raw <code>Mesh</code> holding only vertex and face tables
+   * @return <code>Mesh</code>
+   */
+  protected static Mesh process(Mesh raw) {
+
+    // Declarations
+    Report report;
+    int[] remap;
+    double[][] vertices;
+    int[][] faces;
+    int[] fanTriangles, triangles, faceStart, faceIndexCount, drawOrder, weldedOf;
+
+    // Definitions
+    report = new Report(raw.getName());
+
+    // Steps 1 through 4
+    remap = new int[raw.getVertexCount()];
+    vertices = MeshProcessor.weld(raw.getVertices(), remap, report);
+    faces = MeshProcessor.cleanFaces(raw.getFaces(), remap, vertices, report);
+    vertices = MeshProcessor.compact(vertices, faces, report);
+    report.inconsistentEdges = MeshProcessor.countInconsistentEdges(faces);
+    MeshProcessor.normalizeWinding(vertices, faces, report);
+
+    // Step 5
+    weldedOf = MeshProcessor.splitCreases(vertices, faces, report);
+    vertices = Arrays.copyOf(vertices, weldedOf.length);
+
+    for (int i = 0; i < weldedOf.length; i++) {
+      vertices[i] = vertices[weldedOf[i]].clone();
+    }
+
+    // Step 6, in original order, for the "before" measurement
+    fanTriangles = MeshProcessor.triangulate(faces, null);
+    report.acmrBefore = MeshProcessor.measureAcmr(fanTriangles, vertices.length);
+
+    // Step 7, keeping the original order should the heuristic do worse (huge polygons)
+    drawOrder = MeshProcessor.optimizeFaceOrder(faces, vertices.length);
+    triangles = MeshProcessor.triangulate(faces, drawOrder);
+
+    if (MeshProcessor.measureAcmr(triangles, vertices.length) > report.acmrBefore) {
+      for (int i = 0; i < drawOrder.length; i++) {
+        drawOrder[i] = i;
+      }
+
+      triangles = fanTriangles;
+    }
+
+    faceStart = new int[faces.length];
+    faceIndexCount = new int[faces.length];
+
+    for (int i = 0, offset = 0; i < drawOrder.length; i++) {
+      faceStart[drawOrder[i]] = offset;
+      faceIndexCount[drawOrder[i]] = (faces[drawOrder[i]].length - 2) * 3;
+      offset += faceIndexCount[drawOrder[i]];
+    }
+
+    report.acmrAfter = MeshProcessor.measureAcmr(triangles, vertices.length);
+    report.triangleCount = triangles.length / 3;
+
+    // Step 8
+    return new Mesh(raw.getName(), vertices, faces, triangles, faceStart, faceIndexCount, drawOrder,
+      MeshProcessor.collectEdges(faces, weldedOf), report);
+  }
+
+  /**
+   * Simulates a FIFO post-transform vertex cache of <code>MEASURE_CACHE_SIZE</code> entries over
+   * the given triangle list and returns the number of cache misses per triangle.
+   *
+   * @param triangles <code>int[]</code> indexed triangle list
+   * @param vertexCount <code>int</code>
+   * @return <code>double</code> average cache miss ratio, or 0 for an empty list
+   */
+  protected static double measureAcmr(int[] triangles, int vertexCount) {
+
+    // Declarations
+    int[] insertedAt;
+    int misses;
+
+    if (triangles.length == 0) {
+      return 0.0;
+    }
+
+    insertedAt = new int[vertexCount];
+    Arrays.fill(insertedAt, -MeshProcessor.MEASURE_CACHE_SIZE);
+    misses = 0;
+
+    // An entry is still cached if fewer than CACHE_SIZE misses have happened since its insertion
+    for (int index : triangles) {
+      if (misses - insertedAt[index] >= MeshProcessor.MEASURE_CACHE_SIZE) {
+        insertedAt[index] = misses;
+        misses++;
+      }
+    }
+
+    return (double) misses / (triangles.length / 3);
+  }
+
+  // Helper methods
+
+  /**
+   * Step 1: merges vertices whose positions coincide within <code>WELD_EPSILON</code>. The
+   * provided <code>remap</code> array is filled with the new index of every original vertex.
+   *
+   * @param vertices <code>double[][]</code> original positions
+   * @param remap <code>int[]</code> output, one entry per original vertex
+   * @param report <code>MeshProcessor.Report</code>
+   * @return <code>double[][]</code> welded positions
+   */
+  private static double[][] weld(double[][] vertices, int[] remap, Report report) {
+
+    // Declarations
+    HashMap<String, Integer> positions;
+    ArrayList<double[]> welded;
+    String key;
+    Integer existing;
+
+    positions = new HashMap<>();
+    welded = new ArrayList<>();
+
+    for (int i = 0; i < vertices.length; i++) {
+      key = Math.round(vertices[i][0] / MeshProcessor.WELD_EPSILON) + ","
+        + Math.round(vertices[i][1] / MeshProcessor.WELD_EPSILON) + ","
+        + Math.round(vertices[i][2] / MeshProcessor.WELD_EPSILON);
+      existing = positions.get(key);
+
+      if (existing == null) {
+        existing = welded.size();
+        positions.put(key, existing);
+        welded.add(vertices[i].clone());
+      } else {
+        report.weldedVertices++;
+      }
+
+      remap[i] = existing;
+    }
+
+    return welded.toArray(new double[0][]);
+  }
+
+  /**
+   * Last part of step 1, run once faces have been cleaned: drops vertices no surviving face
+   * refers to, renumbering the faces' indices in place.
+   *
+   * @param vertices <code>double[][]</code> welded positions
+   * @param faces <code>int[][]</code> cleaned faces, modified in place
+   * @param report <code>MeshProcessor.Report</code>
+   * @return <code>double[][]</code> positions of used vertices only
+   */
+  private static double[][] compact(double[][] vertices, int[][] faces, Report report) {
+
+    // Declarations
+    int[] remap;
+    int used;
+    double[][] compacted;
+
+    remap = new int[vertices.length];
+    Arrays.fill(remap, -1);
+    used = 0;
+
+    for (int[] face : faces) {
+      for (int i = 0; i < face.length; i++) {
+        if (remap[face[i]] < 0) {
+          remap[face[i]] = used++;
+        }
+
+        face[i] = remap[face[i]];
+      }
+    }
+
+    report.unusedVertices = vertices.length - used;
+    compacted = new double[used][];
+
+    for (int v = 0; v < vertices.length; v++) {
+      if (remap[v] >= 0) {
+        compacted[remap[v]] = vertices[v];
+      }
+    }
+
+    return compacted;
+  }
+
+  /**
+   * Steps 2 and 3: remaps every face onto the welded vertices, collapses repeated consecutive
+   * indices, and drops faces that are degenerate or duplicate an earlier face.
+   *
+   * @param faces <code>int[][]</code> original faces
+   * @param remap <code>int[]</code> from <code>MeshProcessor.weld</code>
+   * @param vertices <code>double[][]</code> welded positions
+   * @param report <code>MeshProcessor.Report</code>
+   * @return <code>int[][]</code> surviving faces, in their original relative order
+   */
+  private static int[][] cleanFaces(int[][] faces, int[] remap, double[][] vertices,
+      Report report) {
+
+    // Declarations
+    ArrayList<int[]> kept;
+    HashSet<String> seen;
+    int[] face, sorted;
+    int length, index;
+
+    kept = new ArrayList<>();
+    seen = new HashSet<>();
+
+    for (int[] original : faces) {
+      face = new int[original.length];
+      length = 0;
+
+      // Remap and drop consecutive repeats, including the wrap-around pair
+      for (int i = 0; i < original.length; i++) {
+        index = remap[original[i]];
+
+        if (length == 0 || face[length - 1] != index) {
+          face[length++] = index;
+        }
+      }
+
+      while (length > 1 && face[length - 1] == face[0]) {
+        length--;
+      }
+
+      face = Arrays.copyOf(face, length);
+
+      if (length < 3 || MeshProcessor.area(face, vertices) < MeshProcessor.AREA_EPSILON) {
+        report.degenerateFaces++;
+        continue;
+      }
+
+      sorted = face.clone();
+      Arrays.sort(sorted);
+
+      if (!seen.add(Arrays.toString(sorted))) {
+        report.duplicateFaces++;
+        continue;
+      }
+
+      kept.add(face);
+    }
+
+    return kept.toArray(new int[0][]);
+  }
+
+  /**
+   * Step 4: counts directed edges traversed by more than one face. Two correctly wound
+   * neighboring faces traverse their shared edge in opposite directions, so each such edge points
+   * to a pair of faces wound inconsistently relative to each other.
+   *
+   * @param faces <code>int[][]</code>
+   * @return <code>int</code>
+   */
+  protected static int countInconsistentEdges(int[][] faces) {
+
+    // Declarations
+    HashSet<Long> directed;
+    int inconsistent;
+    long key;
+
+    directed = new HashSet<>();
+    inconsistent = 0;
+
+    for (int[] face : faces) {
+      for (int i = 0; i < face.length; i++) {
+        key = ((long) face[i] << 32) | face[(i + 1) % face.length];
+
+        if (!directed.add(key)) {
+          inconsistent++;
+        }
+      }
+    }
+
+    return inconsistent;
+  }
+
+  /**
+   * Second half of step 4: orients every face outward, reversing face arrays in place, and records
+   * in the report whether the mesh is a closed, orientable manifold that may be culled safely.
+   *
+   * @param vertices <code>double[][]</code>
+   * @param faces <code>int[][]</code> modified in place
+   * @param report <code>MeshProcessor.Report</code>
+   * @return void
+   */
+  private static void normalizeWinding(double[][] vertices, int[][] faces, Report report) {
+
+    // Declarations
+    HashMap<Long, int[]> edgeFaces;
+    int[] users, component, queue, face;
+    boolean[] flipped;
+    double[] centroid;
+    int components, head, tail, current, neighbor, a, b;
+    boolean isOrientable, isClosed, sameDirection;
+    double measure;
+    long key;
+
+    // Undirected edge -> {use count, first face, second face}
+    edgeFaces = new HashMap<>();
+
+    for (int f = 0; f < faces.length; f++) {
+      for (int i = 0; i < faces[f].length; i++) {
+        key = MeshProcessor.edgeKey(faces[f][i], faces[f][(i + 1) % faces[f].length]);
+        users = edgeFaces.computeIfAbsent(key, (Long k) -> new int[] {0, -1, -1});
+
+        if (users[0] < 2) {
+          users[users[0] + 1] = f;
+        }
+
+        users[0]++;
+      }
+    }
+
+    for (int[] entry : edgeFaces.values()) {
+      if (entry[0] == 1) {
+        report.boundaryEdges++;
+      } else if (entry[0] > 2) {
+        report.nonManifoldEdges++;
+      }
+    }
+
+    // Flood fill consistent orientation across two-face edges
+    component = new int[faces.length];
+    flipped = new boolean[faces.length];
+    queue = new int[faces.length];
+    Arrays.fill(component, -1);
+    components = 0;
+    isOrientable = true;
+
+    for (int seed = 0; seed < faces.length; seed++) {
+      if (component[seed] >= 0) {
+        continue;
+      }
+
+      component[seed] = components;
+      head = 0;
+      tail = 0;
+      queue[tail++] = seed;
+
+      while (head < tail) {
+        current = queue[head++];
+        face = faces[current];
+
+        for (int i = 0; i < face.length; i++) {
+          a = face[i];
+          b = face[(i + 1) % face.length];
+          users = edgeFaces.get(MeshProcessor.edgeKey(a, b));
+
+          if (users[0] != 2) {
+            continue;
+          }
+
+          neighbor = (users[1] == current) ? users[2] : users[1];
+          sameDirection = MeshProcessor.hasDirectedEdge(faces[neighbor], a, b);
+
+          if (component[neighbor] < 0) {
+            component[neighbor] = components;
+
+            // Neighbor must run the shared edge the other way
+            if (sameDirection) {
+              MeshProcessor.reverse(faces[neighbor]);
+              flipped[neighbor] = !flipped[neighbor];
+            }
+
+            queue[tail++] = neighbor;
+          } else if (sameDirection) {
+            isOrientable = false;
+          }
+        }
+      }
+
+      components++;
+    }
+
+    // Decide per patch whether it faces inward, and if so flip it as a whole
+    centroid = MeshProcessor.centroid(vertices);
+
+    for (int c = 0; c < components; c++) {
+      isClosed = true;
+      measure = 0.0;
+
+      for (int f = 0; f < faces.length; f++) {
+        if (component[f] != c) {
+          continue;
+        }
+
+        for (int i = 0; i < faces[f].length && isClosed; i++) {
+          isClosed = edgeFaces.get(MeshProcessor.edgeKey(faces[f][i],
+            faces[f][(i + 1) % faces[f].length]))[0] == 2;
+        }
+      }
+
+      for (int f = 0; f < faces.length; f++) {
+        if (component[f] == c) {
+          measure += (isClosed)
+            ? MeshProcessor.signedVolume(faces[f], vertices, centroid)
+            : MeshProcessor.outwardness(faces[f], vertices, centroid);
+        }
+      }
+
+      if (measure < 0.0) {
+        for (int f = 0; f < faces.length; f++) {
+          if (component[f] == c) {
+            MeshProcessor.reverse(faces[f]);
+            flipped[f] = !flipped[f];
+          }
+        }
+      }
+    }
+
+    for (boolean isFlipped : flipped) {
+      report.flippedFaces += (isFlipped) ? 1 : 0;
+    }
+
+    report.isCullable = isOrientable && components == 1 && report.boundaryEdges == 0
+      && report.nonManifoldEdges == 0;
+  }
+
+  /**
+   * Returns six times the signed volume of the tetrahedra spanned by a face's fan triangles and
+   * the given reference point; summed over a closed surface, this is positive if it faces outward.
+   *
+   * @param face <code>int[]</code>
+   * @param vertices <code>double[][]</code>
+   * @param origin <code>double[]</code>
+   * @return <code>double</code>
+   */
+  private static double signedVolume(int[] face, double[][] vertices, double[] origin) {
+
+    // Declarations
+    double volume;
+    double[] p, q, r;
+
+    volume = 0.0;
+    p = vertices[face[0]];
+
+    for (int i = 1; i + 1 < face.length; i++) {
+      q = vertices[face[i]];
+      r = vertices[face[i + 1]];
+      volume += (p[0] - origin[0]) * ((q[1] - origin[1]) * (r[2] - origin[2])
+          - (q[2] - origin[2]) * (r[1] - origin[1]))
+        - (p[1] - origin[1]) * ((q[0] - origin[0]) * (r[2] - origin[2])
+          - (q[2] - origin[2]) * (r[0] - origin[0]))
+        + (p[2] - origin[2]) * ((q[0] - origin[0]) * (r[1] - origin[1])
+          - (q[1] - origin[1]) * (r[0] - origin[0]));
+    }
+
+    return volume;
+  }
+
+  /**
+   * Step 5: gives the faces around each vertex copies of it of their own wherever they meet at a
+   * crease. The faces using a vertex are grouped in turn, each joining the first group whose first
+   * face's normal lies within forty degrees of its own, and every group but the first
+   * is handed a new vertex, appended after the existing ones. Faces are rewritten in place.
+   *
+   * @param vertices <code>double[][]</code> welded positions, in outward winding
+   * @param faces <code>int[][]</code>
+   * @param report <code>MeshProcessor.Report</code>
+   * @return <code>int[]</code> welded vertex of every vertex, existing and new
+   */
+  private static int[] splitCreases(double[][] vertices, int[][] faces, Report report) {
+
+    // Declarations
+    double[][] normals;
+    ArrayList<ArrayList<int[]>> corners;
+    ArrayList<double[]> seeds;
+    ArrayList<Integer> copies, weldedOf;
+    int group;
+
+    normals = new double[faces.length][];
+    corners = new ArrayList<>(vertices.length);
+    seeds = new ArrayList<>();
+    copies = new ArrayList<>();
+    weldedOf = new ArrayList<>(vertices.length);
+
+    for (int v = 0; v < vertices.length; v++) {
+      corners.add(new ArrayList<>());
+      weldedOf.add(v);
+    }
+
+    for (int f = 0; f < faces.length; f++) {
+      normals[f] = MeshProcessor.unitNormal(faces[f], vertices);
+
+      for (int i = 0; i < faces[f].length; i++) {
+        corners.get(faces[f][i]).add(new int[] {f, i});
+      }
+    }
+
+    for (int v = 0; v < vertices.length; v++) {
+      seeds.clear();
+      copies.clear();
+
+      for (int[] corner : corners.get(v)) {
+        group = -1;
+
+        for (int g = 0; g < seeds.size() && group < 0; g++) {
+          if (MeshProcessor.dot(seeds.get(g), normals[corner[0]])
+              >= MeshProcessor.CREASE_COSINE) {
+            group = g;
+          }
+        }
+
+        if (group < 0) {
+          group = seeds.size();
+          seeds.add(normals[corner[0]]);
+
+          if (group == 0) {
+            copies.add(v);
+          } else {
+            copies.add(weldedOf.size());
+            weldedOf.add(v);
+            report.splitVertices++;
+          }
+        }
+
+        faces[corner[0]][corner[1]] = copies.get(group);
+      }
+    }
+
+    return weldedOf.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * Returns the unit (Newell) normal of a face.
+   *
+   * @param face <code>int[]</code>
+   * @param vertices <code>double[][]</code>
+   * @return <code>double[]</code>
+   */
+  private static double[] unitNormal(int[] face, double[][] vertices) {
+
+    // Declarations
+    double[] normal, a, b;
+    double length;
+
+    normal = new double[3];
+
+    for (int i = 0; i < face.length; i++) {
+      a = vertices[face[i]];
+      b = vertices[face[(i + 1) % face.length]];
+      normal[0] += (a[1] - b[1]) * (a[2] + b[2]);
+      normal[1] += (a[2] - b[2]) * (a[0] + b[0]);
+      normal[2] += (a[0] - b[0]) * (a[1] + b[1]);
+    }
+
+    length = Math.sqrt(MeshProcessor.dot(normal, normal));
+
+    for (int axis = 0; axis < 3 && length > 0.0; axis++) {
+      normal[axis] /= length;
+    }
+
+    return normal;
+  }
+
+  /**
+   * Returns the dot product of two vectors.
+   *
+   * @param a <code>double[]</code>
+   * @param b <code>double[]</code>
+   * @return <code>double</code>
+   */
+  private static double dot(double[] a, double[] b) {
+    return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+  }
+
+  /**
+   * Returns the dot product of a face's area-weighted (Newell) normal with the direction from the
+   * given center to the face's centroid, positive if the face points away from the center.
+   *
+   * @param face <code>int[]</code>
+   * @param vertices <code>double[][]</code>
+   * @param center <code>double[]</code>
+   * @return <code>double</code>
+   */
+  private static double outwardness(int[] face, double[][] vertices, double[] center) {
+
+    // Declarations
+    double[] normal, a, b;
+    double cx, cy, cz;
+
+    normal = new double[3];
+    cx = 0.0;
+    cy = 0.0;
+    cz = 0.0;
+
+    for (int i = 0; i < face.length; i++) {
+      a = vertices[face[i]];
+      b = vertices[face[(i + 1) % face.length]];
+      normal[0] += (a[1] - b[1]) * (a[2] + b[2]);
+      normal[1] += (a[2] - b[2]) * (a[0] + b[0]);
+      normal[2] += (a[0] - b[0]) * (a[1] + b[1]);
+      cx += a[0] / face.length;
+      cy += a[1] / face.length;
+      cz += a[2] / face.length;
+    }
+
+    return normal[0] * (cx - center[0]) + normal[1] * (cy - center[1])
+      + normal[2] * (cz - center[2]);
+  }
+
+  /**
+   * Returns the average position of all vertices.
+   *
+   * @param vertices <code>double[][]</code>
+   * @return <code>double[]</code>
+   */
+  private static double[] centroid(double[][] vertices) {
+
+    // Declaration
+    double[] centroid;
+
+    centroid = new double[3];
+
+    for (double[] vertex : vertices) {
+      centroid[0] += vertex[0] / vertices.length;
+      centroid[1] += vertex[1] / vertices.length;
+      centroid[2] += vertex[2] / vertices.length;
+    }
+
+    return centroid;
+  }
+
+  /**
+   * Whether the face traverses the directed edge <code>a -> b</code>.
+   *
+   * @param face <code>int[]</code>
+   * @param a <code>int</code>
+   * @param b <code>int</code>
+   * @return <code>boolean</code>
+   */
+  private static boolean hasDirectedEdge(int[] face, int a, int b) {
+    for (int i = 0; i < face.length; i++) {
+      if (face[i] == a && face[(i + 1) % face.length] == b) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Reverses the winding of a face in place.
+   *
+   * @param face <code>int[]</code>
+   * @return void
+   */
+  private static void reverse(int[] face) {
+
+    // Declaration
+    int swap;
+
+    for (int i = 0, j = face.length - 1; i < j; i++, j--) {
+      swap = face[i];
+      face[i] = face[j];
+      face[j] = swap;
+    }
+  }
+
+  /**
+   * Returns a key identifying the undirected edge between two vertices.
+   *
+   * @param a <code>int</code>
+   * @param b <code>int</code>
+   * @return <code>long</code>
+   */
+  private static long edgeKey(int a, int b) {
+    return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+  }
+
+  /**
+   * Step 6: triangulates every face as a fan around its first vertex, emitting faces in the given
+   * order, or in their natural order if none is provided.
+   *
+   * @param faces <code>int[][]</code>
+   * @param order <code>int[]</code> face emission order, or <code>null</code>
+   * @return <code>int[]</code> indexed triangle list
+   */
+  private static int[] triangulate(int[][] faces, int[] order) {
+
+    // Declarations
+    int[] triangles, face;
+    int total, offset;
+
+    total = 0;
+
+    for (int[] f : faces) {
+      total += (f.length - 2) * 3;
+    }
+
+    triangles = new int[total];
+    offset = 0;
+
+    for (int i = 0; i < faces.length; i++) {
+      face = faces[(order != null) ? order[i] : i];
+
+      for (int j = 1; j + 1 < face.length; j++) {
+        triangles[offset++] = face[0];
+        triangles[offset++] = face[j];
+        triangles[offset++] = face[j + 1];
+      }
+    }
+
+    return triangles;
+  }
+
+  /**
+   * Step 7: greedily orders the faces so as to maximize reuse of recently transformed vertices.
+   * Each vertex is scored by its position in a modeled LRU cache and by how many not-yet-emitted
+   * faces still use it, each face by the sum of its vertices' scores. At every step, the best face
+   * touching a cached vertex is emitted; only when none remains is the next unemitted face in the
+   * original order taken, keeping the whole pass close to linear in the size of the mesh.
+   *
+   * @param faces <code>int[][]</code>
+   * @param vertexCount <code>int</code>
+   * @return <code>int[]</code> face emission order
+   */
+  private static int[] optimizeFaceOrder(int[][] faces, int vertexCount) {
+
+    // Declarations
+    int[] valence, adjacencyStart, adjacency, fill, cachePosition, cache, nextCache, order;
+    boolean[] emitted;
+    double[] vertexScore;
+    int cacheSize, nextSize, cursor, best, vertex, largestFace;
+    double bestScore, score;
+
+    // Build vertex -> face adjacency (compressed rows)
+    valence = new int[vertexCount];
+    largestFace = 0;
+
+    for (int[] face : faces) {
+      largestFace = Math.max(largestFace, face.length);
+
+      for (int v : face) {
+        valence[v]++;
+      }
+    }
+
+    adjacencyStart = new int[vertexCount + 1];
+
+    for (int v = 0; v < vertexCount; v++) {
+      adjacencyStart[v + 1] = adjacencyStart[v] + valence[v];
+    }
+
+    adjacency = new int[adjacencyStart[vertexCount]];
+    fill = Arrays.copyOf(adjacencyStart, vertexCount);
+
+    for (int f = 0; f < faces.length; f++) {
+      for (int v : faces[f]) {
+        adjacency[fill[v]++] = f;
+      }
+    }
+
+    // Initial scores, nothing cached yet
+    cachePosition = new int[vertexCount];
+    vertexScore = new double[vertexCount];
+    Arrays.fill(cachePosition, -1);
+
+    for (int v = 0; v < vertexCount; v++) {
+      vertexScore[v] = MeshProcessor.scoreVertex(-1, valence[v], 0);
+    }
+
+    cache = new int[MeshProcessor.OPTIMIZE_CACHE_SIZE + largestFace];
+    nextCache = new int[cache.length];
+    cacheSize = 0;
+    emitted = new boolean[faces.length];
+    order = new int[faces.length];
+    cursor = 0;
+
+    for (int emittedCount = 0; emittedCount < faces.length; emittedCount++) {
+
+      // Best face touching the cache
+      best = -1;
+      bestScore = -1.0;
+
+      for (int c = 0; c < cacheSize; c++) {
+        vertex = cache[c];
+
+        for (int a = adjacencyStart[vertex]; a < adjacencyStart[vertex + 1]; a++) {
+          if (!emitted[adjacency[a]]) {
+            score = 0.0;
+
+            for (int v : faces[adjacency[a]]) {
+              score += vertexScore[v];
+            }
+
+            if (score > bestScore) {
+              bestScore = score;
+              best = adjacency[a];
+            }
+          }
+        }
+      }
+
+      // Cache exhausted, continue from the first unemitted face
+      if (best < 0) {
+        while (emitted[cursor]) {
+          cursor++;
+        }
+
+        best = cursor;
+      }
+
+      emitted[best] = true;
+      order[emittedCount] = best;
+
+      // Move the face's vertices to the front of the LRU cache
+      nextSize = 0;
+
+      for (int v : faces[best]) {
+        valence[v]--;
+        nextCache[nextSize++] = v;
+      }
+
+      for (int c = 0; c < cacheSize && nextSize < nextCache.length; c++) {
+        if (!MeshProcessor.contains(faces[best], cache[c])) {
+          nextCache[nextSize++] = cache[c];
+        }
+      }
+
+      // Vertices falling out of the cache lose their position score
+      for (int c = 0; c < cacheSize; c++) {
+        cachePosition[cache[c]] = -1;
+      }
+
+      cacheSize = Math.min(nextSize, MeshProcessor.OPTIMIZE_CACHE_SIZE + faces[best].length);
+
+      for (int c = 0; c < nextSize; c++) {
+        cachePosition[nextCache[c]] = (c < MeshProcessor.OPTIMIZE_CACHE_SIZE) ? c : -1;
+        vertexScore[nextCache[c]] = MeshProcessor.scoreVertex(cachePosition[nextCache[c]],
+          valence[nextCache[c]], faces[best].length);
+      }
+
+      System.arraycopy(nextCache, 0, cache, 0, cacheSize);
+    }
+
+    return order;
+  }
+
+  /**
+   * Forsyth's vertex score function, adapted for polygons by treating every vertex of the most
+   * recently emitted face as one of its "last triangle" vertices.
+   *
+   * @param cachePosition <code>int</code> LRU position, or -1 if not cached
+   * @param remainingValence <code>int</code> number of unemitted faces using the vertex
+   * @param lastFaceSize <code>int</code> vertex count of the most recently emitted face
+   * @return <code>double</code>
+   */
+  private static double scoreVertex(int cachePosition, int remainingValence, int lastFaceSize) {
+
+    // Declaration
+    double score;
+
+    if (remainingValence <= 0) {
+      return -1.0;
+    }
+
+    score = 0.0;
+
+    if (cachePosition >= 0 && cachePosition < lastFaceSize) {
+      score = MeshProcessor.LAST_FACE_SCORE;
+    } else if (cachePosition >= 0) {
+      score = Math.pow(1.0 - (double) (cachePosition - lastFaceSize)
+        / (MeshProcessor.OPTIMIZE_CACHE_SIZE - lastFaceSize), MeshProcessor.CACHE_DECAY_POWER);
+    }
+
+    return score + MeshProcessor.VALENCE_BOOST_SCALE
+      * Math.pow(remainingValence, -MeshProcessor.VALENCE_BOOST_POWER);
+  }
+
+  /**
+   * Step 8: returns every undirected edge of every face exactly once, as pairs of indices for a
+   * <code>GL2.GL_LINES</code> outline pass. Edges shared by two faces were previously outlined
+   * twice by their respective <code>GL2.GL_LINE_LOOP</code>s. Edges are told apart by their welded
+   * vertices, such that an edge along a crease, whose two faces hold copies of its vertices, is
+   * still only outlined once.
+   *
+   * @param faces <code>int[][]</code>
+   * @param weldedOf <code>int[]</code> welded vertex of every vertex, from step 5
+   * @return <code>int[]</code>
+   */
+  private static int[] collectEdges(int[][] faces, int[] weldedOf) {
+
+    // Declarations
+    HashSet<Long> seen;
+    int[] edges;
+    int count, a, b;
+
+    seen = new HashSet<>();
+    count = 0;
+
+    for (int[] face : faces) {
+      count += face.length;
+    }
+
+    edges = new int[count * 2];
+    count = 0;
+
+    for (int[] face : faces) {
+      for (int i = 0; i < face.length; i++) {
+        a = face[i];
+        b = face[(i + 1) % face.length];
+
+        if (seen.add(MeshProcessor.edgeKey(weldedOf[a], weldedOf[b]))) {
+          edges[count++] = Math.min(a, b);
+          edges[count++] = Math.max(a, b);
+        }
+      }
+    }
+
+    return Arrays.copyOf(edges, count);
+  }
+
+  /**
+   * Returns the area of a planar polygon using Newell's method.
+   *
+   * @param face <code>int[]</code>
+   * @param vertices <code>double[][]</code>
+   * @return <code>double</code>
+   */
+  private static double area(int[] face, double[][] vertices) {
+
+    // Declarations
+    double nx, ny, nz;
+    double[] a, b;
+
+    nx = 0.0;
+    ny = 0.0;
+    nz = 0.0;
+
+    for (int i = 0; i < face.length; i++) {
+      a = vertices[face[i]];
+      b = vertices[face[(i + 1) % face.length]];
+      nx += (a[1] - b[1]) * (a[2] + b[2]);
+      ny += (a[2] - b[2]) * (a[0] + b[0]);
+      nz += (a[0] - b[0]) * (a[1] + b[1]);
+    }
+
+    return Math.sqrt(nx * nx + ny * ny + nz * nz) / 2.0;
+  }
+
+  /**
+   * Linear search helper for the small per-face index arrays.
+   *
+   * @param array <code>int[]</code>
+   * @param value <code>int</code>
+   * @return <code>boolean</code>
+   */
+  private static boolean contains(int[] array, int value) {
+    for (int element : array) {
+      if (element == value) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Simple record of the defects found and fixed by <code>MeshProcessor.process</code> in a
+   * single mesh, posted to the status log once the scene has been built.
+   *
+   * @author Andrew Eissen
+   */
+  protected static final class Report {
+
+    // Class fields
+    private final String name;
+    private int weldedVertices, unusedVertices, degenerateFaces, duplicateFaces, splitVertices;
+    private int inconsistentEdges, flippedFaces, boundaryEdges, nonManifoldEdges, triangleCount;
+    private boolean isCullable;
+    private double acmrBefore, acmrAfter;
+
+    /**
+     * Parameterized constructor
+     *
+     * @param name <code>String</code>
+     */
+    private Report(String name) {
+      this.name = name;
+    }
+
+    // Getters
+
+    /**
+     * Getter for <code>Report.duplicateFaces</code>
+     *
+     * @return duplicateFaces <code>int</code>
+     */
+    protected int getDuplicateFaces() {
+      return this.duplicateFaces;
+    }
+
+    /**
+     * Getter for <code>Report.degenerateFaces</code>
+     *
+     * @return degenerateFaces <code>int</code>
+     */
+    protected int getDegenerateFaces() {
+      return this.degenerateFaces;
+    }
+
+    /**
+     * Getter for <code>Report.weldedVertices</code>
+     *
+     * @return weldedVertices <code>int</code>
+     */
+    protected int getWeldedVertices() {
+      return this.weldedVertices;
+    }
+
+    /**
+     * Getter for <code>Report.splitVertices</code>, copies made along creases
+     *
+     * @return splitVertices <code>int</code>
+     */
+    protected int getSplitVertices() {
+      return this.splitVertices;
+    }
+
+    /**
+     * Getter for <code>Report.inconsistentEdges</code>
+     *
+     * @return inconsistentEdges <code>int</code>
+     */
+    protected int getInconsistentEdges() {
+      return this.inconsistentEdges;
+    }
+
+    /**
+     * Getter for <code>Report.flippedFaces</code>
+     *
+     * @return flippedFaces <code>int</code>
+     */
+    protected int getFlippedFaces() {
+      return this.flippedFaces;
+    }
+
+    /**
+     * Getter for <code>Report.boundaryEdges</code>, edges used by a single face
+     *
+     * @return boundaryEdges <code>int</code>
+     */
+    protected int getBoundaryEdges() {
+      return this.boundaryEdges;
+    }
+
+    /**
+     * Getter for <code>Report.nonManifoldEdges</code>, edges used by three or more faces
+     *
+     * @return nonManifoldEdges <code>int</code>
+     */
+    protected int getNonManifoldEdges() {
+      return this.nonManifoldEdges;
+    }
+
+    /**
+     * Getter for <code>Report.isCullable</code>
+     *
+     * @return isCullable <code>boolean</code>
+     */
+    protected boolean getIsCullable() {
+      return this.isCullable;
+    }
+
+    /**
+     * Getter for <code>Report.acmrBefore</code>
+     *
+     * @return acmrBefore <code>double</code>
+     */
+    protected double getAcmrBefore() {
+      return this.acmrBefore;
+    }
+
+    /**
+     * Getter for <code>Report.acmrAfter</code>
+     *
+     * @return acmrAfter <code>double</code>
+     */
+    protected double getAcmrAfter() {
+      return this.acmrAfter;
+    }
+
+    /**
+     * Returns a single status log line summarizing the report.
+     *
+     * @return <code>String</code>
+     */
+    @Override
+    public String toString() {
+      return String.format(Locale.ROOT, "Mesh %s: %d triangles, %d welded, %d unused, %d split, "
+        + "%d degenerate, %d duplicate, %d misdirected edges, %d flipped, %s, ACMR %.3f -> %.3f",
+        this.name, this.triangleCount, this.weldedVertices, this.unusedVertices, this.splitVertices,
+        this.degenerateFaces, this.duplicateFaces, this.inconsistentEdges, this.flippedFaces,
+        (this.isCullable) ? "cullable" : "not cullable", this.acmrBefore, this.acmrAfter);
+    }
+
+    /**
+     * Returns a status log warning explaining why the mesh cannot be culled safely.
+     *
+     * @return <code>String</code>
+     */
+    protected String toManifoldWarning() {
+      return "Warning: mesh " + this.name + " is not a closed manifold (" + this.boundaryEdges
+        + " boundary edges, " + this.nonManifoldEdges + " non-manifold edges), drawn unculled";
+    }
+  }
+}
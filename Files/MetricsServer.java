@@ -0,0 +1,488 @@
+/**
+ * MetricsServer.java - Opt-in local endpoint exporting render metrics in Prometheus text format
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The status log and the frame timings printed by the benchmark are of no use to monitoring that
+ * scrapes its targets over HTTP. This utility class serves the state of the renderer at
+ * <code>/metrics</code> in the text format of Prometheus, through the HTTP server built into the
+ * JDK, once <code>MetricsServer.start</code> has been called by <code>Driver</code>. It is off
+ * unless a port is given as <code>-Dgraphicsprojecttwo.metrics.port=N</code>, and only ever
+ * listens on the loopback address.
+ * <br />
+ * <pre>
+ * Exported metrics, all prefixed with "graphicsprojecttwo_":
+ * - frames_total                 frames rendered, whose rate() is the frame rate
+ * - frame_time_ms                histogram of the time taken by display on the CPU
+ * - gpu_frame_time_ms            histogram of the time taken on the GPU, per FrameTimer
+ * - draw_calls_total             draw calls issued
+ * - gl_calls_total{category}     GL calls made by the renderer, as state, draw, matrix, or vertex
+ * - gl_calls_filtered_total      of those, calls dropped as redundant by GLStateFilter, likewise
+ * - triangles_total              triangles drawn
+ * - culled_total{reason}         objects left out as too small or as occluded
+ * - gpu_memory_bytes{kind}       geometry, textures, and framebuffers held on the GPU
+ * - heap_memory_bytes{area}      heap and non-heap memory used by the virtual machine
+ * - arena_memory_bytes           off-heap memory reserved by the geometry arena
+ * - log_entries_total            entries posted to the status log
+ * - capture_queue_depth          frames waiting for an encoder while capturing
+ * - animation_playing            whether the animation video is running
+ * - animation_step               step of the animation video
+ * </pre>
+ * The render thread updates the counters once per frame, through <code>LongAdder</code> and
+ * <code>DoubleAdder</code> accumulators whose writes are striped across cells rather than fought
+ * over, such that a scrape in progress never holds up a frame. The histograms are likewise kept as
+ * one accumulator per bucket and only made cumulative when scraped. The gauges are plain
+ * <code>volatile</code> fields, written by a single thread each. Nothing is allocated on the render
+ * thread, as <code>AllocationCheck</code> verifies by scraping the server throughout its measured
+ * frames, nor is anything recorded at all while the server is off.
+ * <br />
+ * <br />
+ * No frame rate is exported as such. A rate computed over the time since the previous scrape
+ * would be reset by every scraper in turn, such that two scraping the same program would each see
+ * nonsense. The frame rate is instead left to the query, as
+ * <code>rate(graphicsprojecttwo_frames_total[1m])</code>, over a window of its own choosing.
+ *
+ * @see graphicsprojecttwo.ScenePanel
+ * @author Andrew Eissen
+ */
+final class MetricsServer {
+
+  /** Port on which to serve, or zero to leave the server off */
+  private final static int PORT = Integer.getInteger("graphicsprojecttwo.metrics.port", 0);
+
+  /** Whether the server is to be started, a port having been given */
+  private final static boolean IS_ENABLED = MetricsServer.PORT > 0;
+
+  /** Prefix of the name of every metric */
+  private final static String PREFIX = "graphicsprojecttwo_";
+
+  /** Upper bounds of the buckets of the frame time histograms, in milliseconds */
+  private final static double[] BOUNDS = {2, 4, 8, 12, 16.667, 20, 25, 33.333, 50, 100, 250};
+
+  /** Labels of the GL call categories, indexed by the <code>GLStateFilter</code> constants */
+  private final static String[] GL_CATEGORIES = {"{category=\"state\"}", "{category=\"draw\"}",
+    "{category=\"matrix\"}", "{category=\"vertex\"}"};
+
+  /** Content type of the text format, version 0.0.4 */
+  private final static String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  // Counters
+  private final static LongAdder FRAMES = new LongAdder();
+  private final static LongAdder DRAW_CALLS = new LongAdder();
+  private final static LongAdder TRIANGLES = new LongAdder();
+  private final static LongAdder SKIPPED = new LongAdder();
+  private final static LongAdder OCCLUDED = new LongAdder();
+  private final static LongAdder LOG_ENTRIES = new LongAdder();
+  private final static LongAdder[] GL_CALLS = MetricsServer.adders(GLStateFilter.CATEGORIES);
+  private final static LongAdder[] FILTERED_GL_CALLS =
+    MetricsServer.adders(GLStateFilter.CATEGORIES);
+  private final static Histogram FRAME_TIMES = new Histogram();
+  private final static Histogram GPU_FRAME_TIMES = new Histogram();
+
+  // Gauges
+  private static volatile long geometryBytes, textureBytes, framebufferBytes;
+  private static volatile int captureQueueDepth, animationStep;
+  private static volatile boolean isAnimationPlaying;
+
+  // Whether anything is recorded, the server having been started
+  private static volatile boolean isRecording = false;
+
+  /**
+   * Private constructor, as this class only contains static utility methods
+   */
+  private MetricsServer() {}
+
+  // Getters
+
+  /**
+   * Returns whether metrics are recorded, callers skipping any work done only to record metrics
+   * otherwise.
+   *
+   * @return <code>boolean</code>
+   */
+  protected static boolean getIsEnabled() {
+    return MetricsServer.isRecording;
+  }
+
+  // Utility methods
+
+  /**
+   * Starts serving on the configured port of the loopback address, if the server is turned on.
+   *
+   * @return void
+   */
+  protected static void start() {
+    if (MetricsServer.IS_ENABLED) {
+      MetricsServer.serve(MetricsServer.PORT);
+    }
+  }
+
+  /**
+   * Starts serving on the given port of the loopback address, or on any free port if zero, on a
+   * daemon thread of its own, and turns recording on. Failure to bind is reported to standard
+   * error, leaving the program to run unmonitored.
+   *
+   * @param port <code>int</code>
+   * @return <code>InetSocketAddress</code> served on, or <code>null</code> if not served
+   */
+  protected static InetSocketAddress serve(int port) {
+
+    // Declaration
+    HttpServer server;
+
+    try {
+      server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+        0);
+    } catch (IOException ex) {
+      System.err.println("Metrics not served: " + ex);
+      return null;
+    }
+
+    server.createContext("/metrics", MetricsServer::handle);
+    server.setExecutor(Executors.newSingleThreadExecutor((Runnable r) -> {
+      Thread thread = new Thread(r, "metrics-server");
+      thread.setDaemon(true);
+      return thread;
+    }));
+
+    MetricsServer.isRecording = true;
+    server.start();
+    System.err.println("Serving metrics at http://" + server.getAddress().getHostString() + ":"
+      + server.getAddress().getPort() + "/metrics");
+    return server.getAddress();
+  }
+
+  /**
+   * Records a rendered frame, with the counts of its statistics and its timings.
+   *
+   * @param stats <code>RenderStats</code> of the frame
+   * @param frameMs <code>double</code> time taken on the CPU
+   * @param gpuMs <code>double</code> time taken on the GPU, or <code>Double.NaN</code> if unknown
+   * @return void
+   */
+  protected static void recordFrame(RenderStats stats, double frameMs, double gpuMs) {
+    if (!MetricsServer.isRecording) {
+      return;
+    }
+
+    MetricsServer.FRAMES.increment();
+    MetricsServer.DRAW_CALLS.add(stats.getDrawCalls());
+    MetricsServer.TRIANGLES.add(stats.getTriangles());
+    MetricsServer.SKIPPED.add(stats.getSkipped());
+    MetricsServer.OCCLUDED.add(stats.getOccluded());
+    MetricsServer.FRAME_TIMES.observe(frameMs);
+
+    for (int i = 0; i < GLStateFilter.CATEGORIES; i++) {
+      MetricsServer.GL_CALLS[i].add(stats.getGLCalls(i));
+      MetricsServer.FILTERED_GL_CALLS[i].add(stats.getFilteredGLCalls(i));
+    }
+
+    if (!Double.isNaN(gpuMs)) {
+      MetricsServer.GPU_FRAME_TIMES.observe(gpuMs);
+    }
+  }
+
+  /**
+   * Records the memory held on the GPU by the context rendering the scene.
+   *
+   * @param geometry <code>long</code> bytes of geometry buffers
+   * @param textures <code>long</code> bytes of textures
+   * @param framebuffers <code>long</code> bytes of offscreen framebuffers
+   * @return void
+   */
+  protected static void recordGPUMemory(long geometry, long textures, long framebuffers) {
+    MetricsServer.geometryBytes = geometry;
+    MetricsServer.textureBytes = textures;
+    MetricsServer.framebufferBytes = framebuffers;
+  }
+
+  /**
+   * Records the number of captured frames waiting for an encoder.
+   *
+   * @param depth <code>int</code>
+   * @return void
+   */
+  protected static void recordCaptureQueue(int depth) {
+    MetricsServer.captureQueueDepth = depth;
+  }
+
+  /**
+   * Records the state of the animation video.
+   *
+   * @param isPlaying <code>boolean</code>
+   * @param step <code>int</code> value of <code>ScenePanel.counter</code>
+   * @return void
+   */
+  protected static void recordAnimation(boolean isPlaying, int step) {
+    MetricsServer.isAnimationPlaying = isPlaying;
+    MetricsServer.animationStep = step;
+  }
+
+  /**
+   * Counts an entry posted to the status log.
+   *
+   * @return void
+   */
+  protected static void countLogEntry() {
+    if (MetricsServer.isRecording) {
+      MetricsServer.LOG_ENTRIES.increment();
+    }
+  }
+
+  // Helper methods
+
+  /**
+   * Handles a request to <code>/metrics</code>, answering <code>GET</code> with the text of every
+   * metric and anything else with status 405.
+   *
+   * @param exchange <code>HttpExchange</code>
+   * @return void
+   * @throws IOException if the response cannot be sent
+   */
+  private static void handle(HttpExchange exchange) throws IOException {
+
+    // Declaration
+    byte[] body;
+
+    try (exchange) {
+      if (!exchange.getRequestMethod().equals("GET")) {
+        exchange.getResponseHeaders().set("Allow", "GET");
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+
+      body = MetricsServer.scrape().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", MetricsServer.CONTENT_TYPE);
+      exchange.sendResponseHeaders(200, body.length);
+
+      try (OutputStream output = exchange.getResponseBody()) {
+        output.write(body);
+      }
+    }
+  }
+
+  /**
+   * Returns the text of every metric as of now. Scraping changes nothing, such that any number of
+   * scrapers may share the server.
+   *
+   * @return <code>String</code>
+   */
+  private static String scrape() {
+
+    // Declarations
+    StringBuilder text;
+    MemoryUsage heap, nonHeap;
+
+    // Definitions (cache values, limit method calls)
+    text = new StringBuilder(4096);
+    heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+
+    MetricsServer.header(text, "frames_total", "counter", "Frames rendered");
+    MetricsServer.sample(text, "frames_total", "", MetricsServer.FRAMES.sum());
+    MetricsServer.FRAME_TIMES.write(text, "frame_time_ms", "Time taken by a frame on the CPU");
+    MetricsServer.GPU_FRAME_TIMES.write(text, "gpu_frame_time_ms",
+      "Time taken by a frame on the GPU");
+
+    MetricsServer.header(text, "draw_calls_total", "counter", "Draw calls issued");
+    MetricsServer.sample(text, "draw_calls_total", "", MetricsServer.DRAW_CALLS.sum());
+    MetricsServer.header(text, "gl_calls_total", "counter", "GL calls made by the renderer");
+
+    for (int i = 0; i < GLStateFilter.CATEGORIES; i++) {
+      MetricsServer.sample(text, "gl_calls_total", MetricsServer.GL_CATEGORIES[i],
+        MetricsServer.GL_CALLS[i].sum());
+    }
+
+    MetricsServer.header(text, "gl_calls_filtered_total", "counter",
+      "GL calls dropped as redundant");
+
+    for (int i = 0; i < GLStateFilter.CATEGORIES; i++) {
+      MetricsServer.sample(text, "gl_calls_filtered_total", MetricsServer.GL_CATEGORIES[i],
+        MetricsServer.FILTERED_GL_CALLS[i].sum());
+    }
+    MetricsServer.header(text, "triangles_total", "counter", "Triangles drawn");
+    MetricsServer.sample(text, "triangles_total", "", MetricsServer.TRIANGLES.sum());
+    MetricsServer.header(text, "culled_total", "counter", "Objects left out of frames");
+    MetricsServer.sample(text, "culled_total", "{reason=\"small\"}", MetricsServer.SKIPPED.sum());
+    MetricsServer.sample(text, "culled_total", "{reason=\"occluded\"}",
+      MetricsServer.OCCLUDED.sum());
+
+    MetricsServer.header(text, "gpu_memory_bytes", "gauge", "Memory held on the GPU");
+    MetricsServer.sample(text, "gpu_memory_bytes", "{kind=\"geometry\"}",
+      MetricsServer.geometryBytes);
+    MetricsServer.sample(text, "gpu_memory_bytes", "{kind=\"textures\"}",
+      MetricsServer.textureBytes);
+    MetricsServer.sample(text, "gpu_memory_bytes", "{kind=\"framebuffers\"}",
+      MetricsServer.framebufferBytes);
+    MetricsServer.header(text, "heap_memory_bytes", "gauge", "Memory used by the virtual machine");
+    MetricsServer.sample(text, "heap_memory_bytes", "{area=\"heap\"}", heap.getUsed());
+    MetricsServer.sample(text, "heap_memory_bytes", "{area=\"nonheap\"}", nonHeap.getUsed());
+    MetricsServer.header(text, "arena_memory_bytes", "gauge",
+      "Off-heap memory reserved by the geometry arena");
+    MetricsServer.sample(text, "arena_memory_bytes", "",
+      GeometryArena.getShared().getBytesReserved());
+
+    MetricsServer.header(text, "log_entries_total", "counter", "Entries posted to the status log");
+    MetricsServer.sample(text, "log_entries_total", "", MetricsServer.LOG_ENTRIES.sum());
+    MetricsServer.header(text, "capture_queue_depth", "gauge",
+      "Captured frames waiting for an encoder");
+    MetricsServer.sample(text, "capture_queue_depth", "", MetricsServer.captureQueueDepth);
+    MetricsServer.header(text, "animation_playing", "gauge",
+      "Whether the animation video is running");
+    MetricsServer.sample(text, "animation_playing", "",
+      (MetricsServer.isAnimationPlaying) ? 1 : 0);
+    MetricsServer.header(text, "animation_step", "gauge", "Step of the animation video");
+    MetricsServer.sample(text, "animation_step", "", MetricsServer.animationStep);
+    return text.toString();
+  }
+
+  /**
+   * Returns the given number of counters, one per label of a labelled counter.
+   *
+   * @param count <code>int</code>
+   * @return <code>LongAdder[]</code>
+   */
+  private static LongAdder[] adders(int count) {
+
+    // Declaration
+    LongAdder[] adders;
+
+    adders = new LongAdder[count];
+
+    for (int i = 0; i < count; i++) {
+      adders[i] = new LongAdder();
+    }
+
+    return adders;
+  }
+
+  /**
+   * Appends the help and type lines of the given metric.
+   *
+   * @param text <code>StringBuilder</code>
+   * @param name <code>String</code> unprefixed name
+   * @param type <code>String</code> "counter", "gauge", or "histogram"
+   * @param help <code>String</code>
+   * @return void
+   */
+  private static void header(StringBuilder text, String name, String type, String help) {
+    text.append("# HELP ").append(MetricsServer.PREFIX).append(name).append(' ').append(help)
+      .append('\n');
+    text.append("# TYPE ").append(MetricsServer.PREFIX).append(name).append(' ').append(type)
+      .append('\n');
+  }
+
+  /**
+   * Appends a single sample of the given metric.
+   *
+   * @param text <code>StringBuilder</code>
+   * @param name <code>String</code> unprefixed name, with any suffix
+   * @param labels <code>String</code> braced labels, or empty
+   * @param value <code>double</code>
+   * @return void
+   */
+  private static void sample(StringBuilder text, String name, String labels, double value) {
+    text.append(MetricsServer.PREFIX).append(name).append(labels).append(' ');
+
+    // Integral values are written without a fraction, as counters usually are
+    if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+      text.append((long) value);
+    } else {
+      text.append(String.format(Locale.ROOT, "%.6g", value));
+    }
+
+    text.append('\n');
+  }
+
+  // Inner helper classes
+
+  /**
+   * Histogram of frame times over <code>MetricsServer.BOUNDS</code>, counting each observation
+   * into the first bucket holding it, or the last for those above every bound.
+   *
+   * @author Andrew Eissen
+   */
+  private static final class Histogram {
+
+    // Class fields
+    private final LongAdder[] buckets;
+    private final DoubleAdder sum;
+
+    /**
+     * Default constructor
+     */
+    private Histogram() {
+      this.buckets = new LongAdder[MetricsServer.BOUNDS.length + 1];
+      this.sum = new DoubleAdder();
+
+      for (int i = 0; i < this.buckets.length; i++) {
+        this.buckets[i] = new LongAdder();
+      }
+    }
+
+    /**
+     * Counts the given observation.
+     *
+     * @param value <code>double</code> milliseconds
+     * @return void
+     */
+    private void observe(double value) {
+
+      // Declaration
+      int bucket;
+
+      bucket = 0;
+
+      while (bucket < MetricsServer.BOUNDS.length && value > MetricsServer.BOUNDS[bucket]) {
+        bucket++;
+      }
+
+      this.buckets[bucket].increment();
+      this.sum.add(value);
+    }
+
+    /**
+     * Appends the histogram as cumulative buckets, followed by its sum and count.
+     *
+     * @param text <code>StringBuilder</code>
+     * @param name <code>String</code> unprefixed name
+     * @param help <code>String</code>
+     * @return void
+     */
+    private void write(StringBuilder text, String name, String help) {
+
+      // Declaration
+      long count;
+
+      MetricsServer.header(text, name, "histogram", help);
+      count = 0;
+
+      for (int i = 0; i < this.buckets.length; i++) {
+        count += this.buckets[i].sum();
+        MetricsServer.sample(text, name + "_bucket", (i < MetricsServer.BOUNDS.length)
+          ? String.format(Locale.ROOT, "{le=\"%s\"}", MetricsServer.BOUNDS[i])
+          : "{le=\"+Inf\"}", count);
+      }
+
+      MetricsServer.sample(text, name + "_sum", "", this.sum.sum());
+      MetricsServer.sample(text, name + "_count", "", count);
+    }
+  }
+}
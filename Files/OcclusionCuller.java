@@ -0,0 +1,879 @@
+/**
+ * OcclusionCuller.java - Skipping of objects hidden behind others, on the GPU or the CPU
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import com.jogamp.opengl.GL2;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * In dense scenes, most objects sit behind others and contribute nothing to the frame, yet still
+ * cost their draw calls. This class decides, per node of the <code>SceneGraph</code>, whether an
+ * object is worth drawing at all, in one of two ways depending on the driver.
+ * <br />
+ * <br />
+ * Where occlusion queries are supported, each object is drawn inside a
+ * <code>GL_SAMPLES_PASSED</code> query, and objects found hidden are replaced in later frames by
+ * an invisible query of their bounding box, drawn after every visible object with color and depth
+ * writes off. Rather than waiting on the results, which would stall the pipeline, the culler relies
+ * on temporal coherence: each frame uses whatever visibility the most recently completed query of
+ * an object reported, collected without blocking at the start of the frame. Visible objects are
+ * only requeried every <code>OcclusionCuller.REQUERY_INTERVAL</code> frames, staggered by node,
+ * while hidden ones are requeried as soon as their previous query completes, such that objects
+ * coming into view appear within a frame or two. As a frame may thus show stale visibility,
+ * <code>OcclusionCuller.getIsSettled</code> tells the render-on-demand mode of
+ * <code>ScenePanel</code> whether another frame is needed to catch up. To that end, every query is
+ * stamped with the generation of the view it was issued in, a new generation beginning whenever
+ * the camera, the projection, or the graph changes. Hidden objects are only requeried until a
+ * query of the current generation has reported on them, and the culler is only settled once each
+ * hidden object has such a report and none of the reports collected changed what is drawn.
+ * <br />
+ * <br />
+ * Without occlusion queries, a coarse hierarchical depth buffer is rasterized on the CPU instead,
+ * at the start of every frame. Only meshes that <code>Mesh.getIsOccluder</code> reports to be
+ * closed boxes serve as occluders, their oriented bounding boxes being exact proxies of their
+ * shapes, and only if they cover enough of the buffer to be worth rasterizing. A texel is only
+ * written where a face of the proxy covers it entirely, and always with the farthest depth of the
+ * face over the texel, so that the buffer never claims more than is actually hidden. Levels of
+ * half the resolution are then built by keeping the farthest depth of each two by two block, and
+ * each object is tested by comparing the nearest depth of its world bounds to the farthest depths
+ * of the at most four texels of the first level at which its bounds on screen span no more than
+ * two texels along either axis.
+ * <br />
+ * <br />
+ * The method is picked through the <code>graphicsprojecttwo.occlusion</code> system property,
+ * one of <code>auto</code> (the default, preferring queries), <code>gpu</code>, <code>cpu</code>,
+ * or <code>off</code>. An instance belongs to the <code>SceneRenderer</code> of a single context,
+ * and must only be used from the thread owning it.
+ *
+ * @see graphicsprojecttwo.SceneRenderer
+ * @author Andrew Eissen
+ */
+final class OcclusionCuller {
+
+  /** Methods of deciding visibility */
+  protected enum Mode { AUTO, GPU, CPU, OFF }
+
+  /** Method requested, "auto" unless overridden */
+  private final static String MODE =
+    System.getProperty("graphicsprojecttwo.occlusion", "auto");
+
+  /** Number of frames between queries of an object last found visible */
+  private final static int REQUERY_INTERVAL = 8;
+
+  /** Width of the finest level of the software depth buffer */
+  private final static int DEPTH_WIDTH = 128;
+
+  /** Height of the finest level of the software depth buffer */
+  private final static int DEPTH_HEIGHT = 96;
+
+  /** Number of texels an occluder must span on screen to be rasterized */
+  private final static double MIN_OCCLUDER_TEXELS = 16.0;
+
+  /** Corners of each face of a box, corners numbered by bit 0 for x, 1 for y, and 2 for z */
+  private final static int[] BOX_FACES = {
+    0, 2, 6, 4,   1, 5, 7, 3,   0, 4, 5, 1,   2, 3, 7, 6,   0, 1, 3, 2,   4, 6, 7, 5
+  };
+
+  // Class fields
+  private final Mode requested;
+  private final int[] result;
+  private final float[] view, projection, clip, corners, quadX, quadY, quadZ;
+  private final float[][] levels;
+  private final int[] levelWidth, levelHeight;
+  private Mode mode;
+  private final float[] lastClip;
+  private int[] queries, queried, resolved;
+  private boolean[] isVisible, isPending;
+  private float[] bounds;
+  private double left, right, bottom, top, near, far;
+  private int frame, activeNode, generation;
+  private SceneGraph lastSceneGraph;
+  private boolean isSettled, isChanged;
+
+  /**
+   * Default constructor, configured from the system properties
+   */
+  protected OcclusionCuller() {
+    this(OcclusionCuller.parseMode(OcclusionCuller.MODE));
+  }
+
+  /**
+   * Parameterized constructor
+   *
+   * @param requested <code>OcclusionCuller.Mode</code> method to use where supported
+   */
+  protected OcclusionCuller(Mode requested) {
+
+    // Declaration
+    int count;
+
+    count = 1;
+
+    for (int w = OcclusionCuller.DEPTH_WIDTH, h = OcclusionCuller.DEPTH_HEIGHT; w > 1 || h > 1;
+        w = (w + 1) / 2, h = (h + 1) / 2) {
+      count++;
+    }
+
+    this.requested = requested;
+    this.mode = Mode.OFF;
+    this.result = new int[1];
+    this.view = new float[16];
+    this.projection = new float[16];
+    this.clip = new float[16];
+    this.lastClip = new float[16];
+    this.corners = new float[24];
+    this.quadX = new float[4];
+    this.quadY = new float[4];
+    this.quadZ = new float[4];
+    this.levels = new float[count][];
+    this.levelWidth = new int[count];
+    this.levelHeight = new int[count];
+
+    for (int i = 0, w = OcclusionCuller.DEPTH_WIDTH, h = OcclusionCuller.DEPTH_HEIGHT;
+        i < count; i++, w = (w + 1) / 2, h = (h + 1) / 2) {
+      this.levels[i] = new float[w * h];
+      this.levelWidth[i] = w;
+      this.levelHeight[i] = h;
+    }
+
+    this.queries = new int[0];
+    this.queried = new int[0];
+    this.resolved = new int[0];
+    this.isVisible = new boolean[0];
+    this.isPending = new boolean[0];
+    this.bounds = new float[0];
+    this.frame = 0;
+    this.activeNode = SceneGraph.NONE;
+    this.generation = 1;
+    this.lastSceneGraph = null;
+    this.isSettled = true;
+    this.isChanged = false;
+    this.setProjection(-1.0, 1.0, -1.0, 1.0, -1.0, 1.0);
+  }
+
+  // Setters
+
+  /**
+   * Records the orthographic projection applied by <code>SceneRenderer.reshape</code>, in the
+   * terms of <code>glOrtho</code>. Queries issued under the previous projection are outdated.
+   *
+   * @param left <code>double</code>
+   * @param right <code>double</code>
+   * @param bottom <code>double</code>
+   * @param top <code>double</code>
+   * @param near <code>double</code>
+   * @param far <code>double</code>
+   * @return void
+   */
+  protected void setProjection(double left, double right, double bottom, double top, double near,
+      double far) {
+    this.left = left;
+    this.right = right;
+    this.bottom = bottom;
+    this.top = top;
+    this.near = near;
+    this.far = far;
+    this.advance();
+  }
+
+  // Getters
+
+  /**
+   * Getter for <code>OcclusionCuller.mode</code>, the method in use in the current context
+   *
+   * @return mode <code>OcclusionCuller.Mode</code>
+   */
+  protected Mode getMode() {
+    return this.mode;
+  }
+
+  /**
+   * Returns whether the visibility used by the last frame is known to be current, such that
+   * rendering the same scene again would draw the same objects. Only queries lag behind: the
+   * culler is settled once every hidden node has been queried in the current generation of the
+   * view, every such query has been collected, and none of the results collected by the frame
+   * changed the visibility of its node.
+   *
+   * @return <code>boolean</code>
+   */
+  protected boolean getIsSettled() {
+    return this.isSettled;
+  }
+
+  /**
+   * Returns whether the given node should be drawn this frame.
+   *
+   * @param node <code>int</code>
+   * @return <code>boolean</code>
+   */
+  protected boolean getIsVisible(int node) {
+    switch (this.mode) {
+      case GPU:
+        return this.isVisible[node];
+      case CPU:
+        return this.testDepth(node);
+      default:
+        return true;
+    }
+  }
+
+  // Utility methods
+
+  /**
+   * Picks the method used in a new context. As the queries of any previous context are gone with
+   * it, every object starts out visible.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  protected void init(GL2 gl2) {
+
+    // Declaration
+    boolean isSupported;
+
+    isSupported = gl2.isExtensionAvailable("GL_VERSION_1_5")
+      || gl2.isExtensionAvailable("GL_ARB_occlusion_query");
+
+    switch (this.requested) {
+      case AUTO:
+      case GPU:
+        this.mode = (isSupported) ? Mode.GPU : Mode.CPU;
+        break;
+      default:
+        this.mode = this.requested;
+        break;
+    }
+
+    this.queries = new int[0];
+    this.queried = new int[0];
+    this.resolved = new int[0];
+    this.isVisible = new boolean[0];
+    this.isPending = new boolean[0];
+    this.activeNode = SceneGraph.NONE;
+    this.lastSceneGraph = null;
+    this.isSettled = true;
+  }
+
+  /**
+   * Starts a new frame on the thread owning the context, collecting the results of any queries
+   * completed since the last frame. The graph must have been updated beforehand, such that any
+   * node it moved begins a new generation.
+   *
+   * @param gl2 <code>GL2</code>
+   * @param sceneGraph <code>SceneGraph</code>
+   * @return void
+   */
+  protected void begin(GL2 gl2, SceneGraph sceneGraph) {
+    this.frame++;
+    this.isChanged = false;
+
+    if (this.mode == Mode.GPU) {
+      if (sceneGraph != this.lastSceneGraph || sceneGraph.size() > this.queries.length
+          || sceneGraph.getLastUpdateCount() > 0) {
+        this.lastSceneGraph = sceneGraph;
+        this.advance();
+      }
+
+      this.ensureCapacity(gl2, sceneGraph.size());
+      this.collect(gl2);
+    }
+  }
+
+  /**
+   * Prepares the visibility of the given graph's nodes as seen through the given camera, which
+   * without queries means rasterizing the occluders, and with them beginning a new generation if
+   * the camera has moved since the last frame. Unlike the other methods, this one makes no
+   * GL calls, and so may run on any thread, as long as it follows
+   * <code>OcclusionCuller.begin</code> and precedes any use of the visibility.
+   *
+   * @param camera <code>SceneCamera</code>
+   * @param sceneGraph <code>SceneGraph</code>
+   * @return void
+   */
+  protected void prepare(SceneCamera camera, SceneGraph sceneGraph) {
+    this.bounds = sceneGraph.getWorldBounds();
+
+    if (this.mode == Mode.CPU) {
+      this.rasterize(camera, sceneGraph);
+    } else if (this.mode == Mode.GPU) {
+      this.computeClip(camera);
+
+      if (!Arrays.equals(this.clip, this.lastClip)) {
+        System.arraycopy(this.clip, 0, this.lastClip, 0, this.clip.length);
+        this.advance();
+      }
+    }
+  }
+
+  /**
+   * Returns whether the given visible node is to be drawn within an occlusion query this frame.
+   * Like <code>OcclusionCuller.prepare</code>, this method makes no GL calls.
+   *
+   * @param node <code>int</code>
+   * @return <code>boolean</code>
+   */
+  protected boolean getIsQueryDue(int node) {
+    return this.mode == Mode.GPU && !this.isPending[node]
+      && (this.frame + node) % OcclusionCuller.REQUERY_INTERVAL == 0;
+  }
+
+  /**
+   * Opens the occlusion query of the given node, as it is about to be drawn.
+   *
+   * @param gl <code>GLStateFilter</code>
+   * @param node <code>int</code>
+   * @return void
+   */
+  protected void beginQuery(GLStateFilter gl, int node) {
+    gl.glBeginQuery(GL2.GL_SAMPLES_PASSED, this.queries[node]);
+    this.queried[node] = this.generation;
+    this.activeNode = node;
+  }
+
+  /**
+   * Closes the occlusion query opened by <code>OcclusionCuller.beginQuery</code>, if any.
+   *
+   * @param gl <code>GLStateFilter</code>
+   * @return void
+   */
+  protected void endQuery(GLStateFilter gl) {
+    if (this.activeNode != SceneGraph.NONE) {
+      gl.glEndQuery(GL2.GL_SAMPLES_PASSED);
+      this.isPending[this.activeNode] = true;
+      this.activeNode = SceneGraph.NONE;
+    }
+  }
+
+  /**
+   * Queries the bounding boxes of hidden nodes against the depth of the finished frame, once every
+   * visible node has been drawn, and decides whether the frame is settled. A hidden node is only
+   * queried if no query of the current generation has reported on it yet, such that a still scene
+   * stops issuing queries once every hidden node has been confirmed hidden.
+   *
+   * @param gl <code>GLStateFilter</code>
+   * @param sceneGraph <code>SceneGraph</code>
+   * @return void
+   */
+  protected void end(GLStateFilter gl, SceneGraph sceneGraph) {
+
+    // Declarations
+    float[] bounds;
+    boolean isDrawing;
+    int o;
+
+    if (this.mode != Mode.GPU) {
+      return;
+    }
+
+    bounds = sceneGraph.getWorldBounds();
+    isDrawing = false;
+    this.isSettled = !this.isChanged;
+
+    for (int node = 0; node < sceneGraph.size(); node++) {
+      if (this.isVisible[node] || sceneGraph.getSceneObject(node) == null) {
+        continue;
+      }
+
+      // Hidden until a query of this generation says otherwise, whether still out or yet to go
+      if (this.isPending[node]) {
+        this.isSettled = false;
+        continue;
+      } else if (this.resolved[node] == this.generation) {
+        continue;
+      }
+
+      this.isSettled = false;
+
+      // Proxies leave no trace in the frame, and are seen from inside as well as outside
+      if (!isDrawing) {
+        gl.glColorMask(false, false, false, false);
+        gl.glDepthMask(false);
+        gl.glDisable(GL2.GL_CULL_FACE);
+        isDrawing = true;
+      }
+
+      o = node * 6;
+      gl.glBeginQuery(GL2.GL_SAMPLES_PASSED, this.queries[node]);
+      gl.glBegin(GL2.GL_QUADS);
+
+      for (int i = 0; i < OcclusionCuller.BOX_FACES.length; i++) {
+        gl.glVertex3f(bounds[o + (OcclusionCuller.BOX_FACES[i] & 1) * 3],
+          bounds[o + 1 + ((OcclusionCuller.BOX_FACES[i] >> 1) & 1) * 3],
+          bounds[o + 2 + ((OcclusionCuller.BOX_FACES[i] >> 2) & 1) * 3]);
+      }
+
+      gl.glEnd();
+      gl.glEndQuery(GL2.GL_SAMPLES_PASSED);
+      this.queried[node] = this.generation;
+      this.isPending[node] = true;
+    }
+
+    if (isDrawing) {
+      gl.glColorMask(true, true, true, true);
+      gl.glDepthMask(true);
+      gl.glEnable(GL2.GL_CULL_FACE);
+    }
+  }
+
+  /**
+   * Releases the queries. Must be called with the owning context current.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  protected void dispose(GL2 gl2) {
+    if (this.queries.length > 0) {
+      gl2.glDeleteQueries(this.queries.length, this.queries, 0);
+    }
+
+    this.queries = new int[0];
+    this.queried = new int[0];
+    this.resolved = new int[0];
+    this.isVisible = new boolean[0];
+    this.isPending = new boolean[0];
+    this.lastSceneGraph = null;
+  }
+
+  // Helper methods
+
+  /**
+   * Parses the name of a mode, falling back to <code>Mode.AUTO</code> if unknown.
+   *
+   * @param name <code>String</code>
+   * @return <code>OcclusionCuller.Mode</code>
+   */
+  private static Mode parseMode(String name) {
+    try {
+      return Mode.valueOf(name.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException ex) {
+      return Mode.AUTO;
+    }
+  }
+
+  /**
+   * Begins a new generation of the view, outdating every query issued so far. The frame is not
+   * settled, as the visibility it uses was found in an earlier generation.
+   *
+   * @return void
+   */
+  private void advance() {
+    this.generation++;
+    this.isChanged = true;
+  }
+
+  /**
+   * Grows the per-node arrays to the given number of nodes, generating a query for each new node.
+   *
+   * @param gl2 <code>GL2</code>
+   * @param size <code>int</code>
+   * @return void
+   */
+  private void ensureCapacity(GL2 gl2, int size) {
+
+    // Declaration
+    int previous;
+
+    previous = this.queries.length;
+
+    if (size <= previous) {
+      return;
+    }
+
+    this.queries = Arrays.copyOf(this.queries, size);
+    this.queried = Arrays.copyOf(this.queried, size);
+    this.resolved = Arrays.copyOf(this.resolved, size);
+    this.isVisible = Arrays.copyOf(this.isVisible, size);
+    this.isPending = Arrays.copyOf(this.isPending, size);
+    gl2.glGenQueries(size - previous, this.queries, previous);
+    Arrays.fill(this.isVisible, previous, size, true);
+  }
+
+  /**
+   * Collects the result of every query the driver has finished with, without waiting on the rest.
+   * Results of earlier generations still stand in for visibility until requeried, but only those of
+   * the current one count as reports on their nodes.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  private void collect(GL2 gl2) {
+
+    // Declaration
+    boolean isNowVisible;
+
+    for (int node = 0; node < this.queries.length; node++) {
+      if (!this.isPending[node]) {
+        continue;
+      }
+
+      gl2.glGetQueryObjectuiv(this.queries[node], GL2.GL_QUERY_RESULT_AVAILABLE, this.result, 0);
+
+      if (this.result[0] == 0) {
+        continue;
+      }
+
+      gl2.glGetQueryObjectuiv(this.queries[node], GL2.GL_QUERY_RESULT, this.result, 0);
+      isNowVisible = this.result[0] != 0;
+      this.isChanged |= isNowVisible != this.isVisible[node];
+      this.isVisible[node] = isNowVisible;
+      this.isPending[node] = false;
+      this.resolved[node] = this.queried[node];
+    }
+  }
+
+  /**
+   * Rasterizes the proxies of the occluders of the given graph into the software depth buffer and
+   * builds its coarser levels.
+   *
+   * @param camera <code>SceneCamera</code>
+   * @param sceneGraph <code>SceneGraph</code>
+   * @return void
+   */
+  private void rasterize(SceneCamera camera, SceneGraph sceneGraph) {
+
+    // Declarations
+    float[] world, finer, coarser;
+    SceneObject sceneObject;
+    Mesh mesh;
+    int fw, fh, cw, ch, x0, y0, x1, y1;
+
+    this.computeClip(camera);
+    Arrays.fill(this.levels[0], 1.0f);
+    world = sceneGraph.getWorldMatrices();
+
+    for (int node = 0; node < sceneGraph.size(); node++) {
+      sceneObject = sceneGraph.getSceneObject(node);
+      mesh = (sceneObject != null) ? sceneObject.getMesh() : null;
+
+      if (mesh == null || !mesh.getIsOccluder()) {
+        continue;
+      }
+
+      // Oriented corners of the box, straight to texel coordinates and window depth
+      for (int c = 0; c < 8; c++) {
+        this.project(world, node * 16, ((c & 1) == 0) ? mesh.getBoundsMin(0) : mesh.getBoundsMax(0),
+          ((c & 2) == 0) ? mesh.getBoundsMin(1) : mesh.getBoundsMax(1),
+          ((c & 4) == 0) ? mesh.getBoundsMin(2) : mesh.getBoundsMax(2), c * 3);
+      }
+
+      // Parts cut off by the near or far plane are not drawn, and so hide nothing
+      if (this.getCornerArea() >= OcclusionCuller.MIN_OCCLUDER_TEXELS
+          && this.getIsWithinDepthRange()) {
+        for (int f = 0; f < OcclusionCuller.BOX_FACES.length; f += 4) {
+          this.rasterizeQuad(f);
+        }
+      }
+    }
+
+    // Each coarser texel keeps the farthest depth of the up to four texels beneath it
+    for (int level = 1; level < this.levels.length; level++) {
+      finer = this.levels[level - 1];
+      coarser = this.levels[level];
+      fw = this.levelWidth[level - 1];
+      fh = this.levelHeight[level - 1];
+      cw = this.levelWidth[level];
+      ch = this.levelHeight[level];
+
+      for (int y = 0; y < ch; y++) {
+        y0 = y * 2;
+        y1 = Math.min(y0 + 1, fh - 1);
+
+        for (int x = 0; x < cw; x++) {
+          x0 = x * 2;
+          x1 = Math.min(x0 + 1, fw - 1);
+          coarser[y * cw + x] = Math.max(Math.max(finer[y0 * fw + x0], finer[y0 * fw + x1]),
+            Math.max(finer[y1 * fw + x0], finer[y1 * fw + x1]));
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes a single face of the projected box into the finest level, covering only the texels
+   * lying wholly within the face, each with the face's farthest depth over the texel.
+   *
+   * @param face <code>int</code> index of the face's first corner in
+   *     <code>OcclusionCuller.BOX_FACES</code>
+   * @return void
+   */
+  private void rasterizeQuad(int face) {
+
+    // Declarations
+    float[] depth, px, py, pz;
+    double area, a, b, d, det, far;
+    int minX, maxX, minY, maxY, width;
+
+    px = this.quadX;
+    py = this.quadY;
+    pz = this.quadZ;
+    area = 0.0;
+
+    for (int i = 0; i < 4; i++) {
+      px[i] = this.corners[OcclusionCuller.BOX_FACES[face + i] * 3];
+      py[i] = this.corners[OcclusionCuller.BOX_FACES[face + i] * 3 + 1];
+      pz[i] = this.corners[OcclusionCuller.BOX_FACES[face + i] * 3 + 2];
+    }
+
+    for (int i = 0; i < 4; i++) {
+      area += px[i] * py[(i + 1) % 4] - px[(i + 1) % 4] * py[i];
+    }
+
+    // Faces seen edge-on cover nothing
+    if (Math.abs(area) < 1e-6) {
+      return;
+    }
+
+    // Depth over the face's plane as z = a * x + b * y + d
+    det = (px[1] - px[0]) * (py[2] - py[0]) - (px[2] - px[0]) * (py[1] - py[0]);
+
+    if (Math.abs(det) < 1e-12) {
+      return;
+    }
+
+    a = ((pz[1] - pz[0]) * (py[2] - py[0]) - (pz[2] - pz[0]) * (py[1] - py[0])) / det;
+    b = ((px[1] - px[0]) * (pz[2] - pz[0]) - (px[2] - px[0]) * (pz[1] - pz[0])) / det;
+    d = pz[0] - a * px[0] - b * py[0];
+
+    minX = Math.max(0, (int) Math.floor(Math.min(Math.min(px[0], px[1]), Math.min(px[2], px[3]))));
+    maxX = Math.min(OcclusionCuller.DEPTH_WIDTH - 1,
+      (int) Math.ceil(Math.max(Math.max(px[0], px[1]), Math.max(px[2], px[3]))) - 1);
+    minY = Math.max(0, (int) Math.floor(Math.min(Math.min(py[0], py[1]), Math.min(py[2], py[3]))));
+    maxY = Math.min(OcclusionCuller.DEPTH_HEIGHT - 1,
+      (int) Math.ceil(Math.max(Math.max(py[0], py[1]), Math.max(py[2], py[3]))) - 1);
+    depth = this.levels[0];
+    width = OcclusionCuller.DEPTH_WIDTH;
+
+    for (int y = minY; y <= maxY; y++) {
+      for (int x = minX; x <= maxX; x++) {
+        if (!OcclusionCuller.contains(px, py, area, x, y)
+            || !OcclusionCuller.contains(px, py, area, x + 1, y)
+            || !OcclusionCuller.contains(px, py, area, x, y + 1)
+            || !OcclusionCuller.contains(px, py, area, x + 1, y + 1)) {
+          continue;
+        }
+
+        // The plane is linear, so its farthest point over the texel is at one of the corners
+        far = a * x + b * y + d + Math.max(a, 0.0) + Math.max(b, 0.0);
+        depth[y * width + x] = (float) Math.min(depth[y * width + x], far);
+      }
+    }
+  }
+
+  /**
+   * Returns whether the given point lies within the convex quad of the given signed area.
+   *
+   * @param px <code>float[]</code>
+   * @param py <code>float[]</code>
+   * @param area <code>double</code>
+   * @param x <code>double</code>
+   * @param y <code>double</code>
+   * @return <code>boolean</code>
+   */
+  private static boolean contains(float[] px, float[] py, double area, double x, double y) {
+
+    // Declaration
+    double edge;
+
+    for (int i = 0; i < 4; i++) {
+      edge = (px[(i + 1) % 4] - px[i]) * (y - py[i]) - (py[(i + 1) % 4] - py[i]) * (x - px[i]);
+
+      if ((area > 0.0) ? edge < 0.0 : edge > 0.0) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Tests the world bounds of the given node against the hierarchical depth buffer.
+   *
+   * @param node <code>int</code>
+   * @return <code>boolean</code>
+   */
+  private boolean testDepth(int node) {
+
+    // Declarations
+    float minX, maxX, minY, maxY, minZ;
+    float[] level;
+    int o, x0, x1, y0, y1, shift, width;
+
+    o = node * 6;
+
+    // Nodes without geometry have empty bounds
+    if (!(this.bounds[o] <= this.bounds[o + 3])) {
+      return true;
+    }
+
+    for (int c = 0; c < 8; c++) {
+      this.project(null, 0, this.bounds[o + (c & 1) * 3], this.bounds[o + 1 + ((c >> 1) & 1) * 3],
+        this.bounds[o + 2 + ((c >> 2) & 1) * 3], c * 3);
+    }
+
+    minX = Float.POSITIVE_INFINITY;
+    maxX = Float.NEGATIVE_INFINITY;
+    minY = Float.POSITIVE_INFINITY;
+    maxY = Float.NEGATIVE_INFINITY;
+    minZ = Float.POSITIVE_INFINITY;
+
+    for (int c = 0; c < 8; c++) {
+      minX = Math.min(minX, this.corners[c * 3]);
+      maxX = Math.max(maxX, this.corners[c * 3]);
+      minY = Math.min(minY, this.corners[c * 3 + 1]);
+      maxY = Math.max(maxY, this.corners[c * 3 + 1]);
+      minZ = Math.min(minZ, this.corners[c * 3 + 2]);
+    }
+
+    // Anything reaching past the near plane or the edges of the screen is left to the driver
+    if (minZ < 0.0f || minX < 0.0f || minY < 0.0f || maxX >= OcclusionCuller.DEPTH_WIDTH
+        || maxY >= OcclusionCuller.DEPTH_HEIGHT) {
+      return true;
+    }
+
+    x0 = (int) minX;
+    x1 = (int) maxX;
+    y0 = (int) minY;
+    y1 = (int) maxY;
+    shift = 0;
+
+    while (shift < this.levels.length - 1
+        && ((x1 >> shift) - (x0 >> shift) > 1 || (y1 >> shift) - (y0 >> shift) > 1)) {
+      shift++;
+    }
+
+    level = this.levels[shift];
+    width = this.levelWidth[shift];
+
+    for (int y = y0 >> shift; y <= y1 >> shift; y++) {
+      for (int x = x0 >> shift; x <= x1 >> shift; x++) {
+        if (level[y * width + x] >= minZ) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Returns whether the eight projected corners all lie between the near and far planes.
+   *
+   * @return <code>boolean</code>
+   */
+  private boolean getIsWithinDepthRange() {
+    for (int c = 0; c < 8; c++) {
+      if (!(this.corners[c * 3 + 2] >= 0.0f && this.corners[c * 3 + 2] <= 1.0f)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Returns the area of the screen rectangle spanned by the eight projected corners, in texels.
+   *
+   * @return <code>double</code>
+   */
+  private double getCornerArea() {
+
+    // Declarations
+    float minX, maxX, minY, maxY;
+
+    minX = Float.POSITIVE_INFINITY;
+    maxX = Float.NEGATIVE_INFINITY;
+    minY = Float.POSITIVE_INFINITY;
+    maxY = Float.NEGATIVE_INFINITY;
+
+    for (int c = 0; c < 8; c++) {
+      minX = Math.min(minX, this.corners[c * 3]);
+      maxX = Math.max(maxX, this.corners[c * 3]);
+      minY = Math.min(minY, this.corners[c * 3 + 1]);
+      maxY = Math.max(maxY, this.corners[c * 3 + 1]);
+    }
+
+    return (double) (maxX - minX) * (maxY - minY);
+  }
+
+  /**
+   * Transforms a point by the given world matrix and the camera's projection, storing its texel
+   * coordinates and window depth in <code>OcclusionCuller.corners</code>.
+   *
+   * @param world <code>float[]</code> world matrices, or <code>null</code> for world space
+   * @param offset <code>int</code>
+   * @param x <code>float</code>
+   * @param y <code>float</code>
+   * @param z <code>float</code>
+   * @param target <code>int</code> index into <code>OcclusionCuller.corners</code>
+   * @return void
+   */
+  private void project(float[] world, int offset, float x, float y, float z, int target) {
+
+    // Declarations
+    float wx, wy, wz;
+    float[] m;
+
+    if (world != null) {
+      wx = world[offset] * x + world[offset + 4] * y + world[offset + 8] * z + world[offset + 12];
+      wy = world[offset + 1] * x + world[offset + 5] * y + world[offset + 9] * z
+        + world[offset + 13];
+      wz = world[offset + 2] * x + world[offset + 6] * y + world[offset + 10] * z
+        + world[offset + 14];
+    } else {
+      wx = x;
+      wy = y;
+      wz = z;
+    }
+
+    // The projection is orthographic, so there is no division by w
+    m = this.clip;
+    this.corners[target] = (m[0] * wx + m[4] * wy + m[8] * wz + m[12] + 1.0f) * 0.5f
+      * OcclusionCuller.DEPTH_WIDTH;
+    this.corners[target + 1] = (m[1] * wx + m[5] * wy + m[9] * wz + m[13] + 1.0f) * 0.5f
+      * OcclusionCuller.DEPTH_HEIGHT;
+    this.corners[target + 2] = (m[2] * wx + m[6] * wy + m[10] * wz + m[14] + 1.0f) * 0.5f;
+  }
+
+  /**
+   * Computes the product of the projection and the camera's transformation, as applied by
+   * <code>SceneRenderer.render</code>.
+   *
+   * @param camera <code>SceneCamera</code>
+   * @return void
+   */
+  private void computeClip(SceneCamera camera) {
+    camera.computeViewMatrix(this.view);
+
+    // As built by glOrtho
+    Arrays.fill(this.projection, 0.0f);
+    this.projection[0] = (float) (2.0 / (this.right - this.left));
+    this.projection[5] = (float) (2.0 / (this.top - this.bottom));
+    this.projection[10] = (float) (-2.0 / (this.far - this.near));
+    this.projection[12] = (float) (-(this.right + this.left) / (this.right - this.left));
+    this.projection[13] = (float) (-(this.top + this.bottom) / (this.top - this.bottom));
+    this.projection[14] = (float) (-(this.far + this.near) / (this.far - this.near));
+    this.projection[15] = 1.0f;
+    OcclusionCuller.multiply(this.projection, this.view, this.clip);
+  }
+
+  /**
+   * Multiplies two column-major matrices into a third, distinct from both.
+   *
+   * @param a <code>float[]</code>
+   * @param b <code>float[]</code>
+   * @param out <code>float[]</code>
+   * @return void
+   */
+  private static void multiply(float[] a, float[] b, float[] out) {
+    for (int column = 0; column < 4; column++) {
+      for (int row = 0; row < 4; row++) {
+        out[column * 4 + row] = a[row] * b[column * 4] + a[4 + row] * b[column * 4 + 1]
+          + a[8 + row] * b[column * 4 + 2] + a[12 + row] * b[column * 4 + 3];
+      }
+    }
+  }
+}
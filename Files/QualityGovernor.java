@@ -0,0 +1,287 @@
+/**
+ * QualityGovernor.java - Stepwise reduction and restoration of detail from measured frame times
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The <code>RenderScaleController</code> can only trade resolution for time, and only so far. For
+ * machines on which even the lowest render scale will not do, this class steps through a list of
+ * coarser degradations of the scene, one at a time, for as long as the frames measured by the
+ * <code>FrameTimer</code> stay over the target frame time:
+ * <pre>
+ * - outlines    the black outline pass of each object is dropped
+ * - lod         objects spanning fewer than 24 pixels are drawn in a single call of their base hue
+ * - scale       the render scale is capped at 75%, whatever the controller would pick
+ * - small       objects spanning fewer than 4 pixels are not drawn at all
+ * </pre>
+ * The steps are taken in the order given by the <code>graphicsprojecttwo.quality.steps</code>
+ * system property, a comma-separated list of the names above defaulting to the order shown, with
+ * unknown names ignored and steps left out of the list never taken. The governor as a whole may be
+ * disabled by setting <code>graphicsprojecttwo.quality.auto</code> to <code>false</code>.
+ * <br />
+ * <br />
+ * To keep the scene from flickering between two levels of detail, the governor acts with
+ * hysteresis. A step is only taken once the smoothed frame time has stayed over target for
+ * <code>QualityGovernor.LOWER_FRAMES</code> frames in a row, which leaves the controller the time
+ * to settle first, and only undone once it has stayed below a fraction of the target for far
+ * longer. Should a step have to be taken again soon after being undone, the wait before undoing it
+ * next is doubled, such that a scene sitting right on the edge settles on the lower level rather
+ * than cycling. Each transition is reported through <code>QualityGovernor.getTransition</code> for
+ * the status log.
+ * <br />
+ * <br />
+ * As with the other frame-time helpers, an instance must only be used from the thread owning the
+ * GL context.
+ *
+ * @see graphicsprojecttwo.RenderScaleController
+ * @see graphicsprojecttwo.SceneRenderer
+ * @author Andrew Eissen
+ */
+final class QualityGovernor {
+
+  /**
+   * Degradations the governor may apply, named as in the
+   * <code>graphicsprojecttwo.quality.steps</code> property
+   */
+  protected enum Step { OUTLINES, LOD, SCALE, SMALL }
+
+  /** Order in which the degradations are applied */
+  private final static String STEPS =
+    System.getProperty("graphicsprojecttwo.quality.steps", "outlines,lod,scale,small");
+
+  /** Whether the level of detail is adjusted from measured frame times */
+  private final static boolean IS_AUTOMATIC =
+    Boolean.parseBoolean(System.getProperty("graphicsprojecttwo.quality.auto", "true"));
+
+  /** Span on screen in pixels below which objects are drawn coarsely by the "lod" step */
+  private final static double COARSE_PIXELS = 24.0;
+
+  /** Span on screen in pixels below which objects are left out by the "small" step */
+  private final static double SKIP_PIXELS = 4.0;
+
+  /** Highest render scale allowed by the "scale" step */
+  private final static double SCALE_CAP = 0.75;
+
+  /** Weight of each new sample in the moving average of frame times */
+  private final static double SMOOTHING = 0.1;
+
+  /** Fraction of the target below which the average must stay before a step is undone */
+  private final static double HEADROOM = 0.6;
+
+  /** Number of frames in a row over target before a step is taken */
+  private final static int LOWER_FRAMES = 30;
+
+  /** Initial number of frames in a row with headroom before a step is undone */
+  private final static int RAISE_FRAMES = 120;
+
+  /** Longest wait before a step is undone, however often it had to be taken again */
+  private final static int MAX_RAISE_FRAMES = 3840;
+
+  // Class fields
+  private final Step[] steps;
+  private final double targetMs;
+  private final boolean isAutomatic;
+  private double averageMs, lastAverageMs;
+  private int level, overFrames, underFrames, raiseFrames, sinceRaised;
+  private boolean isLowered;
+
+  /**
+   * Default constructor, configured from the system properties
+   *
+   * @param targetMs <code>double</code> target frame time in milliseconds
+   */
+  protected QualityGovernor(double targetMs) {
+    this(QualityGovernor.parseSteps(QualityGovernor.STEPS), targetMs,
+      QualityGovernor.IS_AUTOMATIC);
+  }
+
+  /**
+   * Parameterized constructor
+   *
+   * @param steps <code>QualityGovernor.Step[]</code> degradations in the order taken
+   * @param targetMs <code>double</code> target frame time in milliseconds
+   * @param isAutomatic <code>boolean</code> whether to adjust the level of detail at all
+   */
+  protected QualityGovernor(Step[] steps, double targetMs, boolean isAutomatic) {
+    if (!(targetMs > 0.0)) {
+      throw new IllegalArgumentException("Invalid target frame time " + targetMs + " ms");
+    }
+
+    this.steps = steps.clone();
+    this.targetMs = targetMs;
+    this.isAutomatic = isAutomatic;
+    this.averageMs = Double.NaN;
+    this.lastAverageMs = Double.NaN;
+    this.level = 0;
+    this.overFrames = 0;
+    this.underFrames = 0;
+    this.raiseFrames = QualityGovernor.RAISE_FRAMES;
+    this.sinceRaised = Integer.MAX_VALUE;
+    this.isLowered = false;
+  }
+
+  // Getters
+
+  /**
+   * Getter for <code>QualityGovernor.level</code>, the number of steps currently taken
+   *
+   * @return level <code>int</code>
+   */
+  protected int getLevel() {
+    return this.level;
+  }
+
+  /**
+   * Returns whether the given degradation is currently applied.
+   *
+   * @param step <code>QualityGovernor.Step</code>
+   * @return <code>boolean</code>
+   */
+  protected boolean getIsApplied(Step step) {
+    for (int i = 0; i < this.level; i++) {
+      if (this.steps[i] == step) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Returns a description of the most recent transition for the status log.
+   *
+   * @return <code>String</code>
+   */
+  protected String getTransition() {
+
+    // Declaration
+    Step step;
+
+    if (this.isLowered) {
+      step = this.steps[this.level - 1];
+    } else if (this.level < this.steps.length) {
+      step = this.steps[this.level];
+    } else {
+      return "Quality unchanged";
+    }
+
+    return String.format(Locale.ROOT, "Quality %s by step \"%s\" (%.1f ms per frame, level %d"
+      + " of %d)", (this.isLowered) ? "lowered" : "restored", step.name().toLowerCase(Locale.ROOT),
+      this.lastAverageMs, this.level, this.steps.length);
+  }
+
+  // Utility methods
+
+  /**
+   * Feeds the time taken by a frame to the governor, returning whether the level of detail changed
+   * as a result. Samples of <code>Double.NaN</code>, meaning no frame completed, are ignored.
+   *
+   * @param frameMs <code>double</code>
+   * @return <code>boolean</code>
+   */
+  protected boolean update(double frameMs) {
+    if (!this.isAutomatic || Double.isNaN(frameMs)) {
+      return false;
+    }
+
+    this.averageMs = (Double.isNaN(this.averageMs))
+      ? frameMs
+      : this.averageMs + QualityGovernor.SMOOTHING * (frameMs - this.averageMs);
+
+    if (this.sinceRaised < Integer.MAX_VALUE) {
+      this.sinceRaised++;
+    }
+
+    this.overFrames = (this.averageMs > this.targetMs) ? this.overFrames + 1 : 0;
+    this.underFrames = (this.averageMs < this.targetMs * QualityGovernor.HEADROOM)
+      ? this.underFrames + 1
+      : 0;
+
+    if (this.overFrames >= QualityGovernor.LOWER_FRAMES && this.level < this.steps.length) {
+
+      // Back off from undoing a step that did not hold the last time
+      if (this.sinceRaised < this.raiseFrames * 2) {
+        this.raiseFrames = Math.min(QualityGovernor.MAX_RAISE_FRAMES, this.raiseFrames * 2);
+      }
+
+      this.level++;
+      this.isLowered = true;
+    } else if (this.underFrames >= this.raiseFrames && this.level > 0) {
+      this.level--;
+      this.isLowered = false;
+      this.sinceRaised = 0;
+    } else {
+      return false;
+    }
+
+    // Start measuring afresh at the new level
+    this.lastAverageMs = this.averageMs;
+    this.averageMs = Double.NaN;
+    this.overFrames = 0;
+    this.underFrames = 0;
+    return true;
+  }
+
+  /**
+   * Applies the current level of detail to the given renderer and render scale controller.
+   *
+   * @param sceneRenderer <code>SceneRenderer</code>
+   * @param controller <code>RenderScaleController</code>
+   * @return void
+   */
+  protected void apply(SceneRenderer sceneRenderer, RenderScaleController controller) {
+    sceneRenderer.setIsOutlined(!this.getIsApplied(Step.OUTLINES));
+    sceneRenderer.setCoarsePixels((this.getIsApplied(Step.LOD))
+      ? QualityGovernor.COARSE_PIXELS
+      : 0.0);
+    sceneRenderer.setSkipPixels((this.getIsApplied(Step.SMALL))
+      ? QualityGovernor.SKIP_PIXELS
+      : 0.0);
+    controller.setMaxScale((this.getIsApplied(Step.SCALE)) ? QualityGovernor.SCALE_CAP : 1.0);
+  }
+
+  // Helper methods
+
+  /**
+   * Parses a comma-separated list of step names, ignoring unknown and repeated names.
+   *
+   * @param list <code>String</code>
+   * @return <code>QualityGovernor.Step[]</code>
+   */
+  private static Step[] parseSteps(String list) {
+
+    // Declarations
+    Step[] parsed;
+    Step step;
+    int count;
+    boolean isRepeated;
+
+    parsed = new Step[Step.values().length];
+    count = 0;
+
+    for (String name : list.split(",")) {
+      try {
+        step = Step.valueOf(name.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException ex) {
+        continue;
+      }
+
+      isRepeated = false;
+
+      for (int i = 0; i < count; i++) {
+        isRepeated |= parsed[i] == step;
+      }
+
+      if (!isRepeated) {
+        parsed[count++] = step;
+      }
+    }
+
+    return Arrays.copyOf(parsed, count);
+  }
+}
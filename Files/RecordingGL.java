@@ -0,0 +1,609 @@
+/**
+ * RecordingGL.java - Allocation-free stand-in for a GL context, counting the calls made to it
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import com.jogamp.opengl.GL2;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measuring what the render loop allocates calls for running it against something other than a
+ * real context, both to do so headless and to leave the driver's own allocations out of the count.
+ * The obvious stand-in, a <code>java.lang.reflect.Proxy</code> of <code>GL2</code>, will not do,
+ * however, as every call to a proxy allocates an array of its arguments and boxes each of them,
+ * burying whatever the loop itself allocates under several kilobytes a frame. This class instead
+ * generates a class implementing every method of <code>GL2</code> directly, as bytecode, each of
+ * which simply counts the call and returns a default, and thus allocates nothing at all.
+ * <br />
+ * <br />
+ * The stand-in answers as a context supporting everything would, such that the loop takes the
+ * same paths as it would on capable hardware:
+ * <pre>
+ * - glGen*                         fills in fresh names, counting up from 1
+ * - glCheckFramebufferStatus       GL_FRAMEBUFFER_COMPLETE
+ * - glGet* into an int[]           1, such that queries are available and report samples passed
+ * - is* and has* methods           true, such that every extension is present
+ * - anything else                  zero, false, or null
+ * </pre>
+ * Nothing is drawn, and the calls are only counted, per method, for the report of
+ * <code>AllocationCheck</code>. The counts are kept in static arrays shared by every instance.
+ *
+ * @see graphicsprojecttwo.AllocationCheck
+ * @author Andrew Eissen
+ */
+final class RecordingGL {
+
+  /** Binary name of the generated class, in the package of this class as hidden classes must be */
+  private final static String CLASS_NAME = "graphicsprojecttwo/RecordingGL$Stub";
+
+  /** Binary name of this class, whose static methods the generated methods call */
+  private final static String OWNER = "graphicsprojecttwo/RecordingGL";
+
+  /** Methods of <code>GL2</code> to be implemented, in the order of their counters */
+  private final static List<Method> METHODS = RecordingGL.collectMethods();
+
+  /** Calls made to each method */
+  private final static long[] COUNTS = new long[RecordingGL.METHODS.size()];
+
+  /** Value returned by each method returning an <code>int</code> or <code>boolean</code> */
+  private final static int[] ANSWERS = new int[RecordingGL.METHODS.size()];
+
+  // Class fields
+  private static GL2 shared;
+  private static int lastName;
+
+  /**
+   * Not instantiated
+   */
+  private RecordingGL() {
+  }
+
+  // Getters
+
+  /**
+   * Returns the shared stand-in, generating its class on the first call.
+   *
+   * @return <code>GL2</code>
+   * @throws IllegalStateException if the class cannot be generated
+   */
+  protected static synchronized GL2 getShared() {
+    if (RecordingGL.shared == null) {
+      try {
+        RecordingGL.shared = (GL2) MethodHandles.lookup()
+          .defineHiddenClass(RecordingGL.generate(), true).lookupClass()
+          .getDeclaredConstructor().newInstance();
+      } catch (ReflectiveOperationException | IOException exception) {
+        throw new IllegalStateException("Cannot generate recording GL", exception);
+      }
+    }
+
+    return RecordingGL.shared;
+  }
+
+  /**
+   * Returns the total number of calls made since the last reset.
+   *
+   * @return <code>long</code>
+   */
+  protected static long getCallCount() {
+
+    // Declaration
+    long total;
+
+    total = 0;
+
+    for (long count : RecordingGL.COUNTS) {
+      total += count;
+    }
+
+    return total;
+  }
+
+  /**
+   * Returns the number of calls made to each method since the last reset, by method name, methods
+   * not called left out, most called first.
+   *
+   * @return <code>LinkedHashMap</code>
+   */
+  protected static LinkedHashMap<String, Long> getCallCounts() {
+
+    // Declarations
+    HashMap<String, Long> counts;
+    List<Map.Entry<String, Long>> entries;
+    LinkedHashMap<String, Long> sorted;
+
+    counts = new HashMap<>();
+
+    for (int i = 0; i < RecordingGL.COUNTS.length; i++) {
+      if (RecordingGL.COUNTS[i] > 0) {
+        counts.merge(RecordingGL.METHODS.get(i).getName(), RecordingGL.COUNTS[i], Long::sum);
+      }
+    }
+
+    entries = new ArrayList<>(counts.entrySet());
+    entries.sort((Map.Entry<String, Long> a, Map.Entry<String, Long> b) ->
+      Long.compare(b.getValue(), a.getValue()));
+    sorted = new LinkedHashMap<>();
+
+    for (Map.Entry<String, Long> entry : entries) {
+      sorted.put(entry.getKey(), entry.getValue());
+    }
+
+    return sorted;
+  }
+
+  // Utility methods
+
+  /**
+   * Forgets the calls counted so far.
+   *
+   * @return void
+   */
+  protected static void reset() {
+    Arrays.fill(RecordingGL.COUNTS, 0L);
+  }
+
+  // Helper methods called by the generated class
+
+  /**
+   * Counts a call to the method of the given number.
+   *
+   * @param method <code>int</code>
+   * @return void
+   */
+  protected static void count(int method) {
+    RecordingGL.COUNTS[method]++;
+  }
+
+  /**
+   * Counts a call to the method of the given number and returns its answer.
+   *
+   * @param method <code>int</code>
+   * @return <code>int</code>
+   */
+  protected static int answer(int method) {
+    RecordingGL.COUNTS[method]++;
+    return RecordingGL.ANSWERS[method];
+  }
+
+  /**
+   * Fills in the given number of fresh names, as a <code>glGen*</code> method would.
+   *
+   * @param count <code>int</code>
+   * @param names <code>int[]</code>
+   * @param offset <code>int</code>
+   * @return void
+   */
+  protected static void generate(int count, int[] names, int offset) {
+    for (int i = 0; i < count; i++) {
+      names[offset + i] = ++RecordingGL.lastName;
+    }
+  }
+
+  /**
+   * Writes 1 into the given array, as a <code>glGet*</code> method would write a result.
+   *
+   * @param values <code>int[]</code>
+   * @param offset <code>int</code>
+   * @return void
+   */
+  protected static void fill(int[] values, int offset) {
+    values[offset] = 1;
+  }
+
+  // Helper methods
+
+  /**
+   * Collects the abstract methods of <code>GL2</code> and its superinterfaces, once per distinct
+   * name and descriptor.
+   *
+   * @return <code>List</code>
+   */
+  private static List<Method> collectMethods() {
+
+    // Declarations
+    LinkedHashMap<String, Method> methods;
+
+    methods = new LinkedHashMap<>();
+
+    for (Method method : GL2.class.getMethods()) {
+      if (Modifier.isAbstract(method.getModifiers())) {
+        methods.putIfAbsent(method.getName() + RecordingGL.describe(method), method);
+      }
+    }
+
+    return new ArrayList<>(methods.values());
+  }
+
+  /**
+   * Returns the answer of the given method, as described in the class documentation.
+   *
+   * @param method <code>Method</code>
+   * @return <code>int</code>
+   */
+  private static int getAnswer(Method method) {
+    if (method.getName().equals("glCheckFramebufferStatus")) {
+      return GL2.GL_FRAMEBUFFER_COMPLETE;
+    }
+
+    return (method.getReturnType() == boolean.class && (method.getName().startsWith("is")
+      || method.getName().startsWith("has"))) ? 1 : 0;
+  }
+
+  /**
+   * Builds the class file of the stand-in. Every method pushes its own number and calls one of the
+   * static helpers of this class, then returns. The code has no branches, and so needs no stack
+   * map frames.
+   *
+   * @return <code>byte[]</code>
+   * @throws IOException never, as the file is written to memory
+   */
+  private static byte[] generate() throws IOException {
+
+    // Declarations
+    ConstantPool pool;
+    ByteArrayOutputStream methods, file;
+    DataOutputStream out;
+    Class<?>[] parameters;
+    Class<?> returnType;
+    Method method;
+    int count, answer, fill, generate, superInit, slots;
+
+    pool = new ConstantPool();
+    count = pool.method(RecordingGL.OWNER, "count", "(I)V");
+    answer = pool.method(RecordingGL.OWNER, "answer", "(I)I");
+    fill = pool.method(RecordingGL.OWNER, "fill", "([II)V");
+    generate = pool.method(RecordingGL.OWNER, "generate", "(I[II)V");
+    superInit = pool.method("java/lang/Object", "<init>", "()V");
+    methods = new ByteArrayOutputStream();
+    out = new DataOutputStream(methods);
+
+    // Constructor, calling that of Object
+    RecordingGL.writeMethod(out, pool, "<init>", "()V", 1, 1,
+      new byte[] {0x2A, (byte) 0xB7, (byte) (superInit >> 8), (byte) superInit, (byte) 0xB1});
+
+    for (int i = 0; i < RecordingGL.METHODS.size(); i++) {
+      method = RecordingGL.METHODS.get(i);
+      parameters = method.getParameterTypes();
+      returnType = method.getReturnType();
+      RecordingGL.ANSWERS[i] = RecordingGL.getAnswer(method);
+      slots = 1;
+
+      for (Class<?> parameter : parameters) {
+        slots += (parameter == long.class || parameter == double.class) ? 2 : 1;
+      }
+
+      RecordingGL.writeMethod(out, pool, method.getName(), RecordingGL.describe(method), 4,
+        slots, RecordingGL.writeCode(method, i, parameters, returnType, slots, count, answer,
+        fill, generate));
+    }
+
+    file = new ByteArrayOutputStream();
+    out = new DataOutputStream(file);
+    pool.clazz(RecordingGL.CLASS_NAME);
+    pool.clazz("java/lang/Object");
+    pool.clazz(GL2.class.getName().replace('.', '/'));
+    pool.utf8("Code");
+
+    out.writeInt(0xCAFEBABE);
+    out.writeShort(0);
+    out.writeShort(52);
+    pool.write(out);
+    out.writeShort(0x0030);
+    out.writeShort(pool.clazz(RecordingGL.CLASS_NAME));
+    out.writeShort(pool.clazz("java/lang/Object"));
+    out.writeShort(1);
+    out.writeShort(pool.clazz(GL2.class.getName().replace('.', '/')));
+    out.writeShort(0);
+    out.writeShort(RecordingGL.METHODS.size() + 1);
+    out.write(methods.toByteArray());
+    out.writeShort(0);
+    return file.toByteArray();
+  }
+
+  /**
+   * Builds the code of the given method of the stand-in.
+   *
+   * @param method <code>Method</code>
+   * @param number <code>int</code> of the method's counter
+   * @param parameters <code>Class[]</code>
+   * @param returnType <code>Class</code>
+   * @param slots <code>int</code> local variable slots taken by the receiver and parameters
+   * @param count <code>int</code> constant of <code>RecordingGL.count</code>
+   * @param answer <code>int</code> constant of <code>RecordingGL.answer</code>
+   * @param fill <code>int</code> constant of <code>RecordingGL.fill</code>
+   * @param generate <code>int</code> constant of <code>RecordingGL.generate</code>
+   * @return <code>byte[]</code>
+   */
+  private static byte[] writeCode(Method method, int number, Class<?>[] parameters,
+      Class<?> returnType, int slots, int count, int answer, int fill, int generate) {
+
+    // Declarations
+    ByteArrayOutputStream code;
+    int last;
+    boolean isArrayOut;
+
+    code = new ByteArrayOutputStream();
+    last = parameters.length;
+    isArrayOut = last >= 2 && parameters[last - 2] == int[].class && parameters[last - 1]
+      == int.class && slots == last + 1;
+
+    // glGenX(int n, int[] names, int offset)
+    if (method.getName().startsWith("glGen") && isArrayOut && last == 3
+        && parameters[0] == int.class) {
+      code.write(new byte[] {0x1B, 0x2C, 0x1D, (byte) 0xB8, (byte) (generate >> 8),
+        (byte) generate}, 0, 6);
+    } else if (method.getName().startsWith("glGet") && isArrayOut) {
+      code.write(new byte[] {0x19, (byte) (slots - 2), 0x15, (byte) (slots - 1), (byte) 0xB8,
+        (byte) (fill >> 8), (byte) fill}, 0, 7);
+    }
+
+    code.write(0x11);
+    code.write(number >> 8);
+    code.write(number);
+    code.write(0xB8);
+
+    if (returnType == int.class || returnType == boolean.class || returnType == short.class
+        || returnType == char.class || returnType == byte.class) {
+      code.write(answer >> 8);
+      code.write(answer);
+      code.write(0xAC);
+      return code.toByteArray();
+    }
+
+    code.write(count >> 8);
+    code.write(count);
+
+    if (returnType == void.class) {
+      code.write(0xB1);
+    } else if (returnType == long.class) {
+      code.write(0x09);
+      code.write(0xAD);
+    } else if (returnType == float.class) {
+      code.write(0x0B);
+      code.write(0xAE);
+    } else if (returnType == double.class) {
+      code.write(0x0E);
+      code.write(0xAF);
+    } else {
+      code.write(0x01);
+      code.write(0xB0);
+    }
+
+    return code.toByteArray();
+  }
+
+  /**
+   * Writes a public method with the given code.
+   *
+   * @param out <code>DataOutputStream</code>
+   * @param pool <code>ConstantPool</code>
+   * @param name <code>String</code>
+   * @param descriptor <code>String</code>
+   * @param maxStack <code>int</code>
+   * @param maxLocals <code>int</code>
+   * @param code <code>byte[]</code>
+   * @return void
+   * @throws IOException never, as the file is written to memory
+   */
+  private static void writeMethod(DataOutputStream out, ConstantPool pool, String name,
+      String descriptor, int maxStack, int maxLocals, byte[] code) throws IOException {
+    out.writeShort(0x0001);
+    out.writeShort(pool.utf8(name));
+    out.writeShort(pool.utf8(descriptor));
+    out.writeShort(1);
+    out.writeShort(pool.utf8("Code"));
+    out.writeInt(12 + code.length);
+    out.writeShort(maxStack);
+    out.writeShort(maxLocals);
+    out.writeInt(code.length);
+    out.write(code);
+    out.writeShort(0);
+    out.writeShort(0);
+  }
+
+  /**
+   * Returns the descriptor of the given method, as in <code>(I[II)V</code>.
+   *
+   * @param method <code>Method</code>
+   * @return <code>String</code>
+   */
+  private static String describe(Method method) {
+
+    // Declaration
+    StringBuilder descriptor;
+
+    descriptor = new StringBuilder("(");
+
+    for (Class<?> parameter : method.getParameterTypes()) {
+      descriptor.append(RecordingGL.describe(parameter));
+    }
+
+    return descriptor.append(')').append(RecordingGL.describe(method.getReturnType()))
+      .toString();
+  }
+
+  /**
+   * Returns the descriptor of the given type, as in <code>[I</code>.
+   *
+   * @param type <code>Class</code>
+   * @return <code>String</code>
+   */
+  private static String describe(Class<?> type) {
+    if (type.isArray()) {
+      return type.getName().replace('.', '/');
+    } else if (!type.isPrimitive()) {
+      return "L" + type.getName().replace('.', '/') + ";";
+    }
+
+    return String.valueOf(RecordingGL.letterOf(type));
+  }
+
+  /**
+   * Returns the descriptor letter of the given primitive type.
+   *
+   * @param type <code>Class</code>
+   * @return <code>char</code>
+   */
+  private static char letterOf(Class<?> type) {
+    return (type == boolean.class) ? 'Z' : (type == byte.class) ? 'B' : (type == char.class)
+      ? 'C' : (type == short.class) ? 'S' : (type == int.class) ? 'I' : (type == long.class)
+      ? 'J' : (type == float.class) ? 'F' : (type == double.class) ? 'D' : 'V';
+  }
+
+  // Inner helper classes
+
+  /**
+   * Constant pool of the generated class, each entry added once.
+   *
+   * @author Andrew Eissen
+   */
+  private static final class ConstantPool {
+
+    // Class fields
+    private final HashMap<String, Integer> indices;
+    private final ByteArrayOutputStream bytes;
+    private final DataOutputStream out;
+    private int next;
+
+    /**
+     * Default constructor
+     */
+    private ConstantPool() {
+      this.indices = new HashMap<>();
+      this.bytes = new ByteArrayOutputStream();
+      this.out = new DataOutputStream(this.bytes);
+      this.next = 1;
+    }
+
+    /**
+     * Returns the index of the given UTF-8 constant, adding it if need be.
+     *
+     * @param value <code>String</code>
+     * @return <code>int</code>
+     */
+    private int utf8(String value) {
+      return this.add("U" + value, () -> {
+        this.out.writeByte(1);
+        this.out.writeUTF(value);
+      });
+    }
+
+    /**
+     * Returns the index of the constant of the class of the given binary name.
+     *
+     * @param name <code>String</code>
+     * @return <code>int</code>
+     */
+    private int clazz(String name) {
+
+      // Declaration
+      int utf8;
+
+      utf8 = this.utf8(name);
+      return this.add("C" + name, () -> {
+        this.out.writeByte(7);
+        this.out.writeShort(utf8);
+      });
+    }
+
+    /**
+     * Returns the index of the constant of the given method of the given class.
+     *
+     * @param owner <code>String</code>
+     * @param name <code>String</code>
+     * @param descriptor <code>String</code>
+     * @return <code>int</code>
+     */
+    private int method(String owner, String name, String descriptor) {
+
+      // Declarations
+      int clazz, nameIndex, descriptorIndex, nameAndType;
+
+      clazz = this.clazz(owner);
+      nameIndex = this.utf8(name);
+      descriptorIndex = this.utf8(descriptor);
+      nameAndType = this.add("N" + name + descriptor, () -> {
+        this.out.writeByte(12);
+        this.out.writeShort(nameIndex);
+        this.out.writeShort(descriptorIndex);
+      });
+
+      return this.add("M" + owner + "." + name + descriptor, () -> {
+        this.out.writeByte(10);
+        this.out.writeShort(clazz);
+        this.out.writeShort(nameAndType);
+      });
+    }
+
+    /**
+     * Writes the count of the pool followed by its entries.
+     *
+     * @param target <code>DataOutputStream</code>
+     * @return void
+     * @throws IOException never, as the file is written to memory
+     */
+    private void write(DataOutputStream target) throws IOException {
+      target.writeShort(this.next);
+      target.write(this.bytes.toByteArray());
+    }
+
+    /**
+     * Returns the index of the entry of the given key, writing it if new.
+     *
+     * @param key <code>String</code>
+     * @param writer <code>Entry</code>
+     * @return <code>int</code>
+     */
+    private int add(String key, Entry writer) {
+
+      // Declaration
+      Integer index;
+
+      index = this.indices.get(key);
+
+      if (index == null) {
+        try {
+          writer.write();
+        } catch (IOException exception) {
+          throw new IllegalStateException(exception);
+        }
+
+        index = this.next++;
+        this.indices.put(key, index);
+      }
+
+      return index;
+    }
+  }
+
+  /**
+   * Writer of a single constant pool entry.
+   *
+   * @author Andrew Eissen
+   */
+  @FunctionalInterface
+  private interface Entry {
+
+    /**
+     * Writes the entry.
+     *
+     * @return void
+     * @throws IOException never, as the file is written to memory
+     */
+    void write() throws IOException;
+  }
+}
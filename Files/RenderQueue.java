@@ -0,0 +1,341 @@
+/**
+ * RenderQueue.java - Sortable buffer of draw commands between scene traversal and submission
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import java.util.Arrays;
+
+/**
+ * Originally, each <code>SceneObject</code> issued its own GL calls as the scene was traversed,
+ * such that the order of submission was simply the order of the objects in the scene, with
+ * colors, matrices, and primitive modes changing back and forth from one call to the next. The
+ * traversal now only records what is to be drawn, as compact commands in this buffer, which
+ * <code>SceneRenderer</code> then sorts and replays. Besides sparing the driver redundant state
+ * changes, this leaves the traversal free of GL calls altogether, such that it may be run off the
+ * thread owning the context.
+ * <br />
+ * <br />
+ * Each command is a range of a mesh's indices to draw for a given node of the
+ * <code>SceneGraph</code>, in the shade of a given <code>MaterialRegistry</code> material,
+ * optionally textured through the texture planes of a given face of the mesh, stored across
+ * parallel primitive arrays rather than as an object per command, and carries a 64-bit sort key
+ * laid out as follows, most significant bits first:
+ * <pre>
+ * pass      2 bits     faces, queried faces, then outlines
+ * depth    16 bits     nearest first, for the benefit of early depth testing
+ * mesh     16 bits     Mesh.getSortKey, keeping draws from the same buffers together
+ * material 16 bits     MaterialRegistry number, keeping draws of one shade together
+ * unused   14 bits
+ * </pre>
+ * Within the pass of queried faces, which holds the objects whose occlusion query is due this
+ * frame, the mesh and material give way to the node itself, keeping the commands of each object
+ * together between the beginning and end of its query.
+ * <br />
+ * <br />
+ * The keys are sorted by a least significant digit radix sort, one byte at a time, which unlike
+ * <code>Arrays.sort</code> neither compares nor allocates, and takes linear time. Bytes shared by
+ * every key, such as the unused ones, are detected from the histograms and skipped outright. The
+ * sort only permutes an array of command indices, the commands themselves staying in place.
+ *
+ * @see graphicsprojecttwo.SceneRenderer
+ * @author Andrew Eissen
+ */
+final class RenderQueue {
+
+  /** Pass of the faces of objects not queried this frame */
+  protected final static int PASS_FACES = 0;
+
+  /** Pass of the faces of objects drawn within an occlusion query */
+  protected final static int PASS_QUERIED = 1;
+
+  /** Pass of the outlines, drawn over every face */
+  protected final static int PASS_OUTLINES = 2;
+
+  /** Face of commands drawn without a texture */
+  protected final static int UNTEXTURED = -1;
+
+  /** Initial capacity of the command arrays, doubled whenever exceeded */
+  private final static int INITIAL_CAPACITY = 256;
+
+  /** Number of distinct depth buckets */
+  private final static int DEPTH_BUCKETS = 1 << 16;
+
+  // Class fields
+  private int count;
+  private long[] keys, keysFrom, keysTo, byteOffsets;
+  private int[] nodes, indexCounts, materials, faces, order, scratch;
+  private final int[] histograms;
+
+  /**
+   * Default constructor
+   */
+  protected RenderQueue() {
+    this.count = 0;
+    this.keys = new long[RenderQueue.INITIAL_CAPACITY];
+    this.keysFrom = new long[RenderQueue.INITIAL_CAPACITY];
+    this.keysTo = new long[RenderQueue.INITIAL_CAPACITY];
+    this.byteOffsets = new long[RenderQueue.INITIAL_CAPACITY];
+    this.nodes = new int[RenderQueue.INITIAL_CAPACITY];
+    this.indexCounts = new int[RenderQueue.INITIAL_CAPACITY];
+    this.materials = new int[RenderQueue.INITIAL_CAPACITY];
+    this.faces = new int[RenderQueue.INITIAL_CAPACITY];
+    this.order = new int[RenderQueue.INITIAL_CAPACITY];
+    this.scratch = new int[RenderQueue.INITIAL_CAPACITY];
+    this.histograms = new int[8 * 256];
+  }
+
+  // Getters
+
+  /**
+   * Returns the number of commands in the queue.
+   *
+   * @return <code>int</code>
+   */
+  protected int size() {
+    return this.count;
+  }
+
+  /**
+   * Returns the sort key of the command at the given position in sorted order.
+   *
+   * @param position <code>int</code>
+   * @return <code>long</code>
+   */
+  protected long getKey(int position) {
+    return this.keys[this.order[position]];
+  }
+
+  /**
+   * Returns the node of the command at the given position in sorted order.
+   *
+   * @param position <code>int</code>
+   * @return <code>int</code>
+   */
+  protected int getNode(int position) {
+    return this.nodes[this.order[position]];
+  }
+
+  /**
+   * Returns the byte offset of the first index of the command at the given position in sorted
+   * order, within the segment of the node's mesh.
+   *
+   * @param position <code>int</code>
+   * @return <code>long</code>
+   */
+  protected long getByteOffset(int position) {
+    return this.byteOffsets[this.order[position]];
+  }
+
+  /**
+   * Returns the number of indices drawn by the command at the given position in sorted order.
+   *
+   * @param position <code>int</code>
+   * @return <code>int</code>
+   */
+  protected int getIndexCount(int position) {
+    return this.indexCounts[this.order[position]];
+  }
+
+  /**
+   * Returns the number of the <code>MaterialRegistry</code> material of the command at the given
+   * position in sorted order.
+   *
+   * @param position <code>int</code>
+   * @return <code>int</code>
+   */
+  protected int getMaterial(int position) {
+    return this.materials[this.order[position]];
+  }
+
+  /**
+   * Returns the face of the node's mesh whose texture planes apply to the command at the given
+   * position in sorted order, or <code>RenderQueue.UNTEXTURED</code>.
+   *
+   * @param position <code>int</code>
+   * @return <code>int</code>
+   */
+  protected int getFace(int position) {
+    return this.faces[this.order[position]];
+  }
+
+  /**
+   * Returns the pass encoded in the given sort key.
+   *
+   * @param key <code>long</code>
+   * @return <code>int</code>
+   */
+  protected static int getPass(long key) {
+    return (int) (key >>> 62);
+  }
+
+  // Utility methods
+
+  /**
+   * Builds the sort key of a command of the faces or outlines pass.
+   *
+   * @param pass <code>int</code> <code>RenderQueue.PASS_FACES</code> or
+   *     <code>RenderQueue.PASS_OUTLINES</code>
+   * @param depth <code>int</code> bucket from <code>RenderQueue.toDepthBucket</code>
+   * @param mesh <code>int</code> from <code>Mesh.getSortKey</code>
+   * @param material <code>int</code> number from <code>MaterialRegistry.intern</code>
+   * @return <code>long</code>
+   */
+  protected static long toKey(int pass, int depth, int mesh, int material) {
+    return ((long) pass << 62) | ((long) (depth & 0xFFFF) << 46) | ((long) (mesh & 0xFFFF) << 30)
+      | ((long) (material & 0xFFFF) << 14);
+  }
+
+  /**
+   * Builds the sort key of a command of the queried faces pass.
+   *
+   * @param depth <code>int</code> bucket from <code>RenderQueue.toDepthBucket</code>
+   * @param node <code>int</code>
+   * @return <code>long</code>
+   */
+  protected static long toQueriedKey(int depth, int node) {
+    return ((long) RenderQueue.PASS_QUERIED << 62) | ((long) (depth & 0xFFFF) << 46)
+      | (node & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Quantizes a depth in [0, 1], zero being nearest, into a bucket of the sort key. Depths out of
+   * range are clamped.
+   *
+   * @param depth <code>double</code>
+   * @return <code>int</code>
+   */
+  protected static int toDepthBucket(double depth) {
+    return (int) (Math.max(0.0, Math.min(1.0, depth)) * (RenderQueue.DEPTH_BUCKETS - 1));
+  }
+
+  /**
+   * Empties the queue, keeping its capacity.
+   *
+   * @return void
+   */
+  protected void clear() {
+    this.count = 0;
+  }
+
+  /**
+   * Appends a command to the queue.
+   *
+   * @param key <code>long</code> sort key, from <code>RenderQueue.toKey</code> or
+   *     <code>RenderQueue.toQueriedKey</code>
+   * @param node <code>int</code>
+   * @param byteOffset <code>long</code> offset of the first index within the mesh's segment
+   * @param indexCount <code>int</code>
+   * @param material <code>int</code> number from <code>MaterialRegistry.intern</code>
+   * @param face <code>int</code> face whose texture planes apply, or
+   *     <code>RenderQueue.UNTEXTURED</code>
+   * @return void
+   */
+  protected void add(long key, int node, long byteOffset, int indexCount, int material,
+      int face) {
+    if (this.count == this.keys.length) {
+      this.grow(this.count * 2);
+    }
+
+    this.keys[this.count] = key;
+    this.nodes[this.count] = node;
+    this.byteOffsets[this.count] = byteOffset;
+    this.indexCounts[this.count] = indexCount;
+    this.materials[this.count] = material;
+    this.faces[this.count] = face;
+    this.count++;
+  }
+
+  /**
+   * Sorts the commands by key, stably, such that commands of equal keys are replayed in the order
+   * added.
+   *
+   * @return void
+   */
+  protected void sort() {
+
+    // Declarations
+    int[] from, to, swap;
+    long[] keysFrom, keysTo, keysSwap;
+    int digit, base, sum, next;
+
+    if (this.count == 0) {
+      return;
+    }
+
+    // Histograms of all eight bytes in a single pass over the keys
+    Arrays.fill(this.histograms, 0);
+
+    for (int i = 0; i < this.count; i++) {
+      for (int b = 0; b < 8; b++) {
+        this.histograms[b * 256 + (int) ((this.keys[i] >>> (b * 8)) & 0xFF)]++;
+      }
+    }
+
+    from = this.order;
+    to = this.scratch;
+    keysFrom = this.keysFrom;
+    keysTo = this.keysTo;
+
+    for (int i = 0; i < this.count; i++) {
+      from[i] = i;
+      keysFrom[i] = this.keys[i];
+    }
+
+    for (int b = 0; b < 8; b++) {
+      base = b * 256;
+
+      // Every key shares this byte, so the pass would leave the order as it is
+      if (this.histograms[base + (int) ((this.keys[0] >>> (b * 8)) & 0xFF)] == this.count) {
+        continue;
+      }
+
+      sum = 0;
+
+      for (int d = 0; d < 256; d++) {
+        next = sum + this.histograms[base + d];
+        this.histograms[base + d] = sum;
+        sum = next;
+      }
+
+      for (int i = 0; i < this.count; i++) {
+        digit = (int) ((keysFrom[i] >>> (b * 8)) & 0xFF);
+        next = this.histograms[base + digit]++;
+        to[next] = from[i];
+        keysTo[next] = keysFrom[i];
+      }
+
+      swap = from;
+      from = to;
+      to = swap;
+      keysSwap = keysFrom;
+      keysFrom = keysTo;
+      keysTo = keysSwap;
+    }
+
+    this.order = from;
+    this.scratch = to;
+  }
+
+  // Helper methods
+
+  /**
+   * Grows every command array to the given capacity.
+   *
+   * @param capacity <code>int</code>
+   * @return void
+   */
+  private void grow(int capacity) {
+    this.keys = Arrays.copyOf(this.keys, capacity);
+    this.keysFrom = new long[capacity];
+    this.keysTo = new long[capacity];
+    this.byteOffsets = Arrays.copyOf(this.byteOffsets, capacity);
+    this.nodes = Arrays.copyOf(this.nodes, capacity);
+    this.indexCounts = Arrays.copyOf(this.indexCounts, capacity);
+    this.materials = Arrays.copyOf(this.materials, capacity);
+    this.faces = Arrays.copyOf(this.faces, capacity);
+    this.order = new int[capacity];
+    this.scratch = new int[capacity];
+  }
+}
@@ -0,0 +1,291 @@
+/**
+ * RenderScaleController.java - Feedback loop picking the internal resolution of the scene
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+/**
+ * Now that the window may be resized at will, a large window on a weak machine could easily ask
+ * for more pixels per frame than the machine can fill in time. Rather than letting the frame rate
+ * collapse, <code>ScenePanel</code> renders the scene into its <code>FrameCache</code> at a
+ * fraction of the window's resolution, the render scale, and stretches the result over the window
+ * when presenting it. This class picks that fraction from the frame times measured by
+ * <code>FrameTimer</code>, steering it toward a target frame time.
+ * <br />
+ * <br />
+ * The measured times are smoothed by an exponential moving average. As the cost of filling the
+ * frame grows with the square of the scale, the scale is lowered in proportion to the square root
+ * of the ratio of the target to the average whenever the average is over target. It is only
+ * raised again one step at a time, and only once the average falls well below the target, so
+ * that the controller does not oscillate around the point where the next step up would overshoot.
+ * Scales are always multiples of <code>RenderScaleController.STEP</code>, sparing the framebuffer
+ * from being reallocated over every minor fluctuation, and after each change the controller holds
+ * still for a few frames so that the effect of the change is measured before acting again.
+ * <br />
+ * <br />
+ * The controller is configured through the following system properties:
+ * <pre>
+ * - graphicsprojecttwo.frame.target         target frame time in milliseconds (16.667)
+ * - graphicsprojecttwo.renderscale          initial, or fixed, render scale (1.0)
+ * - graphicsprojecttwo.renderscale.min      lowest render scale allowed (0.5)
+ * - graphicsprojecttwo.renderscale.auto     whether the scale is adjusted at all (true)
+ * </pre>
+ * A value that is no number is replaced by its default, and one out of range is clamped into it,
+ * the target into [1, 1000] ms, the minimum into [1/16, 1], and the initial scale into
+ * [minimum, 1], with a warning either way rather than an error keeping the window from opening.
+ * The <code>QualityGovernor</code> may further cap the scale below one as one of its steps, in
+ * which case the controller keeps to the cap while raising the scale but still lowers it past the
+ * cap if the frame time demands.
+ *
+ * @see graphicsprojecttwo.FrameTimer
+ * @see graphicsprojecttwo.FrameCache
+ * @author Andrew Eissen
+ */
+final class RenderScaleController {
+
+  /** Granularity of the render scale */
+  private final static double STEP = 1.0 / 16.0;
+
+  /** Target frame time in milliseconds, 60 frames per second unless overridden */
+  private final static double TARGET_MS = RenderScaleController.readProperty(
+    "graphicsprojecttwo.frame.target", 16.667, 1.0, 1000.0);
+
+  /** Lowest render scale the controller may settle on */
+  private final static double MIN_SCALE = RenderScaleController.readProperty(
+    "graphicsprojecttwo.renderscale.min", 0.5, RenderScaleController.STEP, 1.0);
+
+  /** Render scale used from the start, and throughout if not automatic */
+  private final static double INITIAL_SCALE = RenderScaleController.readProperty(
+    "graphicsprojecttwo.renderscale", 1.0, RenderScaleController.MIN_SCALE, 1.0);
+
+  /** Whether the render scale is adjusted from measured frame times */
+  private final static boolean IS_AUTOMATIC =
+    Boolean.parseBoolean(System.getProperty("graphicsprojecttwo.renderscale.auto", "true"));
+
+  /** Weight of each new sample in the moving average of frame times */
+  private final static double SMOOTHING = 0.2;
+
+  /** Fraction of the target below which the average must fall before the scale is raised */
+  private final static double HEADROOM = 0.7;
+
+  /** Number of frames measured after a change before the scale may change again */
+  private final static int HOLD_FRAMES = 8;
+
+  // Class fields
+  private final double targetMs, minScale;
+  private final boolean isAutomatic;
+  private double scale, maxScale, averageMs, lastAverageMs;
+  private int holdFrames;
+
+  /**
+   * Default constructor, configured from the system properties
+   */
+  protected RenderScaleController() {
+    this(RenderScaleController.TARGET_MS, RenderScaleController.MIN_SCALE,
+      RenderScaleController.INITIAL_SCALE, RenderScaleController.IS_AUTOMATIC);
+  }
+
+  /**
+   * Parameterized constructor
+   *
+   * @param targetMs <code>double</code> target frame time in milliseconds
+   * @param minScale <code>double</code> lowest render scale, in (0, 1]
+   * @param initialScale <code>double</code> starting render scale, in [minScale, 1]
+   * @param isAutomatic <code>boolean</code> whether to adjust the scale at all
+   */
+  protected RenderScaleController(double targetMs, double minScale, double initialScale,
+      boolean isAutomatic) {
+    if (!(targetMs > 0.0) || !(minScale > 0.0) || minScale > 1.0 || initialScale < minScale
+        || initialScale > 1.0) {
+      throw new IllegalArgumentException("Invalid render scale settings: target " + targetMs
+        + " ms, minimum " + minScale + ", initial " + initialScale);
+    }
+
+    this.targetMs = targetMs;
+    this.minScale = minScale;
+    this.isAutomatic = isAutomatic;
+    this.scale = initialScale;
+    this.maxScale = 1.0;
+    this.averageMs = Double.NaN;
+    this.lastAverageMs = Double.NaN;
+    this.holdFrames = 0;
+  }
+
+  // Setters
+
+  /**
+   * Setter for <code>RenderScaleController.maxScale</code>, the highest render scale the
+   * controller may settle on, clamped to [minScale, 1]. A scale above a newly lowered cap is
+   * brought down to it at once, and measuring starts afresh.
+   *
+   * @param maxScale <code>double</code>
+   * @return void
+   */
+  protected void setMaxScale(double maxScale) {
+    this.maxScale = Math.max(this.minScale, Math.min(1.0, maxScale));
+
+    if (this.isAutomatic && this.scale > this.maxScale) {
+      this.scale = Math.floor(this.maxScale / RenderScaleController.STEP)
+        * RenderScaleController.STEP;
+      this.scale = Math.max(this.minScale, this.scale);
+      this.averageMs = Double.NaN;
+      this.holdFrames = RenderScaleController.HOLD_FRAMES;
+    }
+  }
+
+  // Getters
+
+  /**
+   * Getter for <code>RenderScaleController.scale</code>, the current fraction of the window's
+   * resolution at which the scene is rendered
+   *
+   * @return scale <code>double</code>
+   */
+  protected double getScale() {
+    return this.scale;
+  }
+
+  /**
+   * Getter for <code>RenderScaleController.maxScale</code>
+   *
+   * @return maxScale <code>double</code>
+   */
+  protected double getMaxScale() {
+    return this.maxScale;
+  }
+
+  /**
+   * Getter for <code>RenderScaleController.targetMs</code>, the frame time aimed for
+   *
+   * @return targetMs <code>double</code>
+   */
+  protected double getTargetMs() {
+    return this.targetMs;
+  }
+
+  /**
+   * Getter for <code>RenderScaleController.averageMs</code>, the smoothed frame time since the
+   * last change of scale, <code>Double.NaN</code> if no frame has been measured since
+   *
+   * @return averageMs <code>double</code>
+   */
+  protected double getAverageMs() {
+    return this.averageMs;
+  }
+
+  /**
+   * Getter for <code>RenderScaleController.lastAverageMs</code>, the smoothed frame time that
+   * prompted the most recent change of scale
+   *
+   * @return lastAverageMs <code>double</code>
+   */
+  protected double getLastAverageMs() {
+    return this.lastAverageMs;
+  }
+
+  /**
+   * Returns the given window dimension scaled down to the current render scale, at least one.
+   *
+   * @param size <code>int</code> width or height in pixels
+   * @return <code>int</code>
+   */
+  protected int getScaledSize(int size) {
+    return Math.max(1, (int) Math.round(size * this.scale));
+  }
+
+  // Utility methods
+
+  /**
+   * Reads a numeric system property, falling back on the default if the property is absent or
+   * no number, and clamping it into the given range otherwise. Either case is reported on the
+   * standard error stream rather than thrown.
+   *
+   * @param key <code>String</code> name of the property
+   * @param fallback <code>double</code> value if the property is absent or malformed
+   * @param min <code>double</code> lowest value allowed
+   * @param max <code>double</code> highest value allowed
+   * @return <code>double</code>
+   */
+  private static double readProperty(String key, double fallback, double min, double max) {
+
+    // Declarations
+    String property;
+    double value;
+
+    property = System.getProperty(key);
+
+    if (property == null) {
+      return fallback;
+    }
+
+    try {
+      value = Double.parseDouble(property.trim());
+    } catch (NumberFormatException ex) {
+      System.err.println("Warning: " + key + "=" + property + " is no number, using "
+        + fallback);
+      return fallback;
+    }
+
+    if (Double.isNaN(value)) {
+      System.err.println("Warning: " + key + "=" + property + " is no number, using "
+        + fallback);
+      return fallback;
+    }
+
+    if (value < min || value > max) {
+      value = Math.max(min, Math.min(max, value));
+      System.err.println("Warning: " + key + "=" + property + " is out of range, using "
+        + value);
+    }
+
+    return value;
+  }
+
+  /**
+   * Feeds the time taken by a frame to the controller, returning whether the render scale changed
+   * as a result. Samples of <code>Double.NaN</code>, meaning no frame completed, are ignored.
+   *
+   * @param frameMs <code>double</code>
+   * @return <code>boolean</code>
+   */
+  protected boolean update(double frameMs) {
+
+    // Declaration
+    double next;
+
+    if (!this.isAutomatic || Double.isNaN(frameMs)) {
+      return false;
+    }
+
+    this.averageMs = (Double.isNaN(this.averageMs))
+      ? frameMs
+      : this.averageMs + RenderScaleController.SMOOTHING * (frameMs - this.averageMs);
+
+    if (this.holdFrames > 0) {
+      this.holdFrames--;
+      return false;
+    }
+
+    if (this.averageMs > this.targetMs) {
+      next = Math.floor(this.scale * Math.sqrt(this.targetMs / this.averageMs)
+        / RenderScaleController.STEP) * RenderScaleController.STEP;
+      next = Math.max(this.minScale, Math.min(next, this.scale - RenderScaleController.STEP));
+    } else if (this.averageMs < this.targetMs * RenderScaleController.HEADROOM) {
+      next = Math.min(1.0, this.scale + RenderScaleController.STEP);
+    } else {
+      return false;
+    }
+
+    if (next == this.scale || next > this.maxScale) {
+      return false;
+    }
+
+    // Start measuring afresh at the new scale
+    this.scale = next;
+    this.lastAverageMs = this.averageMs;
+    this.averageMs = Double.NaN;
+    this.holdFrames = RenderScaleController.HOLD_FRAMES;
+    return true;
+  }
+}
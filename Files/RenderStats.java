@@ -0,0 +1,201 @@
+/**
+ * RenderStats.java - Per-frame counters of the work submitted to OpenGL
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+/**
+ * A small set of counters reset at the start of every frame by <code>SceneRenderer</code> and
+ * bumped as it records objects and issues draw calls, so that the cost of a frame can be reported
+ * in terms independent of the machine running it. The counters are plain fields, as a given
+ * instance is only ever touched by one thread at a time; readers on other threads should only look
+ * at the values once the frame is complete.
+ * <br />
+ * <br />
+ * Alongside the work itself, the GL calls issued to submit it are counted by the categories of
+ * <code>GLStateFilter</code>, as are the calls the filter dropped as redundant, such that the call
+ * budget of a frame can be watched directly. Texture binds are counted apart, being the state
+ * change the <code>TextureAtlas</code> is meant to keep at one per frame.
+ *
+ * @see graphicsprojecttwo.SceneRenderer
+ * @see graphicsprojecttwo.Benchmark
+ * @author Andrew Eissen
+ */
+final class RenderStats {
+
+  // Class fields
+  private int objects, drawCalls, triangles, skipped, occluded, textureBinds;
+  private final int[] glCalls, filteredGLCalls;
+
+  /**
+   * Default constructor
+   */
+  protected RenderStats() {
+    this.glCalls = new int[GLStateFilter.CATEGORIES];
+    this.filteredGLCalls = new int[GLStateFilter.CATEGORIES];
+    this.reset();
+  }
+
+  // Getters
+
+  /**
+   * Getter for <code>RenderStats.objects</code>, the number of objects drawn this frame
+   *
+   * @return objects <code>int</code>
+   */
+  protected int getObjects() {
+    return this.objects;
+  }
+
+  /**
+   * Getter for <code>RenderStats.drawCalls</code>, the number of draw calls issued this frame
+   *
+   * @return drawCalls <code>int</code>
+   */
+  protected int getDrawCalls() {
+    return this.drawCalls;
+  }
+
+  /**
+   * Getter for <code>RenderStats.triangles</code>, the number of filled triangles drawn this frame
+   *
+   * @return triangles <code>int</code>
+   */
+  protected int getTriangles() {
+    return this.triangles;
+  }
+
+  /**
+   * Getter for <code>RenderStats.skipped</code>, the number of objects left out of this frame as
+   * too small to matter
+   *
+   * @return skipped <code>int</code>
+   */
+  protected int getSkipped() {
+    return this.skipped;
+  }
+
+  /**
+   * Getter for <code>RenderStats.occluded</code>, the number of objects left out of this frame as
+   * hidden behind others
+   *
+   * @return occluded <code>int</code>
+   */
+  protected int getOccluded() {
+    return this.occluded;
+  }
+
+  /**
+   * Getter for <code>RenderStats.textureBinds</code>, the number of textures bound this frame
+   *
+   * @return textureBinds <code>int</code>
+   */
+  protected int getTextureBinds() {
+    return this.textureBinds;
+  }
+
+  /**
+   * Returns the number of GL calls of the given category issued this frame.
+   *
+   * @param category <code>int</code> one of <code>GLStateFilter.STATE</code>,
+   *     <code>GLStateFilter.DRAW</code>, <code>GLStateFilter.MATRIX</code>, or
+   *     <code>GLStateFilter.VERTEX</code>
+   * @return <code>int</code>
+   */
+  protected int getGLCalls(int category) {
+    return this.glCalls[category];
+  }
+
+  /**
+   * Returns the number of GL calls of the given category dropped as redundant this frame.
+   *
+   * @param category <code>int</code> one of the <code>GLStateFilter</code> categories
+   * @return <code>int</code>
+   */
+  protected int getFilteredGLCalls(int category) {
+    return this.filteredGLCalls[category];
+  }
+
+  // Utility methods
+
+  /**
+   * Zeroes every counter, called at the start of every frame.
+   *
+   * @return void
+   */
+  protected void reset() {
+    this.objects = 0;
+    this.drawCalls = 0;
+    this.triangles = 0;
+    this.skipped = 0;
+    this.occluded = 0;
+    this.textureBinds = 0;
+
+    for (int i = 0; i < GLStateFilter.CATEGORIES; i++) {
+      this.glCalls[i] = 0;
+      this.filteredGLCalls[i] = 0;
+    }
+  }
+
+  /**
+   * Records a single object having been drawn.
+   *
+   * @return void
+   */
+  protected void addObject() {
+    this.objects++;
+  }
+
+  /**
+   * Records a single object having been left out of the frame.
+   *
+   * @return void
+   */
+  protected void addSkipped() {
+    this.skipped++;
+  }
+
+  /**
+   * Records a single object having been found hidden behind others.
+   *
+   * @return void
+   */
+  protected void addOccluded() {
+    this.occluded++;
+  }
+
+  /**
+   * Records a single draw call covering the given number of filled triangles, zero for lines.
+   *
+   * @param triangles <code>int</code>
+   * @return void
+   */
+  protected void addDrawCall(int triangles) {
+    this.drawCalls++;
+    this.triangles += triangles;
+  }
+
+  /**
+   * Records the GL calls of the given category issued and dropped.
+   *
+   * @param category <code>int</code> one of the <code>GLStateFilter</code> categories
+   * @param issued <code>int</code>
+   * @param filtered <code>int</code>
+   * @return void
+   */
+  protected void addGLCalls(int category, int issued, int filtered) {
+    this.glCalls[category] += issued;
+    this.filteredGLCalls[category] += filtered;
+  }
+
+  /**
+   * Records the given number of texture binds having been issued.
+   *
+   * @param textureBinds <code>int</code>
+   * @return void
+   */
+  protected void addTextureBinds(int textureBinds) {
+    this.textureBinds += textureBinds;
+  }
+}
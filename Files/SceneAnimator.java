@@ -0,0 +1,376 @@
+/**
+ * SceneAnimator.java - Spinning, orbiting, and bobbing tracks of scene graph nodes, updated in bulk
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Originally, the only thing in the scene that could move at all was the camera, driven by the
+ * fields of <code>ScenePanel</code>, while each <code>SceneObject</code> stayed wherever its
+ * constructor had put it. This class animates the nodes of a <code>SceneGraph</code> instead,
+ * through any number of simple periodic tracks, each attached to a single node:
+ * <pre>
+ * - spin     rotation about the x, y, or z-axis at a constant rate
+ * - orbit    circle in the parent's xz-plane through the node's rest position
+ * - bob      sinusoidal rise and fall along the y-axis about the rest position
+ * </pre>
+ * A node may carry at most one track of each kind (and one spin per axis), as two tracks of the
+ * same kind would fight over the same component of the node's local transformation.
+ * <br />
+ * <br />
+ * As scenes may hold many thousands of animated objects, the tracks are stored in
+ * structure-of-arrays form, one primitive array per parameter indexed by track, rather than as an
+ * object per track. <code>SceneAnimator.evaluate</code> then walks these arrays once per frame,
+ * writing the results straight into the local transformation arrays of the graph without any
+ * allocation per track. Past <code>SceneAnimator.PARALLEL_THRESHOLD</code> tracks, the walk is
+ * split into fixed chunks spread over the common fork/join pool; as the tracks of different kinds
+ * write different components of a node, chunks never write the same array element. The task of
+ * each chunk is kept and reinitialized from one frame to the next rather than created anew, such
+ * that a frame allocates nothing even then. The touched
+ * nodes are then flagged on the calling thread, so that the following
+ * <code>SceneGraph.update</code> recomputes the world matrices and bounds of those nodes only.
+ *
+ * @see graphicsprojecttwo.SceneGraph
+ * @author Andrew Eissen
+ */
+final class SceneAnimator {
+
+  /** Kind of a track rotating its node about one axis */
+  protected final static byte SPIN = 0;
+
+  /** Kind of a track moving its node along a circle in the parent's xz-plane */
+  protected final static byte ORBIT = 1;
+
+  /** Kind of a track raising and lowering its node along the y-axis */
+  protected final static byte BOB = 2;
+
+  /** Number of tracks past which evaluation is spread over the common fork/join pool */
+  private final static int PARALLEL_THRESHOLD =
+    Integer.getInteger("graphicsprojecttwo.animation.parallel", 8192);
+
+  /** Number of tracks evaluated by a single task of a parallel evaluation */
+  private final static int CHUNK_SIZE = 2048;
+
+  /** Initial capacity of the track arrays, doubled whenever exceeded */
+  private final static int INITIAL_CAPACITY = 16;
+
+  // Class fields
+  private final SceneGraph sceneGraph;
+  private Chunk[] chunks;
+  private int count;
+  private int[] node;
+  private byte[] kind, axis, claims;
+  private float[] rate, extent, phase, restA, restB;
+  private double seconds;
+
+  /**
+   * Parameterized constructor
+   *
+   * @param sceneGraph <code>SceneGraph</code> whose nodes are animated
+   */
+  protected SceneAnimator(SceneGraph sceneGraph) {
+    this.sceneGraph = sceneGraph;
+    this.chunks = new Chunk[0];
+    this.count = 0;
+    this.node = new int[SceneAnimator.INITIAL_CAPACITY];
+    this.kind = new byte[SceneAnimator.INITIAL_CAPACITY];
+    this.axis = new byte[SceneAnimator.INITIAL_CAPACITY];
+    this.rate = new float[SceneAnimator.INITIAL_CAPACITY];
+    this.extent = new float[SceneAnimator.INITIAL_CAPACITY];
+    this.phase = new float[SceneAnimator.INITIAL_CAPACITY];
+    this.restA = new float[SceneAnimator.INITIAL_CAPACITY];
+    this.restB = new float[SceneAnimator.INITIAL_CAPACITY];
+    this.claims = new byte[0];
+  }
+
+  // Getters
+
+  /**
+   * Returns the number of tracks.
+   *
+   * @return <code>int</code>
+   */
+  protected int size() {
+    return this.count;
+  }
+
+  /**
+   * Returns the node animated by the given track.
+   *
+   * @param track <code>int</code>
+   * @return <code>int</code>
+   */
+  protected int getNode(int track) {
+    return this.node[track];
+  }
+
+  /**
+   * Returns the kind of the given track, one of <code>SceneAnimator.SPIN</code>,
+   * <code>SceneAnimator.ORBIT</code>, or <code>SceneAnimator.BOB</code>.
+   *
+   * @param track <code>int</code>
+   * @return <code>byte</code>
+   */
+  protected byte getKind(int track) {
+    return this.kind[track];
+  }
+
+  // Utility methods
+
+  /**
+   * Spins a node about one of its local axes, starting from its current rotation.
+   *
+   * @param node <code>int</code>
+   * @param axis <code>int</code> 0, 1, or 2 for x, y, or z
+   * @param degreesPerSecond <code>float</code>
+   * @return <code>int</code> track handle
+   */
+  protected int addSpin(int node, int axis, float degreesPerSecond) {
+    if (axis < 0 || axis > 2) {
+      throw new IllegalArgumentException("No such axis " + axis);
+    }
+
+    return this.addTrack(node, SceneAnimator.SPIN, axis, degreesPerSecond, 0.0f, 0.0f,
+      this.sceneGraph.getLocalRotation(node, axis), 0.0f);
+  }
+
+  /**
+   * Moves a node along a circle of the given radius in its parent's xz-plane. The circle passes
+   * through the node's current position at the given phase, so that the node starts out where it
+   * was placed.
+   *
+   * @param node <code>int</code>
+   * @param radius <code>float</code>
+   * @param degreesPerSecond <code>float</code> angular speed, negative for clockwise from above
+   * @param phaseDegrees <code>float</code> angle of the current position along the circle
+   * @return <code>int</code> track handle
+   */
+  protected int addOrbit(int node, float radius, float degreesPerSecond, float phaseDegrees) {
+
+    // Declaration
+    double angle;
+
+    angle = Math.toRadians(phaseDegrees);
+
+    return this.addTrack(node, SceneAnimator.ORBIT, 0, degreesPerSecond, radius, phaseDegrees,
+      (float) (this.sceneGraph.getLocalTranslation(node, 0) - radius * Math.cos(angle)),
+      (float) (this.sceneGraph.getLocalTranslation(node, 2) - radius * Math.sin(angle)));
+  }
+
+  /**
+   * Raises and lowers a node about its current height.
+   *
+   * @param node <code>int</code>
+   * @param amplitude <code>float</code> greatest distance from the current height
+   * @param cyclesPerSecond <code>float</code>
+   * @param phaseDegrees <code>float</code> initial phase of the sine wave
+   * @return <code>int</code> track handle
+   */
+  protected int addBob(int node, float amplitude, float cyclesPerSecond, float phaseDegrees) {
+    return this.addTrack(node, SceneAnimator.BOB, 1, cyclesPerSecond * 360.0f, amplitude,
+      phaseDegrees, this.sceneGraph.getLocalTranslation(node, 1), 0.0f);
+  }
+
+  /**
+   * Poses every animated node as of the given time since the start of the animation, leaving the
+   * touched nodes dirty for the next <code>SceneGraph.update</code>.
+   *
+   * @param seconds <code>double</code>
+   * @return void
+   */
+  protected void evaluate(double seconds) {
+
+    // Declaration
+    int chunkCount;
+
+    this.seconds = seconds;
+
+    if (this.count < SceneAnimator.PARALLEL_THRESHOLD) {
+      this.evaluateRange(0, this.count);
+    } else {
+      chunkCount = (this.count + SceneAnimator.CHUNK_SIZE - 1) / SceneAnimator.CHUNK_SIZE;
+
+      // Tasks are only created when tracks are added, and otherwise reused
+      if (this.chunks.length != chunkCount) {
+        this.chunks = new Chunk[chunkCount];
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+          this.chunks[chunk] = new Chunk(chunk);
+        }
+      } else {
+        for (Chunk chunk : this.chunks) {
+          chunk.reinitialize();
+        }
+      }
+
+      ForkJoinTask.invokeAll(this.chunks);
+    }
+
+    // Flagging appends to the graph's dirty list, and so stays on this thread
+    for (int track = 0; track < this.count; track++) {
+      this.sceneGraph.invalidate(this.node[track]);
+    }
+  }
+
+  // Helper methods
+
+  /**
+   * Appends a track to the arrays, after checking that it does not conflict with another track of
+   * the same node.
+   *
+   * @param node <code>int</code>
+   * @param kind <code>byte</code>
+   * @param axis <code>int</code> component written by the track
+   * @param rate <code>float</code> degrees per second
+   * @param extent <code>float</code> radius or amplitude
+   * @param phase <code>float</code> degrees
+   * @param restA <code>float</code> rest rotation, orbit center x, or rest height
+   * @param restB <code>float</code> orbit center z
+   * @return <code>int</code>
+   */
+  private int addTrack(int node, byte kind, int axis, float rate, float extent, float phase,
+      float restA, float restB) {
+
+    // Declarations
+    int claim, track;
+
+    if (node < 0 || node >= this.sceneGraph.size()) {
+      throw new IllegalArgumentException("No such node " + node);
+    }
+
+    if (node >= this.claims.length) {
+      this.claims = Arrays.copyOf(this.claims, Math.max(this.sceneGraph.size(), node + 1));
+    }
+
+    // One bit per spin axis, then one each for orbit and bob
+    claim = (kind == SceneAnimator.SPIN) ? 1 << axis : 1 << (kind + 2);
+
+    if ((this.claims[node] & claim) != 0) {
+      throw new IllegalArgumentException("Node " + node + " already has such a track");
+    }
+
+    if (this.count == this.node.length) {
+      this.grow(this.count * 2);
+    }
+
+    track = this.count++;
+    this.claims[node] |= claim;
+    this.node[track] = node;
+    this.kind[track] = kind;
+    this.axis[track] = (byte) axis;
+    this.rate[track] = rate;
+    this.extent[track] = extent;
+    this.phase[track] = phase;
+    this.restA[track] = restA;
+    this.restB[track] = restB;
+    return track;
+  }
+
+  /**
+   * Evaluates a single chunk of a parallel evaluation.
+   *
+   * @param chunk <code>int</code>
+   * @return void
+   */
+  private void evaluateChunk(int chunk) {
+    this.evaluateRange(chunk * SceneAnimator.CHUNK_SIZE,
+      Math.min(this.count, (chunk + 1) * SceneAnimator.CHUNK_SIZE));
+  }
+
+  /**
+   * Evaluates the tracks in the given range, writing the graph's local transformation arrays.
+   *
+   * @param from <code>int</code> first track, inclusive
+   * @param to <code>int</code> last track, exclusive
+   * @return void
+   */
+  private void evaluateRange(int from, int to) {
+
+    // Declarations
+    float[] translations, rotations;
+    double angle;
+    int o;
+
+    translations = this.sceneGraph.getLocalTranslations();
+    rotations = this.sceneGraph.getLocalRotations();
+
+    for (int track = from; track < to; track++) {
+      o = this.node[track] * 3;
+
+      // Kept in double and wrapped, so that long-running animations do not lose precision
+      angle = (this.phase[track] + this.rate[track] * this.seconds) % 360.0;
+
+      switch (this.kind[track]) {
+        case SceneAnimator.SPIN:
+          rotations[o + this.axis[track]] = (float) (this.restA[track] + angle);
+          break;
+        case SceneAnimator.ORBIT:
+          angle = Math.toRadians(angle);
+          translations[o] = (float) (this.restA[track] + this.extent[track] * Math.cos(angle));
+          translations[o + 2] = (float) (this.restB[track] + this.extent[track] * Math.sin(angle));
+          break;
+        default:
+          translations[o + 1] = (float) (this.restA[track]
+            + this.extent[track] * Math.sin(Math.toRadians(angle)));
+          break;
+      }
+    }
+  }
+
+  /**
+   * Grows every track array to the given capacity.
+   *
+   * @param capacity <code>int</code>
+   * @return void
+   */
+  private void grow(int capacity) {
+    this.node = Arrays.copyOf(this.node, capacity);
+    this.kind = Arrays.copyOf(this.kind, capacity);
+    this.axis = Arrays.copyOf(this.axis, capacity);
+    this.rate = Arrays.copyOf(this.rate, capacity);
+    this.extent = Arrays.copyOf(this.extent, capacity);
+    this.phase = Arrays.copyOf(this.phase, capacity);
+    this.restA = Arrays.copyOf(this.restA, capacity);
+    this.restB = Arrays.copyOf(this.restB, capacity);
+  }
+
+  // Inner helper classes
+
+  /**
+   * Task evaluating a single chunk of a parallel evaluation, reused from one frame to the next.
+   *
+   * @author Andrew Eissen
+   */
+  private final class Chunk extends RecursiveAction {
+
+    /** Version of the serialized form inherited from <code>RecursiveAction</code>, never used */
+    private final static long serialVersionUID = 1L;
+
+    // Class fields
+    private final int chunk;
+
+    /**
+     * Parameterized constructor
+     *
+     * @param chunk <code>int</code>
+     */
+    private Chunk(int chunk) {
+      this.chunk = chunk;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return void
+     */
+    @Override
+    protected void compute() {
+      SceneAnimator.this.evaluateChunk(this.chunk);
+    }
+  }
+}
@@ -0,0 +1,273 @@
+/**
+ * SceneCamera.java - Rotation, translation, and scale applied to the scene as a whole
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+/**
+ * This class holds the seven transformation values that were originally fields of
+ * <code>ScenePanel</code> itself, namely the scene's scale and its rotations and translations along
+ * each axis. They were moved here so that the scene may be rendered without a
+ * <code>ScenePanel</code> at all, as by the headless <code>Benchmark</code>, which flies its own
+ * instance along a scripted path. <code>ScenePanel</code> keeps its reflective getters and setters,
+ * which simply forward to its instance of this class while flagging the scene dirty.
+ * <br />
+ * <br />
+ * The default values are the ones <code>ScenePanel</code> always reset the scene to.
+ *
+ * @see graphicsprojecttwo.ScenePanel
+ * @see graphicsprojecttwo.SceneRenderer
+ * @author Andrew Eissen
+ */
+final class SceneCamera {
+
+  /** Standard <code>SceneCamera.rotateX</code> value, set to 45.0 by default */
+  private final static double DEFAULT_ROTATE_X = 45.0;
+
+  /** Standard <code>SceneCamera.rotateY</code> value, set to 15.0 by default */
+  private final static double DEFAULT_ROTATE_Y = 15.0;
+
+  /** Standard <code>SceneCamera.rotateZ</code> value, set to 0.0 by default */
+  private final static double DEFAULT_ROTATE_Z = 0.0;
+
+  /** Standard <code>SceneCamera.translateX</code> value, set to 0.0 by default */
+  private final static double DEFAULT_TRANSLATE_X = 0.0;
+
+  /** Standard <code>SceneCamera.translateY</code> value, set to 0.0 by default */
+  private final static double DEFAULT_TRANSLATE_Y = 0.0;
+
+  /** Standard <code>SceneCamera.translateZ</code> value, set to 0.0 by default */
+  private final static double DEFAULT_TRANSLATE_Z = 0.0;
+
+  /** Standard <code>SceneCamera.scale</code> value, set to 1.5 by default */
+  private final static double DEFAULT_SCALE = 1.5;
+
+  // Class fields
+  private double scale, rotateX, rotateY, rotateZ, translateX, translateY, translateZ;
+
+  /**
+   * Default constructor, starting from the default transformations
+   */
+  protected SceneCamera() {
+    this.setToDefaults();
+  }
+
+  // Setters
+
+  /**
+   * Setter for <code>SceneCamera.scale</code>
+   *
+   * @param scale <code>double</code>
+   * @return void
+   */
+  protected void setScale(double scale) {
+    this.scale = scale;
+  }
+
+  /**
+   * Setter for <code>SceneCamera.rotateX</code>
+   *
+   * @param rotateX <code>double</code>
+   * @return void
+   */
+  protected void setRotateX(double rotateX) {
+    this.rotateX = rotateX;
+  }
+
+  /**
+   * Setter for <code>SceneCamera.rotateY</code>
+   *
+   * @param rotateY <code>double</code>
+   * @return void
+   */
+  protected void setRotateY(double rotateY) {
+    this.rotateY = rotateY;
+  }
+
+  /**
+   * Setter for <code>SceneCamera.rotateZ</code>
+   *
+   * @param rotateZ <code>double</code>
+   * @return void
+   */
+  protected void setRotateZ(double rotateZ) {
+    this.rotateZ = rotateZ;
+  }
+
+  /**
+   * Setter for <code>SceneCamera.translateX</code>
+   *
+   * @param translateX <code>double</code>
+   * @return void
+   */
+  protected void setTranslateX(double translateX) {
+    this.translateX = translateX;
+  }
+
+  /**
+   * Setter for <code>SceneCamera.translateY</code>
+   *
+   * @param translateY <code>double</code>
+   * @return void
+   */
+  protected void setTranslateY(double translateY) {
+    this.translateY = translateY;
+  }
+
+  /**
+   * Setter for <code>SceneCamera.translateZ</code>
+   *
+   * @param translateZ <code>double</code>
+   * @return void
+   */
+  protected void setTranslateZ(double translateZ) {
+    this.translateZ = translateZ;
+  }
+
+  // Getters
+
+  /**
+   * Getter for <code>SceneCamera.scale</code>
+   *
+   * @return scale <code>double</code>
+   */
+  protected double getScale() {
+    return this.scale;
+  }
+
+  /**
+   * Getter for <code>SceneCamera.rotateX</code>
+   *
+   * @return rotateX <code>double</code>
+   */
+  protected double getRotateX() {
+    return this.rotateX;
+  }
+
+  /**
+   * Getter for <code>SceneCamera.rotateY</code>
+   *
+   * @return rotateY <code>double</code>
+   */
+  protected double getRotateY() {
+    return this.rotateY;
+  }
+
+  /**
+   * Getter for <code>SceneCamera.rotateZ</code>
+   *
+   * @return rotateZ <code>double</code>
+   */
+  protected double getRotateZ() {
+    return this.rotateZ;
+  }
+
+  /**
+   * Getter for <code>SceneCamera.translateX</code>
+   *
+   * @return translateX <code>double</code>
+   */
+  protected double getTranslateX() {
+    return this.translateX;
+  }
+
+  /**
+   * Getter for <code>SceneCamera.translateY</code>
+   *
+   * @return translateY <code>double</code>
+   */
+  protected double getTranslateY() {
+    return this.translateY;
+  }
+
+  /**
+   * Getter for <code>SceneCamera.translateZ</code>
+   *
+   * @return translateZ <code>double</code>
+   */
+  protected double getTranslateZ() {
+    return this.translateZ;
+  }
+
+  // Utility methods
+
+  /**
+   * Sets all the rotation, translation, and scale fields back to the default constants.
+   * <br />
+   * <pre>
+   * - scale        ->  1.5
+   * - rotateX      -> 45.0
+   * - rotateY      -> 15.0
+   * - rotateZ      ->  0.0
+   * - translateX   ->  0.0
+   * - translateY   ->  0.0
+   * - translateZ   ->  0.0
+   * </pre>
+   *
+   * @return void
+   */
+  protected void setToDefaults() {
+    this.setScale(SceneCamera.DEFAULT_SCALE);
+    this.setRotateX(SceneCamera.DEFAULT_ROTATE_X);
+    this.setRotateY(SceneCamera.DEFAULT_ROTATE_Y);
+    this.setRotateZ(SceneCamera.DEFAULT_ROTATE_Z);
+    this.setTranslateX(SceneCamera.DEFAULT_TRANSLATE_X);
+    this.setTranslateY(SceneCamera.DEFAULT_TRANSLATE_Y);
+    this.setTranslateZ(SceneCamera.DEFAULT_TRANSLATE_Z);
+  }
+
+  /**
+   * Computes the column-major matrix of the transformation applied by
+   * <code>SceneRenderer.render</code>, that is the rotations about the z, y, and x-axes followed by
+   * the scale and the translation, for code needing it off the GL thread.
+   *
+   * @param view <code>float[]</code> sixteen elements to overwrite
+   * @return void
+   */
+  protected void computeViewMatrix(float[] view) {
+
+    // Declarations
+    double ca, sa, cb, sb, cc, sc, s;
+    double r00, r01, r02, r10, r11, r12, r20, r21, r22;
+
+    ca = Math.cos(Math.toRadians(this.rotateX));
+    sa = Math.sin(Math.toRadians(this.rotateX));
+    cb = Math.cos(Math.toRadians(this.rotateY));
+    sb = Math.sin(Math.toRadians(this.rotateY));
+    cc = Math.cos(Math.toRadians(this.rotateZ));
+    sc = Math.sin(Math.toRadians(this.rotateZ));
+    s = this.scale;
+
+    // Rows of Rz * Ry * Rx
+    r00 = cc * cb;
+    r01 = cc * sb * sa - sc * ca;
+    r02 = cc * sb * ca + sc * sa;
+    r10 = sc * cb;
+    r11 = sc * sb * sa + cc * ca;
+    r12 = sc * sb * ca - cc * sa;
+    r20 = -sb;
+    r21 = cb * sa;
+    r22 = cb * ca;
+
+    view[0] = (float) (s * r00);
+    view[1] = (float) (s * r10);
+    view[2] = (float) (s * r20);
+    view[3] = 0.0f;
+    view[4] = (float) (s * r01);
+    view[5] = (float) (s * r11);
+    view[6] = (float) (s * r21);
+    view[7] = 0.0f;
+    view[8] = (float) (s * r02);
+    view[9] = (float) (s * r12);
+    view[10] = (float) (s * r22);
+    view[11] = 0.0f;
+    view[12] = (float) (s * (r00 * this.translateX + r01 * this.translateY
+      + r02 * this.translateZ));
+    view[13] = (float) (s * (r10 * this.translateX + r11 * this.translateY
+      + r12 * this.translateZ));
+    view[14] = (float) (s * (r20 * this.translateX + r21 * this.translateY
+      + r22 * this.translateZ));
+    view[15] = 1.0f;
+  }
+}
@@ -0,0 +1,248 @@
+/**
+ * SceneGenerator.java - Seeded, reproducible scenes of any number of built-in or generated shapes
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * The default scene only ever contains the seven objects placed by hand in
+ * <code>ScenePanel.SceneGLEventListener</code>, which is far too few to tell how any part of the
+ * renderer scales. This utility class instead scatters any number of instances of the existing
+ * shape classes through a cube of space whose volume grows with the object count, so that the
+ * density of the scene stays roughly constant. Shapes, colors, and positions are all drawn from a
+ * <code>SplittableRandom</code> seeded by the caller, so that a given count and seed always yield
+ * the very same scene on every machine.
+ * <br />
+ * <br />
+ * Scenes may instead be drawn from the parametric shapes of <code>MeshGenerator</code>, whose
+ * parameters are picked from a few small sets of values, such as prisms of three to eight sides.
+ * As every generator goes through the <code>MeshCache</code>, objects whose shapes were picked with
+ * the same parameters share a single <code>Mesh</code>, such that a scene of thousands of objects
+ * builds and uploads only a few dozen; <code>SceneGenerator.countMeshes</code> tells how many.
+ *
+ * @see graphicsprojecttwo.Benchmark
+ * @author Andrew Eissen
+ */
+final class SceneGenerator {
+
+  /** Families of shapes from which a scene may be generated */
+  protected enum Shapes { BUILTIN, PARAMETRIC }
+
+  /** Scale of every generated object, matching the hand-placed shapes of the default scene */
+  private final static double OBJECT_SCALE = 0.125;
+
+  /** Average distance between neighboring objects, in pre-scale units as in the default scene */
+  private final static double SPACING = 2.5;
+
+  /** Hues from which object colors are chosen, those of the default scene */
+  private final static Color[] PALETTE = {
+    new Color(128, 0, 0),
+    new Color(128, 128, 0),
+    new Color(0, 128, 0),
+    new Color(128, 0, 128),
+    new Color(0, 128, 128),
+    new Color(212, 175, 55),
+    Color.DARK_GRAY
+  };
+
+  /**
+   * Private constructor, as this class only contains static utility methods
+   */
+  private SceneGenerator() {}
+
+  // Utility methods
+
+  /**
+   * Builds a scene of the given number of objects, chosen uniformly among the six built-in shape
+   * classes other than <code>Floor</code>.
+   *
+   * @param count <code>int</code> number of objects, at least one
+   * @param seed <code>long</code>
+   * @return <code>ArrayList</code> of <code>SceneObject</code>s
+   */
+  protected static ArrayList<SceneObject> generate(int count, long seed) {
+    return SceneGenerator.generate(count, seed, Shapes.BUILTIN);
+  }
+
+  /**
+   * Builds a scene of the given number of objects, chosen uniformly among the six built-in shape
+   * classes other than <code>Floor</code>, or among the six generators of
+   * <code>MeshGenerator</code> with parameters picked by <code>SceneGenerator.pickMesh</code>.
+   *
+   * @param count <code>int</code> number of objects, at least one
+   * @param seed <code>long</code>
+   * @param shapes <code>SceneGenerator.Shapes</code> family to choose from
+   * @return <code>ArrayList</code> of <code>SceneObject</code>s
+   */
+  protected static ArrayList<SceneObject> generate(int count, long seed, Shapes shapes) {
+
+    // Declarations
+    ArrayList<SceneObject> sceneObjects;
+    SplittableRandom random;
+    double half, x, y, z;
+    Color color;
+
+    if (count < 1) {
+      throw new IllegalArgumentException("Scene needs at least one object, got " + count);
+    }
+
+    sceneObjects = new ArrayList<>(count);
+    random = new SplittableRandom(seed);
+    half = SceneGenerator.getHalfExtent(count) / SceneGenerator.OBJECT_SCALE;
+
+    for (int i = 0; i < count; i++) {
+      x = random.nextDouble(-half, half);
+      y = random.nextDouble(-half, half);
+      z = random.nextDouble(-half, half);
+      color = SceneGenerator.PALETTE[random.nextInt(SceneGenerator.PALETTE.length)];
+
+      if (shapes == Shapes.PARAMETRIC) {
+        sceneObjects.add(new GeneratedShape(SceneGenerator.pickMesh(random), color,
+          SceneGenerator.OBJECT_SCALE, x, y, z));
+        continue;
+      }
+
+      switch (random.nextInt(6)) {
+        case 0:
+          sceneObjects.add(new Cube(color, SceneGenerator.OBJECT_SCALE, x, y, z));
+          break;
+        case 1:
+          sceneObjects.add(new FiveSidedPyramid(color, SceneGenerator.OBJECT_SCALE, x, y, z));
+          break;
+        case 2:
+          sceneObjects.add(new HexagonalPrism(color, SceneGenerator.OBJECT_SCALE, x, y, z));
+          break;
+        case 3:
+          sceneObjects.add(new TriangularPrism(color, SceneGenerator.OBJECT_SCALE, x, y, z));
+          break;
+        case 4:
+          sceneObjects.add(new TenSidedPolygon(color, SceneGenerator.OBJECT_SCALE, x, y, z));
+          break;
+        default:
+          sceneObjects.add(new Star(color, SceneGenerator.OBJECT_SCALE, x, y, z));
+          break;
+      }
+    }
+
+    return sceneObjects;
+  }
+
+  /**
+   * Parses the name of a family of shapes, as passed on the command line or in a job list.
+   *
+   * @param name <code>String</code>, either <code>builtin</code> or <code>parametric</code>
+   * @return <code>SceneGenerator.Shapes</code>
+   * @throws IllegalArgumentException if the name is unknown
+   */
+  protected static Shapes parseShapes(String name) {
+    try {
+      return Shapes.valueOf(name.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException ex) {
+      throw new IllegalArgumentException("Unknown shapes '" + name + "'");
+    }
+  }
+
+  /**
+   * Returns the number of distinct meshes held by the given objects, which is the number of meshes
+   * built and uploaded for them.
+   *
+   * @param sceneObjects <code>List</code> of <code>SceneObject</code>s
+   * @return <code>int</code>
+   */
+  protected static int countMeshes(List<SceneObject> sceneObjects) {
+
+    // Declaration
+    Set<Mesh> meshes;
+
+    meshes = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    for (SceneObject sceneObject : sceneObjects) {
+      meshes.add(sceneObject.getMesh());
+    }
+
+    return meshes.size();
+  }
+
+  /**
+   * Gives each of the first nodes of a graph a single track chosen at random among a spin about a
+   * random axis, a small orbit, and a gentle bob, with rates drawn from the given seed. Meant for
+   * graphs built from <code>SceneGenerator.generate</code>, whose objects are all roots.
+   *
+   * @param animator <code>SceneAnimator</code> of the graph holding the nodes
+   * @param nodes <code>int</code> number of nodes to animate, starting from the first
+   * @param seed <code>long</code>
+   * @return void
+   */
+  protected static void animate(SceneAnimator animator, int nodes, long seed) {
+
+    // Declarations
+    SplittableRandom random;
+    float size;
+
+    random = new SplittableRandom(~seed);
+    size = (float) (SceneGenerator.SPACING * SceneGenerator.OBJECT_SCALE);
+
+    for (int node = 0; node < nodes; node++) {
+      switch (random.nextInt(3)) {
+        case 0:
+          animator.addSpin(node, random.nextInt(3), (float) random.nextDouble(-180.0, 180.0));
+          break;
+        case 1:
+          animator.addOrbit(node, (float) random.nextDouble(0.1, 0.4) * size,
+            (float) random.nextDouble(-90.0, 90.0), (float) random.nextDouble(360.0));
+          break;
+        default:
+          animator.addBob(node, (float) random.nextDouble(0.05, 0.2) * size,
+            (float) random.nextDouble(0.25, 1.0), (float) random.nextDouble(360.0));
+          break;
+      }
+    }
+  }
+
+  /**
+   * Picks a parametric shape at random, each generator taking its parameters from a few values
+   * only, such that the shapes of a large scene are mostly repeats found in the
+   * <code>MeshCache</code>. Every shape fits the two-unit cube of the built-in ones.
+   *
+   * @param random <code>SplittableRandom</code>
+   * @return <code>Mesh</code>
+   */
+  private static Mesh pickMesh(SplittableRandom random) {
+    switch (random.nextInt(6)) {
+      case 0:
+        return MeshGenerator.prism(random.nextInt(3, 9), 1.0, 1.0);
+      case 1:
+        return MeshGenerator.pyramid(random.nextInt(3, 9), 1.0, 1.0);
+      case 2:
+        return MeshGenerator.frustum(random.nextInt(3, 9), 1.0, 0.5, 1.0);
+      case 3:
+        return MeshGenerator.star(random.nextInt(4, 8), 0.5, 1.0, 0.4);
+      case 4:
+        return MeshGenerator.sphere(random.nextInt(1, 3), 1.0);
+      default:
+        return MeshGenerator.torus(random.nextInt(3, 6) * 4, 6, 0.7, 0.3);
+    }
+  }
+
+  /**
+   * Returns half the side of the cube, in world units, through which a scene of the given size is
+   * scattered.
+   *
+   * @param count <code>int</code>
+   * @return <code>double</code>
+   */
+  protected static double getHalfExtent(int count) {
+    return Math.max(1.0, Math.cbrt(count)) * SceneGenerator.SPACING * SceneGenerator.OBJECT_SCALE
+      / 2.0;
+  }
+}
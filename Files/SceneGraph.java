@@ -0,0 +1,622 @@
+/**
+ * SceneGraph.java - Parent/child hierarchy of scene objects with cached world transforms
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import java.util.Arrays;
+
+/**
+ * Originally, the scene was a flat <code>ArrayList</code> of objects each carrying an absolute
+ * translation, which is why the <code>Star</code> had to be manually placed at just the right
+ * height above the pedestal objects. This class instead arranges the scene as a forest of nodes,
+ * each with a local transformation relative to its parent, so that moving a node carries all of
+ * its descendants along with it. Nodes may hold a <code>SceneObject</code> to draw, or may simply
+ * serve to group other nodes.
+ * <br />
+ * <br />
+ * The nodes are stored in structure-of-arrays form, indexed by an <code>int</code> handle: the
+ * parent, first child, and next sibling of each node, its local translation, rotation (in degrees
+ * about the z, y, and x-axes, applied in the same order as the camera's), and uniform scale, and
+ * its cached world matrix in the column-major layout expected by <code>GL2.glMultMatrixf</code>.
+ * Changing a local transformation merely flags the node as dirty and adds it to a list. On the
+ * next call to <code>SceneGraph.update</code>, the world matrices of the dirty nodes and their
+ * descendants, and only those, are recomputed from their parents' cached matrices, so that moving
+ * one subtree of a large scene never touches the rest of it.
+ * <br />
+ * <br />
+ * The world-space axis-aligned bounding box of each node's object is cached alongside its world
+ * matrix and recomputed with it, so that bounds too are kept up to date incrementally. Bulk
+ * writers such as <code>SceneAnimator</code> may also write the local transformation arrays
+ * directly, on any number of threads, provided that each node is then flagged through
+ * <code>SceneGraph.invalidate</code> on a single thread before the next update.
+ *
+ * @see graphicsprojecttwo.SceneAnimator
+ * @see graphicsprojecttwo.SceneRenderer
+ * @author Andrew Eissen
+ */
+final class SceneGraph {
+
+  /** Parent handle of root nodes, also returned where no node exists */
+  protected final static int NONE = -1;
+
+  /** Initial capacity of the node arrays, doubled whenever exceeded */
+  private final static int INITIAL_CAPACITY = 16;
+
+  // Class fields
+  private int count, dirtyCount, lastUpdateCount;
+  private int[] parent, firstChild, nextSibling, dirtyList, stack;
+  private boolean[] isDirty;
+  private float[] translation, rotation, scale, world, bounds, scratch;
+  private SceneObject[] sceneObjects;
+
+  /**
+   * Default constructor
+   */
+  protected SceneGraph() {
+    this.count = 0;
+    this.dirtyCount = 0;
+    this.lastUpdateCount = 0;
+    this.parent = new int[SceneGraph.INITIAL_CAPACITY];
+    this.firstChild = new int[SceneGraph.INITIAL_CAPACITY];
+    this.nextSibling = new int[SceneGraph.INITIAL_CAPACITY];
+    this.dirtyList = new int[SceneGraph.INITIAL_CAPACITY];
+    this.stack = new int[SceneGraph.INITIAL_CAPACITY];
+    this.isDirty = new boolean[SceneGraph.INITIAL_CAPACITY];
+    this.translation = new float[SceneGraph.INITIAL_CAPACITY * 3];
+    this.rotation = new float[SceneGraph.INITIAL_CAPACITY * 3];
+    this.scale = new float[SceneGraph.INITIAL_CAPACITY];
+    this.world = new float[SceneGraph.INITIAL_CAPACITY * 16];
+    this.bounds = new float[SceneGraph.INITIAL_CAPACITY * 6];
+    this.scratch = new float[32];
+    this.sceneObjects = new SceneObject[SceneGraph.INITIAL_CAPACITY];
+  }
+
+  // Getters
+
+  /**
+   * Returns the number of nodes in the graph.
+   *
+   * @return <code>int</code>
+   */
+  protected int size() {
+    return this.count;
+  }
+
+  /**
+   * Returns the object drawn at the given node, <code>null</code> for grouping nodes.
+   *
+   * @param node <code>int</code>
+   * @return <code>SceneObject</code>
+   */
+  protected SceneObject getSceneObject(int node) {
+    return this.sceneObjects[node];
+  }
+
+  /**
+   * Returns the parent of the given node, <code>SceneGraph.NONE</code> for roots.
+   *
+   * @param node <code>int</code>
+   * @return <code>int</code>
+   */
+  protected int getParent(int node) {
+    return this.parent[node];
+  }
+
+  /**
+   * Returns the array holding every node's world matrix, sixteen floats per node starting at
+   * <code>node * 16</code>. Only valid once <code>SceneGraph.update</code> has been called since
+   * the last change, and must not be modified by callers.
+   *
+   * @return <code>float[]</code>
+   */
+  protected float[] getWorldMatrices() {
+    return this.world;
+  }
+
+  /**
+   * Returns the array holding every node's world-space bounding box, six floats per node starting
+   * at <code>node * 6</code>: the minimum x, y, and z followed by the maximum x, y, and z. Nodes
+   * without an object have an empty box, with minima above maxima. Subject to the same terms as
+   * <code>SceneGraph.getWorldMatrices</code>.
+   *
+   * @return <code>float[]</code>
+   */
+  protected float[] getWorldBounds() {
+    return this.bounds;
+  }
+
+  /**
+   * Returns the array holding every node's local translation, three floats per node, for bulk
+   * writers. Any node written must then be passed to <code>SceneGraph.invalidate</code>.
+   *
+   * @return <code>float[]</code>
+   */
+  protected float[] getLocalTranslations() {
+    return this.translation;
+  }
+
+  /**
+   * Returns the array holding every node's local rotation in degrees, three floats per node, for
+   * bulk writers. Any node written must then be passed to <code>SceneGraph.invalidate</code>.
+   *
+   * @return <code>float[]</code>
+   */
+  protected float[] getLocalRotations() {
+    return this.rotation;
+  }
+
+  /**
+   * Whether any local transformation has changed since the last <code>SceneGraph.update</code>.
+   *
+   * @return <code>boolean</code>
+   */
+  protected boolean getIsDirty() {
+    return this.dirtyCount > 0;
+  }
+
+  /**
+   * Returns the number of world matrices recomputed by the most recent update.
+   *
+   * @return <code>int</code>
+   */
+  protected int getLastUpdateCount() {
+    return this.lastUpdateCount;
+  }
+
+  /**
+   * Returns the local translation of a node along the given axis.
+   *
+   * @param node <code>int</code>
+   * @param axis <code>int</code> 0, 1, or 2 for x, y, or z
+   * @return <code>float</code>
+   */
+  protected float getLocalTranslation(int node, int axis) {
+    return this.translation[node * 3 + axis];
+  }
+
+  /**
+   * Returns the local rotation of a node about the given axis, in degrees.
+   *
+   * @param node <code>int</code>
+   * @param axis <code>int</code> 0, 1, or 2 for x, y, or z
+   * @return <code>float</code>
+   */
+  protected float getLocalRotation(int node, int axis) {
+    return this.rotation[node * 3 + axis];
+  }
+
+  /**
+   * Returns the local uniform scale of a node.
+   *
+   * @param node <code>int</code>
+   * @return <code>float</code>
+   */
+  protected float getLocalScale(int node) {
+    return this.scale[node];
+  }
+
+  // Setters
+
+  /**
+   * Sets the translation of a node relative to its parent.
+   *
+   * @param node <code>int</code>
+   * @param x <code>float</code>
+   * @param y <code>float</code>
+   * @param z <code>float</code>
+   * @return void
+   */
+  protected void setLocalTranslation(int node, float x, float y, float z) {
+    this.translation[node * 3] = x;
+    this.translation[node * 3 + 1] = y;
+    this.translation[node * 3 + 2] = z;
+    this.markDirty(node);
+  }
+
+  /**
+   * Sets the rotation of a node relative to its parent, in degrees about each axis.
+   *
+   * @param node <code>int</code>
+   * @param x <code>float</code>
+   * @param y <code>float</code>
+   * @param z <code>float</code>
+   * @return void
+   */
+  protected void setLocalRotation(int node, float x, float y, float z) {
+    this.rotation[node * 3] = x;
+    this.rotation[node * 3 + 1] = y;
+    this.rotation[node * 3 + 2] = z;
+    this.markDirty(node);
+  }
+
+  /**
+   * Sets the uniform scale of a node relative to its parent.
+   *
+   * @param node <code>int</code>
+   * @param scale <code>float</code>
+   * @return void
+   */
+  protected void setLocalScale(int node, float scale) {
+    this.scale[node] = scale;
+    this.markDirty(node);
+  }
+
+  // Utility methods
+
+  /**
+   * Adds a node under the given parent with the given local transformation, returning its handle.
+   *
+   * @param parentNode <code>int</code> parent, or <code>SceneGraph.NONE</code> for a new root
+   * @param sceneObject <code>SceneObject</code> to draw, or <code>null</code> for a group
+   * @param x <code>float</code> local translation
+   * @param y <code>float</code> local translation
+   * @param z <code>float</code> local translation
+   * @param scale <code>float</code> local uniform scale
+   * @return <code>int</code>
+   */
+  protected int addNode(int parentNode, SceneObject sceneObject, float x, float y, float z,
+      float scale) {
+
+    // Declaration
+    int node;
+
+    if (parentNode < SceneGraph.NONE || parentNode >= this.count) {
+      throw new IllegalArgumentException("No such parent node " + parentNode);
+    }
+
+    if (this.count == this.parent.length) {
+      this.grow(this.count * 2);
+    }
+
+    node = this.count++;
+    this.parent[node] = SceneGraph.NONE;
+    this.firstChild[node] = SceneGraph.NONE;
+    this.nextSibling[node] = SceneGraph.NONE;
+    this.sceneObjects[node] = sceneObject;
+    this.rotation[node * 3] = 0.0f;
+    this.rotation[node * 3 + 1] = 0.0f;
+    this.rotation[node * 3 + 2] = 0.0f;
+    this.link(node, parentNode);
+    this.setLocalScale(node, scale);
+    this.setLocalTranslation(node, x, y, z);
+    return node;
+  }
+
+  /**
+   * Adds a node drawing the given object, placed where the object's own absolute scale and
+   * translation would have put it in the flat scene of old. When added under a parent, the local
+   * transformation is derived from the parent's current world matrix accordingly, which is why
+   * the graph is brought up to date first.
+   *
+   * @param parentNode <code>int</code> parent, or <code>SceneGraph.NONE</code> for a new root
+   * @param sceneObject <code>SceneObject</code>
+   * @return <code>int</code>
+   */
+  protected int addObject(int parentNode, SceneObject sceneObject) {
+
+    // Declarations
+    float s, x, y, z, parentScale;
+    float[] m;
+    int o;
+
+    s = (float) sceneObject.getScale();
+    x = (float) (sceneObject.getScale() * sceneObject.getTranslateX());
+    y = (float) (sceneObject.getScale() * sceneObject.getTranslateY());
+    z = (float) (sceneObject.getScale() * sceneObject.getTranslateZ());
+
+    if (parentNode == SceneGraph.NONE) {
+      return this.addNode(parentNode, sceneObject, x, y, z, s);
+    }
+
+    // Express the absolute placement in the parent's frame: R^T (p - t) / s, then s / s
+    this.update();
+    m = this.world;
+    o = parentNode * 16;
+    parentScale = (float) Math.sqrt(m[o] * m[o] + m[o + 1] * m[o + 1] + m[o + 2] * m[o + 2]);
+    x -= m[o + 12];
+    y -= m[o + 13];
+    z -= m[o + 14];
+
+    return this.addNode(parentNode, sceneObject,
+      (m[o] * x + m[o + 1] * y + m[o + 2] * z) / (parentScale * parentScale),
+      (m[o + 4] * x + m[o + 5] * y + m[o + 6] * z) / (parentScale * parentScale),
+      (m[o + 8] * x + m[o + 9] * y + m[o + 10] * z) / (parentScale * parentScale),
+      s / parentScale);
+  }
+
+  /**
+   * Moves a node, along with its whole subtree, under a new parent while keeping its local
+   * transformation, such that it now follows the new parent around.
+   *
+   * @param node <code>int</code>
+   * @param parentNode <code>int</code> new parent, or <code>SceneGraph.NONE</code>
+   * @return void
+   */
+  protected void setParent(int node, int parentNode) {
+
+    // Declaration
+    int ancestor;
+
+    for (ancestor = parentNode; ancestor != SceneGraph.NONE; ancestor = this.parent[ancestor]) {
+      if (ancestor == node) {
+        throw new IllegalArgumentException("Node " + node + " cannot be its own descendant");
+      }
+    }
+
+    this.unlink(node);
+    this.link(node, parentNode);
+    this.markDirty(node);
+  }
+
+  /**
+   * Brings the world matrices and bounds of every dirty node and all of their descendants up to
+   * date, processing each dirty subtree exactly once and leaving the rest of the graph untouched.
+   *
+   * @return void
+   */
+  protected void update() {
+
+    // Declarations
+    int node, top, ancestor;
+
+    this.lastUpdateCount = 0;
+
+    for (int i = 0; i < this.dirtyCount; i++) {
+      node = this.dirtyList[i];
+
+      if (!this.isDirty[node]) {
+        continue; // Already handled as part of a dirty ancestor's subtree
+      }
+
+      // Start from the highest dirty ancestor so that parents are always computed first
+      top = node;
+
+      for (ancestor = this.parent[node]; ancestor != SceneGraph.NONE;
+          ancestor = this.parent[ancestor]) {
+        if (this.isDirty[ancestor]) {
+          top = ancestor;
+        }
+      }
+
+      this.updateSubtree(top);
+    }
+
+    this.dirtyCount = 0;
+  }
+
+  /**
+   * Flags a node whose local transformation was written directly through one of the arrays
+   * returned by <code>SceneGraph.getLocalTranslations</code> or
+   * <code>SceneGraph.getLocalRotations</code>. Must not be called concurrently.
+   *
+   * @param node <code>int</code>
+   * @return void
+   */
+  protected void invalidate(int node) {
+    this.markDirty(node);
+  }
+
+  // Helper methods
+
+  /**
+   * Recomputes the world matrix and bounds of the given node and every node below it, without
+   * recursion.
+   *
+   * @param root <code>int</code>
+   * @return void
+   */
+  private void updateSubtree(int root) {
+
+    // Declarations
+    int depth, node;
+
+    depth = 0;
+    this.stack[depth++] = root;
+
+    while (depth > 0) {
+      node = this.stack[--depth];
+      this.computeWorld(node);
+      this.computeBounds(node);
+      this.isDirty[node] = false;
+      this.lastUpdateCount++;
+
+      for (int child = this.firstChild[node]; child != SceneGraph.NONE;
+          child = this.nextSibling[child]) {
+        this.stack[depth++] = child;
+      }
+    }
+  }
+
+  /**
+   * Computes <code>world = parentWorld * T * Rz * Ry * Rx * S</code> for a single node.
+   *
+   * @param node <code>int</code>
+   * @return void
+   */
+  private void computeWorld(int node) {
+
+    // Declarations
+    float[] local, w;
+    double rx, ry, rz, cx, sx, cy, sy, cz, sz;
+    float s;
+    int o, p;
+
+    local = this.scratch;
+    w = this.world;
+    o = node * 16;
+    s = this.scale[node];
+    rx = Math.toRadians(this.rotation[node * 3]);
+    ry = Math.toRadians(this.rotation[node * 3 + 1]);
+    rz = Math.toRadians(this.rotation[node * 3 + 2]);
+    cx = Math.cos(rx);
+    sx = Math.sin(rx);
+    cy = Math.cos(ry);
+    sy = Math.sin(ry);
+    cz = Math.cos(rz);
+    sz = Math.sin(rz);
+
+    // Columns of Rz * Ry * Rx, scaled
+    local[0] = (float) (cz * cy) * s;
+    local[1] = (float) (sz * cy) * s;
+    local[2] = (float) (-sy) * s;
+    local[3] = 0.0f;
+    local[4] = (float) (cz * sy * sx - sz * cx) * s;
+    local[5] = (float) (sz * sy * sx + cz * cx) * s;
+    local[6] = (float) (cy * sx) * s;
+    local[7] = 0.0f;
+    local[8] = (float) (cz * sy * cx + sz * sx) * s;
+    local[9] = (float) (sz * sy * cx - cz * sx) * s;
+    local[10] = (float) (cy * cx) * s;
+    local[11] = 0.0f;
+    local[12] = this.translation[node * 3];
+    local[13] = this.translation[node * 3 + 1];
+    local[14] = this.translation[node * 3 + 2];
+    local[15] = 1.0f;
+
+    if (this.parent[node] == SceneGraph.NONE) {
+      System.arraycopy(local, 0, w, o, 16);
+      return;
+    }
+
+    p = this.parent[node] * 16;
+
+    for (int column = 0; column < 4; column++) {
+      for (int row = 0; row < 4; row++) {
+        w[o + column * 4 + row] = w[p + row] * local[column * 4]
+          + w[p + 4 + row] * local[column * 4 + 1]
+          + w[p + 8 + row] * local[column * 4 + 2]
+          + w[p + 12 + row] * local[column * 4 + 3];
+      }
+    }
+  }
+
+  /**
+   * Transforms the model-space bounding box of a node's mesh by its world matrix, taking the box's
+   * transformed center and, along each world axis, the sum of the absolute contributions of its
+   * half extents.
+   *
+   * @param node <code>int</code>
+   * @return void
+   */
+  private void computeBounds(int node) {
+
+    // Declarations
+    Mesh mesh;
+    float[] w, b;
+    float center, half, c0, c1, c2, e0, e1, e2;
+    int o, ob;
+
+    w = this.world;
+    b = this.bounds;
+    o = node * 16;
+    ob = node * 6;
+
+    if (this.sceneObjects[node] == null) {
+      for (int axis = 0; axis < 3; axis++) {
+        b[ob + axis] = Float.POSITIVE_INFINITY;
+        b[ob + axis + 3] = Float.NEGATIVE_INFINITY;
+      }
+
+      return;
+    }
+
+    mesh = this.sceneObjects[node].getMesh();
+    c0 = (mesh.getBoundsMin(0) + mesh.getBoundsMax(0)) * 0.5f;
+    c1 = (mesh.getBoundsMin(1) + mesh.getBoundsMax(1)) * 0.5f;
+    c2 = (mesh.getBoundsMin(2) + mesh.getBoundsMax(2)) * 0.5f;
+    e0 = (mesh.getBoundsMax(0) - mesh.getBoundsMin(0)) * 0.5f;
+    e1 = (mesh.getBoundsMax(1) - mesh.getBoundsMin(1)) * 0.5f;
+    e2 = (mesh.getBoundsMax(2) - mesh.getBoundsMin(2)) * 0.5f;
+
+    for (int row = 0; row < 3; row++) {
+      center = w[o + row] * c0 + w[o + 4 + row] * c1 + w[o + 8 + row] * c2 + w[o + 12 + row];
+      half = Math.abs(w[o + row]) * e0 + Math.abs(w[o + 4 + row]) * e1
+        + Math.abs(w[o + 8 + row]) * e2;
+      b[ob + row] = center - half;
+      b[ob + row + 3] = center + half;
+    }
+  }
+
+  /**
+   * Flags a node as needing its world matrix recomputed.
+   *
+   * @param node <code>int</code>
+   * @return void
+   */
+  private void markDirty(int node) {
+    if (this.isDirty[node]) {
+      return;
+    }
+
+    this.isDirty[node] = true;
+    this.dirtyList[this.dirtyCount++] = node;
+  }
+
+  /**
+   * Adds a node to the front of its new parent's child list.
+   *
+   * @param node <code>int</code>
+   * @param parentNode <code>int</code>
+   * @return void
+   */
+  private void link(int node, int parentNode) {
+    this.parent[node] = parentNode;
+
+    if (parentNode != SceneGraph.NONE) {
+      this.nextSibling[node] = this.firstChild[parentNode];
+      this.firstChild[parentNode] = node;
+    }
+  }
+
+  /**
+   * Removes a node from its current parent's child list.
+   *
+   * @param node <code>int</code>
+   * @return void
+   */
+  private void unlink(int node) {
+
+    // Declaration
+    int previous;
+
+    if (this.parent[node] != SceneGraph.NONE) {
+      if (this.firstChild[this.parent[node]] == node) {
+        this.firstChild[this.parent[node]] = this.nextSibling[node];
+      } else {
+        previous = this.firstChild[this.parent[node]];
+
+        while (this.nextSibling[previous] != node) {
+          previous = this.nextSibling[previous];
+        }
+
+        this.nextSibling[previous] = this.nextSibling[node];
+      }
+    }
+
+    this.parent[node] = SceneGraph.NONE;
+    this.nextSibling[node] = SceneGraph.NONE;
+  }
+
+  /**
+   * Grows every node array to the given capacity.
+   *
+   * @param capacity <code>int</code>
+   * @return void
+   */
+  private void grow(int capacity) {
+    this.parent = Arrays.copyOf(this.parent, capacity);
+    this.firstChild = Arrays.copyOf(this.firstChild, capacity);
+    this.nextSibling = Arrays.copyOf(this.nextSibling, capacity);
+    this.dirtyList = Arrays.copyOf(this.dirtyList, capacity);
+    this.stack = Arrays.copyOf(this.stack, capacity);
+    this.isDirty = Arrays.copyOf(this.isDirty, capacity);
+    this.translation = Arrays.copyOf(this.translation, capacity * 3);
+    this.rotation = Arrays.copyOf(this.rotation, capacity * 3);
+    this.scale = Arrays.copyOf(this.scale, capacity);
+    this.world = Arrays.copyOf(this.world, capacity * 16);
+    this.bounds = Arrays.copyOf(this.bounds, capacity * 6);
+    this.sceneObjects = Arrays.copyOf(this.sceneObjects, capacity);
+  }
+}
@@ -5,8 +5,8 @@
  */
 package graphicsprojecttwo;
 
-import com.jogamp.opengl.GL2;
 import java.awt.Color;
+import java.nio.ByteBuffer;
 
 /**
  * This abstract class contains the base methods used by all 3D objects included in the scene to
@@ -35,14 +35,52 @@ import java.awt.Color;
  * pseudo-lighting in an unlit scene, the <code>Color</code> class's <code>Color.brighter</code> and
  * <code>Color.darker</code> methods were used to color certain faces facing towards and away from
  * the camera differently to give the impression of shadows and an unseen light source.
+ * <br />
+ * <br />
+ * As the extending classes build fresh copies of their arrays on every call to
+ * <code>getVertices</code> and <code>getFaces</code>, these are now only invoked once per shape
+ * class, with the result stored as a shared <code>Mesh</code> in <code>MeshCache</code>. Shapes
+ * computed by <code>MeshGenerator</code> skip the hand-built tables altogether and are passed to
+ * the second constructor as a ready-made <code>Mesh</code>. Likewise, the per-face colors built by
+ * <code>SceneObject.buildColorArray</code> are not kept by the object at all, but interned by the
+ * <code>MaterialRegistry</code>, each distinct shade once across the whole program, with the object
+ * retaining only the shared list of the materials of its faces, a <code>short</code> per face in
+ * place of the twenty-four bytes taken by three <code>double</code>s. Objects of the same shape and
+ * hue share the very same list.
+ * <br />
+ * <br />
+ * Where textures are enabled, each object also holds the number of its tile in the shared
+ * <code>TextureAtlas</code>, requested under the name of its class, such that all objects of a
+ * shape share a texture. The texture coordinates of each face come from the planar mapping stored
+ * alongside the face in the <code>Mesh</code>, and the texture modulates the face's shade.
+ * <br />
+ * <br />
+ * The shades of <code>SceneObject.buildColorArray</code> are now only a fallback. Once the scene
+ * is assembled, the <code>LightBaker</code> computes a color for every vertex of every object from
+ * the ambient occlusion and directional light at that vertex, stored through
+ * <code>SceneObject.storeVertexColors</code> in the arena as four bytes per vertex and drawn as a
+ * color array in place of the per-face shades.
  *
+ * @see graphicsprojecttwo.Mesh
  * @author Andrew Eissen
  */
 abstract class SceneObject {
 
+  /** Level of detail drawing every face in its own shade, followed by the outline */
+  protected final static int DETAIL_FULL = 0;
+
+  /** Level of detail drawing every face in its own shade, without the outline */
+  protected final static int DETAIL_FACES = 1;
+
+  /** Level of detail drawing all faces in a single call of the base hue, without the outline */
+  protected final static int DETAIL_COARSE = 2;
+
   // Class variables
+  private Mesh mesh;
   private Color color;
-  private double[][] colorArray;
+  private short[] materials;
+  private short baseMaterial;
+  private int texture, vertexColorSegment, vertexColorOffset;
   private double translateX, translateY, translateZ, scale;
 
   /**
@@ -57,9 +95,31 @@ abstract class SceneObject {
   protected SceneObject(Color color, double scale, double translateX, double translateY,
       double translateZ) {
 
+    this(null, color, scale, translateX, translateY, translateZ);
+  }
+
+  /**
+   * Parameterized constructor used by shapes whose mesh has already been built. If the provided
+   * mesh is <code>null</code>, the extending class's own hand-built tables are used instead.
+   *
+   * @param mesh <code>Mesh</code>
+   * @param color <code>Color</code>
+   * @param scale <code>double</code>
+   * @param translateX <code>double</code>
+   * @param translateY <code>double</code>
+   * @param translateZ <code>double</code>
+   */
+  protected SceneObject(Mesh mesh, Color color, double scale, double translateX,
+      double translateY, double translateZ) {
+
     // Set fields
+    this.setMesh((mesh != null) ? mesh : MeshCache.get(this));
     this.setColor(color);
-    this.setColorArray(this.buildColorArray());
+    this.setMaterials(MaterialRegistry.internFaces(this.buildColorArray()));
+    this.setBaseMaterial(MaterialRegistry.intern(color.getRGB()));
+    this.setTexture(TextureAtlas.getShared().request(this.getClass().getSimpleName()));
+    this.setVertexColorSegment(-1);
+    this.setVertexColorOffset(0);
     this.setScale(scale);
     this.setTranslateX(translateX);
     this.setTranslateY(translateY);
@@ -68,6 +128,16 @@ abstract class SceneObject {
 
   // Setters
 
+  /**
+   * Setter for <code>SceneObject.mesh</code>
+   *
+   * @param mesh <code>Mesh</code>
+   * @return void
+   */
+  private void setMesh(Mesh mesh) {
+    this.mesh = mesh;
+  }
+
   /**
    * Setter for <code>SceneObject.color</code>
    *
@@ -79,13 +149,53 @@ abstract class SceneObject {
   }
 
   /**
-   * Setter for <code>SceneObject.colorArray</code>
+   * Setter for <code>SceneObject.materials</code>
+   *
+   * @param materials <code>short[]</code>
+   * @return void
+   */
+  private void setMaterials(short[] materials) {
+    this.materials = materials;
+  }
+
+  /**
+   * Setter for <code>SceneObject.baseMaterial</code>
+   *
+   * @param baseMaterial <code>short</code>
+   * @return void
+   */
+  private void setBaseMaterial(short baseMaterial) {
+    this.baseMaterial = baseMaterial;
+  }
+
+  /**
+   * Setter for <code>SceneObject.texture</code>
    *
-   * @param colorArray <code>double[][]</code>
+   * @param texture <code>int</code>
    * @return void
    */
-  private void setColorArray(double[][] colorArray) {
-    this.colorArray = colorArray;
+  private void setTexture(int texture) {
+    this.texture = texture;
+  }
+
+  /**
+   * Setter for <code>SceneObject.vertexColorSegment</code>
+   *
+   * @param vertexColorSegment <code>int</code>
+   * @return void
+   */
+  private void setVertexColorSegment(int vertexColorSegment) {
+    this.vertexColorSegment = vertexColorSegment;
+  }
+
+  /**
+   * Setter for <code>SceneObject.vertexColorOffset</code>
+   *
+   * @param vertexColorOffset <code>int</code>
+   * @return void
+   */
+  private void setVertexColorOffset(int vertexColorOffset) {
+    this.vertexColorOffset = vertexColorOffset;
   }
 
   /**
@@ -130,6 +240,15 @@ abstract class SceneObject {
 
   // Getters
 
+  /**
+   * Getter for <code>SceneObject.mesh</code>
+   *
+   * @return mesh <code>Mesh</code>
+   */
+  protected Mesh getMesh() {
+    return this.mesh;
+  }
+
   /**
    * Getter for <code>SceneObject.color</code>
    *
@@ -140,12 +259,61 @@ abstract class SceneObject {
   }
 
   /**
-   * Getter for <code>SceneObject.colorArray</code>
+   * Returns the number of the <code>MaterialRegistry</code> material of the given face.
+   *
+   * @param face <code>int</code>
+   * @return <code>int</code>
+   */
+  protected int getMaterial(int face) {
+    return this.materials[face] & 0xFFFF;
+  }
+
+  /**
+   * Getter for <code>SceneObject.baseMaterial</code>, the material of the object's own hue
+   *
+   * @return baseMaterial <code>int</code>
+   */
+  protected int getBaseMaterial() {
+    return this.baseMaterial & 0xFFFF;
+  }
+
+  /**
+   * Getter for <code>SceneObject.texture</code>, the object's tile in the
+   * <code>TextureAtlas</code>, or <code>TextureAtlas.NONE</code>
    *
-   * @return colorArray <code>double[][]</code>
+   * @return texture <code>int</code>
    */
-  protected double[][] getColorArray() {
-    return this.colorArray;
+  protected int getTexture() {
+    return this.texture;
+  }
+
+  /**
+   * Getter for <code>SceneObject.vertexColorSegment</code>, the number of the arena segment
+   * holding the baked vertex colors, or -1 if the object has not been baked
+   *
+   * @return vertexColorSegment <code>int</code>
+   */
+  protected int getVertexColorSegment() {
+    return this.vertexColorSegment;
+  }
+
+  /**
+   * Getter for <code>SceneObject.vertexColorOffset</code>, the byte offset of the baked vertex
+   * colors within their segment
+   *
+   * @return vertexColorOffset <code>int</code>
+   */
+  protected int getVertexColorOffset() {
+    return this.vertexColorOffset;
+  }
+
+  /**
+   * Returns whether the object has baked vertex colors to be drawn in place of its face shades.
+   *
+   * @return <code>boolean</code>
+   */
+  protected boolean getIsBaked() {
+    return this.getVertexColorSegment() >= 0;
   }
 
   /**
@@ -188,114 +356,132 @@ abstract class SceneObject {
 
   /**
    * This is the primary method used to draw/render/paint the objects that appear in the GUI scene.
-   * After caching <code>SceneObject.colorArray</code> and <code>SceneObject.scale</code> values
-   * among others so that excess calls to accessors are minimized, the program clones and creates a
-   * new <code>GL2</code> matrix on top and applies the <code>SceneObject</code>'s own scaling and
-   * translation values to it before iterating through the object's faces. The utility method
-   * <code>SceneObject.drawShape</code> is used expressly within this iterative <code>for</code>
-   * loop-driven approach to draw black borders and fill in the space between with the selected hue.
+   * Originally, the method cloned and created a new <code>GL2</code> matrix on top, multiplied it
+   * by the world matrix cached for the object by its <code>SceneGraph</code> node, and iterated
+   * through the object's faces, filling each in with the selected hue by way of a helper method,
+   * <code>SceneObject.drawShape</code>, after which the black borders of all faces were drawn in a
+   * single pass. The object's own scale and translation merely give its initial placement within
+   * the graph.
    * <br />
    * <br />
    * The author debated the inclusion of a second cloned copy of the matrix in the <code>for</code>
    * loop for each face instance, simply for the purposes of keeping manipulations separate from the
    * main matrix copy in this method. After some waffling, he eventually decided to include this
    * functionality based on the fact that <code>UnlitCube.java</code> made use of such matrix copies
-   * for each <code>UnlitCube.square</code> face assembled.
+   * for each <code>UnlitCube.square</code> face assembled. As the copies never held anything the
+   * master copy did not, they did not survive the move to a <code>RenderQueue</code>.
+   * <br />
+   * <br />
+   * Rather than feeding vertices one at a time in immediate mode, the processed <code>Mesh</code>
+   * is drawn from the buffer object mirroring its <code>GeometryArena</code> segment: each face is
+   * a range of the mesh's indexed triangle list visited in the cache-friendly order computed by
+   * <code>MeshProcessor</code>, and the outline consists of one <code>GL2.GL_LINES</code> draw over
+   * the mesh's unique edges instead of a <code>GL2.GL_LINE_LOOP</code> per face. The method no
+   * longer issues those draws itself, however, but records one command per draw in the given
+   * <code>RenderQueue</code>, with the number of the face's material, for
+   * <code>SceneRenderer</code> to sort and replay. It thus makes no GL calls at all. The commands
+   * of the faces of a textured object carry the face itself, whose texture planes the renderer
+   * applies.
+   * <br />
+   * <br />
+   * Under load, the <code>QualityGovernor</code> may have the object drawn at reduced detail:
+   * <pre>
+   * - DETAIL_FULL      faces in their own shades, then the outline
+   * - DETAIL_FACES     faces in their own shades, without the outline
+   * - DETAIL_COARSE    the whole triangle list in one draw call of the base hue, without outline
+   * </pre>
    *
    * @see <code>UnlitCube.java</code>
    * @see <a href="https://stackoverflow.com/a/23971843">Relevant SO Thread</a>
-   * @param gl2 <code>GL2</code> instance, from <code>ScenePanel.SceneGLEventListener</code>
+   * @param queue <code>RenderQueue</code> of the current frame
+   * @param stats <code>RenderStats</code> of the current frame, counting the object
+   * @param node <code>int</code> the object's node in the <code>SceneGraph</code>
+   * @param detail <code>int</code> one of the <code>SceneObject.DETAIL_*</code> constants
+   * @param depth <code>int</code> depth bucket of the object, from
+   *     <code>RenderQueue.toDepthBucket</code>
+   * @param isQueried <code>boolean</code> whether the faces are to be drawn within the object's
+   *     occlusion query
    * @return void
    */
-  protected void constructObject(GL2 gl2) {
+  protected void record(RenderQueue queue, RenderStats stats, int node, int detail, int depth,
+      boolean isQueried) {
 
     // Declarations
-    double tempScale;
-    double[][] tempColorArray;
-    int[][] tempFaces;
-    double[] arrayColorBlack;
+    Mesh tempMesh;
+    int tempFaceCount, meshKey, material, face;
+    boolean isTextured;
 
     // Definitions (cache values)
-    tempScale = this.getScale();
-    tempColorArray = this.getColorArray();
-    tempFaces = this.getFaces();
-    arrayColorBlack = this.convertColorToDoubleArray(Color.BLACK);
-
-    // Push new matrix to the top
-    gl2.glPushMatrix();
-
-    // Apply default scaling to this matrix
-    gl2.glScaled(tempScale, tempScale, tempScale);
-
-    // Apply translation to matrix using object's provided translation coordinates
-    gl2.glTranslated(this.getTranslateX(), this.getTranslateY(), this.getTranslateZ());
-
-    // Iterate through the object's faces
-    for (int i = 0; i < tempFaces.length; i++) {
-
-      // New matrix copy on top for each face (as per UnlitCube.cube)
-      gl2.glPushMatrix();
-
-      // Draw the faces (GL2.GL_TRIANGLE_FAN colors triangle primative slices between vertices)
-      this.drawShape(gl2, tempFaces, tempColorArray[i], GL2.GL_TRIANGLE_FAN, i);
-
-      // Draw black borders between vertices
-      this.drawShape(gl2, tempFaces, arrayColorBlack, GL2.GL_LINE_LOOP, i);
+    tempMesh = this.getMesh();
+    tempFaceCount = tempMesh.getFaceCount();
+    meshKey = tempMesh.getSortKey();
+    isTextured = this.getTexture() != TextureAtlas.NONE;
+
+    stats.addObject();
+
+    // A single draw in the base hue stands in for all faces of objects too small to tell apart
+    if (detail == SceneObject.DETAIL_COARSE) {
+      material = this.getBaseMaterial();
+      queue.add((isQueried)
+        ? RenderQueue.toQueriedKey(depth, node)
+        : RenderQueue.toKey(RenderQueue.PASS_FACES, depth, meshKey, material),
+        node, tempMesh.getTriangleByteOffset(), tempMesh.getTriangleCount() * 3, material,
+        RenderQueue.UNTEXTURED);
+      tempFaceCount = 0;
+    }
 
-      // Remove face matrix copy
-      gl2.glPopMatrix();
+    // Iterate through the object's faces in cache-friendly order
+    for (int i = 0; i < tempFaceCount; i++) {
+      face = tempMesh.getDrawFace(i);
+      material = this.getMaterial(face);
+      queue.add((isQueried)
+        ? RenderQueue.toQueriedKey(depth, node)
+        : RenderQueue.toKey(RenderQueue.PASS_FACES, depth, meshKey, material),
+        node, tempMesh.getDrawByteOffset(i), tempMesh.getDrawIndexCount(i), material,
+        (isTextured) ? face : RenderQueue.UNTEXTURED);
     }
 
-    // Delete this master matrix copy/restore to original matrix copy
-    gl2.glPopMatrix();
+    // Black borders between vertices, each shared edge only once
+    if (detail == SceneObject.DETAIL_FULL) {
+      queue.add(RenderQueue.toKey(RenderQueue.PASS_OUTLINES, depth, meshKey,
+        MaterialRegistry.BLACK), node, tempMesh.getEdgeByteOffset(), tempMesh.getEdgeIndexCount(),
+        MaterialRegistry.BLACK, RenderQueue.UNTEXTURED);
+    }
   }
 
   /**
-   * This method is <code>SceneObject.constructObject</code>'s helper method, used to actually
-   * connect the vertices and either paint a line between them or paint the spaces that lie therein
-   * (the faces). It applies the desired color via <code>GL2.glColor3d</code>, providing the rgb
-   * aspects, before applying an immediate mode (either <code>GL2.GL_TRIANGLE_FAN</code> for
-   * triangular primitive strips or <code>GL2.GL_LINE_LOOP</code> for black borders) and beginning
-   * the assembly of the shape in question via connection of vertices.
+   * Copies the baked colors of the object's vertices, four red, green, blue, and alpha bytes per
+   * vertex starting at the given index of the given array, into the shared
+   * <code>GeometryArena</code>, from which they are drawn from then on. Must be called before the
+   * object is next drawn, and not concurrently with drawing.
    *
-   * @see <a href="//polaris.umuc.edu/~jroberts/CMSC405/c3/s1.html">Reading on immediate modes</a>
-   * @param gl2 <code>GL2</code> from <code>ScenePanel.SceneGLEventListener</code>
-   * @param faces <code>int[][]</code> cached value from <code>SceneObject.constructObject</code>
-   * @param array <code>double[]</code> cached value from <code>SceneObject.constructObject</code>
-   * @param immediateMode <code>int</code>
-   * @param counter <code>int</code>
+   * @param colors <code>byte[]</code>
+   * @param from <code>int</code> index of the first byte
    * @return void
    */
-  private void drawShape(GL2 gl2, int[][] faces, double[] array, int immediateMode, int counter) {
+  protected void storeVertexColors(byte[] colors, int from) {
 
     // Declarations
-    int vertex;
-    double[][] tempVertices;
-
-    // Definition (cache)
-    tempVertices = this.getVertices();
-
-    // Set OpenGL float color values for red, green, blue
-    gl2.glColor3d(array[0], array[1], array[2]);
-
-    // Provide mode (GL2.GL_TRIANGLE_FAN suggested by UnlitCube.java for faces)
-    gl2.glBegin(immediateMode);
-
-    // Build vertices
-    for (int i = 0; i < faces[counter].length; i++) {
-      vertex = faces[counter][i];
-      gl2.glVertex3dv(tempVertices[vertex], 0);
-    }
-
-    // Complete primitive assembly
-    gl2.glEnd();
+    long handle;
+    ByteBuffer segment;
+    int bytes;
+
+    bytes = this.getMesh().getVertexCount() * 4;
+    handle = GeometryArena.getShared().allocate(bytes);
+    segment = GeometryArena.getShared().getSegment(GeometryArena.segmentOf(handle)).duplicate();
+    segment.position(GeometryArena.offsetOf(handle));
+    segment.put(colors, from, bytes);
+    GeometryArena.getShared().commit(handle);
+
+    this.setVertexColorSegment(GeometryArena.segmentOf(handle));
+    this.setVertexColorOffset(GeometryArena.offsetOf(handle));
   }
 
   /**
    * The author is admittedly quite proud of this method's central idea. Making use of some utility
    * methods contained within the <code>Color</code> class, this method takes the shape's assigned
-   * color hue (a <code>Color</code> instance) and creates a two-dimensional <code>double</code>
-   * array for use in coloring the shape's faces. However, rather than cover the entire shape with
+   * color hue (a <code>Color</code> instance) and creates an array of packed <code>int</code>
+   * colors for use in coloring the shape's faces. However, rather than cover the entire shape with
    * the same color, the <code>Color.darker</code> and <code>Color.brighter</code> methods are used
    * to add some variance to the colors used, inserting slightly lighter and darker hues of the
    * chosen color into the array to paint the front and back in different shades. In the absence of
@@ -307,21 +493,29 @@ abstract class SceneObject {
    * Not only did this method help add some zing to the scene objects, it also made the author's
    * life significantly easier, as it removed the previous need to hand-create a two-dimensional
    * <code>double</code> array of colors by automating the process. The color array is only created
-   * once, during the object's initialization at the program start.
+   * once, during the object's initialization at the program start. Each entry is in the
+   * <code>0xAARRGGBB</code> form returned by <code>Color.getRGB</code>, and is handed straight to
+   * the <code>MaterialRegistry</code>, the array itself being dropped.
+   * <br />
+   * <br />
+   * As the front and back faces of the shapes are only front and back as first placed, the shades
+   * are wrong for most of them. Objects baked by the <code>LightBaker</code> are drawn in their
+   * vertex colors instead, leaving these shades to the objects it has not seen and to the sort keys
+   * of <code>RenderQueue</code>.
    *
-   * @return array <code>double[][]</code>
+   * @return array <code>int[]</code>
    */
-  private double[][] buildColorArray() {
+  private int[] buildColorArray() {
 
     // Declarations
     int numberFaces;
-    double[][] array;
+    int[] array;
     Color base, brighter, darker;
-    double[] baseArray, brighterArray, darkerArray;
+    int baseRgb, brighterRgb, darkerRgb;
 
     // Definitions
-    numberFaces = this.getFaces().length;
-    array = new double[numberFaces][3];
+    numberFaces = this.getMesh().getFaceCount();
+    array = new int[numberFaces];
 
     // Color definitions
     base = this.getColor();
@@ -329,36 +523,24 @@ abstract class SceneObject {
     darker = base.darker();
 
     // Color array definitions
-    baseArray = this.convertColorToDoubleArray(base);
-    brighterArray = this.convertColorToDoubleArray(brighter);
-    darkerArray = this.convertColorToDoubleArray(darker);
+    baseRgb = base.getRGB();
+    brighterRgb = brighter.getRGB();
+    darkerRgb = darker.getRGB();
 
     // First and last faces should be hue'd (is that a verb?) differently
     for (int i = 0; i < numberFaces; i++) {
       if (i == 0) { // Camera-facing side is brighter
-        array[i] = brighterArray;
+        array[i] = brighterRgb;
       } else if (i + 1 == numberFaces) { // Furthest side is darker
-        array[i] = darkerArray;
+        array[i] = darkerRgb;
       } else {
-        array[i] = baseArray;
+        array[i] = baseRgb;
       }
     }
 
     return array;
   }
 
-  /**
-   * This helper method is simply used to convert an input <code>Color</code> instance to an Open GL
-   * float color value, with each rgb aspect a <code>double</code> lying between <code>0.0</code>
-   * and <code>1.0</code>, as per the Week 4 reading.
-   *
-   * @param color <code>Color</code> instance
-   * @return <code>double[][]</code>
-   */
-  private double[] convertColorToDoubleArray(Color color) {
-    return new double[] {color.getRed() / 255.0, color.getGreen() / 255.0, color.getBlue() / 255.0};
-  }
-
   // Abstract methods
 
   /**
@@ -17,9 +17,16 @@ import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import javax.swing.Timer;
+import javax.swing.SwingUtilities;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Though <code>Application</code> is technically the main class as it handles the display of all
@@ -49,15 +56,15 @@ import java.util.ArrayList;
  * <br />
  * <pre>
  * Class table of contents:
- * - Constants                  Line 068
- * - Class fields/constructor   Line 124
- * - Setters                    Line 152
- * - Getters                    Line 264
- * - Utility methods            Line 365
- * - Inner helper classes       Line 603
- *   - SceneGLEventListener     Line 636
- *   - SceneKeyListener         Line 837
- *   - TimerListener            Line 951
+ * - Constants                  Line 075
+ * - Class fields/constructor   Line 142
+ * - Setters                    Line 174
+ * - Getters                    Line 347
+ * - Utility methods            Line 493
+ * - Inner helper classes       Line 872
+ *   - SceneGLEventListener     Line 905
+ *   - SceneKeyListener         Line 1239
+ *   - TimerListener            Line 1364
  * </pre>
  *
  * @see com.jogamp.opengl.awt.GLJPanel
@@ -73,27 +80,6 @@ final class ScenePanel extends GLJPanel {
   /** Magic number; initial default <code>ScenePanel.counter</code> value of 1 */
   private final static int DEFAULT_COUNTER = 1;
 
-  /** Standard <code>ScenePanel.rotateX</code> value, set to 45.0 by default */
-  private final static double DEFAULT_ROTATE_X = 45.0;
-
-  /** Standard <code>ScenePanel.rotateY</code> value, set to 15.0 by default */
-  private final static double DEFAULT_ROTATE_Y = 15.0;
-
-  /** Standard <code>ScenePanel.rotateZ</code> value, set to 0.0 by default */
-  private final static double DEFAULT_ROTATE_Z = 0.0;
-
-  /** Standard <code>ScenePanel.translateX</code> value, set to 0.0 by default */
-  private final static double DEFAULT_TRANSLATE_X = 0.0;
-
-  /** Standard <code>ScenePanel.translateY</code> value, set to 0.0 by default */
-  private final static double DEFAULT_TRANSLATE_Y = 0.0;
-
-  /** Standard <code>ScenePanel.translateZ</code> value, set to 0.0 by default */
-  private final static double DEFAULT_TRANSLATE_Z = 0.0;
-
-  /** Standard <code>ScenePanel.scale</code> value, set to 1.5 by default */
-  private final static double DEFAULT_SCALE = 1.5;
-
   /** Degree amount by which scene is rotated along x, y, z-axes, set to 15.0 */
   private final static double ROTATION_INCREMENT = 15.0;
 
@@ -121,13 +107,47 @@ final class ScenePanel extends GLJPanel {
   /** Gold <code>Color</code>, used to color <code>Star</code> instance */
   private final static Color GOLD = new Color(212, 175, 55);
 
+  /** Transformations of the animation video in order, as method suffixes, one per timer tick */
+  protected final static String[] ANIMATION_STEPS =
+    {"RotateY", "RotateX", "Scale", "RotateY", "TranslateZ", "Scale"};
+
+  /** Amounts of the transformations of <code>ScenePanel.ANIMATION_STEPS</code> */
+  protected final static double[] ANIMATION_AMOUNTS = {
+    -ScenePanel.ROTATION_INCREMENT * 3.0,       // -45.0
+    ScenePanel.ROTATION_INCREMENT * 2.0,        // 30.0
+    ScenePanel.SCALING_INCREMENT * 2.0,         // 0.2
+    ScenePanel.ROTATION_INCREMENT * 5.0,        // 75.0
+    -ScenePanel.TRANSLATION_INCREMENT * 2.0,    // -0.2
+    -ScenePanel.SCALING_INCREMENT * 5.0         // -0.5
+  };
+
+  /** Whether unchanged frames are re-presented from <code>FrameCache</code>, true by default */
+  private final static boolean DEFAULT_RENDER_ON_DEMAND = true;
+
+  /** Whether meshes that cannot be back-face culled safely are flagged in the status log */
+  private final static boolean VALIDATE_MESHES =
+    Boolean.getBoolean("graphicsprojecttwo.validate");
+
+  /** Directory to which captured frames are written, "capture" unless overridden */
+  private final static String CAPTURE_DIRECTORY =
+    System.getProperty("graphicsprojecttwo.capture.dir", "capture");
+
+  /** Format of captured frames (png, raw, or video), "png" unless overridden */
+  private final static String CAPTURE_FORMAT =
+    System.getProperty("graphicsprojecttwo.capture.format", "png");
+
+  /** File to which the session's input is recorded for <code>InputReplayer</code>, if any */
+  private final static String RECORD_PATH = System.getProperty("graphicsprojecttwo.record");
+
   // Class fields/constructor
 
   private Application parent;
   private Timer animationTimer;
+  private FrameCapture frameCapture;
+  private InputRecorder inputRecorder;
   private int counter;
-  private boolean isAnimationPlaying;
-  private double scale, rotateX, rotateY, rotateZ, translateX, translateY, translateZ;
+  private boolean isAnimationPlaying, isSceneDirty, isRenderOnDemand;
+  private SceneCamera camera;
 
   /**
    * Parameterized constructor
@@ -135,7 +155,7 @@ final class ScenePanel extends GLJPanel {
    * @param parent <code>Application</code>
    */
   protected ScenePanel(Application parent) {
-    super(new GLCapabilities(null));
+    super(new GLCapabilities(Startup.getProfile()));
 
     // Add new listeners
     this.addGLEventListener(new ScenePanel.SceneGLEventListener());
@@ -146,6 +166,8 @@ final class ScenePanel extends GLJPanel {
     this.setAnimationTimer(new Timer(ScenePanel.TIMER_DELAY, new ScenePanel.TimerListener()));
     this.setCounter(ScenePanel.DEFAULT_COUNTER);
     this.setIsAnimationPlaying(false);
+    this.setIsRenderOnDemand(ScenePanel.DEFAULT_RENDER_ON_DEMAND);
+    this.setCamera(new SceneCamera());
     this.setTransformationsToDefaults();
   }
 
@@ -171,6 +193,36 @@ final class ScenePanel extends GLJPanel {
     this.animationTimer = animationTimer;
   }
 
+  /**
+   * Setter for <code>ScenePanel.frameCapture</code>
+   *
+   * @param frameCapture <code>FrameCapture</code>
+   * @return void
+   */
+  private void setFrameCapture(FrameCapture frameCapture) {
+    this.frameCapture = frameCapture;
+  }
+
+  /**
+   * Setter for <code>ScenePanel.inputRecorder</code>
+   *
+   * @param inputRecorder <code>InputRecorder</code>
+   * @return void
+   */
+  private void setInputRecorder(InputRecorder inputRecorder) {
+    this.inputRecorder = inputRecorder;
+  }
+
+  /**
+   * Setter for <code>ScenePanel.camera</code>
+   *
+   * @param camera <code>SceneCamera</code>
+   * @return void
+   */
+  private void setCamera(SceneCamera camera) {
+    this.camera = camera;
+  }
+
   /**
    * Setter for <code>ScenePanel.counter</code>
    *
@@ -179,6 +231,7 @@ final class ScenePanel extends GLJPanel {
    */
   private void setCounter(int counter) {
     this.counter = counter;
+    MetricsServer.recordAnimation(this.isAnimationPlaying, counter);
   }
 
   /**
@@ -189,76 +242,106 @@ final class ScenePanel extends GLJPanel {
    */
   private void setIsAnimationPlaying(boolean isAnimationPlaying) {
     this.isAnimationPlaying = isAnimationPlaying;
+    MetricsServer.recordAnimation(isAnimationPlaying, this.counter);
+  }
+
+  /**
+   * Setter for <code>ScenePanel.isSceneDirty</code>
+   *
+   * @param isSceneDirty <code>boolean</code>
+   * @return void
+   */
+  private void setIsSceneDirty(boolean isSceneDirty) {
+    this.isSceneDirty = isSceneDirty;
   }
 
   /**
-   * Setter for <code>ScenePanel.scale</code>
+   * Setter for <code>ScenePanel.isRenderOnDemand</code>. Switching the mode always forces the next
+   * repaint to re-render the scene in full.
+   *
+   * @param isRenderOnDemand <code>boolean</code>
+   * @return void
+   */
+  protected void setIsRenderOnDemand(boolean isRenderOnDemand) {
+    this.isRenderOnDemand = isRenderOnDemand;
+    this.setIsSceneDirty(true);
+  }
+
+  /**
+   * Setter for the camera's <code>SceneCamera.scale</code>
    *
    * @param scale <code>double</code>
    * @return void
    */
   private void setScale(double scale) {
-    this.scale = scale;
+    this.getCamera().setScale(scale);
+    this.setIsSceneDirty(true);
   }
 
   /**
-   * Setter for <code>ScenePanel.rotateX</code>
+   * Setter for the camera's <code>SceneCamera.rotateX</code>
    *
    * @param rotateX <code>double</code>
    * @return void
    */
   private void setRotateX(double rotateX) {
-    this.rotateX = rotateX;
+    this.getCamera().setRotateX(rotateX);
+    this.setIsSceneDirty(true);
   }
 
   /**
-   * Setter for <code>ScenePanel.rotateY</code>
+   * Setter for the camera's <code>SceneCamera.rotateY</code>
    *
    * @param rotateY <code>double</code>
    * @return void
    */
   private void setRotateY(double rotateY) {
-    this.rotateY = rotateY;
+    this.getCamera().setRotateY(rotateY);
+    this.setIsSceneDirty(true);
   }
 
   /**
-   * Setter for <code>ScenePanel.rotateZ</code>
+   * Setter for the camera's <code>SceneCamera.rotateZ</code>
    *
    * @param rotateZ <code>double</code>
    * @return void
    */
   private void setRotateZ(double rotateZ) {
-    this.rotateZ = rotateZ;
+    this.getCamera().setRotateZ(rotateZ);
+    this.setIsSceneDirty(true);
   }
 
   /**
-   * Setter for <code>ScenePanel.translateX</code>
+   * Setter for the camera's <code>SceneCamera.translateX</code>
    *
    * @param translateX <code>double</code>
    * @return void
    */
   private void setTranslateX(double translateX) {
-    this.translateX = translateX;
+    this.getCamera().setTranslateX(translateX);
+    this.setIsSceneDirty(true);
   }
 
   /**
-   * Setter for <code>ScenePanel.translateY</code>
+   * Setter for the camera's <code>SceneCamera.translateY</code>
    *
    * @param translateY <code>double</code>
    * @return void
    */
   private void setTranslateY(double translateY) {
-    this.translateY = translateY;
+    this.getCamera().setTranslateY(translateY);
+    this.setIsSceneDirty(true);
   }
 
   /**
-   * Setter for <code>ScenePanel.translateZ</code>
+   * Setter for the camera's <code>SceneCamera.translateZ</code>
    *
    * @param translateZ <code>double</code>
    * @return void
    */
   private void setTranslateZ(double translateZ) {
-    this.translateZ = translateZ;
+    this.getCamera().setTranslateZ(translateZ);
+    this.setIsSceneDirty(true);
   }
 
   // Getters
@@ -281,6 +364,33 @@ final class ScenePanel extends GLJPanel {
     return this.animationTimer;
   }
 
+  /**
+   * Getter for <code>ScenePanel.frameCapture</code>, <code>null</code> while not recording
+   *
+   * @return frameCapture <code>FrameCapture</code>
+   */
+  private FrameCapture getFrameCapture() {
+    return this.frameCapture;
+  }
+
+  /**
+   * Getter for <code>ScenePanel.inputRecorder</code>, <code>null</code> unless recording input
+   *
+   * @return inputRecorder <code>InputRecorder</code>
+   */
+  private InputRecorder getInputRecorder() {
+    return this.inputRecorder;
+  }
+
+  /**
+   * Getter for <code>ScenePanel.camera</code>
+   *
+   * @return camera <code>SceneCamera</code>
+   */
+  protected SceneCamera getCamera() {
+    return this.camera;
+  }
+
   /**
    * Getter for <code>ScenePanel.counter</code>
    *
@@ -300,70 +410,147 @@ final class ScenePanel extends GLJPanel {
   }
 
   /**
-   * Getter for <code>ScenePanel.scale</code>
+   * Getter for <code>ScenePanel.isSceneDirty</code>
+   *
+   * @return isSceneDirty <code>boolean</code>
+   */
+  private boolean getIsSceneDirty() {
+    return this.isSceneDirty;
+  }
+
+  /**
+   * Getter for <code>ScenePanel.isRenderOnDemand</code>
+   *
+   * @return isRenderOnDemand <code>boolean</code>
+   */
+  protected boolean getIsRenderOnDemand() {
+    return this.isRenderOnDemand;
+  }
+
+  /**
+   * Getter for the camera's <code>SceneCamera.scale</code>
    *
    * @return scale <code>double</code>
    */
   protected double getScale() {
-    return this.scale;
+    return this.getCamera().getScale();
   }
 
   /**
-   * Getter for <code>ScenePanel.rotateX</code>
+   * Getter for the camera's <code>SceneCamera.rotateX</code>
    *
    * @return rotateX <code>double</code>
    */
   protected double getRotateX() {
-    return this.rotateX;
+    return this.getCamera().getRotateX();
   }
 
   /**
-   * Getter for <code>ScenePanel.rotateY</code>
+   * Getter for the camera's <code>SceneCamera.rotateY</code>
    *
    * @return rotateY <code>double</code>
    */
   protected double getRotateY() {
-    return this.rotateY;
+    return this.getCamera().getRotateY();
   }
 
   /**
-   * Getter for <code>ScenePanel.rotateZ</code>
+   * Getter for the camera's <code>SceneCamera.rotateZ</code>
    *
    * @return rotateZ <code>double</code>
    */
   protected double getRotateZ() {
-    return this.rotateZ;
+    return this.getCamera().getRotateZ();
   }
 
   /**
-   * Getter for <code>ScenePanel.translateX</code>
+   * Getter for the camera's <code>SceneCamera.translateX</code>
    *
    * @return translateX <code>double</code>
    */
   protected double getTranslateX() {
-    return this.translateX;
+    return this.getCamera().getTranslateX();
   }
 
   /**
-   * Getter for <code>ScenePanel.translateY</code>
+   * Getter for the camera's <code>SceneCamera.translateY</code>
    *
    * @return translateY <code>double</code>
    */
   protected double getTranslateY() {
-    return this.translateY;
+    return this.getCamera().getTranslateY();
   }
 
   /**
-   * Getter for <code>ScenePanel.translateZ</code>
+   * Getter for the camera's <code>SceneCamera.translateZ</code>
    *
    * @return translateZ <code>double</code>
    */
   protected double getTranslateZ() {
-    return this.translateZ;
+    return this.getCamera().getTranslateZ();
   }
 
   // Utility methods
 
+  /**
+   * Adds the objects of the program's scene to the given graph: the floor as the root, carrying
+   * the pedestal cube and the four shapes around it, with the star resting on the cube. Besides
+   * the panel's own listener, the scene is built by <code>GoldenImageSuite</code>, which renders it
+   * offscreen and so must see exactly what the GUI shows.
+   *
+   * @param sceneGraph <code>SceneGraph</code>, expected to be empty
+   * @return void
+   */
+  protected static void buildScene(SceneGraph sceneGraph) {
+    ScenePanel.buildScene(sceneGraph, Runnable::run);
+  }
+
+  /**
+   * Adds the objects of the program's scene to the given graph as above, constructing them on the
+   * given executor. As each object prepares its mesh and precomputes its colors as it is
+   * constructed, <code>Startup</code> passes the common pool, such that the objects are built side
+   * by side, while the graph itself is assembled in order on the calling thread.
+   *
+   * @param sceneGraph <code>SceneGraph</code>, expected to be empty
+   * @param executor <code>Executor</code> constructing the objects
+   * @return void
+   */
+  protected static void buildScene(SceneGraph sceneGraph, Executor executor) {
+
+    // Declarations
+    CompletableFuture<SceneObject> floor, cube, pyramid, hexagon, triangle, decagon, star;
+    int floorNode, cubeNode;
+
+    // Shape type       Painting hue       Scale   trX  trY   trZ
+    floor = CompletableFuture.supplyAsync(() ->
+      new Floor(Color.DARK_GRAY, 0.5, 0.0, 0.0, 0.0), executor);
+    cube = CompletableFuture.supplyAsync(() ->
+      new Cube(ScenePanel.MAROON, 0.125, 0.0, 1.4, 0.0), executor);
+    pyramid = CompletableFuture.supplyAsync(() ->
+      new FiveSidedPyramid(ScenePanel.OLIVE, 0.125, 2.5, 1.4, 0.0), executor);
+    hexagon = CompletableFuture.supplyAsync(() ->
+      new HexagonalPrism(ScenePanel.MINT, 0.125, -2.5, 1.4, 0.0), executor);
+    triangle = CompletableFuture.supplyAsync(() ->
+      new TriangularPrism(ScenePanel.PURPLE, 0.125, 0.0, 1.4, -2.5), executor);
+    decagon = CompletableFuture.supplyAsync(() ->
+      new TenSidedPolygon(ScenePanel.TEAL, 0.125, 0.0, 1.4, 2.5), executor);
+    star = CompletableFuture.supplyAsync(() ->
+      new Star(ScenePanel.GOLD, 0.125, 0.0, 4.4, 0.0), executor);
+
+    // The floor is the root of the scene, carrying everything standing on it
+    floorNode = sceneGraph.addObject(SceneGraph.NONE, floor.join());
+    cubeNode = sceneGraph.addObject(floorNode, cube.join());
+
+    // Add new SceneObject elements (6x, as per rubric requirements) to the floor
+    sceneGraph.addObject(floorNode, pyramid.join());
+    sceneGraph.addObject(floorNode, hexagon.join());
+    sceneGraph.addObject(floorNode, triangle.join());
+    sceneGraph.addObject(floorNode, decagon.join());
+
+    // The star is attached to the pedestal cube rather than placed independently above it
+    sceneGraph.addObject(cubeNode, star.join());
+  }
+
   /**
    * This glorified accessor method simply serves to permit the addition of new status log entries
    * to the GUI log from within this class, calling the parent <code>Application.addLogEntry</code>
@@ -376,31 +563,32 @@ final class ScenePanel extends GLJPanel {
     this.getApplication().addLogEntry(message);
   }
 
+  /**
+   * This method is used to flag that the contents of the scene itself (rather than the camera
+   * transformation fields, whose setters flag themselves) have changed, such that the frame held in
+   * <code>FrameCache</code> is stale and the next repaint must re-render the scene in full. It is
+   * <code>protected</code> so that any code mutating scene objects may invoke it.
+   *
+   * @return void
+   */
+  protected void markSceneDirty() {
+    this.setIsSceneDirty(true);
+  }
+
   /**
    * This helper method is used by the parameterized <code>ScenePanel</code> constructor and the
    * <code>ScenePanel.resetScene</code> method to set all the rotation, translation, and scale
-   * fields back to the default constants as defined at the head of the program.
-   * <br />
-   * <pre>
-   * - scale        ->  1.5
-   * - rotateX      -> 15.0
-   * - rotateY      -> 15.0
-   * - rotateZ      ->  0.0
-   * - translateX   ->  0.0
-   * - translateY   -> -0.1
-   * - translateZ   ->  0.0
-   * </pre>
+   * fields back to the default constants, as defined at the head of <code>SceneCamera</code>.
    *
    * @return void
    */
   private void setTransformationsToDefaults() {
-    this.setScale(ScenePanel.DEFAULT_SCALE);
-    this.setRotateX(ScenePanel.DEFAULT_ROTATE_X);
-    this.setRotateY(ScenePanel.DEFAULT_ROTATE_Y);
-    this.setRotateZ(ScenePanel.DEFAULT_ROTATE_Z);
-    this.setTranslateX(ScenePanel.DEFAULT_TRANSLATE_X);
-    this.setTranslateY(ScenePanel.DEFAULT_TRANSLATE_Y);
-    this.setTranslateZ(ScenePanel.DEFAULT_TRANSLATE_Z);
+    this.getCamera().setToDefaults();
+    this.setIsSceneDirty(true);
+
+    if (this.getInputRecorder() != null) {
+      this.getInputRecorder().recordReset();
+    }
   }
 
   /**
@@ -489,6 +677,71 @@ final class ScenePanel extends GLJPanel {
     }
   }
 
+  /**
+   * This method starts or stops the recording of rendered frames, and is bound to the "C" key so
+   * that both interactive sessions and the "Video" animation may be captured. Starting simply
+   * creates a new <code>FrameCapture</code> that the GL listener feeds on every rendered frame.
+   * Stopping must drain and release that instance's pixel buffer objects, which requires a current
+   * context, so it is deferred to the GL thread via <code>GLAutoDrawable.invoke</code>. The final
+   * tally of written and dropped frames is posted to the status log once the encoders are done.
+   *
+   * @return void
+   */
+  protected void toggleCapture() {
+
+    // Declarations
+    final FrameCapture capture;
+    FrameCapture.Format format;
+    Path directory;
+
+    capture = this.getFrameCapture();
+
+    if (capture == null) {
+      try {
+        format = FrameCapture.Format.valueOf(ScenePanel.CAPTURE_FORMAT.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException ex) {
+        format = FrameCapture.Format.PNG;
+      }
+
+      directory = Paths.get(ScenePanel.CAPTURE_DIRECTORY).toAbsolutePath();
+      this.setFrameCapture(new FrameCapture(directory, format));
+      this.addLogEntry("Starting " + format.name().toLowerCase(Locale.ROOT) + " capture to "
+        + directory);
+      this.markSceneDirty();
+      this.repaint();
+      return;
+    }
+
+    this.setFrameCapture(null);
+    this.addLogEntry("Stopping capture");
+    this.invoke(false, (GLAutoDrawable glad) -> {
+      capture.stop(glad.getGL().getGL2(), (String message) -> {
+        SwingUtilities.invokeLater(() -> this.addLogEntry(message));
+      });
+      return true;
+    });
+  }
+
+  /**
+   * This method starts recording the session's input through an <code>InputRecorder</code> if the
+   * <code>graphicsprojecttwo.record</code> property names a file to record to. It is called once
+   * the GUI is up, such that the outcome may be logged, and does nothing if already recording.
+   *
+   * @return void
+   */
+  private void startRecording() {
+    if (ScenePanel.RECORD_PATH == null || this.getInputRecorder() != null) {
+      return;
+    }
+
+    try {
+      this.setInputRecorder(new InputRecorder(Paths.get(ScenePanel.RECORD_PATH)));
+      this.addLogEntry("Recording input to " + this.getInputRecorder().getPath().toAbsolutePath());
+    } catch (IOException ex) {
+      this.addLogEntry("Error: " + ex);
+    }
+  }
+
   /**
    * As per the Project 2 design rubrics, the program is expected to demonstrate six (6) total
    * unique transformation operations. However, as the scene was deliberately designed by the author
@@ -506,40 +759,41 @@ final class ScenePanel extends GLJPanel {
    * author was able to unit test to ensure that each operation worked as expected. Storyboarding
    * out the expected animation on paper before testing it allowed the author to make sure that the
    * scene was being manipulated properly by the program, providing the author some further
-   * reassurance that it was coded properly.
+   * reassurance that it was coded properly. The storyboard itself now lives in the
+   * <code>ScenePanel.ANIMATION_STEPS</code> and <code>ScenePanel.ANIMATION_AMOUNTS</code> tables,
+   * such that <code>GoldenImageSuite</code> can pose its camera after each step exactly as the
+   * video does. Each tick is recorded by Java Flight Recorder as an animation step, spanning the
+   * transformation or reset it makes.
    *
    * @return void
    */
   private void runAnimation() {
 
-    switch (this.getCounter()) {
-      case 1: // -45.0
-        this.performTransformation("RotateY", -ScenePanel.ROTATION_INCREMENT * 3.0);
-        break;
-      case 2: // 30.0
-        this.performTransformation("RotateX", ScenePanel.ROTATION_INCREMENT * 2.0);
-        break;
-      case 3: // 0.2
-        this.performTransformation("Scale", ScenePanel.SCALING_INCREMENT * 2.0);
-        break;
-      case 4: // 75.0
-        this.performTransformation("RotateY", ScenePanel.ROTATION_INCREMENT * 5.0);
-        break;
-      case 5: // -0.2
-        this.performTransformation("TranslateZ", -ScenePanel.TRANSLATION_INCREMENT * 2.0);
-        break;
-      case 6: // -0.5
-        this.performTransformation("Scale", -ScenePanel.SCALING_INCREMENT * 5.0);
-        break;
-      default:
-        this.addLogEntry("Resetting animation video");
-        this.resetScene();
-        this.setCounter(0);
-        break;
+    // Declaration
+    FlightEvents.AnimationStep stepEvent;
+
+    stepEvent = FlightEvents.beginAnimationStep(this.getCounter(),
+      (this.getCounter() >= 1 && this.getCounter() <= ScenePanel.ANIMATION_STEPS.length)
+        ? ScenePanel.ANIMATION_STEPS[this.getCounter() - 1]
+        : "Reset");
+
+    if (this.getInputRecorder() != null) {
+      this.getInputRecorder().recordTick(this.getCounter());
+    }
+
+    // Ticks one through six play the storyboard, the tick after resets it
+    if (this.getCounter() >= 1 && this.getCounter() <= ScenePanel.ANIMATION_STEPS.length) {
+      this.performTransformation(ScenePanel.ANIMATION_STEPS[this.getCounter() - 1],
+        ScenePanel.ANIMATION_AMOUNTS[this.getCounter() - 1]);
+    } else {
+      this.addLogEntry("Resetting animation video");
+      this.resetScene();
+      this.setCounter(0);
     }
 
     this.repaint();
     this.setCounter(this.getCounter() + 1);
+    FlightEvents.end(stepEvent);
   }
 
   /**
@@ -561,6 +815,8 @@ final class ScenePanel extends GLJPanel {
    * - "set" + "RotateX" -> setRotateX()
    * - "RotateX" -> [regex] -> "Rotate X" + " by " + amount
    * </pre>
+   * Every transformation, whether from a key or the animation, is also recorded by Java Flight
+   * Recorder, such that its cost can be read alongside the frames that follow it.
    *
    * @see java.lang.reflect
    * @see <a href="https://stackoverflow.com/a/20677443">SO Regex thread reply</a>
@@ -569,6 +825,12 @@ final class ScenePanel extends GLJPanel {
    * @return void
    */
   private void performTransformation(String methodSuffix, double amount) {
+
+    // Declaration
+    FlightEvents.Transformation transformationEvent;
+
+    transformationEvent = FlightEvents.beginTransformation(methodSuffix, amount);
+
     try {
 
       // Declarations
@@ -595,9 +857,16 @@ final class ScenePanel extends GLJPanel {
       // Set new field amount using setter
       setterMethod.invoke(this, newSetterValue);
 
+      // Log the outcome rather than the cause, so replays need not know where it came from
+      if (this.getInputRecorder() != null) {
+        this.getInputRecorder().recordTransformation(methodSuffix, amount);
+      }
+
     } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException ex) {
       this.addLogEntry("Error: " + ex);
     }
+
+    FlightEvents.end(transformationEvent);
   }
 
   // Inner helper classes
@@ -637,29 +906,16 @@ final class ScenePanel extends GLJPanel {
 
     // Declarations
     private GL2 gl2;
-    private ArrayList<SceneObject> sceneObjectArrayList;
+    private FramePipeline framePipeline;
+    private SceneGraph sceneGraph;
 
     /**
      * Default constructor
      */
     private SceneGLEventListener() {
 
-      // Declaration
-      ArrayList<SceneObject> tempSceneObjectArrayList;
-
       // Assignment and definition
-      this.setSceneObjectArrayList(new ArrayList<>());
-      tempSceneObjectArrayList = this.getSceneObjectArrayList();
-
-      // Add new SceneObject elements (6x, as per rubric requirements) to ArrayList
-      // ArrayList addition            Shape type       Painting hue       Scale   trX  trY   trZ
-      tempSceneObjectArrayList.add(new Floor(           Color.DARK_GRAY,   0.5,    0.0, 0.0,  0.0));
-      tempSceneObjectArrayList.add(new Cube(            ScenePanel.MAROON, 0.125,  0.0, 1.4,  0.0));
-      tempSceneObjectArrayList.add(new FiveSidedPyramid(ScenePanel.OLIVE,  0.125,  2.5, 1.4,  0.0));
-      tempSceneObjectArrayList.add(new HexagonalPrism(  ScenePanel.MINT,   0.125, -2.5, 1.4,  0.0));
-      tempSceneObjectArrayList.add(new TriangularPrism( ScenePanel.PURPLE, 0.125,  0.0, 1.4, -2.5));
-      tempSceneObjectArrayList.add(new TenSidedPolygon( ScenePanel.TEAL,   0.125,  0.0, 1.4,  2.5));
-      tempSceneObjectArrayList.add(new Star(            ScenePanel.GOLD,   0.125,  0.0, 4.4,  0.0));
+      this.setFramePipeline(new FramePipeline());
     }
 
     // Setters
@@ -675,13 +931,23 @@ final class ScenePanel extends GLJPanel {
     }
 
     /**
-     * Setter for <code>SceneGLEventListener.sceneObjectArrayList</code>
+     * Setter for <code>SceneGLEventListener.framePipeline</code>
      *
-     * @param sceneObjectArrayList <code>ArrayList</code>
+     * @param framePipeline <code>FramePipeline</code>
      * @return void
      */
-    private void setSceneObjectArrayList(ArrayList<SceneObject> sceneObjectArrayList) {
-      this.sceneObjectArrayList = sceneObjectArrayList;
+    private void setFramePipeline(FramePipeline framePipeline) {
+      this.framePipeline = framePipeline;
+    }
+
+    /**
+     * Setter for <code>SceneGLEventListener.sceneGraph</code>
+     *
+     * @param sceneGraph <code>SceneGraph</code>
+     * @return void
+     */
+    private void setSceneGraph(SceneGraph sceneGraph) {
+      this.sceneGraph = sceneGraph;
     }
 
     // Getters
@@ -696,12 +962,75 @@ final class ScenePanel extends GLJPanel {
     }
 
     /**
-     * Getter for <code>SceneGLEventListener.sceneObjectArrayList</code>
+     * Getter for <code>SceneGLEventListener.framePipeline</code>
+     *
+     * @return framePipeline <code>FramePipeline</code>
+     */
+    protected FramePipeline getFramePipeline() {
+      return this.framePipeline;
+    }
+
+    /**
+     * Getter for the <code>SceneRenderer</code> of <code>SceneGLEventListener.framePipeline</code>
+     *
+     * @return <code>SceneRenderer</code>
+     */
+    protected SceneRenderer getSceneRenderer() {
+      return this.getFramePipeline().getSceneRenderer();
+    }
+
+    /**
+     * Getter for <code>SceneGLEventListener.sceneGraph</code>, taken from <code>Startup</code> on
+     * first use, waiting on the scene to be built if need be
+     *
+     * @return sceneGraph <code>SceneGraph</code>
+     */
+    protected SceneGraph getSceneGraph() {
+      if (this.sceneGraph == null) {
+        this.setSceneGraph(Startup.getSceneGraph());
+      }
+
+      return this.sceneGraph;
+    }
+
+    // Utility methods
+
+    /**
+     * Posts the <code>MeshProcessor</code> report of every distinct mesh in the scene to the
+     * status log, followed by the average vertex cache miss ratio before and after optimization.
      *
-     * @return sceneObjectArrayList <code>ArrayList</code>
+     * @return void
      */
-    protected ArrayList<SceneObject> getSceneObjectArrayList() {
-      return this.sceneObjectArrayList;
+    private void logMeshReports() {
+
+      // Declarations
+      LinkedHashSet<Mesh> meshes;
+      double before, after;
+
+      meshes = new LinkedHashSet<>();
+      before = 0.0;
+      after = 0.0;
+
+      for (int node = 0; node < this.getSceneGraph().size(); node++) {
+        if (this.getSceneGraph().getSceneObject(node) != null) {
+          meshes.add(this.getSceneGraph().getSceneObject(node).getMesh());
+        }
+      }
+
+      for (Mesh mesh : meshes) {
+        ScenePanel.this.addLogEntry(mesh.getReport().toString());
+
+        if (ScenePanel.VALIDATE_MESHES && !mesh.getIsCullable()) {
+          ScenePanel.this.addLogEntry(mesh.getReport().toManifoldWarning());
+        }
+
+        before += mesh.getReport().getAcmrBefore();
+        after += mesh.getReport().getAcmrAfter();
+      }
+
+      ScenePanel.this.addLogEntry(String.format(Locale.ROOT,
+        "Average ACMR over %d meshes: %.3f -> %.3f", meshes.size(), before / meshes.size(),
+        after / meshes.size()));
     }
 
     // Required methods
@@ -721,6 +1050,11 @@ final class ScenePanel extends GLJPanel {
      * that its dimensions be adjusted to accommodate this fact. This was done by adjusting the
      * first two parameters of <code>GL2.glOrtho</code>, passing a <code>double</code> quotient
      * derived from the division of 4 by 3.
+     * <br />
+     * <br />
+     * The state setup itself now lives in <code>SceneRenderer.init</code>, so that offscreen
+     * drawables used by the <code>Benchmark</code> are set up identically. None of it depends on
+     * the scene, which may well still be under construction by <code>Startup</code> at this point.
      *
      * @see <code>UnlitCube.java</code>
      * @see <a href="https://www.tutorialspoint.com/jogl/jogl_3d_graphics.htm">TutorialsPoint</a>
@@ -731,25 +1065,32 @@ final class ScenePanel extends GLJPanel {
     @Override
     public void init(GLAutoDrawable glad) {
 
-      // Declaration
-      double aspect;
+      // Declarations
       final GL2 newGl2;
+      long start;
 
       // Definitions and assignment
-      aspect = 4.0 / 3.0; // Preserve 640:480 scene aspect ratio
+      start = System.nanoTime();
       newGl2 = glad.getGL().getGL2();
       this.setGl2(newGl2);
 
-      // Mostly from UnlitCube.java, with modifications from TutorialsPoint
-      newGl2.glMatrixMode(GL2.GL_PROJECTION);           // Modify projection matrix
-      newGl2.glOrtho(-aspect, aspect, -1, 1, -10, 100); // Alter coord system on projection matrix
-      newGl2.glMatrixMode(GL2.GL_MODELVIEW);            // Switch to modifying modelview matrix
-      newGl2.glShadeModel(GL2.GL_SMOOTH);               // Value representing shading technique
-      newGl2.glClearColor(0, 0, 0, 0);                  // Set scene background color (black)
-      newGl2.glClearDepth(1.0);                         // B/w 0 & 1, amount of depth buffer cleared
-      newGl2.glEnable(GL2.GL_DEPTH_TEST);               // Used for 3D drawing
-      newGl2.glDepthFunc(GL2.GL_LEQUAL);                // GL_LEQUAL recommended for shaders
-      newGl2.glHint(GL2.GL_PERSPECTIVE_CORRECTION_HINT, GL2.GL_NICEST); // Really nice quality
+      // Time from the frame being shown to the context being handed over
+      if (Startup.getIsPending()) {
+        Startup.record("gl context", Startup.getEndNanos("swing"), start);
+      }
+
+      // Projection, depth testing, culling, and fresh buffer objects for the new context
+      this.getFramePipeline().init(newGl2);
+
+      // Context is new, so anything cached belongs to a previous one
+      ScenePanel.this.markSceneDirty();
+
+      // Log is only available now that the GUI has been built
+      ScenePanel.this.startRecording();
+
+      if (Startup.getIsPending()) {
+        Startup.record("gl init", start, System.nanoTime());
+      }
     }
 
     /**
@@ -766,8 +1107,27 @@ final class ScenePanel extends GLJPanel {
      * were initially defined in this method prior to the author realizing that it was called with
      * every keystroke, meaning that the program was creating and initializing countless new
      * class instances with every transformation. Brilliant work.
+     * <br />
+     * <br />
+     * As the scene only ever changes in response to keystrokes and the animation, the method is
+     * also responsible for the render-on-demand mode. Each frame is rendered into the listener's
+     * <code>FrameCache</code> and then presented; if Swing requests a repaint while
+     * <code>ScenePanel.isSceneDirty</code> is still <code>false</code> and no node of the
+     * <code>SceneGraph</code> awaits an update, the previously cached frame is simply presented
+     * again, skipping the traversal of the scene objects altogether.
+     * <br />
+     * <br />
+     * Frames actually rendered are rendered at the current scale of the listener's
+     * <code>RenderScaleController</code>, timed by its <code>FrameTimer</code>, and their times fed
+     * back to the controller, such that the internal resolution follows the machine's ability to
+     * keep up with the window's size. The same times are fed to the listener's
+     * <code>QualityGovernor</code>, which lowers the level of detail of the scene step by step
+     * should the render scale alone not suffice, and restores it once there is time to spare.
+     * Each frame rendered is then recorded with the <code>MetricsServer</code>, if it is on. These
+     * steps are taken by the listener's <code>FramePipeline</code>, shared with the
+     * <code>AllocationCheck</code>, leaving only the dealings with the GUI to this method.
      *
-     * @param glad <code>GLAutoDrawable</code> (unused)
+     * @param glad <code>GLAutoDrawable</code>
      * @return void
      */
     @Override
@@ -775,50 +1135,92 @@ final class ScenePanel extends GLJPanel {
 
       // Declarations
       final GL2 tempGl2;
-      double tempScale;
+      FramePipeline tempFramePipeline;
+      int defaultFramebuffer, width, height;
+      long start;
 
       // Definitions (cache values, limit method calls)
+      start = System.nanoTime();
       tempGl2 = this.getGl2();
-      tempScale = ScenePanel.this.getScale();
-
-      // Taken from UnlitCube.java, with modifications
-      tempGl2.glClear(GL2.GL_COLOR_BUFFER_BIT | GL2.GL_DEPTH_BUFFER_BIT);
-      tempGl2.glLoadIdentity();
-
-      tempGl2.glRotated(ScenePanel.this.getRotateZ(), 0, 0, 1);
-      tempGl2.glRotated(ScenePanel.this.getRotateY(), 0, 1, 0);
-      tempGl2.glRotated(ScenePanel.this.getRotateX(), 1, 0, 0);
-      tempGl2.glScaled(tempScale, tempScale, tempScale);
-      tempGl2.glTranslated(ScenePanel.this.getTranslateX(), ScenePanel.this.getTranslateY(),
-        ScenePanel.this.getTranslateZ());
-
-      // Draw new SceneObject-extending subclass objects
-      this.getSceneObjectArrayList().forEach((SceneObject sceneObject) -> {
-        sceneObject.constructObject(tempGl2);
-      });
+      tempFramePipeline = this.getFramePipeline();
+      defaultFramebuffer = glad.getContext().getDefaultDrawFramebuffer();
+      width = glad.getSurfaceWidth();
+      height = glad.getSurfaceHeight();
+
+      // Nothing has changed since the last frame, so simply show that one again
+      if (ScenePanel.this.getIsRenderOnDemand() && !ScenePanel.this.getIsSceneDirty()
+          && !this.getSceneGraph().getIsDirty() && tempFramePipeline.getFrameCache().getIsValid()) {
+        tempFramePipeline.getFrameCache().present(tempGl2, defaultFramebuffer, width, height);
+        return;
+      }
+
+      // Draw the SceneObject-extending subclass objects as seen through the camera
+      tempFramePipeline.render(tempGl2, ScenePanel.this.getCamera(), this.getSceneGraph(),
+        ScenePanel.this.getFrameCapture(), defaultFramebuffer, width, height);
+      ScenePanel.this.setIsSceneDirty(false);
+
+      // The scene is only certain to be built once the first frame is out
+      if (Startup.getIsPending()) {
+        for (String line : Startup.finish(start)) {
+          ScenePanel.this.addLogEntry(line);
+        }
+
+        this.logMeshReports();
+      }
+
+      // Occlusion queries lag a frame behind, and textures trickle in, so render again until done
+      if (!this.getSceneRenderer().getOcclusionCuller().getIsSettled()
+          || this.getSceneRenderer().getAtlasTexture().getIsPending()) {
+        ScenePanel.this.markSceneDirty();
+        ScenePanel.this.repaint();
+      }
+
+      // The next frame is rendered at the new level of detail; the current one stays until then
+      if (tempFramePipeline.getIsGoverned()) {
+        ScenePanel.this.addLogEntry(tempFramePipeline.getQualityGovernor().getTransition());
+        ScenePanel.this.markSceneDirty();
+      }
+
+      // Likewise, the next frame is rendered at the new scale
+      if (tempFramePipeline.getIsRescaled()) {
+        ScenePanel.this.addLogEntry(String.format(Locale.ROOT,
+          "Render scale set to %.0f%% (%.1f ms per frame)",
+          tempFramePipeline.getRenderScaleController().getScale() * 100.0,
+          tempFramePipeline.getRenderScaleController().getLastAverageMs()));
+      }
     }
 
     /**
-     * Noop method required by <code>GLEventListener</code>
+     * Method required by <code>GLEventListener</code>, used to release the GL resources held by
+     * the listener's <code>FrameCache</code> and <code>SceneRenderer</code> when the context is
+     * destroyed.
      *
      * @param glad <code>GLAutoDrawable</code>
      * @return void
      */
     @Override
-    public void dispose(GLAutoDrawable glad) {}
+    public void dispose(GLAutoDrawable glad) {
+      this.getFramePipeline().dispose(glad.getGL().getGL2());
+    }
 
     /**
-     * Noop method required by <code>GLEventListener</code>
+     * Method required by <code>GLEventListener</code>, called whenever the panel is resized. The
+     * projection is adapted to the new aspect ratio of the surface, keeping the original 4:3 view
+     * in sight, while the cached frame, now at the wrong dimensions, is flagged for a full
+     * re-render. The cache itself is resized on the next call to <code>display</code>.
      *
      * @param glad <code>GLAutoDrawable</code>
-     * @param i <code>int</code>
-     * @param i1 <code>int</code>
-     * @param i2 <code>int</code>
-     * @param i3 <code>int</code>
+     * @param x <code>int</code>
+     * @param y <code>int</code>
+     * @param width <code>int</code>
+     * @param height <code>int</code>
      * @return void
      */
     @Override
-    public void reshape(GLAutoDrawable glad, int i, int i1, int i2, int i3) {}
+    public void reshape(GLAutoDrawable glad, int x, int y, int width, int height) {
+      this.getFramePipeline().reshape(glad.getGL().getGL2(), width, height);
+      ScenePanel.this.markSceneDirty();
+    }
   }
 
   /**
@@ -859,6 +1261,17 @@ final class ScenePanel extends GLJPanel {
     @Override
     public void keyPressed(KeyEvent e) {
 
+      // Every keystroke is recorded, even those rejected below
+      if (ScenePanel.this.getInputRecorder() != null) {
+        ScenePanel.this.getInputRecorder().recordKey(e.getKeyCode());
+      }
+
+      // Capture may be toggled at any time so that the animation itself can be recorded
+      if (e.getKeyCode() == KeyEvent.VK_C) {
+        ScenePanel.this.toggleCapture();
+        return;
+      }
+
       // User shouldn't be able to interact with the scene while animation is playing
       if (ScenePanel.this.getIsAnimationPlaying()) {
         ScenePanel.this.addLogEntry("Error: Keystrokes disabled while animation is running.");
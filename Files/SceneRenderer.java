@@ -0,0 +1,662 @@
+/**
+ * SceneRenderer.java - GL state setup and per-frame traversal shared by every render target
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import com.jogamp.opengl.GL2;
+
+/**
+ * This class contains the parts of rendering the scene that do not depend on where the frame
+ * ends up, namely the one-time setup of the GL state and the per-frame application of the
+ * <code>SceneCamera</code> followed by the traversal of the scene objects. It was split out of
+ * <code>ScenePanel.SceneGLEventListener</code>, which still owns everything specific to the
+ * interactive panel (the <code>FrameCache</code>, frame capture, and the status log), so that the
+ * very same code path could be driven from an offscreen drawable by the <code>Benchmark</code>.
+ * <br />
+ * <br />
+ * An instance owns the <code>GeometryBuffers</code>, <code>AtlasTexture</code>,
+ * <code>GLStateFilter</code>, and <code>RenderStats</code> of a single GL context, and so must only
+ * be used from the thread owning that context.
+ * <br />
+ * <br />
+ * The level of detail of each object may be lowered by the <code>QualityGovernor</code> through
+ * three settings. The outline pass may be turned off altogether, and objects whose world bounds
+ * span fewer than a given number of pixels on screen may either be drawn coarsely, in a single
+ * draw call of their base hue, or left out of the frame entirely. As the projection is
+ * orthographic, the span on screen of an object depends only on its own size and the scale of the
+ * camera, not on its distance, and so is estimated from the diagonal of its bounds.
+ * <br />
+ * <br />
+ * Objects hidden behind others are left out as well, as decided by the renderer's
+ * <code>OcclusionCuller</code>.
+ * <br />
+ * <br />
+ * Rendering a frame falls into three steps. <code>SceneRenderer.begin</code> brings the graph up
+ * to date, <code>SceneRenderer.record</code> traverses it into a <code>RenderQueue</code> of sorted
+ * draw commands without touching GL, and <code>SceneRenderer.replay</code> submits the commands
+ * with as few state changes as the sort allows, nearest objects first.
+ *
+ * @see graphicsprojecttwo.ScenePanel
+ * @see graphicsprojecttwo.Benchmark
+ * @author Andrew Eissen
+ */
+final class SceneRenderer {
+
+  /** Width to height ratio of the region always in view, preserving the original 640:480 */
+  private final static double ASPECT = 4.0 / 3.0;
+
+  /** Near clipping plane of the projection */
+  private final static double NEAR = -10.0;
+
+  /** Far clipping plane of the projection */
+  private final static double FAR = 100.0;
+
+  // Class fields
+  private GeometryBuffers geometryBuffers;
+  private AtlasTexture atlasTexture;
+  private final RenderStats renderStats;
+  private final OcclusionCuller occlusionCuller;
+  private final RenderQueue renderQueue;
+  private final GLStateFilter glStateFilter;
+  private final float[] view, texturePlane;
+  private boolean isOutlined;
+  private double coarsePixels, skipPixels, pixelsPerUnit;
+
+  /**
+   * Default constructor
+   */
+  protected SceneRenderer() {
+    this.setGeometryBuffers(new GeometryBuffers());
+    this.setAtlasTexture(new AtlasTexture());
+    this.renderStats = new RenderStats();
+    this.occlusionCuller = new OcclusionCuller();
+    this.renderQueue = new RenderQueue();
+    this.glStateFilter = new GLStateFilter();
+    this.view = new float[16];
+    this.texturePlane = new float[4];
+    this.setIsOutlined(true);
+    this.setCoarsePixels(0.0);
+    this.setSkipPixels(0.0);
+    this.pixelsPerUnit = 240.0;
+  }
+
+  // Setters
+
+  /**
+   * Setter for <code>SceneRenderer.geometryBuffers</code>
+   *
+   * @param geometryBuffers <code>GeometryBuffers</code>
+   * @return void
+   */
+  private void setGeometryBuffers(GeometryBuffers geometryBuffers) {
+    this.geometryBuffers = geometryBuffers;
+  }
+
+  /**
+   * Setter for <code>SceneRenderer.atlasTexture</code>
+   *
+   * @param atlasTexture <code>AtlasTexture</code>
+   * @return void
+   */
+  private void setAtlasTexture(AtlasTexture atlasTexture) {
+    this.atlasTexture = atlasTexture;
+  }
+
+  /**
+   * Setter for <code>SceneRenderer.isOutlined</code>, whether objects are drawn with their black
+   * outlines
+   *
+   * @param isOutlined <code>boolean</code>
+   * @return void
+   */
+  protected void setIsOutlined(boolean isOutlined) {
+    this.isOutlined = isOutlined;
+  }
+
+  /**
+   * Setter for <code>SceneRenderer.coarsePixels</code>, the span on screen below which objects are
+   * drawn coarsely, zero to draw every object in full
+   *
+   * @param coarsePixels <code>double</code>
+   * @return void
+   */
+  protected void setCoarsePixels(double coarsePixels) {
+    this.coarsePixels = coarsePixels;
+  }
+
+  /**
+   * Setter for <code>SceneRenderer.skipPixels</code>, the span on screen below which objects are
+   * not drawn at all, zero to draw every object
+   *
+   * @param skipPixels <code>double</code>
+   * @return void
+   */
+  protected void setSkipPixels(double skipPixels) {
+    this.skipPixels = skipPixels;
+  }
+
+  // Getters
+
+  /**
+   * Getter for <code>SceneRenderer.geometryBuffers</code>
+   *
+   * @return geometryBuffers <code>GeometryBuffers</code>
+   */
+  protected GeometryBuffers getGeometryBuffers() {
+    return this.geometryBuffers;
+  }
+
+  /**
+   * Getter for <code>SceneRenderer.atlasTexture</code>
+   *
+   * @return atlasTexture <code>AtlasTexture</code>
+   */
+  protected AtlasTexture getAtlasTexture() {
+    return this.atlasTexture;
+  }
+
+  /**
+   * Getter for <code>SceneRenderer.renderStats</code>, describing the most recent frame
+   *
+   * @return renderStats <code>RenderStats</code>
+   */
+  protected RenderStats getRenderStats() {
+    return this.renderStats;
+  }
+
+  /**
+   * Getter for <code>SceneRenderer.occlusionCuller</code>
+   *
+   * @return occlusionCuller <code>OcclusionCuller</code>
+   */
+  protected OcclusionCuller getOcclusionCuller() {
+    return this.occlusionCuller;
+  }
+
+  /**
+   * Getter for <code>SceneRenderer.renderQueue</code>, holding the commands of the latest frame
+   *
+   * @return renderQueue <code>RenderQueue</code>
+   */
+  protected RenderQueue getRenderQueue() {
+    return this.renderQueue;
+  }
+
+  /**
+   * Getter for <code>SceneRenderer.glStateFilter</code>, through which frames are submitted
+   *
+   * @return glStateFilter <code>GLStateFilter</code>
+   */
+  protected GLStateFilter getGLStateFilter() {
+    return this.glStateFilter;
+  }
+
+  /**
+   * Getter for <code>SceneRenderer.isOutlined</code>
+   *
+   * @return isOutlined <code>boolean</code>
+   */
+  protected boolean getIsOutlined() {
+    return this.isOutlined;
+  }
+
+  /**
+   * Getter for <code>SceneRenderer.coarsePixels</code>
+   *
+   * @return coarsePixels <code>double</code>
+   */
+  protected double getCoarsePixels() {
+    return this.coarsePixels;
+  }
+
+  /**
+   * Getter for <code>SceneRenderer.skipPixels</code>
+   *
+   * @return skipPixels <code>double</code>
+   */
+  protected double getSkipPixels() {
+    return this.skipPixels;
+  }
+
+  // Utility methods
+
+  /**
+   * Applies the projection and fixed GL state used by the scene, as originally done in
+   * <code>ScenePanel.SceneGLEventListener.init</code>. As the context is new, any buffer objects
+   * and textures held from a previous one are forgotten rather than deleted.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  protected void init(GL2 gl2) {
+
+    // Mostly from UnlitCube.java, with modifications from TutorialsPoint
+    this.reshape(gl2, 640, 480);                   // Projection of the original 640x480 surface
+    gl2.glShadeModel(GL2.GL_SMOOTH);               // Value representing shading technique
+    gl2.glClearColor(0, 0, 0, 0);                  // Set scene background color (black)
+    gl2.glClearDepth(1.0);                         // B/w 0 & 1, amount of depth buffer cleared
+    gl2.glEnable(GL2.GL_DEPTH_TEST);               // Used for 3D drawing
+    gl2.glDepthFunc(GL2.GL_LEQUAL);                // GL_LEQUAL recommended for shaders
+    gl2.glHint(GL2.GL_PERSPECTIVE_CORRECTION_HINT, GL2.GL_NICEST); // Really nice quality
+    gl2.glEnable(GL2.GL_CULL_FACE);                // Skip faces pointing away from camera
+    gl2.glCullFace(GL2.GL_BACK);                   // Faces wound outward by MeshProcessor
+    gl2.glFrontFace(GL2.GL_CCW);                   // Counterclockwise faces are the front
+
+    // Texture coordinates derived from object-space positions through each face's planes
+    gl2.glTexGeni(GL2.GL_S, GL2.GL_TEXTURE_GEN_MODE, GL2.GL_OBJECT_LINEAR);
+    gl2.glTexGeni(GL2.GL_T, GL2.GL_TEXTURE_GEN_MODE, GL2.GL_OBJECT_LINEAR);
+    gl2.glTexEnvi(GL2.GL_TEXTURE_ENV, GL2.GL_TEXTURE_ENV_MODE, GL2.GL_MODULATE);
+
+    this.setGeometryBuffers(new GeometryBuffers());
+    this.setAtlasTexture(new AtlasTexture());
+    this.getOcclusionCuller().init(gl2);
+  }
+
+  /**
+   * Adapts the projection to a surface of the given size. The 4:3 region visible in the original
+   * 640x480 window always stays in view, undistorted; surfaces wider than that reveal more of the
+   * scene to the sides, and taller ones more of it above and below. The viewport itself is left to
+   * the caller, as it depends on the render target rather than on the window. The number of pixels
+   * spanned by a unit of the scene is kept for the level of detail settings.
+   *
+   * @param gl2 <code>GL2</code>
+   * @param width <code>int</code> surface width in pixels
+   * @param height <code>int</code> surface height in pixels
+   * @return void
+   */
+  protected void reshape(GL2 gl2, int width, int height) {
+
+    // Declaration
+    double aspect;
+
+    aspect = (double) Math.max(width, 1) / Math.max(height, 1);
+
+    gl2.glMatrixMode(GL2.GL_PROJECTION);
+    gl2.glLoadIdentity();
+
+    if (aspect >= SceneRenderer.ASPECT) {
+      gl2.glOrtho(-aspect, aspect, -1, 1, SceneRenderer.NEAR, SceneRenderer.FAR);
+      this.getOcclusionCuller().setProjection(-aspect, aspect, -1, 1, SceneRenderer.NEAR,
+        SceneRenderer.FAR);
+      this.pixelsPerUnit = Math.max(height, 1) / 2.0;
+    } else {
+      gl2.glOrtho(-SceneRenderer.ASPECT, SceneRenderer.ASPECT, -SceneRenderer.ASPECT / aspect,
+        SceneRenderer.ASPECT / aspect, SceneRenderer.NEAR, SceneRenderer.FAR);
+      this.getOcclusionCuller().setProjection(-SceneRenderer.ASPECT, SceneRenderer.ASPECT,
+        -SceneRenderer.ASPECT / aspect, SceneRenderer.ASPECT / aspect, SceneRenderer.NEAR,
+        SceneRenderer.FAR);
+      this.pixelsPerUnit = Math.max(width, 1) / (2.0 * SceneRenderer.ASPECT);
+    }
+
+    gl2.glMatrixMode(GL2.GL_MODELVIEW);
+  }
+
+  /**
+   * Clears the currently bound framebuffer and draws the objects of the given graph as seen
+   * through the given camera, resetting and then filling in <code>SceneRenderer.renderStats</code>
+   * along the way. Any world matrices left stale by changes since the last frame are brought up to
+   * date first. This is simply <code>SceneRenderer.record</code> followed by
+   * <code>SceneRenderer.replay</code>, for callers content to traverse the scene on the thread
+   * owning the context, and is recorded as a frame by Java Flight Recorder, each stage of it a
+   * render pass of its own.
+   *
+   * @param gl2 <code>GL2</code>
+   * @param camera <code>SceneCamera</code>
+   * @param sceneGraph <code>SceneGraph</code> of the objects to draw
+   * @return void
+   */
+  protected void render(GL2 gl2, SceneCamera camera, SceneGraph sceneGraph) {
+
+    // Declarations
+    FlightEvents.Frame frameEvent;
+    FlightEvents.RenderPass passEvent;
+
+    frameEvent = FlightEvents.beginFrame();
+    passEvent = FlightEvents.beginPass("update");
+    this.begin(gl2, sceneGraph);
+    FlightEvents.end(passEvent);
+
+    passEvent = FlightEvents.beginPass("record");
+    this.record(camera, sceneGraph);
+    FlightEvents.end(passEvent);
+
+    this.replay(gl2, camera, sceneGraph);
+    FlightEvents.endFrame(frameEvent, this.getRenderStats());
+  }
+
+  /**
+   * Starts a new frame on the thread owning the context, bringing the world matrices of the graph
+   * up to date and collecting the results of any occlusion queries completed in the meantime.
+   *
+   * @param gl2 <code>GL2</code>
+   * @param sceneGraph <code>SceneGraph</code>
+   * @return void
+   */
+  protected void begin(GL2 gl2, SceneGraph sceneGraph) {
+    sceneGraph.update();
+    this.getOcclusionCuller().begin(gl2, sceneGraph);
+  }
+
+  /**
+   * Traverses the given graph, recording the draw commands of every object worth drawing into the
+   * renderer's <code>RenderQueue</code> and sorting them. Each object is recorded at the level of
+   * detail its span on screen calls for under the current settings, unless hidden, and keyed by the
+   * depth of the center of its bounds. As no GL calls are made, the traversal may run on any
+   * thread, provided it follows <code>SceneRenderer.begin</code> and precedes
+   * <code>SceneRenderer.replay</code>, and the graph is left alone in the meantime.
+   *
+   * @param camera <code>SceneCamera</code>
+   * @param sceneGraph <code>SceneGraph</code>
+   * @return void
+   */
+  protected void record(SceneCamera camera, SceneGraph sceneGraph) {
+
+    // Declarations
+    RenderQueue tempQueue;
+    RenderStats tempRenderStats;
+    OcclusionCuller tempCuller;
+    float[] bounds, view;
+    SceneObject sceneObject;
+    double unitPixels, dx, dy, dz, span, depth;
+    int detail, o;
+
+    // Definitions (cache values, limit method calls)
+    tempQueue = this.getRenderQueue();
+    tempRenderStats = this.getRenderStats();
+    tempCuller = this.getOcclusionCuller();
+    bounds = sceneGraph.getWorldBounds();
+    view = this.view;
+    unitPixels = Math.abs(camera.getScale()) * this.pixelsPerUnit;
+
+    tempQueue.clear();
+    tempRenderStats.reset();
+    tempCuller.prepare(camera, sceneGraph);
+    camera.computeViewMatrix(view);
+
+    for (int node = 0; node < sceneGraph.size(); node++) {
+      sceneObject = sceneGraph.getSceneObject(node);
+
+      if (sceneObject == null) {
+        continue;
+      }
+
+      o = node * 6;
+      detail = (this.getIsOutlined()) ? SceneObject.DETAIL_FULL : SceneObject.DETAIL_FACES;
+
+      // Squared spans are compared, sparing a square root per object
+      if (this.coarsePixels > 0.0 || this.skipPixels > 0.0) {
+        dx = bounds[o + 3] - bounds[o];
+        dy = bounds[o + 4] - bounds[o + 1];
+        dz = bounds[o + 5] - bounds[o + 2];
+        span = (dx * dx + dy * dy + dz * dz) * unitPixels * unitPixels;
+
+        if (span < this.skipPixels * this.skipPixels) {
+          tempRenderStats.addSkipped();
+          continue;
+        } else if (span < this.coarsePixels * this.coarsePixels) {
+          detail = SceneObject.DETAIL_COARSE;
+        }
+      }
+
+      if (!tempCuller.getIsVisible(node)) {
+        tempRenderStats.addOccluded();
+        continue;
+      }
+
+      // Distance of the center along the line of sight, mapped as the projection maps depth
+      depth = -0.5 * (view[2] * (bounds[o] + bounds[o + 3]) + view[6] * (bounds[o + 1]
+        + bounds[o + 4]) + view[10] * (bounds[o + 2] + bounds[o + 5])) - view[14];
+      depth = (depth - SceneRenderer.NEAR) / (SceneRenderer.FAR - SceneRenderer.NEAR);
+
+      sceneObject.record(tempQueue, tempRenderStats, node, detail,
+        RenderQueue.toDepthBucket(depth), tempCuller.getIsQueryDue(node));
+    }
+
+    tempQueue.sort();
+  }
+
+  /**
+   * Clears the currently bound framebuffer and submits the sorted commands of the renderer's
+   * <code>RenderQueue</code>, as recorded by <code>SceneRenderer.record</code>. State is only
+   * changed where the next command differs from the last: the object's matrix is applied once per
+   * run of commands of the same node, the buffers and vertex pointer once per run of the same mesh,
+   * and the color once per run of the same material, its shade looked up in the shared table of
+   * the <code>MaterialRegistry</code>. Textured faces turn texturing on and bind the atlas, which
+   * thus stays bound for the rest of the frame, and apply their own texture planes, mapped into the
+   * region of the atlas holding the object's tile; tiles not yet uploaded leave their faces
+   * untextured. Objects whose lighting has been baked by <code>LightBaker</code> draw
+   * their triangles with their own vertex colors as a color array in place of the flat color of
+   * each face, outlines keeping theirs. Every call goes through the renderer's
+   * <code>GLStateFilter</code>, which drops whatever the sort leaves redundant and counts the rest
+   * into <code>SceneRenderer.renderStats</code>. Hidden objects are then tested against the depth
+   * of everything drawn.
+   *
+   * @param gl2 <code>GL2</code>
+   * @param camera <code>SceneCamera</code>
+   * @param sceneGraph <code>SceneGraph</code>
+   * @return void
+   */
+  protected void replay(GL2 gl2, SceneCamera camera, SceneGraph sceneGraph) {
+
+    // Declarations
+    float tempScale;
+    GLStateFilter gl;
+    GeometryBuffers tempGeometryBuffers;
+    AtlasTexture tempAtlasTexture;
+    TextureAtlas.Tile tile;
+    RenderQueue tempQueue;
+    RenderStats tempRenderStats;
+    OcclusionCuller tempCuller;
+    FlightEvents.RenderPass passEvent;
+    float[] world;
+    Mesh mesh;
+    long key;
+    int node, pass, color, lastNode, lastPass, face, texture;
+    boolean isTextured, isBaked;
+
+    // Definitions (cache values, limit method calls)
+    tempScale = (float) camera.getScale();
+    gl = this.getGLStateFilter();
+    tempGeometryBuffers = this.getGeometryBuffers();
+    tempAtlasTexture = this.getAtlasTexture();
+    tempQueue = this.getRenderQueue();
+    tempRenderStats = this.getRenderStats();
+    tempCuller = this.getOcclusionCuller();
+    world = sceneGraph.getWorldMatrices();
+
+    // Uploads happen before the filter takes over the bindings
+    tempGeometryBuffers.begin(gl2);
+    tempAtlasTexture.begin(gl2);
+    gl.begin(gl2);
+
+    // Taken from UnlitCube.java, with modifications
+    gl.glClear(GL2.GL_COLOR_BUFFER_BIT | GL2.GL_DEPTH_BUFFER_BIT);
+    gl.glLoadIdentity();
+
+    // A negative scale mirrors the scene, turning counterclockwise faces clockwise on screen
+    gl.glFrontFace((tempScale < 0.0f) ? GL2.GL_CW : GL2.GL_CCW);
+
+    // Single precision throughout, as the driver would convert doubles anyway
+    gl.glRotatef((float) camera.getRotateZ(), 0, 0, 1);
+    gl.glRotatef((float) camera.getRotateY(), 0, 1, 0);
+    gl.glRotatef((float) camera.getRotateX(), 1, 0, 0);
+    gl.glScalef(tempScale, tempScale, tempScale);
+    gl.glTranslatef((float) camera.getTranslateX(), (float) camera.getTranslateY(),
+      (float) camera.getTranslateZ());
+
+    // Draw the SceneObject-extending subclass objects from the arena's buffer objects
+    gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+    mesh = null;
+    lastNode = SceneGraph.NONE;
+    lastPass = -1;
+    isTextured = false;
+    isBaked = false;
+    passEvent = null;
+
+    for (int i = 0; i < tempQueue.size(); i++) {
+      key = tempQueue.getKey(i);
+      node = tempQueue.getNode(i);
+      pass = RenderQueue.getPass(key);
+
+      // Apply the scale, rotation, and translation accumulated down the scene graph
+      if (node != lastNode || pass != lastPass) {
+        tempCuller.endQuery(gl);
+
+        // Each pass of the sorted queue is recorded on its own, the queue holding them in order
+        if (pass != lastPass) {
+          FlightEvents.end(passEvent);
+          passEvent = FlightEvents.beginPass(pass);
+        }
+
+        if (lastNode != SceneGraph.NONE) {
+          gl.glPopMatrix();
+        }
+
+        gl.glPushMatrix();
+        gl.glMultMatrixf(world, node * 16);
+
+        if (sceneGraph.getSceneObject(node).getMesh() != mesh) {
+          mesh = sceneGraph.getSceneObject(node).getMesh();
+          tempGeometryBuffers.bind(gl, mesh.getSegmentNumber());
+          gl.glVertexPointer(3, mesh.getFormat().getGlType(), mesh.getFormat().getStride(),
+            mesh.getVertexByteOffset());
+
+          // Meshes with holes or interior faces would show gaps if culled
+          if (mesh.getIsCullable()) {
+            gl.glEnable(GL2.GL_CULL_FACE);
+          } else {
+            gl.glDisable(GL2.GL_CULL_FACE);
+          }
+        }
+
+        // Baked colors belong to the object rather than the mesh, and are bound per node
+        isBaked = pass != RenderQueue.PASS_OUTLINES && sceneGraph.getSceneObject(node).getIsBaked();
+
+        if (isBaked) {
+          tempGeometryBuffers.bindColors(gl,
+            sceneGraph.getSceneObject(node).getVertexColorSegment(),
+            sceneGraph.getSceneObject(node).getVertexColorOffset());
+          gl.glEnableClientState(GL2.GL_COLOR_ARRAY);
+        } else {
+          gl.glDisableClientState(GL2.GL_COLOR_ARRAY);
+        }
+
+        if (pass == RenderQueue.PASS_QUERIED) {
+          tempCuller.beginQuery(gl, node);
+        }
+
+        lastNode = node;
+        lastPass = pass;
+      }
+
+      if (!isBaked) {
+        color = MaterialRegistry.getShade(tempQueue.getMaterial(i));
+        gl.glColor4ub((byte) (color >> 16), (byte) (color >> 8), (byte) color, (byte) 255);
+      }
+
+      // Faces of tiles still on their way are drawn in their flat shade meanwhile
+      face = tempQueue.getFace(i);
+      texture = (face != RenderQueue.UNTEXTURED)
+        ? sceneGraph.getSceneObject(node).getTexture()
+        : TextureAtlas.NONE;
+
+      if (tempAtlasTexture.getIsResident(texture)) {
+        if (!isTextured) {
+          tempAtlasTexture.bind(gl);
+          gl.glEnable(GL2.GL_TEXTURE_2D);
+          gl.glEnable(GL2.GL_TEXTURE_GEN_S);
+          gl.glEnable(GL2.GL_TEXTURE_GEN_T);
+          isTextured = true;
+        }
+
+        tile = TextureAtlas.getShared().getTile(texture);
+        this.applyTexturePlane(gl, GL2.GL_S, mesh, face, 0, tile.getRegion(0), tile.getRegion(2));
+        this.applyTexturePlane(gl, GL2.GL_T, mesh, face, 4, tile.getRegion(1), tile.getRegion(3));
+      } else if (isTextured) {
+        gl.glDisable(GL2.GL_TEXTURE_2D);
+        gl.glDisable(GL2.GL_TEXTURE_GEN_S);
+        gl.glDisable(GL2.GL_TEXTURE_GEN_T);
+        isTextured = false;
+      }
+
+      if (pass == RenderQueue.PASS_OUTLINES) {
+        gl.glDrawElements(GL2.GL_LINES, tempQueue.getIndexCount(i), GL2.GL_UNSIGNED_INT,
+          tempQueue.getByteOffset(i));
+        tempRenderStats.addDrawCall(0);
+      } else {
+        gl.glDrawElements(GL2.GL_TRIANGLES, tempQueue.getIndexCount(i), GL2.GL_UNSIGNED_INT,
+          tempQueue.getByteOffset(i));
+        tempRenderStats.addDrawCall(tempQueue.getIndexCount(i) / 3);
+      }
+    }
+
+    tempCuller.endQuery(gl);
+    FlightEvents.end(passEvent);
+
+    if (lastNode != SceneGraph.NONE) {
+      gl.glPopMatrix();
+    }
+
+    if (isTextured) {
+      gl.glDisable(GL2.GL_TEXTURE_2D);
+      gl.glDisable(GL2.GL_TEXTURE_GEN_S);
+      gl.glDisable(GL2.GL_TEXTURE_GEN_T);
+    }
+
+    gl.glEnable(GL2.GL_CULL_FACE);
+    gl.glDisableClientState(GL2.GL_COLOR_ARRAY);
+    gl.glDisableClientState(GL2.GL_VERTEX_ARRAY);
+
+    // Hidden objects are tested against the depth of everything drawn
+    passEvent = FlightEvents.beginPass("occlusion tests");
+    tempCuller.end(gl, sceneGraph);
+    FlightEvents.end(passEvent);
+    gl.end(tempRenderStats);
+    tempGeometryBuffers.end(gl2);
+  }
+
+  /**
+   * Releases the buffer objects, texture, and queries of the current context.
+   *
+   * @param gl2 <code>GL2</code>
+   * @return void
+   */
+  protected void dispose(GL2 gl2) {
+    this.getGeometryBuffers().dispose(gl2);
+    this.getAtlasTexture().dispose(gl2);
+    this.getOcclusionCuller().dispose(gl2);
+  }
+
+  // Helper methods
+
+  /**
+   * Applies one of the texture planes of the given face, mapped from the unit range onto the given
+   * range of texture coordinates, namely the region of the atlas holding the object's tile.
+   *
+   * @param gl <code>GLStateFilter</code>
+   * @param coordinate <code>int</code> <code>GL2.GL_S</code> or <code>GL2.GL_T</code>
+   * @param mesh <code>Mesh</code>
+   * @param face <code>int</code>
+   * @param first <code>int</code> first coefficient of the plane, 0 for s or 4 for t
+   * @param minimum <code>float</code>
+   * @param maximum <code>float</code>
+   * @return void
+   */
+  private void applyTexturePlane(GLStateFilter gl, int coordinate, Mesh mesh, int face, int first,
+      float minimum, float maximum) {
+
+    // Declaration
+    float[] plane;
+
+    plane = this.texturePlane;
+
+    for (int k = 0; k < 4; k++) {
+      plane[k] = mesh.getTexturePlane(face, first + k) * (maximum - minimum);
+    }
+
+    plane[3] += minimum;
+    gl.glTexGenfv(coordinate, GL2.GL_OBJECT_PLANE, plane, 0);
+  }
+}
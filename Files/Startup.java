@@ -0,0 +1,327 @@
+/**
+ * Startup.java - Concurrent startup of the GUI program and the timeline of its phases
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import com.jogamp.opengl.GLProfile;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Originally, the program started up one step at a time: <code>Driver.main</code> built the Swing
+ * frame, whose <code>ScenePanel</code> loaded JOGL's native libraries and probed the available GL
+ * profiles on its way, after which the panel's listener built the scene objects, their meshes and
+ * their color arrays, and only then could JOGL create the context and draw the first frame. None
+ * of the steps but the last depend on one another, so this class runs them side by side instead.
+ * <code>Startup.begin</code>, called by <code>Driver</code> before anything else, sets off two
+ * background threads, one loading the native libraries and the other building the scene, whose
+ * objects are in turn constructed in parallel on the common pool, each preparing its mesh and
+ * precomputing its colors, before the lighting of the whole scene is baked. The Swing frame is
+ * meanwhile built on the event dispatch thread.
+ * <br />
+ * <br />
+ * Each consumer then waits only on the piece it needs, and only when it needs it:
+ * <pre>
+ * - ScenePanel             the GL profile, to pick the capabilities of its surface
+ * - SceneGLEventListener   the scene graph, once the first frame is about to be rendered
+ * </pre>
+ * Creating the context and setting up the GL state in <code>GLEventListener.init</code> thus
+ * proceeds while the scene is still being built, and the geometry is uploaded as soon as both are
+ * done.
+ * <br />
+ * <br />
+ * Every phase is recorded on a timeline, along with any time a consumer spent waiting on a phase
+ * still running, and once the first frame has been drawn the timeline is reported to the status
+ * log and to standard error, in milliseconds since the launch of the virtual machine. Without a
+ * call to <code>Startup.begin</code>, as in the headless modes, the pieces are simply built on
+ * demand by the thread asking for them.
+ *
+ * @see graphicsprojecttwo.Driver
+ * @see graphicsprojecttwo.ScenePanel
+ * @author Andrew Eissen
+ */
+final class Startup {
+
+  /** Time of the launch of the virtual machine, on the scale of <code>System.nanoTime</code> */
+  private final static long LAUNCH_NANOS = System.nanoTime()
+    - ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000L;
+
+  /** Phases recorded so far, in order of completion */
+  private final static List<Phase> PHASES = new ArrayList<>();
+
+  // Class fields
+  private static CompletableFuture<GLProfile> profile;
+  private static CompletableFuture<SceneGraph> sceneGraph;
+  private static boolean isFinished;
+
+  /**
+   * Not instantiated
+   */
+  private Startup() {
+  }
+
+  // Utility methods
+
+  /**
+   * Sets off the loading of the native libraries and the building of the scene on background
+   * threads. Does nothing if already called.
+   *
+   * @return void
+   */
+  protected static synchronized void begin() {
+
+    // Declarations
+    AtomicInteger threads;
+    ExecutorService executor;
+
+    if (Startup.profile != null) {
+      return;
+    }
+
+    Startup.record("virtual machine", Startup.LAUNCH_NANOS, System.nanoTime());
+    threads = new AtomicInteger();
+
+    // Daemon threads, such that closing the window is never held up by them
+    executor = Executors.newFixedThreadPool(2, (Runnable runnable) -> {
+      Thread thread = new Thread(runnable, "startup-" + threads.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    Startup.profile = CompletableFuture.supplyAsync(() -> Startup.time("native libraries",
+      GLProfile::getDefault), executor);
+    Startup.sceneGraph = CompletableFuture.supplyAsync(() -> Startup.time("scene",
+      () -> Startup.buildScene(true)), executor);
+    executor.shutdown();
+  }
+
+  /**
+   * Returns the default GL profile, waiting on the native libraries to be loaded if need be.
+   *
+   * @return <code>GLProfile</code>
+   */
+  protected static GLProfile getProfile() {
+
+    // Declaration
+    CompletableFuture<GLProfile> future;
+
+    synchronized (Startup.class) {
+      future = Startup.profile;
+    }
+
+    return (future == null)
+      ? GLProfile.getDefault()
+      : Startup.await("wait for native libraries", future);
+  }
+
+  /**
+   * Returns the scene of the program, waiting on it to be built if need be. Each call without a
+   * prior call to <code>Startup.begin</code> builds a new scene.
+   *
+   * @return <code>SceneGraph</code>
+   */
+  protected static SceneGraph getSceneGraph() {
+
+    // Declaration
+    CompletableFuture<SceneGraph> future;
+
+    synchronized (Startup.class) {
+      future = Startup.sceneGraph;
+    }
+
+    return (future == null)
+      ? Startup.buildScene(false)
+      : Startup.await("wait for scene", future);
+  }
+
+  /**
+   * Runs the given work on the calling thread, recording it as a phase of the given name.
+   *
+   * @param name <code>String</code>
+   * @param work <code>Supplier</code>
+   * @return <code>T</code> result of the work
+   */
+  protected static <T> T time(String name, Supplier<T> work) {
+
+    // Declaration
+    long start;
+
+    start = System.nanoTime();
+
+    try {
+      return work.get();
+    } finally {
+      Startup.record(name, start, System.nanoTime());
+    }
+  }
+
+  /**
+   * Records a phase of the given name spanning the given times, on the calling thread.
+   *
+   * @param name <code>String</code>
+   * @param startNanos <code>long</code>
+   * @param endNanos <code>long</code>
+   * @return void
+   */
+  protected static void record(String name, long startNanos, long endNanos) {
+    synchronized (Startup.PHASES) {
+      Startup.PHASES.add(new Phase(name, Thread.currentThread().getName(), startNanos, endNanos));
+    }
+  }
+
+  /**
+   * Returns the end of the most recent phase of the given name, or the launch of the virtual
+   * machine if there is none.
+   *
+   * @param name <code>String</code>
+   * @return <code>long</code> on the scale of <code>System.nanoTime</code>
+   */
+  protected static long getEndNanos(String name) {
+    synchronized (Startup.PHASES) {
+      for (int i = Startup.PHASES.size() - 1; i >= 0; i--) {
+        if (Startup.PHASES.get(i).name.equals(name)) {
+          return Startup.PHASES.get(i).endNanos;
+        }
+      }
+    }
+
+    return Startup.LAUNCH_NANOS;
+  }
+
+  /**
+   * Returns whether the first frame is yet to be reported.
+   *
+   * @return <code>boolean</code>
+   */
+  protected static synchronized boolean getIsPending() {
+    return !Startup.isFinished;
+  }
+
+  /**
+   * Records the first frame as drawn between the given time and now, and returns the timeline of
+   * every phase as lines of a report, phases sorted by their start. Only the first call returns a
+   * report; later calls return an empty list.
+   *
+   * @param frameStartNanos <code>long</code>
+   * @return <code>List</code> of lines
+   */
+  protected static List<String> finish(long frameStartNanos) {
+
+    // Declarations
+    List<Phase> phases;
+    List<String> lines;
+    long end;
+
+    synchronized (Startup.class) {
+      if (Startup.isFinished) {
+        return new ArrayList<>();
+      }
+
+      Startup.isFinished = true;
+    }
+
+    end = System.nanoTime();
+    Startup.record("first frame", frameStartNanos, end);
+
+    synchronized (Startup.PHASES) {
+      phases = new ArrayList<>(Startup.PHASES);
+    }
+
+    phases.sort((Phase a, Phase b) -> Long.compare(a.startNanos, b.startNanos));
+    lines = new ArrayList<>();
+    lines.add(String.format(Locale.ROOT, "First frame after %.1f ms:", Startup.toMs(end)));
+
+    for (Phase phase : phases) {
+      lines.add(String.format(Locale.ROOT, "  %-26s %8.1f - %8.1f ms  (%s)", phase.name,
+        Startup.toMs(phase.startNanos), Startup.toMs(phase.endNanos), phase.thread));
+    }
+
+    for (String line : lines) {
+      System.err.println(line);
+    }
+
+    return lines;
+  }
+
+  // Helper methods
+
+  /**
+   * Builds the scene of <code>ScenePanel</code>, brings its world matrices up to date, and bakes
+   * its lighting, reporting the bake to standard error.
+   *
+   * @param isParallel <code>boolean</code> whether to construct the objects on the common pool
+   * @return <code>SceneGraph</code>
+   */
+  private static SceneGraph buildScene(boolean isParallel) {
+
+    // Declaration
+    SceneGraph built;
+
+    built = new SceneGraph();
+    ScenePanel.buildScene(built, (isParallel) ? ForkJoinPool.commonPool() : Runnable::run);
+    built.update();
+    System.err.println(Startup.time("light bake", () -> LightBaker.bake(built)));
+    return built;
+  }
+
+  /**
+   * Returns the result of the given future, recording the time spent waiting on it, if any, as a
+   * phase of the given name.
+   *
+   * @param name <code>String</code>
+   * @param future <code>CompletableFuture</code>
+   * @return <code>T</code>
+   */
+  private static <T> T await(String name, CompletableFuture<T> future) {
+    return (future.isDone()) ? future.join() : Startup.time(name, future::join);
+  }
+
+  /**
+   * Converts a time on the scale of <code>System.nanoTime</code> to milliseconds since launch.
+   *
+   * @param nanos <code>long</code>
+   * @return <code>double</code>
+   */
+  private static double toMs(long nanos) {
+    return (nanos - Startup.LAUNCH_NANOS) / 1e6;
+  }
+
+  // Inner helper classes
+
+  /**
+   * A single named span of the timeline, along with the thread it ran on.
+   *
+   * @author Andrew Eissen
+   */
+  private static final class Phase {
+
+    // Declarations
+    private final String name, thread;
+    private final long startNanos, endNanos;
+
+    /**
+     * Parameterized constructor
+     *
+     * @param name <code>String</code>
+     * @param thread <code>String</code>
+     * @param startNanos <code>long</code>
+     * @param endNanos <code>long</code>
+     */
+    private Phase(String name, String thread, long startNanos, long endNanos) {
+      this.name = name;
+      this.thread = thread;
+      this.startNanos = startNanos;
+      this.endNanos = endNanos;
+    }
+  }
+}
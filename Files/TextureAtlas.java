@@ -0,0 +1,539 @@
+/**
+ * TextureAtlas.java - Shared atlas packing every texture of the scene into a single image
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+
+/**
+ * Every surface of the scene was originally a flat shade of its object's hue. This class adds
+ * textures to the mix without adding texture binds to the frame: rather than each image living in
+ * a texture object of its own, every image is packed into a single atlas, such that all textured
+ * objects draw from the one texture bound once per frame, and differ only in the region of the
+ * atlas their texture coordinates point into.
+ * <br />
+ * <br />
+ * Textures are requested by name, one per shape class, by the <code>SceneObject</code>
+ * constructor, and objects of the same shape share their texture. Each request returns a tile
+ * number right away, while the work of filling in the tile is handed to a small pool of worker
+ * threads, such that neither the scene nor the GL thread ever waits on it:
+ * <pre>
+ * - decoding     the image named after the shape, e.g. Cube.png, from the texture directory
+ * - padding      a gutter of repeated edge pixels around the image
+ * - mipmapping   each smaller level averaged from the one above by a 2x2 box filter
+ * - packing      a region of the atlas reserved for the tile by the shelf packer
+ * </pre>
+ * Shapes without an image of their own get a generated pattern instead, a checkerboard for the
+ * <code>Floor</code> and a fine grain for the rest, both in shades of gray so as to take on the
+ * hue of each face once modulated by it. The finished levels are kept on the Java side and
+ * uploaded to each context by its <code>AtlasTexture</code>, a bounded number of bytes per frame.
+ * <br />
+ * <br />
+ * Mipmapping an atlas calls for some care, as each smaller level averages neighboring pixels that
+ * may belong to different tiles. Tiles are therefore laid out on a grid of eight pixels, the
+ * gutter being as wide, such that every tile lines up with whole pixels on each of the four levels
+ * of the atlas, and even the smallest keeps a pixel of its own edge color around it. Tiles are
+ * packed onto shelves, each as tall as the first tile placed on it, which wastes little space for
+ * the handful of similarly sized images of the scene.
+ * <br />
+ * <br />
+ * Textures are off by default, as they change the look of every frame. They are turned on by
+ * setting the <code>graphicsprojecttwo.textures</code> system property to the directory holding
+ * the images, any directory serving if only the generated patterns are wanted.
+ *
+ * @see graphicsprojecttwo.AtlasTexture
+ * @see graphicsprojecttwo.SceneObject
+ * @author Andrew Eissen
+ */
+final class TextureAtlas {
+
+  /** Tile number of objects without a texture */
+  protected final static int NONE = -1;
+
+  /** Width and height of the atlas in pixels */
+  protected final static int SIZE = 1024;
+
+  /** Number of mipmap levels of the atlas, the full-sized one included */
+  protected final static int LEVELS = 4;
+
+  /** Width of the border around each image, and the grid on which tiles are laid out */
+  private final static int GUTTER = 1 << (TextureAtlas.LEVELS - 1);
+
+  /** Width and height of the patterns generated for shapes without an image */
+  private final static int GENERATED_SIZE = 128;
+
+  /** Number of squares along each side of the generated checkerboard */
+  private final static int CHECKERS = 8;
+
+  /** Atlas shared by all scene objects, using the <code>graphicsprojecttwo.textures</code> path */
+  private final static TextureAtlas SHARED =
+    new TextureAtlas(System.getProperty("graphicsprojecttwo.textures"));
+
+  // Class fields
+  private final File directory;
+  private final HashMap<String, Integer> tileNumbers;
+  private final ArrayList<Tile> tiles;
+  private final ArrayList<Integer> completed;
+  private final ArrayList<int[]> shelves;
+  private ExecutorService decoders;
+  private int shelfTop, failed;
+
+  /**
+   * Parameterized constructor
+   *
+   * @param directory <code>String</code> directory of the images, <code>null</code> to disable
+   *     textures altogether
+   */
+  private TextureAtlas(String directory) {
+    this.directory = (directory != null) ? new File(directory) : null;
+    this.tileNumbers = new HashMap<>();
+    this.tiles = new ArrayList<>();
+    this.completed = new ArrayList<>();
+    this.shelves = new ArrayList<>();
+    this.shelfTop = 0;
+    this.failed = 0;
+  }
+
+  // Getters
+
+  /**
+   * Returns the atlas shared by the whole program.
+   *
+   * @return <code>TextureAtlas</code>
+   */
+  protected static TextureAtlas getShared() {
+    return TextureAtlas.SHARED;
+  }
+
+  /**
+   * Returns whether textures are in use at all.
+   *
+   * @return <code>boolean</code>
+   */
+  protected boolean getIsEnabled() {
+    return this.directory != null;
+  }
+
+  /**
+   * Returns the number of tiles completed so far, in the order in which
+   * <code>TextureAtlas.getCompleted</code> hands them out.
+   *
+   * @return <code>int</code>
+   */
+  protected synchronized int getCompletedCount() {
+    return this.completed.size();
+  }
+
+  /**
+   * Returns the number of the tile completed in the given position. Completed tiles never change
+   * again, so their contents may be read without further locking.
+   *
+   * @param position <code>int</code>
+   * @return <code>int</code>
+   */
+  protected synchronized int getCompleted(int position) {
+    return this.completed.get(position);
+  }
+
+  /**
+   * Returns the tile of the given number, <code>null</code> until completed.
+   *
+   * @param tileNumber <code>int</code>
+   * @return <code>TextureAtlas.Tile</code>
+   */
+  protected synchronized Tile getTile(int tileNumber) {
+    return this.tiles.get(tileNumber);
+  }
+
+  /**
+   * Returns whether any requested tile is still being decoded.
+   *
+   * @return <code>boolean</code>
+   */
+  protected synchronized boolean getIsDecoding() {
+    return this.completed.size() + this.failed < this.tiles.size();
+  }
+
+  // Utility methods
+
+  /**
+   * Returns the number of the tile holding the texture of the given name, setting off its decoding
+   * on the worker threads if it was not requested before. Returns <code>TextureAtlas.NONE</code>
+   * if textures are disabled.
+   *
+   * @param name <code>String</code>
+   * @return <code>int</code>
+   */
+  protected synchronized int request(String name) {
+
+    // Declarations
+    final int tileNumber;
+    AtomicInteger threads;
+
+    if (!this.getIsEnabled()) {
+      return TextureAtlas.NONE;
+    } else if (this.tileNumbers.containsKey(name)) {
+      return this.tileNumbers.get(name);
+    }
+
+    // Daemon threads, such that closing the window is never held up by them
+    if (this.decoders == null) {
+      threads = new AtomicInteger();
+      this.decoders = Executors.newFixedThreadPool(Math.max(1, Math.min(4,
+        Runtime.getRuntime().availableProcessors() - 1)), (Runnable runnable) -> {
+          Thread thread = new Thread(runnable, "texture-" + threads.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    }
+
+    tileNumber = this.tiles.size();
+    this.tiles.add(null);
+    this.tileNumbers.put(name, tileNumber);
+    this.decoders.execute(() -> this.complete(tileNumber, name));
+    return tileNumber;
+  }
+
+  // Helper methods
+
+  /**
+   * Decodes, pads, and mipmaps the texture of the given name, then packs it into the atlas. Run on
+   * a worker thread; any failure leaves the tile untextured and is reported to standard error.
+   * Each texture is recorded by Java Flight Recorder as an asset load, sized by its mipmap levels.
+   *
+   * @param tileNumber <code>int</code>
+   * @param name <code>String</code>
+   * @return void
+   */
+  private void complete(int tileNumber, String name) {
+
+    // Declarations
+    int[] pixels;
+    int width, height;
+    ByteBuffer[] levels;
+    int[] region;
+    BufferedImage image;
+    File file;
+    FlightEvents.AssetLoad loadEvent;
+    long bytes;
+
+    loadEvent = FlightEvents.beginAssetLoad("texture", name);
+
+    try {
+      file = new File(this.directory, name + ".png");
+      image = (file.isFile()) ? ImageIO.read(file) : null;
+
+      if (image != null) {
+        width = image.getWidth();
+        height = image.getHeight();
+        pixels = image.getRGB(0, 0, width, height, null, 0, width);
+      } else {
+        width = TextureAtlas.GENERATED_SIZE;
+        height = TextureAtlas.GENERATED_SIZE;
+        pixels = TextureAtlas.generate(name, width, height);
+      }
+
+      if (width + 2 * TextureAtlas.GUTTER > TextureAtlas.SIZE
+          || height + 2 * TextureAtlas.GUTTER > TextureAtlas.SIZE) {
+        throw new IOException("larger than the atlas");
+      }
+
+      levels = TextureAtlas.buildLevels(pixels, width, height);
+      region = this.pack(TextureAtlas.align(width), TextureAtlas.align(height));
+
+      if (region == null) {
+        throw new IOException("no room left in the atlas");
+      }
+
+      synchronized (this) {
+        this.tiles.set(tileNumber, new Tile(name, region[0], region[1], width, height, levels));
+        this.completed.add(tileNumber);
+      }
+
+      bytes = 0;
+
+      for (ByteBuffer level : levels) {
+        bytes += level.capacity();
+      }
+
+      FlightEvents.endAssetLoad(loadEvent, bytes, (image != null) ? "file" : "generated");
+    } catch (IOException | RuntimeException exception) {
+      synchronized (this) {
+        this.failed++;
+      }
+
+      System.err.println("Texture " + name + " left out: " + exception.getMessage());
+      FlightEvents.endAssetLoad(loadEvent, 0, "failed");
+    }
+  }
+
+  /**
+   * Reserves a region of the given padded size on the first shelf tall enough and with room to
+   * spare, opening a new shelf if there is none. Returns the x and y of the region, or
+   * <code>null</code> if the atlas is full.
+   *
+   * @param width <code>int</code> padded width, a multiple of the gutter
+   * @param height <code>int</code> padded height, a multiple of the gutter
+   * @return <code>int[]</code>
+   */
+  private synchronized int[] pack(int width, int height) {
+
+    // Declaration
+    int[] best;
+
+    best = null;
+
+    // Each shelf as { y, height, next free x }; the tightest fitting shelf wastes the least
+    for (int[] shelf : this.shelves) {
+      if (shelf[1] >= height && shelf[2] + width <= TextureAtlas.SIZE
+          && (best == null || shelf[1] < best[1])) {
+        best = shelf;
+      }
+    }
+
+    if (best == null) {
+      if (this.shelfTop + height > TextureAtlas.SIZE) {
+        return null;
+      }
+
+      best = new int[] {this.shelfTop, height, 0};
+      this.shelves.add(best);
+      this.shelfTop += height;
+    }
+
+    best[2] += width;
+    return new int[] {best[2] - width, best[0]};
+  }
+
+  /**
+   * Rounds the given image dimension, plus the gutter on either side, up to the grid of tiles.
+   *
+   * @param size <code>int</code>
+   * @return <code>int</code>
+   */
+  private static int align(int size) {
+    return (size + 2 * TextureAtlas.GUTTER + TextureAtlas.GUTTER - 1) & -TextureAtlas.GUTTER;
+  }
+
+  /**
+   * Pads the given <code>0xAARRGGBB</code> pixels with the gutter and builds every mipmap level of
+   * the result, as tightly packed RGBA8 rows, top row first.
+   *
+   * @param pixels <code>int[]</code>
+   * @param width <code>int</code>
+   * @param height <code>int</code>
+   * @return <code>ByteBuffer[]</code> one per level
+   */
+  private static ByteBuffer[] buildLevels(int[] pixels, int width, int height) {
+
+    // Declarations
+    ByteBuffer[] levels;
+    ByteBuffer above, level;
+    int paddedWidth, paddedHeight, levelWidth, levelHeight, argb, sum, source;
+
+    paddedWidth = TextureAtlas.align(width);
+    paddedHeight = TextureAtlas.align(height);
+    levels = new ByteBuffer[TextureAtlas.LEVELS];
+    level = ByteBuffer.allocateDirect(paddedWidth * paddedHeight * 4);
+
+    // Pixels of the gutter repeat the nearest edge pixel of the image
+    for (int y = 0; y < paddedHeight; y++) {
+      for (int x = 0; x < paddedWidth; x++) {
+        argb = pixels[Math.max(0, Math.min(height - 1, y - TextureAtlas.GUTTER)) * width
+          + Math.max(0, Math.min(width - 1, x - TextureAtlas.GUTTER))];
+        level.put((y * paddedWidth + x) * 4, (byte) (argb >> 16));
+        level.put((y * paddedWidth + x) * 4 + 1, (byte) (argb >> 8));
+        level.put((y * paddedWidth + x) * 4 + 2, (byte) argb);
+        level.put((y * paddedWidth + x) * 4 + 3, (byte) (argb >>> 24));
+      }
+    }
+
+    levels[0] = level;
+
+    for (int l = 1; l < TextureAtlas.LEVELS; l++) {
+      above = levels[l - 1];
+      levelWidth = paddedWidth >> l;
+      levelHeight = paddedHeight >> l;
+      level = ByteBuffer.allocateDirect(levelWidth * levelHeight * 4);
+
+      for (int y = 0; y < levelHeight; y++) {
+        for (int x = 0; x < levelWidth; x++) {
+          for (int channel = 0; channel < 4; channel++) {
+            source = ((2 * y) * (levelWidth * 2) + 2 * x) * 4 + channel;
+            sum = (above.get(source) & 0xFF) + (above.get(source + 4) & 0xFF)
+              + (above.get(source + levelWidth * 8) & 0xFF)
+              + (above.get(source + levelWidth * 8 + 4) & 0xFF);
+            level.put((y * levelWidth + x) * 4 + channel, (byte) ((sum + 2) >> 2));
+          }
+        }
+      }
+
+      levels[l] = level;
+    }
+
+    return levels;
+  }
+
+  /**
+   * Generates the pattern of a shape without an image, as opaque gray <code>0xAARRGGBB</code>
+   * pixels: a checkerboard for the <code>Floor</code>, and for the rest a fine grain seeded by the
+   * name, such that every shape looks slightly different.
+   *
+   * @param name <code>String</code>
+   * @param width <code>int</code>
+   * @param height <code>int</code>
+   * @return <code>int[]</code>
+   */
+  private static int[] generate(String name, int width, int height) {
+
+    // Declarations
+    int[] pixels;
+    int gray, hash, cell;
+
+    pixels = new int[width * height];
+    cell = width / TextureAtlas.CHECKERS;
+
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        if (name.equals("Floor")) {
+          gray = (((x / cell) + (y / cell)) % 2 == 0) ? 255 : 176;
+        } else {
+          hash = (x * 73856093) ^ (y * 19349663) ^ name.hashCode();
+          hash ^= hash >>> 13;
+          hash *= 0x5BD1E995;
+          gray = 255 - ((hash >>> 24) & 0x3F) / 2;
+        }
+
+        pixels[y * width + x] = 0xFF000000 | gray << 16 | gray << 8 | gray;
+      }
+    }
+
+    return pixels;
+  }
+
+  // Inner helper classes
+
+  /**
+   * A completed texture, namely its place in the atlas and the pixels of every level. Immutable
+   * once created.
+   *
+   * @author Andrew Eissen
+   */
+  protected static final class Tile {
+
+    // Declarations
+    private final String name;
+    private final int x, y, width, height;
+    private final ByteBuffer[] levels;
+
+    /**
+     * Parameterized constructor
+     *
+     * @param name <code>String</code>
+     * @param x <code>int</code> left edge of the padded region in the atlas
+     * @param y <code>int</code> top edge of the padded region in the atlas
+     * @param width <code>int</code> width of the image itself
+     * @param height <code>int</code> height of the image itself
+     * @param levels <code>ByteBuffer[]</code> padded pixels of every level
+     */
+    private Tile(String name, int x, int y, int width, int height, ByteBuffer[] levels) {
+      this.name = name;
+      this.x = x;
+      this.y = y;
+      this.width = width;
+      this.height = height;
+      this.levels = levels;
+    }
+
+    /**
+     * Getter for <code>TextureAtlas.Tile.name</code>
+     *
+     * @return name <code>String</code>
+     */
+    protected String getName() {
+      return this.name;
+    }
+
+    /**
+     * Returns the left edge of the padded region on the given level, in pixels of that level.
+     *
+     * @param level <code>int</code>
+     * @return <code>int</code>
+     */
+    protected int getX(int level) {
+      return this.x >> level;
+    }
+
+    /**
+     * Returns the top edge of the padded region on the given level, in pixels of that level.
+     *
+     * @param level <code>int</code>
+     * @return <code>int</code>
+     */
+    protected int getY(int level) {
+      return this.y >> level;
+    }
+
+    /**
+     * Returns the width of the padded region on the given level, in pixels of that level.
+     *
+     * @param level <code>int</code>
+     * @return <code>int</code>
+     */
+    protected int getWidth(int level) {
+      return TextureAtlas.align(this.width) >> level;
+    }
+
+    /**
+     * Returns the height of the padded region on the given level, in pixels of that level.
+     *
+     * @param level <code>int</code>
+     * @return <code>int</code>
+     */
+    protected int getHeight(int level) {
+      return TextureAtlas.align(this.height) >> level;
+    }
+
+    /**
+     * Returns the padded pixels of the given level, as a view of its own for the caller to
+     * position.
+     *
+     * @param level <code>int</code>
+     * @return <code>ByteBuffer</code>
+     */
+    protected ByteBuffer getLevel(int level) {
+      return this.levels[level].duplicate();
+    }
+
+    /**
+     * Returns the texture coordinates bounding the image itself within the atlas, gutter excluded,
+     * as the smallest s, smallest t, largest s, and largest t, in that order.
+     *
+     * @param corner <code>int</code> 0 to 3
+     * @return <code>float</code>
+     */
+    protected float getRegion(int corner) {
+      switch (corner) {
+        case 0:
+          return (float) (this.x + TextureAtlas.GUTTER) / TextureAtlas.SIZE;
+        case 1:
+          return (float) (this.y + TextureAtlas.GUTTER) / TextureAtlas.SIZE;
+        case 2:
+          return (float) (this.x + TextureAtlas.GUTTER + this.width) / TextureAtlas.SIZE;
+        default:
+          return (float) (this.y + TextureAtlas.GUTTER + this.height) / TextureAtlas.SIZE;
+      }
+    }
+  }
+}
@@ -0,0 +1,210 @@
+/**
+ * VertexFormat.java - Compact encodings available for vertex positions in the geometry arena
+ * Begun 10/18/26
+ * @author Andrew Eissen
+ */
+package graphicsprojecttwo;
+
+import com.jogamp.opengl.GL2;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+/**
+ * Until now, every position fed to OpenGL was a <code>double</code>, twenty-four bytes per vertex
+ * that the driver would convert to single precision anyway. This <code>enum</code> lists the
+ * compact formats in which <code>Mesh</code> now writes positions into the
+ * <code>GeometryArena</code>, each knowing its GL component type, its stride, and how to encode
+ * and decode a coordinate.
+ * <br />
+ * <br />
+ * Single precision floats are the default, halving the size of every position. Half precision
+ * floats, padded to four components so that every vertex stays four-byte aligned, cut that to a
+ * third, at the cost of roughly three significant digits; they are opt-in through the
+ * <code>graphicsprojecttwo.vertex.format</code> system property, and require a driver exposing
+ * <code>GL_ARB_half_float_vertex</code> or OpenGL 3.0. The format is chosen once for the whole
+ * program, as meshes are packed long before any context exists. A property naming no format is
+ * reported on the standard error stream, and single precision used in its stead.
+ *
+ * @see graphicsprojecttwo.Mesh
+ * @author Andrew Eissen
+ */
+enum VertexFormat {
+  FLOAT(GL2.GL_FLOAT, 3 * Float.BYTES),
+  HALF(GL2.GL_HALF_FLOAT, 4 * Short.BYTES);
+
+  /** Format used by every mesh, from the <code>graphicsprojecttwo.vertex.format</code> property */
+  private final static VertexFormat ACTIVE = VertexFormat.readProperty();
+
+  // Enum fields
+  private final int glType, stride;
+
+  /**
+   * Parameterized constructor
+   *
+   * @param glType <code>int</code> component type passed to <code>glVertexPointer</code>
+   * @param stride <code>int</code> bytes per vertex
+   */
+  VertexFormat(int glType, int stride) {
+    this.glType = glType;
+    this.stride = stride;
+  }
+
+  // Getters
+
+  /**
+   * Returns the format in use by every mesh of the program.
+   *
+   * @return <code>VertexFormat</code>
+   */
+  protected static VertexFormat getActive() {
+    return VertexFormat.ACTIVE;
+  }
+
+  /**
+   * Getter for <code>VertexFormat.glType</code>
+   *
+   * @return glType <code>int</code>
+   */
+  protected int getGlType() {
+    return this.glType;
+  }
+
+  /**
+   * Getter for <code>VertexFormat.stride</code>
+   *
+   * @return stride <code>int</code>
+   */
+  protected int getStride() {
+    return this.stride;
+  }
+
+  // Utility methods
+
+  /**
+   * Writes a single coordinate of the vertex starting at the given byte offset.
+   *
+   * @param target <code>ByteBuffer</code>
+   * @param vertexOffset <code>int</code> byte offset of the vertex
+   * @param axis <code>int</code> 0, 1, or 2 for x, y, or z
+   * @param value <code>double</code>
+   * @return void
+   */
+  protected void put(ByteBuffer target, int vertexOffset, int axis, double value) {
+    if (this == VertexFormat.FLOAT) {
+      target.putFloat(vertexOffset + axis * Float.BYTES, (float) value);
+    } else {
+      target.putShort(vertexOffset + axis * Short.BYTES, VertexFormat.toHalf((float) value));
+    }
+  }
+
+  /**
+   * Reads a single coordinate of the vertex starting at the given byte offset.
+   *
+   * @param source <code>ByteBuffer</code>
+   * @param vertexOffset <code>int</code> byte offset of the vertex
+   * @param axis <code>int</code> 0, 1, or 2 for x, y, or z
+   * @return <code>double</code>
+   */
+  protected double get(ByteBuffer source, int vertexOffset, int axis) {
+    return (this == VertexFormat.FLOAT)
+      ? source.getFloat(vertexOffset + axis * Float.BYTES)
+      : VertexFormat.fromHalf(source.getShort(vertexOffset + axis * Short.BYTES));
+  }
+
+  // Helper methods
+
+  /**
+   * Reads the format named by the <code>graphicsprojecttwo.vertex.format</code> property, falling
+   * back on <code>VertexFormat.FLOAT</code> with a warning if it names none, rather than failing
+   * the initialization of the class and every mesh with it.
+   *
+   * @return <code>VertexFormat</code>
+   */
+  private static VertexFormat readProperty() {
+
+    // Declaration
+    String property;
+
+    property = System.getProperty("graphicsprojecttwo.vertex.format", "float");
+
+    try {
+      return VertexFormat.valueOf(property.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException ex) {
+      System.err.println("Warning: graphicsprojecttwo.vertex.format=" + property
+        + " is no vertex format, using float");
+      return VertexFormat.FLOAT;
+    }
+  }
+
+  /**
+   * Converts a single precision float to the bits of the nearest IEEE 754 half precision float,
+   * rounding to nearest even and flushing values too small for a subnormal to zero.
+   *
+   * @param value <code>float</code>
+   * @return <code>short</code>
+   */
+  private static short toHalf(float value) {
+
+    // Declarations
+    int bits, sign, exponent, mantissa, half;
+
+    bits = Float.floatToIntBits(value);
+    sign = (bits >>> 16) & 0x8000;
+    exponent = ((bits >>> 23) & 0xFF) - 127 + 15;
+    mantissa = bits & 0x7FFFFF;
+
+    if (((bits >>> 23) & 0xFF) == 0xFF) { // Infinity or NaN
+      return (short) (sign | 0x7C00 | ((mantissa != 0) ? 0x200 : 0));
+    } else if (exponent >= 0x1F) { // Overflow
+      return (short) (sign | 0x7C00);
+    } else if (exponent <= 0) { // Subnormal or zero
+      if (exponent < -10) {
+        return (short) sign;
+      }
+
+      mantissa |= 0x800000;
+      half = mantissa >> (14 - exponent);
+
+      if (((mantissa >> (13 - exponent)) & 1) != 0
+          && ((mantissa & ((1 << (13 - exponent)) - 1)) != 0 || (half & 1) != 0)) {
+        half++;
+      }
+
+      return (short) (sign | half);
+    }
+
+    half = (exponent << 10) | (mantissa >> 13);
+
+    // Round to nearest even; a carry correctly bumps the exponent
+    if ((mantissa & 0x1000) != 0 && ((mantissa & 0xFFF) != 0 || (half & 1) != 0)) {
+      half++;
+    }
+
+    return (short) (sign | half);
+  }
+
+  /**
+   * Converts the bits of a half precision float back to a single precision float.
+   *
+   * @param half <code>short</code>
+   * @return <code>float</code>
+   */
+  private static float fromHalf(short half) {
+
+    // Declarations
+    int bits, sign, exponent, mantissa;
+
+    bits = half & 0xFFFF;
+    sign = (bits & 0x8000) << 16;
+    exponent = (bits >>> 10) & 0x1F;
+    mantissa = bits & 0x3FF;
+
+    if (exponent == 0x1F) {
+      return Float.intBitsToFloat(sign | 0x7F800000 | (mantissa << 13));
+    } else if (exponent == 0) {
+      return (sign != 0) ? -(mantissa * 0x1p-24f) : mantissa * 0x1p-24f;
+    }
+
+    return Float.intBitsToFloat(sign | ((exponent - 15 + 127) << 23) | (mantissa << 13));
+  }
+}